@@ -0,0 +1,48 @@
+package com.skillstorm.taxservice.benchmarks;
+
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.services.TaxCalculatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// The whole pipeline as TaxReturnService runs it, once per calculation engine:
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculateAllBenchmark {
+
+    @Param({"bigdecimal", "fixed-point"})
+    public String engine;
+
+    private TaxCalculatorService taxCalculatorService;
+    private TaxReturnDto taxReturn;
+
+    @Setup
+    public void setUp(TaxReturnState state) {
+        taxCalculatorService = new TaxCalculatorService(InMemoryReferenceData.service(), engine);
+        taxReturn = state.taxReturn;
+    }
+
+    // calculateAll recalculates every output from the inputs except total credits, which the credit stages add to,
+    // so reset them to keep each call the same:
+    @Benchmark
+    public TaxReturnDto calculateAll() {
+        taxReturn.setTotalCredits(BigDecimal.ZERO.setScale(2));
+        return taxCalculatorService.calculateAll(taxReturn);
+    }
+}
@@ -0,0 +1,125 @@
+package com.skillstorm.taxservice.benchmarks;
+
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.services.TaxCalculatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Each stage of the BigDecimal pipeline on its own. The return is run through the whole pipeline once during setup
+// so every stage finds the values it depends on. Stages that add to the federal refund or total credits get them
+// reset first, so every call does the same work:
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculationStageBenchmark {
+
+    private static final BigDecimal ZERO = BigDecimal.ZERO.setScale(2);
+
+    private TaxCalculatorService taxCalculatorService;
+    private TaxReturnDto taxReturn;
+    private BigDecimal refundBeforeCapitalGains;
+    private BigDecimal refundBeforeCredits;
+
+    @Setup
+    public void setUp(TaxReturnState state) {
+        taxCalculatorService = new TaxCalculatorService(InMemoryReferenceData.service(), "bigdecimal");
+        taxReturn = state.taxReturn;
+
+        taxCalculatorService.calculateAllBigDecimal(taxReturn);
+        taxCalculatorService.calculateFederalTaxes(taxReturn);
+        refundBeforeCapitalGains = taxReturn.getFederalRefund();
+        taxCalculatorService.calculateCapitalGainsTax(taxReturn);
+        refundBeforeCredits = taxReturn.getFederalRefund();
+    }
+
+    private TaxReturnDto beforeCredits() {
+        taxReturn.setFederalRefund(refundBeforeCredits);
+        taxReturn.setTotalCredits(ZERO);
+        return taxReturn;
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateTotalIncome() {
+        return taxCalculatorService.calculateTotalIncome(taxReturn);
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateAgi() {
+        return taxCalculatorService.calculateAgi(taxReturn);
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateTaxableIncome() {
+        return taxCalculatorService.calculateTaxableIncome(taxReturn);
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateFederalTaxes() {
+        return taxCalculatorService.calculateFederalTaxes(taxReturn);
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateStateTaxes() {
+        return taxCalculatorService.calculateStateTaxes(taxReturn);
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateCapitalGainsTax() {
+        taxReturn.setFederalRefund(refundBeforeCapitalGains);
+        return taxCalculatorService.calculateCapitalGainsTax(taxReturn);
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateNonRefundableTaxCredits() {
+        return taxCalculatorService.calculateNonRefundableTaxCredits(beforeCredits());
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateRefundableTaxCredits() {
+        return taxCalculatorService.calculateRefundableTaxCredits(beforeCredits());
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateChildTaxCredits() {
+        return taxCalculatorService.calculateChildTaxCredits(beforeCredits());
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateEarnedIncomeTaxCredit() {
+        return taxCalculatorService.calculateEarnedIncomeTaxCredit(beforeCredits());
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateEducationTaxCreditAotc() {
+        return taxCalculatorService.calculateEducationTaxCreditAotc(beforeCredits());
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateEducationTaxCreditLlc() {
+        return taxCalculatorService.calculateEducationTaxCreditLlc(beforeCredits());
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateSaversTaxCredit() {
+        return taxCalculatorService.calculateSaversTaxCredit(beforeCredits());
+    }
+
+    @Benchmark
+    public TaxReturnDto calculateDependentCareTaxCredit() {
+        return taxCalculatorService.calculateDependentCareTaxCredit(beforeCredits());
+    }
+}
@@ -0,0 +1,114 @@
+package com.skillstorm.taxservice.benchmarks;
+
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.services.TaxCalculatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Load test of the two ways the service can run requests. Each operation is a burst of concurrent requests that
+// each hold a database connection briefly, calculate a return and then block on an S3 call, run either on Tomcat's
+// default pool of 200 platform threads or on one virtual thread per request. The virtual mode needs a Java 21 build
+// and runtime (mvn -Pjava21):
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    // Tomcat's default server.tomcat.threads.max:
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    // Concurrent requests in each burst:
+    @Param({"1000"})
+    public int requests;
+
+    // How long each request blocks on S3, e.g. an image upload or download:
+    @Param({"0", "50"})
+    public int s3LatencyMillis;
+
+    // How long each request holds a database connection, out of the Hikari pool's default of 10:
+    @Param({"2"})
+    public int databaseMillis;
+
+    private final Semaphore connections = new Semaphore(10, true);
+
+    private TaxCalculatorService taxCalculatorService;
+    private AsyncTaskExecutor executor;
+
+    @Setup
+    public void setUp() {
+        taxCalculatorService = new TaxCalculatorService(InMemoryReferenceData.service(), "bigdecimal");
+        if ("virtual".equals(mode)) {
+            executor = new VirtualThreadTaskExecutor("request-");
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(TOMCAT_MAX_THREADS);
+            pool.setMaxPoolSize(TOMCAT_MAX_THREADS);
+            pool.setThreadNamePrefix("request-");
+            pool.initialize();
+            executor = pool;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        List<Future<TaxReturnDto>> responses = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            responses.add(executor.submit(this::handleRequest));
+        }
+        int completed = 0;
+        for (Future<TaxReturnDto> response : responses) {
+            response.get();
+            completed++;
+        }
+        return completed;
+    }
+
+    private TaxReturnDto handleRequest() throws InterruptedException {
+        // A new return with no id, so each request runs the whole calculation:
+        TaxReturnDto taxReturn = TaxReturnState.build(10, 4, false);
+        taxReturn.setId(0);
+
+        connections.acquire();
+        try {
+            Thread.sleep(databaseMillis);
+        } finally {
+            connections.release();
+        }
+        taxCalculatorService.calculateAll(taxReturn);
+        Thread.sleep(s3LatencyMillis);
+        return taxReturn;
+    }
+}
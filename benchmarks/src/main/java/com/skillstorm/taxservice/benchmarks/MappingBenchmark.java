@@ -0,0 +1,64 @@
+package com.skillstorm.taxservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.models.TaxReturn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Entity <-> DTO mapping and the JSON the controllers read and write:
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    // Configured like the ObjectMapper Spring Boot builds, which registers every module on the classpath:
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private TaxReturnDto taxReturnDto;
+    private TaxReturn taxReturn;
+    private byte[] json;
+
+    @Setup
+    public void setUp(TaxReturnState state) throws JsonProcessingException {
+        taxReturnDto = state.taxReturn;
+        taxReturn = taxReturnDto.mapToEntity();
+        json = objectMapper.writeValueAsBytes(taxReturnDto);
+    }
+
+    @Benchmark
+    public TaxReturnDto entityToDto() {
+        return new TaxReturnDto(taxReturn);
+    }
+
+    @Benchmark
+    public TaxReturn dtoToEntity() {
+        return taxReturnDto.mapToEntity();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taxReturnDto);
+    }
+
+    @Benchmark
+    public TaxReturnDto deserialize() throws IOException {
+        return objectMapper.readValue(json, TaxReturnDto.class);
+    }
+}
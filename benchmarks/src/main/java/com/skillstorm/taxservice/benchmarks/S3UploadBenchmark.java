@@ -0,0 +1,172 @@
+package com.skillstorm.taxservice.benchmarks;
+
+import com.skillstorm.taxservice.services.ImageStorage;
+import com.skillstorm.taxservice.services.S3AsyncService;
+import com.skillstorm.taxservice.services.S3Service;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of concurrent W2 image uploads through the blocking and async S3 clients. Each operation is a burst of
+// uploads started from a fixed pool of request threads, against a local fake S3 endpoint that answers every request
+// after a fixed latency. The blocking client holds a request thread for the whole upload; the async client hands the
+// upload to the SDK and frees the thread, so the connection pool rather than the request threads sets the limit:
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class S3UploadBenchmark {
+
+    @Param({"blocking", "async"})
+    public String client;
+
+    // Uploads in each burst:
+    @Param({"200"})
+    public int uploads;
+
+    // Threads available to run requests on:
+    @Param({"20"})
+    public int requestThreads;
+
+    // Connections in the S3 client's pool, as set by taxes.s3.max-connections:
+    @Param({"50"})
+    public int maxConnections;
+
+    // How long the fake S3 takes to answer each request:
+    @Param({"50"})
+    public int s3LatencyMillis;
+
+    // Both sizes are below the multipart threshold, so each upload is a single PUT:
+    @Param({"256", "2048"})
+    public int imageKb;
+
+    private HttpServer fakeS3;
+    private ExecutorService fakeS3Threads;
+    private ExecutorService requestPool;
+    private S3Client s3Client;
+    private S3AsyncClient s3AsyncClient;
+    private ImageStorage imageStorage;
+    private byte[] image;
+
+    @Setup
+    public void setUp() throws IOException {
+        fakeS3Threads = Executors.newCachedThreadPool();
+        fakeS3 = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        fakeS3.setExecutor(fakeS3Threads);
+        fakeS3.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            try {
+                Thread.sleep(s3LatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        fakeS3.start();
+
+        URI endpoint = URI.create("http://localhost:" + fakeS3.getAddress().getPort());
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create("benchmark", "benchmark"));
+        // The fake S3 doesn't work out real ETags, so don't check them against the uploaded content:
+        S3Configuration s3Configuration = S3Configuration.builder()
+                .pathStyleAccessEnabled(true)
+                .checksumValidationEnabled(false)
+                .build();
+        if ("async".equals(client)) {
+            s3AsyncClient = S3AsyncClient.builder()
+                    .region(Region.US_EAST_1)
+                    .endpointOverride(endpoint)
+                    .credentialsProvider(credentials)
+                    .serviceConfiguration(s3Configuration)
+                    .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                            .maxConcurrency(maxConnections)
+                            .connectionAcquisitionTimeout(Duration.ofMinutes(1)))
+                    .build();
+            imageStorage = new S3AsyncService(s3AsyncClient, "bucket", DataSize.ofMegabytes(8));
+        } else {
+            s3Client = S3Client.builder()
+                    .region(Region.US_EAST_1)
+                    .endpointOverride(endpoint)
+                    .credentialsProvider(credentials)
+                    .serviceConfiguration(s3Configuration)
+                    .httpClientBuilder(ApacheHttpClient.builder().maxConnections(maxConnections))
+                    .build();
+            imageStorage = new S3Service(s3Client, "bucket", DataSize.ofMegabytes(8));
+        }
+
+        requestPool = Executors.newFixedThreadPool(requestThreads);
+        image = new byte[imageKb * 1024];
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestPool.shutdown();
+        if (s3Client != null) {
+            s3Client.close();
+        }
+        if (s3AsyncClient != null) {
+            s3AsyncClient.close();
+        }
+        fakeS3.stop(0);
+        fakeS3Threads.shutdown();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<Void>> responses = new ArrayList<>(uploads);
+        for (int i = 0; i < uploads; i++) {
+            String key = "uploads/" + i;
+            responses.add(CompletableFuture.supplyAsync(() -> upload(key), requestPool).thenCompose(upload -> upload));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).join();
+        return responses.size();
+    }
+
+    // What the request thread does: read the body into the upload, then return once the client lets it go:
+    private CompletableFuture<Void> upload(String key) {
+        try {
+            return imageStorage.uploadStream(key, new ByteArrayInputStream(image), "image/png");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
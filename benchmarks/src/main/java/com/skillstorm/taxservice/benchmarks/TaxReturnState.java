@@ -0,0 +1,132 @@
+package com.skillstorm.taxservice.benchmarks;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.OtherIncomeDto;
+import com.skillstorm.taxservice.dtos.TaxReturnCreditDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDeductionDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.dtos.W2Dto;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Builds the TaxReturn every benchmark works on. Every return has other income and claims every credit; the
+// parameters control how many W2s it has, how many states they're spread over and whether it itemizes:
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class TaxReturnState {
+
+    private static final State[] W2_STATES = {State.CA, State.AZ, State.AL, State.TX};
+
+    @Param({"1", "10", "100"})
+    public int w2Count;
+
+    @Param({"1", "4"})
+    public int stateCount;
+
+    @Param({"false", "true"})
+    public boolean itemized;
+
+    public TaxReturnDto taxReturn;
+
+    @Setup
+    public void setUp() {
+        taxReturn = build(w2Count, stateCount, itemized);
+    }
+
+    // Same seed every time so each parameter combination always sees the same return:
+    public static TaxReturnDto build(int w2Count, int stateCount, boolean itemized) {
+        Random random = new Random(42);
+
+        TaxReturnDto taxReturn = new TaxReturnDto();
+        taxReturn.setId(1);
+        taxReturn.setYear(2023);
+        taxReturn.setUserId(1);
+        taxReturn.setFilingStatus(FilingStatus.MARRIED_FILING_JOINTLY);
+        taxReturn.setFirstName("Bench");
+        taxReturn.setLastName("Mark");
+        taxReturn.setEmail("bench.mark@example.com");
+        taxReturn.setPhoneNumber("555-555-5555");
+        taxReturn.setAddress("1 Main St");
+        taxReturn.setCity("Sacramento");
+        taxReturn.setState(State.CA);
+        taxReturn.setZip("95814");
+        taxReturn.setDateOfBirth("1970-06-15");
+        taxReturn.setSsn("123-45-6789");
+
+        // Total wages stay around $120k however many W2s there are, so the brackets and credit phaseouts reached
+        // don't change with w2Count:
+        List<W2Dto> w2s = new ArrayList<>(w2Count);
+        for (int i = 0; i < w2Count; i++) {
+            BigDecimal wages = BigDecimal.valueOf(9_000_000L + random.nextInt(6_000_000), 2)
+                    .divide(BigDecimal.valueOf(w2Count), 2, RoundingMode.HALF_UP);
+            W2Dto w2 = new W2Dto();
+            w2.setId(i + 1);
+            w2.setTaxReturnId(1);
+            w2.setYear(2023);
+            w2.setUserId(1);
+            w2.setEmployer("Employer " + i);
+            w2.setState(W2_STATES[i % stateCount]);
+            w2.setWages(wages);
+            w2.setFederalIncomeTaxWithheld(wages.multiply(new BigDecimal("0.14")).setScale(2, RoundingMode.HALF_UP));
+            w2.setStateIncomeTaxWithheld(wages.multiply(new BigDecimal("0.04")).setScale(2, RoundingMode.HALF_UP));
+            w2.setSocialSecurityTaxWithheld(wages.multiply(new BigDecimal("0.062")).setScale(2, RoundingMode.HALF_UP));
+            w2.setMedicareTaxWithheld(wages.multiply(new BigDecimal("0.0145")).setScale(2, RoundingMode.HALF_UP));
+            w2s.add(w2);
+        }
+        taxReturn.setW2s(w2s);
+
+        List<TaxReturnDeductionDto> deductions = new ArrayList<>(List.of(
+                deduction(1, "Health Savings Account", false, "5000.00", "3850.000"),
+                deduction(2, "IRA Contributions", false, "6000.00", "6500.000"),
+                deduction(4, "Educator Expenses", false, "400.00", "300.000")));
+        if (itemized) {
+            deductions.add(deduction(5, "Medical Expenses", true, "9500.00", "0.075"));
+            deductions.add(deduction(6, "State and Local Taxes", true, "10000.00", "1.000"));
+            deductions.add(deduction(7, "Mortgage Interest", true, "18250.00", "1.000"));
+            deductions.add(deduction(8, "Charitable Contributions", true, "4200.00", "0.600"));
+        }
+        taxReturn.setDeductions(deductions);
+
+        OtherIncomeDto otherIncome = new OtherIncomeDto();
+        otherIncome.setTaxReturnId(1);
+        otherIncome.setLongTermCapitalGains(new BigDecimal("12500.00"));
+        otherIncome.setShortTermCapitalGains(new BigDecimal("1800.00"));
+        otherIncome.setOtherInvestmentIncome(new BigDecimal("950.00"));
+        otherIncome.setNetBusinessIncome(new BigDecimal("7200.00"));
+        otherIncome.setAdditionalIncome(new BigDecimal("300.00"));
+        taxReturn.setOtherIncome(otherIncome);
+
+        TaxReturnCreditDto credit = new TaxReturnCreditDto();
+        credit.setTaxReturnId(1);
+        credit.setNumDependents(2);
+        credit.setNumDependentsAotc(1);
+        credit.setNumChildren(2);
+        credit.setChildCareExpenses(new BigDecimal("5400.00"));
+        credit.setEducationExpenses(new BigDecimal("3600.00"));
+        credit.setLlcEducationExpenses(new BigDecimal("2500.00"));
+        credit.setIraContributions(new BigDecimal("2000.00"));
+        credit.setClaimLlcCredit(true);
+        taxReturn.setTaxCredit(credit);
+
+        return taxReturn;
+    }
+
+    private static TaxReturnDeductionDto deduction(int id, String name, boolean itemized, String amountSpent, String agiLimit) {
+        TaxReturnDeductionDto deduction = new TaxReturnDeductionDto();
+        deduction.setId(id);
+        deduction.setTaxReturn(1);
+        deduction.setDeduction(id);
+        deduction.setDeductionName(name);
+        deduction.setItemized(itemized);
+        deduction.setAmountSpent(new BigDecimal(amountSpent));
+        deduction.setAgiLimit(new BigDecimal(agiLimit));
+        return deduction;
+    }
+}
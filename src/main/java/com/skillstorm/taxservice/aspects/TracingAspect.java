@@ -0,0 +1,99 @@
+package com.skillstorm.taxservice.aspects;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Times a sample of calls to the methods TracingConfig picks out, recording each method's latencies in a histogram
+// named method.calls, tagged with the class, the method and the exception thrown, if any. Calls that aren't sampled
+// go straight through. Arguments and return values are never logged, since they include SSNs. At TRACE, each sampled
+// call also logs its method and how long it took:
+public class TracingAspect implements MethodInterceptor {
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final double sampleRate;
+
+    // What each traced method records to, looked up once per method rather than on every call:
+    private final Map<Method, MethodTrace> traces = new ConcurrentHashMap<>();
+
+    public TracingAspect(Supplier<MeterRegistry> meterRegistry, double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("taxes.tracing.sample-rate must be between 0 and 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return invocation.proceed();
+        }
+
+        MethodTrace trace = trace(invocation);
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return invocation.proceed();
+        } catch (Throwable t) {
+            thrown = t;
+            throw t;
+        } finally {
+            trace.record(System.nanoTime() - start, thrown);
+        }
+    }
+
+    private MethodTrace trace(MethodInvocation invocation) {
+        MethodTrace trace = traces.get(invocation.getMethod());
+        if (trace == null) {
+            Class<?> targetClass = AopUtils.getTargetClass(invocation.getThis());
+            trace = traces.computeIfAbsent(invocation.getMethod(), method -> new MethodTrace(targetClass, method));
+        }
+        return trace;
+    }
+
+    private final class MethodTrace {
+
+        private final Logger log;
+        private final String className;
+        private final String methodName;
+        private final Timer timer;
+
+        private MethodTrace(Class<?> targetClass, Method method) {
+            this.log = LoggerFactory.getLogger(targetClass);
+            this.className = targetClass.getSimpleName();
+            this.methodName = method.getName();
+            this.timer = timer("none");
+        }
+
+        private void record(long nanos, Throwable thrown) {
+            String exception = thrown == null ? null : thrown.getClass().getSimpleName();
+            (exception == null ? timer : timer(exception)).record(nanos, TimeUnit.NANOSECONDS);
+            if (log.isTraceEnabled()) {
+                log.trace("{}.{}() {} after {} µs", className, methodName,
+                        exception == null ? "returned" : "threw " + exception, TimeUnit.NANOSECONDS.toMicros(nanos));
+            }
+        }
+
+        private Timer timer(String exception) {
+            return Timer.builder("method.calls")
+                    .description("Latency of sampled calls to traced methods")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry.get());
+        }
+    }
+}
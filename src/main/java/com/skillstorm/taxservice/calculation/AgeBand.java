@@ -0,0 +1,25 @@
+package com.skillstorm.taxservice.calculation;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// The age brackets that change deduction limits. A taxpayer is placed by their age on the last day of the tax year,
+// so the same return always calculates the same way no matter when it's calculated:
+public enum AgeBand {
+
+    UNDER_50,
+    FROM_50,
+    FROM_55;
+
+    // A return without a date of birth gets no age based increases:
+    public static AgeBand of(String dateOfBirth, int taxYear) {
+        if (dateOfBirth == null) {
+            return UNDER_50;
+        }
+        long age = ChronoUnit.YEARS.between(LocalDate.parse(dateOfBirth), LocalDate.of(taxYear, 12, 31));
+        if (age >= 55) {
+            return FROM_55;
+        }
+        return age >= 50 ? FROM_50 : UNDER_50;
+    }
+}
@@ -0,0 +1,179 @@
+package com.skillstorm.taxservice.calculation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A progressive tax schedule compiled into cumulative form. Segment i starts at thresholds[i], is taxed at rates[i],
+// and baseTax[i] holds the total tax owed on an income of exactly thresholds[i]. The tax for any income is then a
+// binary search for its segment plus one multiply-add, instead of a walk over every bracket:
+public final class BracketSchedule {
+
+    private final BigDecimal[] thresholds;
+    private final BigDecimal[] baseTax;
+    private final BigDecimal[] rates;
+
+    // The same schedule in FixedPoint units: thresholds in mills, base tax in nanos and rates in ppm. Null when a rate
+    // has no exact ppm representation:
+    private final long[] thresholdMills;
+    private final long[] baseTaxNanos;
+    private final long[] ratesPpm;
+
+    // Whether the top segment is a real, unbounded bracket. When it isn't, income above the last bracket is untaxed:
+    private final boolean openEnded;
+
+    private BracketSchedule(BigDecimal[] thresholds, BigDecimal[] baseTax, BigDecimal[] rates, boolean openEnded) {
+        this.thresholds = thresholds;
+        this.baseTax = baseTax;
+        this.rates = rates;
+        this.openEnded = openEnded;
+
+        long[] fixedThresholds = new long[thresholds.length];
+        long[] fixedBaseTax = new long[thresholds.length];
+        long[] fixedRates = new long[thresholds.length];
+        boolean exact = true;
+        try {
+            for (int i = 0; i < thresholds.length; i++) {
+                fixedThresholds[i] = FixedPoint.toMills(thresholds[i]);
+                fixedBaseTax[i] = FixedPoint.toNanos(baseTax[i]);
+                fixedRates[i] = FixedPoint.ppmOrUnsupported(rates[i]);
+                exact &= fixedRates[i] != FixedPoint.UNSUPPORTED;
+            }
+        } catch (ArithmeticException e) {
+            exact = false;
+        }
+        this.thresholdMills = exact ? fixedThresholds : null;
+        this.baseTaxNanos = exact ? fixedBaseTax : null;
+        this.ratesPpm = exact ? fixedRates : null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Total tax owed on the given income. Income below zero is taxed at the first bracket's rate:
+    public BigDecimal taxFor(BigDecimal income) {
+        int segment = segmentFor(income);
+        return baseTax[segment].add(income.subtract(thresholds[segment]).multiply(rates[segment]));
+    }
+
+    // Total tax in nanos owed on an income given in mills. Same result as taxFor, without allocating:
+    public long taxForMills(long incomeMills) {
+        if (thresholdMills == null) {
+            throw new ArithmeticException("tax schedule has no exact fixed-point representation");
+        }
+        int low = 0;
+        int high = thresholdMills.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (thresholdMills[mid] <= incomeMills) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        long overThreshold = Math.subtractExact(incomeMills, thresholdMills[low]);
+        return Math.addExact(baseTaxNanos[low], FixedPoint.millsTimesRate(overThreshold, ratesPpm[low]));
+    }
+
+    // Whether taxForMills can be used with this schedule:
+    public boolean isFixedPoint() {
+        return thresholdMills != null;
+    }
+
+    // Index of the segment the income falls into: the last segment whose threshold is <= income:
+    public int segmentFor(BigDecimal income) {
+        int low = 0;
+        int high = thresholds.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (thresholds[mid].compareTo(income) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int size() {
+        return thresholds.length;
+    }
+
+    public BigDecimal getThreshold(int segment) {
+        return thresholds[segment];
+    }
+
+    public BigDecimal getBaseTax(int segment) {
+        return baseTax[segment];
+    }
+
+    public BigDecimal getRate(int segment) {
+        return rates[segment];
+    }
+
+    public boolean isOpenEnded() {
+        return openEnded;
+    }
+
+    @Override
+    public String toString() {
+        return "BracketSchedule{thresholds=" + Arrays.toString(thresholds) + ", rates=" + Arrays.toString(rates)
+                + ", openEnded=" + openEnded + "}";
+    }
+
+    // Collects brackets in the order they apply, each described by its width, then compiles them:
+    public static final class Builder {
+
+        private final List<BigDecimal> widths = new ArrayList<>();
+        private final List<BigDecimal> bracketRates = new ArrayList<>();
+        private BigDecimal topRate;
+
+        private Builder() {
+        }
+
+        // Add a bounded bracket covering the next `width` dollars of income:
+        public Builder bracket(long width, BigDecimal rate) {
+            if (topRate != null) {
+                throw new IllegalStateException("cannot add a bracket after the open-ended top bracket");
+            }
+            widths.add(BigDecimal.valueOf(width));
+            bracketRates.add(rate);
+            return this;
+        }
+
+        // Add the unbounded top bracket. No further brackets may follow it:
+        public Builder openEnded(BigDecimal rate) {
+            if (topRate != null) {
+                throw new IllegalStateException("schedule already has an open-ended top bracket");
+            }
+            topRate = rate;
+            return this;
+        }
+
+        public BracketSchedule build() {
+            int size = widths.size() + 1;
+            BigDecimal[] thresholds = new BigDecimal[size];
+            BigDecimal[] baseTax = new BigDecimal[size];
+            BigDecimal[] rates = new BigDecimal[size];
+
+            BigDecimal threshold = BigDecimal.ZERO;
+            BigDecimal tax = BigDecimal.ZERO;
+            for (int i = 0; i < widths.size(); i++) {
+                thresholds[i] = threshold;
+                baseTax[i] = tax;
+                rates[i] = bracketRates.get(i);
+                threshold = threshold.add(widths.get(i));
+                tax = tax.add(widths.get(i).multiply(rates[i]));
+            }
+
+            // Everything past the last bounded bracket is taxed at the top rate, or not at all if there isn't one:
+            thresholds[size - 1] = threshold;
+            baseTax[size - 1] = tax;
+            rates[size - 1] = topRate != null ? topRate : BigDecimal.ZERO;
+
+            return new BracketSchedule(thresholds, baseTax, rates, topRate != null);
+        }
+    }
+}
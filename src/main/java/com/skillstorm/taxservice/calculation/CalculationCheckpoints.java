@@ -0,0 +1,64 @@
+package com.skillstorm.taxservice.calculation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// What the last calculation of each TaxReturn saw and produced, keyed by TaxReturn id. Holds at most maxEntries
+// returns and drops the least recently calculated one when full. Safe to share between threads:
+public class CalculationCheckpoints {
+
+    private final Map<Integer, Checkpoint> checkpoints;
+
+    public CalculationCheckpoints(int maxEntries) {
+        this.checkpoints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Checkpoint> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Checkpoint get(int taxReturnId) {
+        return checkpoints.get(taxReturnId);
+    }
+
+    public synchronized void put(int taxReturnId, Checkpoint checkpoint) {
+        checkpoints.put(taxReturnId, checkpoint);
+    }
+
+    public synchronized void remove(int taxReturnId) {
+        checkpoints.remove(taxReturnId);
+    }
+
+    public synchronized int size() {
+        return checkpoints.size();
+    }
+
+    // The reference data and input fingerprints a calculation ran against, and the fields each stage wrote. Never
+    // modified after it's built:
+    public static final class Checkpoint {
+
+        private final TaxReferenceSnapshot snapshot;
+        private final Map<CalculationInput, Object> fingerprints;
+        private final Map<CalculationStage, Object[]> outputs;
+
+        public Checkpoint(TaxReferenceSnapshot snapshot, Map<CalculationInput, Object> fingerprints,
+                          Map<CalculationStage, Object[]> outputs) {
+            this.snapshot = snapshot;
+            this.fingerprints = fingerprints;
+            this.outputs = outputs;
+        }
+
+        public TaxReferenceSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public Map<CalculationInput, Object> getFingerprints() {
+            return fingerprints;
+        }
+
+        public Object[] getOutputs(CalculationStage stage) {
+            return outputs.get(stage);
+        }
+    }
+}
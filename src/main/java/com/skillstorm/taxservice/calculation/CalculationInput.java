@@ -0,0 +1,95 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.dtos.OtherIncomeDto;
+import com.skillstorm.taxservice.dtos.TaxReturnCreditDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+// The parts of a TaxReturn the calculation reads. Each input turns the return into a fingerprint: an immutable value
+// that is equal for two returns exactly when the calculation would see the same input. Comparing fingerprints tells
+// which inputs changed since the last calculation of a return:
+public enum CalculationInput {
+
+    FILING_STATUS(TaxReturnDto::getFilingStatus),
+
+    // The state of residence. Other income is taxed there:
+    STATE(TaxReturnDto::getState),
+
+    // Only the age band at the end of the tax year matters, so fingerprint that. It covers the year as well:
+    DATE_OF_BIRTH(taxReturn -> ageBand(taxReturn.getDateOfBirth(), taxReturn.getYear())),
+
+    W2S(taxReturn -> taxReturn.getW2s().stream()
+            .map(w2 -> tuple(w2.getState(), w2.getWages(), w2.getFederalIncomeTaxWithheld(), w2.getStateIncomeTaxWithheld(),
+                    w2.getSocialSecurityTaxWithheld(), w2.getMedicareTaxWithheld()))
+            .toList()),
+
+    // Deduction agiLimits aren't part of the input. The AGI stage resets them from the reference data:
+    DEDUCTIONS(taxReturn -> taxReturn.getDeductions().stream()
+            .map(deduction -> tuple(deduction.getDeduction(), deduction.isItemized(), deduction.getAmountSpent()))
+            .toList()),
+
+    OTHER_INCOME(taxReturn -> {
+        OtherIncomeDto otherIncome = taxReturn.getOtherIncome();
+        return otherIncome == null ? null : tuple(otherIncome.getLongTermCapitalGains(), otherIncome.getShortTermCapitalGains(),
+                otherIncome.getOtherInvestmentIncome(), otherIncome.getNetBusinessIncome(), otherIncome.getAdditionalIncome());
+    }),
+
+    TAX_CREDIT(taxReturn -> {
+        TaxReturnCreditDto credit = taxReturn.getTaxCredit();
+        return credit == null ? null : tuple(credit.getNumDependents(), credit.getNumDependentsAotc(), credit.getNumChildren(),
+                credit.getChildCareExpenses(), credit.getEducationExpenses(), credit.getLlcEducationExpenses(),
+                credit.getIraContributions(), credit.isClaimedAsDependent(), credit.isClaimLlcCredit());
+    }),
+
+    // Credits already on the return when it's calculated. The credit stages add to them rather than starting at 0:
+    TOTAL_CREDITS(TaxReturnDto::getTotalCredits);
+
+    private final Function<TaxReturnDto, Object> fingerprint;
+
+    CalculationInput(Function<TaxReturnDto, Object> fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Object fingerprint(TaxReturnDto taxReturn) {
+        return fingerprint.apply(taxReturn);
+    }
+
+    // Fingerprint every input of a return:
+    public static Map<CalculationInput, Object> fingerprints(TaxReturnDto taxReturn) {
+        Map<CalculationInput, Object> fingerprints = new EnumMap<>(CalculationInput.class);
+        for (CalculationInput input : values()) {
+            fingerprints.put(input, input.fingerprint(taxReturn));
+        }
+        return Collections.unmodifiableMap(fingerprints);
+    }
+
+    // The inputs whose fingerprints differ between two calculations:
+    public static List<CalculationInput> changed(Map<CalculationInput, Object> before, Map<CalculationInput, Object> after) {
+        return Arrays.stream(values())
+                .filter(input -> !Objects.equals(before.get(input), after.get(input)))
+                .toList();
+    }
+
+    // An immutable list that, unlike List.of, allows nulls:
+    private static List<Object> tuple(Object... values) {
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    // Age band the same way the AGI stage works it out. A date that can't be parsed is kept as is, the calculation
+    // will fail on it either way:
+    private static Object ageBand(String dateOfBirth, int taxYear) {
+        try {
+            return AgeBand.of(dateOfBirth, taxYear);
+        } catch (DateTimeParseException e) {
+            return dateOfBirth;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.constants.CalculationEngine;
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.dtos.W2Dto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Times every calculation in taxes.calculation and each stage it runs in taxes.calculation.stage, and counts the
+// reference data it looks up in taxes.reference.lookups. All of them are tagged with the engine, the return's filing
+// status and how many states it has W2s in, so load can be broken down the way filing-season traffic varies. Meters
+// are registered the first time each combination of tags is seen and reused after that:
+public class CalculationMetrics {
+
+    // Returns with W2s in more states than this are counted together:
+    static final int MAX_STATES = 3;
+
+    private static final CalculationEngine[] ENGINES = CalculationEngine.values();
+    private static final FilingStatus[] FILING_STATUSES = FilingStatus.values();
+    private static final CalculationStage[] STAGES = CalculationStage.values();
+
+    // One slot per engine, filing status (plus one for returns without one) and state count:
+    private static final int TAG_COMBINATIONS = ENGINES.length * (FILING_STATUSES.length + 1) * (MAX_STATES + 1);
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicReferenceArray<Timer> calculationTimers = new AtomicReferenceArray<>(TAG_COMBINATIONS);
+    private final AtomicReferenceArray<Timer> stageTimers = new AtomicReferenceArray<>(TAG_COMBINATIONS * STAGES.length);
+    private final AtomicReferenceArray<Counter> lookupCounters = new AtomicReferenceArray<>(TAG_COMBINATIONS);
+
+    public CalculationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Start timing a calculation of the return by the engine:
+    public Recording start(CalculationEngine engine, TaxReturnDto taxReturn) {
+        return new Recording(tagIndex(engine, taxReturn), System.nanoTime());
+    }
+
+    // Count one lookup of reference data while calculating the return. Lookups don't depend on the engine:
+    public void countLookup(TaxReturnDto taxReturn) {
+        int index = tagIndex(CalculationEngine.BIGDECIMAL, taxReturn);
+        Counter counter = lookupCounters.get(index);
+        if (counter == null) {
+            counter = Counter.builder("taxes.reference.lookups")
+                    .description("Reference data looked up by tax calculations")
+                    .tags(returnTags(index))
+                    .register(meterRegistry);
+            lookupCounters.set(index, counter);
+        }
+        counter.increment();
+    }
+
+    // Number of distinct states the return's W2s are from, capped at MAX_STATES:
+    static int stateCount(TaxReturnDto taxReturn) {
+        if (taxReturn.getW2s() == null) {
+            return 0;
+        }
+        long states = 0;
+        for (W2Dto w2 : taxReturn.getW2s()) {
+            if (w2.getState() != null) {
+                states |= 1L << w2.getState().ordinal();
+            }
+        }
+        return Math.min(Long.bitCount(states), MAX_STATES);
+    }
+
+    private static int tagIndex(CalculationEngine engine, TaxReturnDto taxReturn) {
+        int filingStatus = taxReturn.getFilingStatus() == null ? FILING_STATUSES.length : taxReturn.getFilingStatus().ordinal();
+        return (engine.ordinal() * (FILING_STATUSES.length + 1) + filingStatus) * (MAX_STATES + 1) + stateCount(taxReturn);
+    }
+
+    private static Tags returnTags(int index) {
+        int states = index % (MAX_STATES + 1);
+        int filingStatus = index / (MAX_STATES + 1) % (FILING_STATUSES.length + 1);
+        return Tags.of(
+                "filing.status", filingStatus == FILING_STATUSES.length ? "NONE" : FILING_STATUSES[filingStatus].name(),
+                "states", states == MAX_STATES ? MAX_STATES + "+" : String.valueOf(states));
+    }
+
+    private static String engineTag(int index) {
+        return ENGINES[index / ((MAX_STATES + 1) * (FILING_STATUSES.length + 1))].getValue();
+    }
+
+    // One calculation being timed. Only used by the thread running the calculation:
+    public final class Recording {
+
+        private final int index;
+        private final long start;
+
+        private Recording(int index, long start) {
+            this.index = index;
+            this.start = start;
+        }
+
+        // Time a stage that started at stageStart, a System.nanoTime() reading:
+        public void stage(CalculationStage stage, long stageStart) {
+            long nanos = System.nanoTime() - stageStart;
+            int stageIndex = index * STAGES.length + stage.ordinal();
+            Timer timer = stageTimers.get(stageIndex);
+            if (timer == null) {
+                timer = Timer.builder("taxes.calculation.stage")
+                        .description("Time spent in each stage of a tax calculation")
+                        .tag("engine", engineTag(index))
+                        .tag("stage", stage.name())
+                        .tags(returnTags(index))
+                        .register(meterRegistry);
+                stageTimers.set(stageIndex, timer);
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        // Time the whole calculation, once it has finished:
+        public void finish() {
+            long nanos = System.nanoTime() - start;
+            Timer timer = calculationTimers.get(index);
+            if (timer == null) {
+                timer = Timer.builder("taxes.calculation")
+                        .description("Time taken to calculate a tax return")
+                        .tag("engine", engineTag(index))
+                        .tags(returnTags(index))
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(10_000))
+                        .maximumExpectedValue(Duration.ofMillis(100))
+                        .register(meterRegistry);
+                calculationTimers.set(index, timer);
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.dtos.TaxReturnDeductionDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// The TaxReturn fields the calculation stages write. A stage's outputs are captured after it runs so they can be put
+// back on a later calculation instead of running the stage again:
+public enum CalculationOutput {
+
+    TOTAL_INCOME {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return taxReturn.getTotalIncome();
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            taxReturn.setTotalIncome((BigDecimal) value);
+        }
+    },
+
+    ADJUSTED_GROSS_INCOME {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return taxReturn.getAdjustedGrossIncome();
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            taxReturn.setAdjustedGrossIncome((BigDecimal) value);
+        }
+    },
+
+    // The AGI stage adjusts each deduction's agiLimit, which the taxable income stage reads:
+    DEDUCTION_LIMITS {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return taxReturn.getDeductions().stream().map(TaxReturnDeductionDto::getAgiLimit).toArray(BigDecimal[]::new);
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            BigDecimal[] agiLimits = (BigDecimal[]) value;
+            List<TaxReturnDeductionDto> deductions = taxReturn.getDeductions();
+            for (int i = 0; i < agiLimits.length; i++) {
+                deductions.get(i).setAgiLimit(agiLimits[i]);
+            }
+        }
+    },
+
+    TAXABLE_INCOME {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return taxReturn.getTaxableIncome();
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            taxReturn.setTaxableIncome((BigDecimal) value);
+        }
+    },
+
+    WITHHOLDINGS {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return new BigDecimal[] {taxReturn.getFedTaxWithheld(), taxReturn.getStateTaxWithheld(),
+                    taxReturn.getSocialSecurityTaxWithheld(), taxReturn.getMedicareTaxWithheld()};
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            BigDecimal[] withholdings = (BigDecimal[]) value;
+            taxReturn.setFedTaxWithheld(withholdings[0]);
+            taxReturn.setStateTaxWithheld(withholdings[1]);
+            taxReturn.setSocialSecurityTaxWithheld(withholdings[2]);
+            taxReturn.setMedicareTaxWithheld(withholdings[3]);
+        }
+    },
+
+    FEDERAL_REFUND {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return taxReturn.getFederalRefund();
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            taxReturn.setFederalRefund((BigDecimal) value);
+        }
+    },
+
+    STATE_REFUND {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return taxReturn.getStateRefund();
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            taxReturn.setStateRefund((BigDecimal) value);
+        }
+    },
+
+    TOTAL_CREDITS {
+        @Override
+        public Object capture(TaxReturnDto taxReturn) {
+            return taxReturn.getTotalCredits();
+        }
+
+        @Override
+        public void restore(TaxReturnDto taxReturn, Object value) {
+            taxReturn.setTotalCredits((BigDecimal) value);
+        }
+    };
+
+    public abstract Object capture(TaxReturnDto taxReturn);
+
+    public abstract void restore(TaxReturnDto taxReturn, Object value);
+}
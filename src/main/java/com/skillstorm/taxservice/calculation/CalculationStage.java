@@ -0,0 +1,97 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.skillstorm.taxservice.calculation.CalculationInput.*;
+
+// The calculation pipeline as a graph of stages. Each stage declares the inputs it reads from the return, the stages
+// whose outputs it reads, and the fields it writes. The constants are in dependency order, so running them in
+// declaration order always runs a stage after everything it depends on. A stage only has to run again when one of
+// its inputs changed or one of the stages it depends on ran again:
+public enum CalculationStage {
+
+    TOTAL_INCOME(EnumSet.of(W2S, OTHER_INCOME), List.of(),
+            List.of(CalculationOutput.TOTAL_INCOME)),
+
+    AGI(EnumSet.of(DEDUCTIONS, DATE_OF_BIRTH, FILING_STATUS), List.of(TOTAL_INCOME),
+            List.of(CalculationOutput.ADJUSTED_GROSS_INCOME, CalculationOutput.DEDUCTION_LIMITS)),
+
+    TAXABLE_INCOME(EnumSet.of(DEDUCTIONS, FILING_STATUS), List.of(AGI),
+            List.of(CalculationOutput.TAXABLE_INCOME)),
+
+    WITHHOLDINGS(EnumSet.of(W2S), List.of(),
+            List.of(CalculationOutput.WITHHOLDINGS)),
+
+    FEDERAL_TAX(EnumSet.of(FILING_STATUS), List.of(TAXABLE_INCOME, WITHHOLDINGS),
+            List.of(CalculationOutput.FEDERAL_REFUND)),
+
+    STATE_TAX(EnumSet.of(W2S, OTHER_INCOME, STATE), List.of(WITHHOLDINGS),
+            List.of(CalculationOutput.STATE_REFUND)),
+
+    CAPITAL_GAINS_TAX(EnumSet.of(OTHER_INCOME, FILING_STATUS), List.of(TAXABLE_INCOME, FEDERAL_TAX),
+            List.of(CalculationOutput.FEDERAL_REFUND)),
+
+    NON_REFUNDABLE_CREDITS(EnumSet.of(TAX_CREDIT, FILING_STATUS, TOTAL_CREDITS), List.of(AGI, CAPITAL_GAINS_TAX),
+            List.of(CalculationOutput.FEDERAL_REFUND, CalculationOutput.TOTAL_CREDITS)),
+
+    REFUNDABLE_CREDITS(EnumSet.of(TAX_CREDIT, FILING_STATUS, OTHER_INCOME), List.of(AGI, NON_REFUNDABLE_CREDITS),
+            List.of(CalculationOutput.FEDERAL_REFUND, CalculationOutput.TOTAL_CREDITS));
+
+    private final Set<CalculationInput> inputs;
+    private final List<CalculationStage> dependencies;
+    private final List<CalculationOutput> outputs;
+
+    // Dependencies are a List rather than an EnumSet because an EnumSet of this enum can't be built while its
+    // constants are still being initialized:
+    CalculationStage(Set<CalculationInput> inputs, List<CalculationStage> dependencies, List<CalculationOutput> outputs) {
+        this.inputs = inputs;
+        this.dependencies = dependencies;
+        this.outputs = outputs;
+    }
+
+    public Set<CalculationInput> getInputs() {
+        return EnumSet.copyOf(inputs);
+    }
+
+    public List<CalculationStage> getDependencies() {
+        return dependencies;
+    }
+
+    public List<CalculationOutput> getOutputs() {
+        return outputs;
+    }
+
+    // The stages that have to run again after the given inputs changed: the stages reading any of them and
+    // everything downstream of those:
+    public static Set<CalculationStage> affectedBy(Collection<CalculationInput> changedInputs) {
+        Set<CalculationStage> affected = EnumSet.noneOf(CalculationStage.class);
+        for (CalculationStage stage : values()) {
+            if (changedInputs.stream().anyMatch(stage.inputs::contains)
+                    || stage.dependencies.stream().anyMatch(affected::contains)) {
+                affected.add(stage);
+            }
+        }
+        return affected;
+    }
+
+    // Copy the fields this stage wrote out of the return:
+    public Object[] capture(TaxReturnDto taxReturn) {
+        Object[] values = new Object[outputs.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = outputs.get(i).capture(taxReturn);
+        }
+        return values;
+    }
+
+    // Put previously captured fields back on the return, as if the stage had run:
+    public void restore(TaxReturnDto taxReturn, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            outputs.get(i).restore(taxReturn, values[i]);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.models.Deduction;
+
+import java.math.BigDecimal;
+
+// A deduction's AGI limit for every filing status and age band, worked out once from its reference row so a
+// calculation only has to look the limit up. Married couples filing jointly get agiLimit * jointMultiplier +
+// jointAddition, then a taxpayer 50 or older adds age50Addition and one 55 or older adds age55Addition as well:
+public final class DeductionRule {
+
+    private static final FilingStatus[] FILING_STATUSES = FilingStatus.values();
+    private static final AgeBand[] AGE_BANDS = AgeBand.values();
+
+    private final Deduction deduction;
+
+    // Indexed by FilingStatus ordinal, then AgeBand ordinal:
+    private final BigDecimal[][] agiLimits;
+
+    public DeductionRule(Deduction deduction) {
+        this.deduction = deduction;
+        this.agiLimits = new BigDecimal[FILING_STATUSES.length][AGE_BANDS.length];
+        for (FilingStatus filingStatus : FILING_STATUSES) {
+            for (AgeBand ageBand : AGE_BANDS) {
+                agiLimits[filingStatus.ordinal()][ageBand.ordinal()] = agiLimit(deduction, filingStatus, ageBand);
+            }
+        }
+    }
+
+    public Deduction getDeduction() {
+        return deduction;
+    }
+
+    public BigDecimal getAgiLimit(FilingStatus filingStatus, AgeBand ageBand) {
+        return agiLimits[filingStatus.ordinal()][ageBand.ordinal()];
+    }
+
+    // Adjustments that don't apply leave the limit untouched, scale included, since the fixed-point engine reads it:
+    private static BigDecimal agiLimit(Deduction deduction, FilingStatus filingStatus, AgeBand ageBand) {
+        BigDecimal agiLimit = deduction.getAgiLimit();
+        if (agiLimit == null) {
+            return null;
+        }
+        if (FilingStatus.MARRIED_FILING_JOINTLY.equals(filingStatus)) {
+            agiLimit = agiLimit
+                    .multiply(BigDecimal.valueOf(deduction.getJointMultiplier()))
+                    .add(BigDecimal.valueOf(deduction.getJointAddition()));
+        }
+        if (ageBand != AgeBand.UNDER_50) {
+            agiLimit = agiLimit.add(BigDecimal.valueOf(deduction.getAge50Addition()));
+        }
+        if (ageBand == AgeBand.FROM_55) {
+            agiLimit = agiLimit.add(BigDecimal.valueOf(deduction.getAge55Addition()));
+        }
+        return agiLimit;
+    }
+}
@@ -0,0 +1,99 @@
+package com.skillstorm.taxservice.calculation;
+
+import java.math.BigDecimal;
+
+// Units and conversions used by the FixedPointTaxEngine. All arithmetic is done on longs:
+//   - incomes, expenses and deduction amounts are held in mills (1/1000 of a dollar), because deduction agiLimits are
+//     stored with three decimals and take part in the AGI calculation,
+//   - rates are held in parts per million, which covers every rate column in the reference tables,
+//   - taxes, refunds and credits are held in nanos (1/1,000,000,000 of a dollar), the exact product of mills and ppm.
+// Conversions into these units never round. A value that can't be represented exactly throws ArithmeticException so
+// the caller can fall back to the BigDecimal calculation instead of returning a result that differs from it:
+public final class FixedPoint {
+
+    public static final long MILLS_PER_DOLLAR = 1_000L;
+    public static final long PPM = 1_000_000L;
+    public static final long NANOS_PER_MILL = 1_000_000L;
+    public static final long NANOS_PER_CENT = 10_000_000L;
+
+    // Marker for a reference rate that has no exact ppm representation:
+    public static final long UNSUPPORTED = Long.MIN_VALUE;
+
+    private FixedPoint() {
+    }
+
+    // Exact conversion of a dollar amount to mills:
+    public static long toMills(BigDecimal dollars) {
+        return dollars.movePointRight(3).longValueExact();
+    }
+
+    // Exact conversion of a dollar amount to nanos:
+    public static long toNanos(BigDecimal dollars) {
+        return dollars.movePointRight(9).longValueExact();
+    }
+
+    // Exact conversion of a rate to ppm, or UNSUPPORTED if the rate is missing or has more than six decimals:
+    public static long ppmOrUnsupported(BigDecimal rate) {
+        if (rate == null) {
+            return UNSUPPORTED;
+        }
+        try {
+            return rate.movePointRight(6).longValueExact();
+        } catch (ArithmeticException e) {
+            return UNSUPPORTED;
+        }
+    }
+
+    // Guard for rates read from a precompiled table:
+    public static long requirePpm(long ppm) {
+        if (ppm == UNSUPPORTED) {
+            throw new ArithmeticException("rate has no exact fixed-point representation");
+        }
+        return ppm;
+    }
+
+    // mills * ppm gives nanos:
+    public static long millsTimesRate(long mills, long ppm) {
+        return Math.multiplyExact(mills, ppm);
+    }
+
+    // nanos * ppm, which must come out to a whole number of nanos. Split around PPM so the intermediate
+    // product doesn't overflow for any realistic amount:
+    public static long nanosTimesRate(long nanos, long ppm) {
+        long high = Math.multiplyExact(nanos / PPM, ppm);
+        long low = Math.multiplyExact(nanos % PPM, ppm);
+        if (low % PPM != 0) {
+            throw new ArithmeticException("product is not a whole number of nanos");
+        }
+        return Math.addExact(high, low / PPM);
+    }
+
+    // Whole-unit conversion that must not lose anything, e.g. micro-dollars back to mills:
+    public static long divideExact(long value, long divisor) {
+        if (value % divisor != 0) {
+            throw new ArithmeticException("value is not a whole multiple of " + divisor);
+        }
+        return value / divisor;
+    }
+
+    // Integer division rounding HALF_UP, i.e. half away from zero, the same as RoundingMode.HALF_UP. Divisor must be
+    // positive:
+    public static long roundDiv(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(value);
+        }
+        return quotient;
+    }
+
+    // Round mills to cents and present them the way the DTOs expect, with a scale of 2:
+    public static BigDecimal millsToDollars(long mills) {
+        return BigDecimal.valueOf(roundDiv(mills, 10), 2);
+    }
+
+    // Round nanos to cents and present them the way the DTOs expect, with a scale of 2:
+    public static BigDecimal nanosToDollars(long nanos) {
+        return BigDecimal.valueOf(roundDiv(nanos, NANOS_PER_CENT), 2);
+    }
+}
@@ -0,0 +1,70 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.models.FilingStatus;
+import com.skillstorm.taxservice.models.taxcredits.EducationTaxCreditAotc;
+import com.skillstorm.taxservice.models.taxcredits.EducationTaxCreditLlc;
+import com.skillstorm.taxservice.models.taxcredits.SaversTaxCredit;
+
+// The rates of a filing status' tax credits converted to ppm once, so the FixedPointTaxEngine doesn't have to convert
+// BigDecimals per return. The integer amounts and thresholds are read straight from the credit entities. A rate is
+// FixedPoint.UNSUPPORTED when the credit is missing or the rate can't be represented exactly:
+public final class FixedPointCredits {
+
+    private final boolean marriedFilingSeparately;
+    private final long aotcIncomePartialCreditRatePpm;
+    private final long aotcExpensesPartialCreditRatePpm;
+    private final long llcIncomePartialCreditRatePpm;
+    private final long llcCreditRatePpm;
+    private final long saversFirstContributionRatePpm;
+    private final long saversSecondContributionRatePpm;
+    private final long saversThirdContributionRatePpm;
+
+    public FixedPointCredits(FilingStatus filingStatus) {
+        this.marriedFilingSeparately = "Married filing separately".equals(filingStatus.getStatus());
+
+        EducationTaxCreditAotc aotc = filingStatus.getEducationTaxCreditAotc();
+        this.aotcIncomePartialCreditRatePpm = FixedPoint.ppmOrUnsupported(aotc == null ? null : aotc.getIncomePartialCreditRate());
+        this.aotcExpensesPartialCreditRatePpm = FixedPoint.ppmOrUnsupported(aotc == null ? null : aotc.getExpensesPartialCreditRate());
+
+        EducationTaxCreditLlc llc = filingStatus.getEducationTaxCreditLlc();
+        this.llcIncomePartialCreditRatePpm = FixedPoint.ppmOrUnsupported(llc == null ? null : llc.getIncomePartialCreditRate());
+        this.llcCreditRatePpm = FixedPoint.ppmOrUnsupported(llc == null ? null : llc.getCreditRate());
+
+        SaversTaxCredit savers = filingStatus.getSaversTaxCredit();
+        this.saversFirstContributionRatePpm = FixedPoint.ppmOrUnsupported(savers == null ? null : savers.getFirstContributionRate());
+        this.saversSecondContributionRatePpm = FixedPoint.ppmOrUnsupported(savers == null ? null : savers.getSecondContributionRate());
+        this.saversThirdContributionRatePpm = FixedPoint.ppmOrUnsupported(savers == null ? null : savers.getThirdContributionRate());
+    }
+
+    public boolean isMarriedFilingSeparately() {
+        return marriedFilingSeparately;
+    }
+
+    public long getAotcIncomePartialCreditRatePpm() {
+        return FixedPoint.requirePpm(aotcIncomePartialCreditRatePpm);
+    }
+
+    public long getAotcExpensesPartialCreditRatePpm() {
+        return FixedPoint.requirePpm(aotcExpensesPartialCreditRatePpm);
+    }
+
+    public long getLlcIncomePartialCreditRatePpm() {
+        return FixedPoint.requirePpm(llcIncomePartialCreditRatePpm);
+    }
+
+    public long getLlcCreditRatePpm() {
+        return FixedPoint.requirePpm(llcCreditRatePpm);
+    }
+
+    public long getSaversFirstContributionRatePpm() {
+        return FixedPoint.requirePpm(saversFirstContributionRatePpm);
+    }
+
+    public long getSaversSecondContributionRatePpm() {
+        return FixedPoint.requirePpm(saversSecondContributionRatePpm);
+    }
+
+    public long getSaversThirdContributionRatePpm() {
+        return FixedPoint.requirePpm(saversThirdContributionRatePpm);
+    }
+}
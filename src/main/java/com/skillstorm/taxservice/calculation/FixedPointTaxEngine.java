@@ -0,0 +1,595 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.constants.CurveInput;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.OtherIncomeDto;
+import com.skillstorm.taxservice.dtos.TaxReturnCreditDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDeductionDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.dtos.W2Dto;
+import com.skillstorm.taxservice.models.FilingStatus;
+import com.skillstorm.taxservice.models.taxcredits.ChildTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.EarnedIncomeTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.EducationTaxCreditAotc;
+import com.skillstorm.taxservice.models.taxcredits.EducationTaxCreditLlc;
+import com.skillstorm.taxservice.models.taxcredits.SaversTaxCredit;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Runs the same pipeline as TaxCalculatorService.calculateAll, step for step, on long FixedPoint units instead of
+// BigDecimals. Inputs are converted once on the way in and results once on the way out; everything in between is
+// primitive arithmetic, so a calculation allocates nothing beyond those conversions. The converted inputs can be
+// reused, which is how refundCurve calculates a return for many values of one input in a single pass.
+//
+// The result matches the BigDecimal calculation to the cent. Every conversion and product is exact, and the only
+// places that round are the ones the BigDecimal calculation rounds at:
+//   1. each withholding total is rounded to cents before it is used,
+//   2. the child tax credit phaseout divides the AGI excess by 1000 at the AGI's own scale,
+//   3. AOTC education expenses per dependent are rounded to cents,
+//   4. the stored totals and refunds are rounded to cents at the end.
+// Anything that can't be done exactly (an input with more than three decimals, an overflow, a rate with more than six
+// decimals, an itemized deduction that doesn't come out to whole mills) throws ArithmeticException before the
+// TaxReturnDto is touched, so the caller can rerun the return through the BigDecimal calculation:
+public final class FixedPointTaxEngine {
+
+    private static final long NANOS_PER_DOLLAR = 1_000_000_000L;
+    private static final long MICROS_PER_MILL = 1_000L;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+
+    private static final State[] STATES = State.values();
+
+    // Per-thread scratch space for summing wages by state, indexed by State ordinal:
+    private static final ThreadLocal<long[]> STATE_WAGES = ThreadLocal.withInitial(() -> new long[STATES.length]);
+
+    public TaxReturnDto calculateAll(TaxReturnDto taxReturn, TaxReferenceSnapshot snapshot) {
+        Inputs inputs = new Inputs(taxReturn, snapshot);
+        Results results = new Results();
+        calculate(inputs, snapshot, results);
+
+        // Everything worked out exactly, so write the results back rounded to cents (rounding point 4):
+        taxReturn.setTotalIncome(FixedPoint.millsToDollars(results.totalIncome));
+        taxReturn.setAdjustedGrossIncome(FixedPoint.millsToDollars(results.agi));
+        taxReturn.setTaxableIncome(FixedPoint.millsToDollars(results.taxableIncome));
+        taxReturn.setFedTaxWithheld(BigDecimal.valueOf(inputs.fedTaxWithheldCents, 2));
+        taxReturn.setSocialSecurityTaxWithheld(BigDecimal.valueOf(inputs.socialSecurityTaxWithheldCents, 2));
+        taxReturn.setMedicareTaxWithheld(BigDecimal.valueOf(inputs.medicareTaxWithheldCents, 2));
+        taxReturn.setStateTaxWithheld(BigDecimal.valueOf(inputs.stateTaxWithheldCents, 2));
+        taxReturn.setFederalRefund(FixedPoint.nanosToDollars(results.federalRefund));
+        taxReturn.setStateRefund(FixedPoint.nanosToDollars(results.stateRefund));
+        taxReturn.setTotalCredits(FixedPoint.nanosToDollars(results.totalCredits));
+
+        return taxReturn;
+    }
+
+    // Federal and state refunds in cents of the return with the input set to each of the values, given in cents. The
+    // return is read once and each point only redoes the arithmetic, so each refund is the one calculateAll would give
+    // the return with that value. The return itself isn't changed. Varying the additional income needs the return to
+    // have other income, and varying IRA contributions needs it to have tax credit info:
+    public void refundCurve(TaxReturnDto taxReturn, TaxReferenceSnapshot snapshot, CurveInput input, long[] valuesCents,
+                            long[] federalRefundsCents, long[] stateRefundsCents) {
+        Inputs inputs = new Inputs(taxReturn, snapshot);
+        if (input == CurveInput.ADDITIONAL_INCOME ? !inputs.hasOtherIncome : !inputs.hasTaxCredit) {
+            throw new IllegalArgumentException("tax return has no " + input + " to vary");
+        }
+
+        Results results = new Results();
+        for (int i = 0; i < valuesCents.length; i++) {
+            long value = Math.multiplyExact(valuesCents[i], 10);
+            if (input == CurveInput.ADDITIONAL_INCOME) {
+                inputs.additionalIncome = value;
+                inputs.additionalIncomeScale = 2;
+            } else {
+                inputs.iraContributions = value;
+            }
+            calculate(inputs, snapshot, results);
+            federalRefundsCents[i] = FixedPoint.roundDiv(results.federalRefund, FixedPoint.NANOS_PER_CENT);
+            stateRefundsCents[i] = FixedPoint.roundDiv(results.stateRefund, FixedPoint.NANOS_PER_CENT);
+        }
+    }
+
+    // The pipeline itself, on inputs already converted to FixedPoint units:
+    private void calculate(Inputs inputs, TaxReferenceSnapshot snapshot, Results results) {
+        com.skillstorm.taxservice.constants.FilingStatus filingStatus = inputs.filingStatus;
+
+        // Total income. The scale the BigDecimal sum would end up with is tracked alongside it, see childTaxCredit:
+        long totalIncome = inputs.wages;
+        int totalIncomeScale = inputs.wagesScale;
+        if (inputs.hasOtherIncome) {
+            totalIncome = Math.addExact(totalIncome, inputs.otherIncome);
+            totalIncome = Math.addExact(totalIncome, inputs.additionalIncome);
+            totalIncomeScale = Math.max(totalIncomeScale, Math.max(inputs.otherIncomeScale, inputs.additionalIncomeScale));
+        }
+
+        // AGI. Deduction limits have already been set on the deductions by TaxCalculatorService:
+        long agi = totalIncome;
+        int agiScale = totalIncomeScale;
+        if (inputs.hasDeductions) {
+            agiScale = Math.max(agiScale, inputs.deductionsScale);
+            agi = Math.subtractExact(totalIncome, inputs.totalDeductions);
+            if (agi < 0) {
+                agi = 0;
+                agiScale = 0;
+            }
+        }
+
+        // Taxable income. Itemized limits are a fraction of AGI, so they're summed in micro-dollars (mills * mills):
+        long itemizedMicros = 0;
+        for (int i = 0; i < inputs.itemizedAmountsMicros.length; i++) {
+            long maxDeduction = Math.multiplyExact(agi, inputs.itemizedAgiLimits[i]);
+            itemizedMicros = Math.addExact(itemizedMicros, Math.min(inputs.itemizedAmountsMicros[i], maxDeduction));
+        }
+        long taxableMicros = Math.subtractExact(Math.multiplyExact(agi, MICROS_PER_MILL), Math.max(itemizedMicros, inputs.standardMicros));
+        long taxableIncome = taxableMicros > 0 ? FixedPoint.divideExact(taxableMicros, MICROS_PER_MILL) : 0;
+
+        // Federal taxes:
+        long federalRefund = Math.multiplyExact(inputs.fedTaxWithheldCents, FixedPoint.NANOS_PER_CENT);
+        if (taxableIncome > 0) {
+            federalRefund = Math.subtractExact(federalRefund, inputs.federalSchedule.taxForMills(taxableIncome));
+        }
+
+        // State taxes. Other income is taxed in the return's state, along with any wages from it:
+        long stateTax = inputs.otherStatesTax;
+        if (inputs.returnStatePresent || inputs.hasOtherIncome) {
+            long income = inputs.returnStatePresent ? inputs.returnStateWages : 0;
+            if (inputs.hasOtherIncome) {
+                income = Math.addExact(income, Math.addExact(inputs.stateOtherIncome, inputs.additionalIncome));
+            }
+            stateTax = Math.addExact(stateTax, inputs.returnStateSchedule.taxForMills(income));
+        }
+        long stateRefund = Math.subtractExact(Math.multiplyExact(inputs.stateTaxWithheldCents, FixedPoint.NANOS_PER_CENT), stateTax);
+
+        // Capital gains, stacked on top of ordinary income:
+        if (inputs.longTermCapitalGains > 0) {
+            BracketSchedule capitalGainsSchedule = inputs.capitalGainsSchedule;
+            long capitalGainsTax = Math.subtractExact(capitalGainsSchedule.taxForMills(taxableIncome),
+                    capitalGainsSchedule.taxForMills(Math.subtractExact(taxableIncome, inputs.longTermCapitalGains)));
+            federalRefund = Math.subtractExact(federalRefund, capitalGainsTax);
+        }
+
+        // Credits. Non-refundable credits only bring the federal refund up to zero:
+        long totalCredits = inputs.totalCredits;
+        if (inputs.hasTaxCredit) {
+            long credit = educationTaxCreditLlc(inputs, agi, filingStatus, snapshot);
+            credit = Math.min(credit, Math.max(-federalRefund, 0));
+            totalCredits = Math.addExact(totalCredits, credit);
+            federalRefund = Math.addExact(federalRefund, credit);
+
+            credit = saversTaxCredit(inputs, agi, filingStatus, snapshot);
+            credit = Math.min(credit, Math.max(-federalRefund, 0));
+            totalCredits = Math.addExact(totalCredits, credit);
+            federalRefund = Math.addExact(federalRefund, credit);
+
+            credit = dependentCareTaxCredit(inputs, agi, snapshot);
+            credit = Math.min(credit, Math.max(-federalRefund, 0));
+            totalCredits = Math.addExact(totalCredits, credit);
+            federalRefund = Math.addExact(federalRefund, credit);
+
+            credit = childTaxCredit(inputs, agi, agiScale, federalRefund, filingStatus, snapshot);
+            totalCredits = Math.addExact(totalCredits, credit);
+            federalRefund = Math.addExact(federalRefund, credit);
+
+            credit = educationTaxCreditAotc(inputs, agi, filingStatus, snapshot);
+            totalCredits = Math.addExact(totalCredits, credit);
+            federalRefund = Math.addExact(federalRefund, credit);
+
+            credit = earnedIncomeTaxCredit(inputs, agi, filingStatus, snapshot);
+            totalCredits = Math.addExact(totalCredits, credit);
+            federalRefund = Math.addExact(federalRefund, credit);
+        }
+
+        results.totalIncome = totalIncome;
+        results.agi = agi;
+        results.taxableIncome = taxableIncome;
+        results.federalRefund = federalRefund;
+        results.stateRefund = stateRefund;
+        results.totalCredits = totalCredits;
+    }
+
+    // Child tax credit in nanos. May be negative, exactly as in the BigDecimal calculation:
+    private long childTaxCredit(Inputs inputs, long agi, int agiScale, long federalRefund,
+                                com.skillstorm.taxservice.constants.FilingStatus filingStatus, TaxReferenceSnapshot snapshot) {
+        ChildTaxCredit childTaxCredit = snapshot.getFilingStatus(filingStatus).getChildTaxCredit();
+        int numDependents = inputs.numDependents;
+        if (numDependents <= 0) {
+            return 0;
+        }
+
+        long potentialCredit = Math.multiplyExact((long) (numDependents * childTaxCredit.getPerQualifyingChild()), NANOS_PER_DOLLAR);
+
+        // The BigDecimal calculation divides the excess by 1000 rounding HALF_UP at the AGI's scale, then multiplies
+        // by 50 (rounding point 2). At a scale of six or more that division is exact:
+        long agiExcess = Math.max(Math.subtractExact(agi, Math.multiplyExact(childTaxCredit.getIncomeThreshold(), FixedPoint.MILLS_PER_DOLLAR)), 0);
+        long phaseout;
+        if (agiScale < 6) {
+            long quotient = FixedPoint.roundDiv(Math.multiplyExact(agiExcess, POWERS_OF_TEN[agiScale]), FixedPoint.PPM);
+            phaseout = Math.multiplyExact(Math.multiplyExact(quotient, 50), NANOS_PER_DOLLAR / POWERS_OF_TEN[agiScale]);
+        } else {
+            phaseout = Math.multiplyExact(agiExcess, 50 * FixedPoint.NANOS_PER_MILL / 1000);
+        }
+
+        long credit = Math.subtractExact(potentialCredit, phaseout);
+        if (federalRefund > 0) {
+            long difference = (long) childTaxCredit.getPerQualifyingChild() - childTaxCredit.getRefundLimit();
+            credit = Math.subtractExact(credit, Math.multiplyExact(Math.multiplyExact(difference, numDependents), NANOS_PER_DOLLAR));
+        }
+        return credit;
+    }
+
+    // Earned income tax credit in nanos:
+    private long earnedIncomeTaxCredit(Inputs inputs, long agi,
+                                       com.skillstorm.taxservice.constants.FilingStatus filingStatus, TaxReferenceSnapshot snapshot) {
+        EarnedIncomeTaxCredit earnedIncomeTaxCredit = snapshot.getFilingStatus(filingStatus).getEarnedIncomeTaxCredit();
+        if (inputs.hasOtherIncome
+                && (inputs.otherInvestmentIncome >= earnedIncomeTaxCredit.getInvestmentIncomeLimit() || agi <= 0)) {
+            return 0;
+        }
+
+        int agiThreshold;
+        int creditAmount;
+        switch (inputs.numDependents) {
+            case 0:
+                agiThreshold = earnedIncomeTaxCredit.getAgiThreshold0Children();
+                creditAmount = earnedIncomeTaxCredit.getAmount0Children();
+                break;
+            case 1:
+                agiThreshold = earnedIncomeTaxCredit.getAgiThreshold1Children();
+                creditAmount = earnedIncomeTaxCredit.getAmount1Children();
+                break;
+            case 2:
+                agiThreshold = earnedIncomeTaxCredit.getAgiThreshold2Children();
+                creditAmount = earnedIncomeTaxCredit.getAmount2Children();
+                break;
+            default:
+                agiThreshold = earnedIncomeTaxCredit.getAgiThreshold3Children();
+                creditAmount = earnedIncomeTaxCredit.getAmount3Children();
+        }
+
+        if (agi > Math.multiplyExact(agiThreshold, FixedPoint.MILLS_PER_DOLLAR)) {
+            return 0;
+        }
+        return Math.multiplyExact(creditAmount, NANOS_PER_DOLLAR);
+    }
+
+    // American opportunity tax credit in nanos:
+    private long educationTaxCreditAotc(Inputs inputs, long agi,
+                                        com.skillstorm.taxservice.constants.FilingStatus filingStatus, TaxReferenceSnapshot snapshot) {
+        FilingStatus filingStatusData = snapshot.getFilingStatus(filingStatus);
+        EducationTaxCreditAotc aotc = filingStatusData.getEducationTaxCreditAotc();
+        int numDependents = inputs.numDependentsAotc;
+        long educationExpenses = inputs.educationExpenses;
+        if (numDependents <= 0 || educationExpenses <= 0) {
+            return 0;
+        }
+
+        FixedPointCredits rates = snapshot.getFixedPointCredits(filingStatus);
+        long rate = FixedPoint.PPM;
+        long fullCreditThreshold = Math.multiplyExact(aotc.getFullCreditIncomeThreshold(), FixedPoint.MILLS_PER_DOLLAR);
+        if (agi > fullCreditThreshold) {
+            if (agi - fullCreditThreshold > Math.multiplyExact(aotc.getPartialCreditIncomeThreshold(), FixedPoint.MILLS_PER_DOLLAR)) {
+                return 0;
+            }
+            rate = rates.getAotcIncomePartialCreditRatePpm();
+        }
+
+        if (rates.isMarriedFilingSeparately()) {
+            return 0;
+        }
+
+        // Expenses per dependent rounded to cents (rounding point 3), then carried in nanos:
+        long expensesPerDependent = Math.multiplyExact(FixedPoint.roundDiv(educationExpenses, 10L * numDependents), FixedPoint.NANOS_PER_CENT);
+        long fullCreditExpenses = Math.multiplyExact(aotc.getExpensesThresholdFullCredit(), NANOS_PER_DOLLAR);
+        if (expensesPerDependent > fullCreditExpenses) {
+            long reducedExpenses = FixedPoint.nanosTimesRate(expensesPerDependent - fullCreditExpenses, rates.getAotcExpensesPartialCreditRatePpm());
+            expensesPerDependent = Math.addExact(fullCreditExpenses, reducedExpenses);
+        }
+
+        long creditPerDependent = Math.min(expensesPerDependent, Math.multiplyExact(aotc.getMaxCreditAmountPerStudent(), NANOS_PER_DOLLAR));
+        return FixedPoint.nanosTimesRate(Math.multiplyExact(creditPerDependent, numDependents), rate);
+    }
+
+    // Lifetime learning credit in nanos, before it is capped at what brings the refund to zero:
+    private long educationTaxCreditLlc(Inputs inputs, long agi,
+                                       com.skillstorm.taxservice.constants.FilingStatus filingStatus, TaxReferenceSnapshot snapshot) {
+        long educationExpenses = inputs.llcEducationExpenses;
+        if (!inputs.claimLlcCredit || educationExpenses <= 0) {
+            return 0;
+        }
+
+        EducationTaxCreditLlc llc = snapshot.getFilingStatus(filingStatus).getEducationTaxCreditLlc();
+        FixedPointCredits rates = snapshot.getFixedPointCredits(filingStatus);
+        long rate = FixedPoint.PPM;
+        long fullCreditThreshold = Math.multiplyExact(llc.getFullCreditIncomeThreshold(), FixedPoint.MILLS_PER_DOLLAR);
+        if (agi > fullCreditThreshold) {
+            if (agi - fullCreditThreshold > Math.multiplyExact(llc.getPartialCreditIncomeThreshold(), FixedPoint.MILLS_PER_DOLLAR)) {
+                return 0;
+            }
+            rate = rates.getLlcIncomePartialCreditRatePpm();
+        }
+
+        educationExpenses = Math.min(educationExpenses, Math.multiplyExact(llc.getExpensesThreshold(), FixedPoint.MILLS_PER_DOLLAR));
+        long credit = FixedPoint.millsTimesRate(educationExpenses, rates.getLlcCreditRatePpm());
+        return FixedPoint.nanosTimesRate(credit, rate);
+    }
+
+    // Saver's credit in nanos, before it is capped at what brings the refund to zero:
+    private long saversTaxCredit(Inputs inputs, long agi,
+                                 com.skillstorm.taxservice.constants.FilingStatus filingStatus, TaxReferenceSnapshot snapshot) {
+        long iraContributions = inputs.iraContributions;
+        if (inputs.claimedAsDependent || iraContributions <= 0) {
+            return 0;
+        }
+
+        SaversTaxCredit savers = snapshot.getFilingStatus(filingStatus).getSaversTaxCredit();
+        FixedPointCredits rates = snapshot.getFixedPointCredits(filingStatus);
+        long firstThreshold = Math.multiplyExact(savers.getAgiThresholdFirstContributionLimit(), FixedPoint.MILLS_PER_DOLLAR);
+        long secondThreshold = Math.multiplyExact(savers.getAgiThresholdSecondContributionLimit(), FixedPoint.MILLS_PER_DOLLAR);
+        long thirdThreshold = Math.multiplyExact(savers.getAgiThresholdThirdContributionLimit(), FixedPoint.MILLS_PER_DOLLAR);
+
+        long rate = rates.getSaversFirstContributionRatePpm();
+        if (agi > firstThreshold) {
+            long remainingAgi = agi - firstThreshold;
+            if (remainingAgi > secondThreshold) {
+                remainingAgi -= secondThreshold;
+                if (remainingAgi > thirdThreshold) {
+                    return 0;
+                }
+                rate = rates.getSaversThirdContributionRatePpm();
+            } else {
+                rate = rates.getSaversSecondContributionRatePpm();
+            }
+        }
+
+        iraContributions = Math.min(iraContributions, Math.multiplyExact(savers.getMaxContributionAmount(), FixedPoint.MILLS_PER_DOLLAR));
+        return FixedPoint.millsTimesRate(iraContributions, rate);
+    }
+
+    // Dependent care credit in nanos, before it is capped at what brings the refund to zero:
+    private long dependentCareTaxCredit(Inputs inputs, long agi, TaxReferenceSnapshot snapshot) {
+        int numChildren = inputs.numChildren;
+        long childCareExpenses = inputs.childCareExpenses;
+        if (numChildren <= 0 || childCareExpenses <= 0) {
+            return 0;
+        }
+
+        List<DependentCareTaxCredit> brackets = snapshot.getDependentCareBrackets();
+        int creditLimit = snapshot.getDependentCareLimit(numChildren).getCreditLimit();
+
+        // Walk the brackets until the remaining AGI fits in one:
+        long remainingAgi = agi;
+        long rate = snapshot.getDependentCareRatePpm(0);
+        for (int i = 0; i < brackets.size(); i++) {
+            long incomeRange = Math.multiplyExact(brackets.get(i).getIncomeRange(), FixedPoint.MILLS_PER_DOLLAR);
+            rate = snapshot.getDependentCareRatePpm(i);
+            if (remainingAgi > incomeRange) {
+                remainingAgi -= incomeRange;
+            } else {
+                break;
+            }
+        }
+
+        long credit = FixedPoint.millsTimesRate(childCareExpenses, rate);
+        return Math.min(credit, Math.multiplyExact(creditLimit, NANOS_PER_DOLLAR));
+    }
+
+    // Everything the pipeline reads from a return, converted to FixedPoint units once. Sums that don't depend on
+    // income, like the withholdings, the deductions and the tax on wages from states other than the return's, are
+    // worked out here too. Conversions are only made where the BigDecimal calculation would use the value, so a return
+    // is only sent back to it for a value that matters. The additional income and IRA contributions aren't final, so
+    // refundCurve can vary them:
+    private static final class Inputs {
+
+        final com.skillstorm.taxservice.constants.FilingStatus filingStatus;
+
+        // Income in mills, with the scales of the BigDecimals they were read from. otherIncome leaves out the
+        // additional income, and stateOtherIncome leaves out long term capital gains as well:
+        final long wages;
+        final int wagesScale;
+        final boolean hasOtherIncome;
+        final long otherIncome;
+        final int otherIncomeScale;
+        final long stateOtherIncome;
+        final long longTermCapitalGains;
+        final double otherInvestmentIncome;
+        long additionalIncome;
+        int additionalIncomeScale;
+
+        // The total the deductions take off AGI, with the scale of the amounts it was summed from, and the itemized
+        // deductions' amounts in micro-dollars and AGI limits in mills:
+        final boolean hasDeductions;
+        final long totalDeductions;
+        final int deductionsScale;
+        final long[] itemizedAmountsMicros;
+        final long[] itemizedAgiLimits;
+        final long standardMicros;
+
+        // Withholdings, rounded to cents (rounding point 1):
+        final long fedTaxWithheldCents;
+        final long socialSecurityTaxWithheldCents;
+        final long medicareTaxWithheldCents;
+        final long stateTaxWithheldCents;
+
+        // Tax in nanos on wages from states other than the return's, and the return's own state. The return's state
+        // is taxed on its wages and the other income together:
+        final long otherStatesTax;
+        final boolean returnStatePresent;
+        final long returnStateWages;
+        final BracketSchedule returnStateSchedule;
+
+        final BracketSchedule federalSchedule;
+        final BracketSchedule capitalGainsSchedule;
+
+        // Credits already on the return in nanos, and the credit inputs with expenses in mills:
+        final long totalCredits;
+        final boolean hasTaxCredit;
+        final int numDependents;
+        final int numDependentsAotc;
+        final int numChildren;
+        final long childCareExpenses;
+        final long educationExpenses;
+        final long llcEducationExpenses;
+        final boolean claimLlcCredit;
+        final boolean claimedAsDependent;
+        long iraContributions;
+
+        Inputs(TaxReturnDto taxReturn, TaxReferenceSnapshot snapshot) {
+            List<W2Dto> w2s = taxReturn.getW2s();
+            OtherIncomeDto otherIncome = taxReturn.getOtherIncome();
+            filingStatus = taxReturn.getFilingStatus();
+
+            long totalWages = 0;
+            int totalWagesScale = 0;
+            for (int i = 0; i < w2s.size(); i++) {
+                BigDecimal w2Wages = w2s.get(i).getWages();
+                totalWages = Math.addExact(totalWages, FixedPoint.toMills(w2Wages));
+                totalWagesScale = Math.max(totalWagesScale, w2Wages.scale());
+            }
+            wages = totalWages;
+            wagesScale = totalWagesScale;
+
+            hasOtherIncome = otherIncome != null;
+            if (hasOtherIncome) {
+                stateOtherIncome = Math.addExact(Math.addExact(FixedPoint.toMills(otherIncome.getOtherInvestmentIncome()),
+                        FixedPoint.toMills(otherIncome.getNetBusinessIncome())), FixedPoint.toMills(otherIncome.getShortTermCapitalGains()));
+                longTermCapitalGains = FixedPoint.toMills(otherIncome.getLongTermCapitalGains());
+                this.otherIncome = Math.addExact(stateOtherIncome, longTermCapitalGains);
+                otherIncomeScale = Math.max(Math.max(otherIncome.getLongTermCapitalGains().scale(), otherIncome.getShortTermCapitalGains().scale()),
+                        Math.max(otherIncome.getOtherInvestmentIncome().scale(), otherIncome.getNetBusinessIncome().scale()));
+                otherInvestmentIncome = otherIncome.getOtherInvestmentIncome().doubleValue();
+                additionalIncome = FixedPoint.toMills(otherIncome.getAdditionalIncome());
+                additionalIncomeScale = otherIncome.getAdditionalIncome().scale();
+            } else {
+                stateOtherIncome = 0;
+                longTermCapitalGains = 0;
+                this.otherIncome = 0;
+                otherIncomeScale = 0;
+                otherInvestmentIncome = 0;
+            }
+
+            // Deductions, applied up to their limits. Deduction limits have already been set on the deductions by
+            // TaxCalculatorService:
+            List<TaxReturnDeductionDto> deductions = taxReturn.getDeductions();
+            hasDeductions = !deductions.isEmpty();
+            long deductionsTotal = 0;
+            int scale = 0;
+            int itemizedCount = 0;
+            for (int i = 0; i < deductions.size(); i++) {
+                TaxReturnDeductionDto deduction = deductions.get(i);
+                long amountSpent = FixedPoint.toMills(deduction.getAmountSpent());
+                long agiLimit = FixedPoint.toMills(deduction.getAgiLimit());
+                if (amountSpent <= agiLimit) {
+                    deductionsTotal = Math.addExact(deductionsTotal, amountSpent);
+                    scale = Math.max(scale, deduction.getAmountSpent().scale());
+                } else {
+                    deductionsTotal = Math.addExact(deductionsTotal, agiLimit);
+                    scale = Math.max(scale, deduction.getAgiLimit().scale());
+                }
+                if (deduction.isItemized()) {
+                    itemizedCount++;
+                }
+            }
+            totalDeductions = deductionsTotal;
+            deductionsScale = scale;
+
+            itemizedAmountsMicros = new long[itemizedCount];
+            itemizedAgiLimits = new long[itemizedCount];
+            for (int i = 0, j = 0; i < deductions.size(); i++) {
+                TaxReturnDeductionDto deduction = deductions.get(i);
+                if (deduction.isItemized()) {
+                    itemizedAmountsMicros[j] = Math.multiplyExact(FixedPoint.toMills(deduction.getAmountSpent()), MICROS_PER_MILL);
+                    itemizedAgiLimits[j] = FixedPoint.toMills(deduction.getAgiLimit());
+                    j++;
+                }
+            }
+            standardMicros = Math.multiplyExact(snapshot.getStandardDeduction(filingStatus).longValueExact(),
+                    FixedPoint.MILLS_PER_DOLLAR * MICROS_PER_MILL);
+
+            long fedTaxWithheld = 0;
+            long socialSecurityTaxWithheld = 0;
+            long medicareTaxWithheld = 0;
+            long stateTaxWithheld = 0;
+            for (int i = 0; i < w2s.size(); i++) {
+                W2Dto w2 = w2s.get(i);
+                fedTaxWithheld = Math.addExact(fedTaxWithheld, FixedPoint.toMills(w2.getFederalIncomeTaxWithheld()));
+                socialSecurityTaxWithheld = Math.addExact(socialSecurityTaxWithheld, FixedPoint.toMills(w2.getSocialSecurityTaxWithheld()));
+                medicareTaxWithheld = Math.addExact(medicareTaxWithheld, FixedPoint.toMills(w2.getMedicareTaxWithheld()));
+                stateTaxWithheld = Math.addExact(stateTaxWithheld, FixedPoint.toMills(w2.getStateIncomeTaxWithheld()));
+            }
+            fedTaxWithheldCents = FixedPoint.roundDiv(fedTaxWithheld, 10);
+            socialSecurityTaxWithheldCents = FixedPoint.roundDiv(socialSecurityTaxWithheld, 10);
+            medicareTaxWithheldCents = FixedPoint.roundDiv(medicareTaxWithheld, 10);
+            stateTaxWithheldCents = FixedPoint.roundDiv(stateTaxWithheld, 10);
+
+            // Wages are grouped by state in the thread's scratch array, with a bit mask recording which states have
+            // W2s:
+            State taxReturnState = taxReturn.getState();
+            long[] wagesByState = STATE_WAGES.get();
+            long statesPresent = 0;
+            for (int i = 0; i < w2s.size(); i++) {
+                W2Dto w2 = w2s.get(i);
+                int ordinal = w2.getState().ordinal();
+                long bit = 1L << ordinal;
+                if ((statesPresent & bit) == 0) {
+                    statesPresent |= bit;
+                    wagesByState[ordinal] = 0;
+                }
+                wagesByState[ordinal] = Math.addExact(wagesByState[ordinal], FixedPoint.toMills(w2.getWages()));
+            }
+            returnStatePresent = taxReturnState != null && (statesPresent & (1L << taxReturnState.ordinal())) != 0;
+            returnStateWages = returnStatePresent ? wagesByState[taxReturnState.ordinal()] : 0;
+
+            long tax = 0;
+            for (long remaining = statesPresent; remaining != 0; remaining &= remaining - 1) {
+                State state = STATES[Long.numberOfTrailingZeros(remaining)];
+                if (!state.equals(taxReturnState)) {
+                    tax = Math.addExact(tax, snapshot.getStateSchedule(state).taxForMills(wagesByState[state.ordinal()]));
+                }
+            }
+            otherStatesTax = tax;
+            returnStateSchedule = returnStatePresent || hasOtherIncome ? snapshot.getStateSchedule(taxReturnState) : null;
+
+            federalSchedule = snapshot.getFederalSchedule(filingStatus);
+            capitalGainsSchedule = longTermCapitalGains > 0 ? snapshot.getCapitalGainsSchedule(filingStatus) : null;
+
+            totalCredits = FixedPoint.toNanos(taxReturn.getTotalCredits());
+            TaxReturnCreditDto taxCredit = taxReturn.getTaxCredit();
+            hasTaxCredit = taxCredit != null;
+            if (hasTaxCredit) {
+                numDependents = taxCredit.getNumDependents();
+                numDependentsAotc = taxCredit.getNumDependentsAotc();
+                numChildren = taxCredit.getNumChildren();
+                claimLlcCredit = taxCredit.isClaimLlcCredit();
+                claimedAsDependent = taxCredit.isClaimedAsDependent();
+                childCareExpenses = numChildren > 0 ? positiveMills(taxCredit.getChildCareExpenses()) : 0;
+                educationExpenses = numDependentsAotc > 0 ? positiveMills(taxCredit.getEducationExpenses()) : 0;
+                llcEducationExpenses = claimLlcCredit ? positiveMills(taxCredit.getLlcEducationExpenses()) : 0;
+                iraContributions = !claimedAsDependent ? positiveMills(taxCredit.getIraContributions()) : 0;
+            } else {
+                numDependents = 0;
+                numDependentsAotc = 0;
+                numChildren = 0;
+                claimLlcCredit = false;
+                claimedAsDependent = false;
+                childCareExpenses = 0;
+                educationExpenses = 0;
+                llcEducationExpenses = 0;
+            }
+        }
+
+        // Credits that don't apply to an amount of zero or less are never converted:
+        private static long positiveMills(BigDecimal amount) {
+            return amount.signum() > 0 ? FixedPoint.toMills(amount) : 0;
+        }
+    }
+
+    // Results of one pass of the pipeline, before rounding. Incomes are in mills, refunds and credits in nanos:
+    private static final class Results {
+        long totalIncome;
+        long agi;
+        long taxableIncome;
+        long federalRefund;
+        long stateRefund;
+        long totalCredits;
+    }
+}
@@ -0,0 +1,261 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.exceptions.NotFoundException;
+import com.skillstorm.taxservice.models.CapitalGainsTax;
+import com.skillstorm.taxservice.models.Deduction;
+import com.skillstorm.taxservice.models.StandardDeduction;
+import com.skillstorm.taxservice.models.StateTax;
+import com.skillstorm.taxservice.models.TaxBracket;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCreditLimit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Immutable, in-memory copy of all static tax reference data used by the TaxCalculatorService. Built once from
+// the reference tables so that a calculation never has to go back to the database. The entities held here are
+// detached and shared between threads, so they must be treated as read-only:
+public class TaxReferenceSnapshot {
+
+    private static final BracketSchedule EMPTY_SCHEDULE = BracketSchedule.builder().build();
+
+    private final Map<FilingStatus, com.skillstorm.taxservice.models.FilingStatus> filingStatuses;
+    private final Map<FilingStatus, BracketSchedule> federalSchedules;
+    private final Map<FilingStatus, BracketSchedule> capitalGainsSchedules;
+    private final Map<FilingStatus, BigDecimal> standardDeductions;
+    private final Map<State, BracketSchedule> stateSchedules;
+    private final List<DependentCareTaxCredit> dependentCareBrackets;
+
+    // Credit and dependent care rates precompiled for the FixedPointTaxEngine:
+    private final Map<FilingStatus, FixedPointCredits> fixedPointCredits;
+    private final long[] dependentCareRatesPpm;
+
+    // Indexed by number of dependents and by deduction id respectively:
+    private final DependentCareTaxCreditLimit[] dependentCareLimits;
+    private final DeductionRule[] deductionRules;
+
+    // deduction.not.found from SystemMessages.properties, resolved by TaxReferenceDataService:
+    private final String deductionNotFoundMessage;
+
+    // Lists are expected in id order, which is the order the brackets are applied in, and to hold one tax year each.
+    // TaxYearSnapshots splits the reference tables by year:
+    public TaxReferenceSnapshot(List<com.skillstorm.taxservice.models.FilingStatus> filingStatuses,
+                                List<TaxBracket> taxBrackets,
+                                List<StateTax> stateTaxBrackets,
+                                List<CapitalGainsTax> capitalGainsBrackets,
+                                List<StandardDeduction> standardDeductions,
+                                List<DependentCareTaxCredit> dependentCareBrackets,
+                                List<DependentCareTaxCreditLimit> dependentCareLimits,
+                                List<Deduction> deductions,
+                                String deductionNotFoundMessage) {
+
+        Map<FilingStatus, com.skillstorm.taxservice.models.FilingStatus> statuses = new EnumMap<>(FilingStatus.class);
+        for (com.skillstorm.taxservice.models.FilingStatus filingStatus : filingStatuses) {
+            FilingStatus key = filingStatusFor(filingStatus.getStatusCode());
+            if (key != null) {
+                statuses.put(key, filingStatus);
+            }
+        }
+        this.filingStatuses = Collections.unmodifiableMap(statuses);
+
+        Map<FilingStatus, FixedPointCredits> credits = new EnumMap<>(FilingStatus.class);
+        statuses.forEach((key, value) -> credits.put(key, new FixedPointCredits(value)));
+        this.fixedPointCredits = Collections.unmodifiableMap(credits);
+
+        Map<FilingStatus, List<TaxBracket>> brackets = new EnumMap<>(FilingStatus.class);
+        for (TaxBracket bracket : taxBrackets) {
+            FilingStatus key = filingStatusFor(bracket.getFilingStatus().getStatusCode());
+            if (key != null) {
+                brackets.computeIfAbsent(key, k -> new ArrayList<>()).add(bracket);
+            }
+        }
+        this.federalSchedules = compile(FilingStatus.class, brackets, TaxReferenceSnapshot::compileFederal);
+
+        Map<FilingStatus, List<CapitalGainsTax>> capitalGains = new EnumMap<>(FilingStatus.class);
+        for (CapitalGainsTax bracket : capitalGainsBrackets) {
+            FilingStatus key = filingStatusFor(bracket.getFilingStatus().getStatusCode());
+            if (key != null) {
+                capitalGains.computeIfAbsent(key, k -> new ArrayList<>()).add(bracket);
+            }
+        }
+        this.capitalGainsSchedules = compile(FilingStatus.class, capitalGains, TaxReferenceSnapshot::compileCapitalGains);
+
+        Map<FilingStatus, BigDecimal> standard = new EnumMap<>(FilingStatus.class);
+        for (StandardDeduction standardDeduction : standardDeductions) {
+            FilingStatus key = filingStatusFor(standardDeduction.getFilingStatus().getStatusCode());
+            if (key != null) {
+                standard.put(key, BigDecimal.valueOf(standardDeduction.getDeductionAmount()));
+            }
+        }
+        this.standardDeductions = Collections.unmodifiableMap(standard);
+
+        Map<State, List<StateTax>> stateBrackets = new EnumMap<>(State.class);
+        for (StateTax bracket : stateTaxBrackets) {
+            State key = State.fromValue(bracket.getState().getId());
+            if (key != null) {
+                stateBrackets.computeIfAbsent(key, k -> new ArrayList<>()).add(bracket);
+            }
+        }
+        this.stateSchedules = compile(State.class, stateBrackets, TaxReferenceSnapshot::compileState);
+
+        this.dependentCareBrackets = List.copyOf(dependentCareBrackets);
+        this.dependentCareRatesPpm = new long[dependentCareBrackets.size()];
+        for (int i = 0; i < dependentCareRatesPpm.length; i++) {
+            dependentCareRatesPpm[i] = FixedPoint.ppmOrUnsupported(dependentCareBrackets.get(i).getRate());
+        }
+
+        int maxDependents = dependentCareLimits.stream().mapToInt(DependentCareTaxCreditLimit::getNumDependents).max().orElse(0);
+        this.dependentCareLimits = new DependentCareTaxCreditLimit[maxDependents + 1];
+        for (DependentCareTaxCreditLimit limit : dependentCareLimits) {
+            this.dependentCareLimits[limit.getNumDependents()] = limit;
+        }
+
+        int maxDeductionId = deductions.stream().mapToInt(Deduction::getId).max().orElse(0);
+        this.deductionRules = new DeductionRule[maxDeductionId + 1];
+        for (Deduction deduction : deductions) {
+            this.deductionRules[deduction.getId()] = new DeductionRule(deduction);
+        }
+        this.deductionNotFoundMessage = deductionNotFoundMessage;
+    }
+
+    // Empty snapshot. Any lookup against it behaves as if the reference tables were empty:
+    public static TaxReferenceSnapshot empty(String deductionNotFoundMessage) {
+        return new TaxReferenceSnapshot(List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), List.of(),
+                deductionNotFoundMessage);
+    }
+
+    public com.skillstorm.taxservice.models.FilingStatus getFilingStatus(FilingStatus filingStatus) {
+        com.skillstorm.taxservice.models.FilingStatus result = filingStatuses.get(filingStatus);
+        if (result == null) {
+            throw new NotFoundException("No filing status found with ID: " + filingStatus.getValue());
+        }
+        return result;
+    }
+
+    // A filing status without brackets owes no federal income tax, as with an empty bracket table:
+    public BracketSchedule getFederalSchedule(FilingStatus filingStatus) {
+        return federalSchedules.getOrDefault(filingStatus, EMPTY_SCHEDULE);
+    }
+
+    public BracketSchedule getCapitalGainsSchedule(FilingStatus filingStatus) {
+        BracketSchedule result = capitalGainsSchedules.get(filingStatus);
+        if (result == null) {
+            throw new NotFoundException("No capital gains tax info found for filing status id: " + filingStatus.getValue());
+        }
+        return result;
+    }
+
+    // Looked up the same way as getFilingStatus, so a missing filing status fails with the same exception:
+    public FixedPointCredits getFixedPointCredits(FilingStatus filingStatus) {
+        getFilingStatus(filingStatus);
+        return fixedPointCredits.get(filingStatus);
+    }
+
+    public BigDecimal getStandardDeduction(FilingStatus filingStatus) {
+        BigDecimal result = standardDeductions.get(filingStatus);
+        if (result == null) {
+            throw new NotFoundException("Standardized deduction not found for filing status id: " + filingStatus.getValue());
+        }
+        return result;
+    }
+
+    public BracketSchedule getStateSchedule(State state) {
+        BracketSchedule result = stateSchedules.get(state);
+        if (result == null) {
+            throw new NotFoundException("State tax info not found for state ID: " + state.getValue());
+        }
+        return result;
+    }
+
+    public List<DependentCareTaxCredit> getDependentCareBrackets() {
+        return dependentCareBrackets;
+    }
+
+    // Rate in ppm of the dependent care bracket at the given index, in the same order as getDependentCareBrackets:
+    public long getDependentCareRatePpm(int index) {
+        return FixedPoint.requirePpm(dependentCareRatesPpm[index]);
+    }
+
+    // Anything above the highest configured number of dependents uses the highest limit:
+    public DependentCareTaxCreditLimit getDependentCareLimit(int numDependents) {
+        if (numDependents < 1) {
+            throw new IllegalArgumentException("number of dependents: " + numDependents + " not a valid number");
+        }
+        return dependentCareLimits[Math.min(numDependents, dependentCareLimits.length - 1)];
+    }
+
+    public Deduction getDeduction(int id) {
+        return getDeductionRule(id).getDeduction();
+    }
+
+    public DeductionRule getDeductionRule(int id) {
+        if (id < 0 || id >= deductionRules.length || deductionRules[id] == null) {
+            throw new NotFoundException(deductionNotFoundMessage, id);
+        }
+        return deductionRules[id];
+    }
+
+    // Map a filing status code from the database onto the enum, ignoring codes the enum doesn't know about:
+    private static FilingStatus filingStatusFor(int statusCode) {
+        for (FilingStatus filingStatus : FilingStatus.values()) {
+            if (filingStatus.getValue() == statusCode) {
+                return filingStatus;
+            }
+        }
+        return null;
+    }
+
+    // Federal brackets are stored as min/max incomes. Their width is max - min, matching how they have always been
+    // applied, and a max of Integer.MAX_VALUE marks the open-ended top bracket:
+    private static BracketSchedule compileFederal(List<TaxBracket> brackets) {
+        BracketSchedule.Builder builder = BracketSchedule.builder();
+        for (TaxBracket bracket : brackets) {
+            if (bracket.getMaxIncome() == Integer.MAX_VALUE) {
+                builder.openEnded(bracket.getRate());
+                break;
+            }
+            builder.bracket((long) bracket.getMaxIncome() - bracket.getMinIncome(), bracket.getRate());
+        }
+        return builder.build();
+    }
+
+    // State brackets are stored as widths. An income range of 0 marks the open-ended top bracket:
+    private static BracketSchedule compileState(List<StateTax> brackets) {
+        BracketSchedule.Builder builder = BracketSchedule.builder();
+        for (StateTax bracket : brackets) {
+            if (bracket.getIncomeRange() == 0) {
+                builder.openEnded(bracket.getRate());
+                break;
+            }
+            builder.bracket(bracket.getIncomeRange(), bracket.getRate());
+        }
+        return builder.build();
+    }
+
+    // Capital gains brackets are stored as widths. An income range of 0 marks the open-ended top bracket:
+    private static BracketSchedule compileCapitalGains(List<CapitalGainsTax> brackets) {
+        BracketSchedule.Builder builder = BracketSchedule.builder();
+        for (CapitalGainsTax bracket : brackets) {
+            if (bracket.getIncomeRange() == 0) {
+                builder.openEnded(bracket.getRate());
+                break;
+            }
+            builder.bracket(bracket.getIncomeRange(), bracket.getRate());
+        }
+        return builder.build();
+    }
+
+    private static <K extends Enum<K>, V> Map<K, BracketSchedule> compile(Class<K> keyType, Map<K, List<V>> brackets,
+                                                                        Function<List<V>, BracketSchedule> compiler) {
+        Map<K, BracketSchedule> schedules = new EnumMap<>(keyType);
+        brackets.forEach((key, value) -> schedules.put(key, compiler.apply(value)));
+        return Collections.unmodifiableMap(schedules);
+    }
+}
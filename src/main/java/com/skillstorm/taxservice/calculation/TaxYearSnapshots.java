@@ -0,0 +1,126 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.models.CapitalGainsTax;
+import com.skillstorm.taxservice.models.Deduction;
+import com.skillstorm.taxservice.models.FilingStatus;
+import com.skillstorm.taxservice.models.StandardDeduction;
+import com.skillstorm.taxservice.models.StateTax;
+import com.skillstorm.taxservice.models.TaxBracket;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCreditLimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+// One TaxReferenceSnapshot per tax year, all built up front so a calculation picks its year's tables with an array
+// lookup. A table's rows for a year apply to that year and every later year until a later year has rows of its own,
+// so a new year only has to load the tables that changed. Years before the first loaded year use the first year's
+// tables and years after the last use the last year's:
+public class TaxYearSnapshots {
+
+    private final int firstYear;
+    private final TaxReferenceSnapshot[] snapshots;
+
+    // Lists are expected in id order, as for TaxReferenceSnapshot. Deductions aren't kept per year and are shared by
+    // every snapshot, as is the message for an unknown deduction id:
+    public TaxYearSnapshots(List<FilingStatus> filingStatuses,
+                            List<TaxBracket> taxBrackets,
+                            List<StateTax> stateTaxBrackets,
+                            List<CapitalGainsTax> capitalGainsBrackets,
+                            List<StandardDeduction> standardDeductions,
+                            List<DependentCareTaxCredit> dependentCareBrackets,
+                            List<DependentCareTaxCreditLimit> dependentCareLimits,
+                            List<Deduction> deductions,
+                            String deductionNotFoundMessage) {
+
+        // Tables linked to a filing status take their year from it:
+        NavigableMap<Integer, List<FilingStatus>> statusesByYear = byYear(filingStatuses, FilingStatus::getTaxYear);
+        NavigableMap<Integer, List<TaxBracket>> bracketsByYear =
+                byYear(taxBrackets, bracket -> bracket.getFilingStatus().getTaxYear());
+        NavigableMap<Integer, List<StateTax>> stateByYear = byYear(stateTaxBrackets, StateTax::getTaxYear);
+        NavigableMap<Integer, List<CapitalGainsTax>> capitalGainsByYear =
+                byYear(capitalGainsBrackets, bracket -> bracket.getFilingStatus().getTaxYear());
+        NavigableMap<Integer, List<StandardDeduction>> standardByYear =
+                byYear(standardDeductions, deduction -> deduction.getFilingStatus().getTaxYear());
+        NavigableMap<Integer, List<DependentCareTaxCredit>> dependentCareByYear =
+                byYear(dependentCareBrackets, DependentCareTaxCredit::getTaxYear);
+        NavigableMap<Integer, List<DependentCareTaxCreditLimit>> limitsByYear =
+                byYear(dependentCareLimits, DependentCareTaxCreditLimit::getTaxYear);
+
+        TreeSet<Integer> years = new TreeSet<>();
+        for (NavigableMap<Integer, ?> table : List.of(statusesByYear, bracketsByYear, stateByYear, capitalGainsByYear,
+                standardByYear, dependentCareByYear, limitsByYear)) {
+            years.addAll(table.keySet());
+        }
+
+        if (years.isEmpty()) {
+            this.firstYear = 0;
+            this.snapshots = new TaxReferenceSnapshot[] { TaxReferenceSnapshot.empty(deductionNotFoundMessage) };
+            return;
+        }
+
+        this.firstYear = years.first();
+        this.snapshots = new TaxReferenceSnapshot[years.last() - firstYear + 1];
+        for (int i = 0; i < snapshots.length; i++) {
+            int year = firstYear + i;
+            // Years without a table of their own share the snapshot of the year before:
+            if (i > 0 && !years.contains(year)) {
+                snapshots[i] = snapshots[i - 1];
+                continue;
+            }
+            snapshots[i] = new TaxReferenceSnapshot(
+                    forYear(statusesByYear, year),
+                    forYear(bracketsByYear, year),
+                    forYear(stateByYear, year),
+                    forYear(capitalGainsByYear, year),
+                    forYear(standardByYear, year),
+                    forYear(dependentCareByYear, year),
+                    forYear(limitsByYear, year),
+                    deductions,
+                    deductionNotFoundMessage);
+        }
+    }
+
+    // Empty set of snapshots. Every year gets TaxReferenceSnapshot.empty():
+    public static TaxYearSnapshots empty(String deductionNotFoundMessage) {
+        return new TaxYearSnapshots(List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), List.of(),
+                deductionNotFoundMessage);
+    }
+
+    // Snapshot for the given tax year, clamped to the first and last years loaded:
+    public TaxReferenceSnapshot get(int year) {
+        int index = Math.max(0, Math.min(year - firstYear, snapshots.length - 1));
+        return snapshots[index];
+    }
+
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return firstYear + snapshots.length - 1;
+    }
+
+    // Group rows by year, keeping them in the order they were given:
+    private static <T> NavigableMap<Integer, List<T>> byYear(List<T> rows, ToIntFunction<T> year) {
+        NavigableMap<Integer, List<T>> result = new TreeMap<>();
+        for (T row : rows) {
+            result.computeIfAbsent(year.applyAsInt(row), k -> new ArrayList<>()).add(row);
+        }
+        return result;
+    }
+
+    // Rows of the latest year at or before the given one, falling back to the earliest year's rows:
+    private static <T> List<T> forYear(NavigableMap<Integer, List<T>> table, int year) {
+        Map.Entry<Integer, List<T>> entry = table.floorEntry(year);
+        if (entry == null) {
+            entry = table.firstEntry();
+        }
+        return entry == null ? List.of() : entry.getValue();
+    }
+}
@@ -0,0 +1,20 @@
+package com.skillstorm.taxservice.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class CalculationExecutorConfig {
+
+    // Calculations are CPU bound, so the pool defaults to one thread per core. Set TAX_CALCULATION_THREADS to
+    // override it:
+    @Bean(name = "calculationExecutor", destroyMethod = "shutdown")
+    public ExecutorService calculationExecutor(@Value("${taxes.calculation.threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(poolSize);
+    }
+}
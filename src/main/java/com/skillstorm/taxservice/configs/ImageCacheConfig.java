@@ -0,0 +1,33 @@
+package com.skillstorm.taxservice.configs;
+
+import com.skillstorm.taxservice.services.ImageCache;
+import com.skillstorm.taxservice.utilities.DiskImageCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Configuration
+public class ImageCacheConfig {
+
+    // Keep recently downloaded W2 images on local disk, so repeat views don't go back to S3:
+    @Bean
+    @ConditionalOnProperty(name = "taxes.s3.cache.enabled", havingValue = "true")
+    public ImageCache diskImageCache(@Value("${taxes.s3.cache.directory}") Path directory,
+                                     @Value("${taxes.s3.cache.max-size:1GB}") DataSize maxSize,
+                                     MeterRegistry meterRegistry) {
+        return new DiskImageCache(directory, maxSize.toBytes(), meterRegistry);
+    }
+
+    // Otherwise every download goes to S3:
+    @Bean
+    @ConditionalOnMissingBean(ImageCache.class)
+    public ImageCache noImageCache() {
+        return ImageCache.NONE;
+    }
+}
@@ -0,0 +1,30 @@
+package com.skillstorm.taxservice.configs;
+
+import com.skillstorm.taxservice.utilities.DatabaseCallMetricsFilter;
+import com.skillstorm.taxservice.utilities.StatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public StatementCounter statementCounter(MeterRegistry meterRegistry) {
+        return new StatementCounter(meterRegistry);
+    }
+
+    // Have Hibernate pass every statement it prepares through the counter:
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    // Registered by Spring Boot for every request:
+    @Bean
+    public DatabaseCallMetricsFilter databaseCallMetricsFilter(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        return new DatabaseCallMetricsFilter(statementCounter, meterRegistry);
+    }
+}
@@ -1,26 +1,66 @@
 package com.skillstorm.taxservice.configs;
 
+import com.skillstorm.taxservice.utilities.S3TransferMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.time.Duration;
+
 @Configuration
 public class S3Config {
 
     @Bean
-    public S3Client s3() {
+    @ConditionalOnProperty(name = "taxes.s3.client", havingValue = "blocking")
+    public S3Client s3(@Value("${taxes.s3.max-connections:50}") int maxConnections, MeterRegistry meterRegistry) {
 
         // Set up AWS credentials to send with the request. Ideally you would set up an endpoint connection to your bucket in your
         // VPC so that you don't have to send credentials, but this should work when testing locally if you don't have an IDE plugin:
         //AwsSessionCredentials awsCreds = AwsSessionCredentials.create("${ACCESS_KEY}", "${SECRET_ACCESS_KEY}", "${SESSION_TOKEN}");
 
         // Bucket names are globally unique. The bucket you try to access must be within
-        // the region specified here:
+        // the region specified here. Each S3 call holds one of the HTTP client's connections for as long as it blocks,
+        // so raise TAX_S3_MAX_CONNECTIONS when running requests on virtual threads:
         return S3Client.builder()
                 .region(Region.US_EAST_1)
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(maxConnections))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(new S3TransferMetrics(meterRegistry))
+                        .build())
+                //.credentialsProvider(StaticCredentialsProvider.create(awsCreds))
+                .build();
+    }
+
+    // Sends S3 calls over a small pool of Netty event loop threads instead of holding a thread per call. Calls that
+    // can't get one of the max-connections connections within the acquisition timeout fail rather than queueing without
+    // limit, and every call, retries included, gives up after the API call timeout:
+    @Bean
+    @ConditionalOnProperty(name = "taxes.s3.client", havingValue = "async", matchIfMissing = true)
+    public S3AsyncClient s3Async(@Value("${taxes.s3.max-connections:50}") int maxConnections,
+                                 @Value("${taxes.s3.connection-acquisition-timeout:10s}") Duration connectionAcquisitionTimeout,
+                                 @Value("${taxes.s3.api-call-timeout:60s}") Duration apiCallTimeout,
+                                 @Value("${taxes.s3.api-call-attempt-timeout:30s}") Duration apiCallAttemptTimeout,
+                                 MeterRegistry meterRegistry) {
+        return S3AsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConnections)
+                        .connectionAcquisitionTimeout(connectionAcquisitionTimeout))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .apiCallTimeout(apiCallTimeout)
+                        .apiCallAttemptTimeout(apiCallAttemptTimeout)
+                        .addExecutionInterceptor(new S3TransferMetrics(meterRegistry))
+                        .build())
                 //.credentialsProvider(StaticCredentialsProvider.create(awsCreds))
                 .build();
     }
@@ -0,0 +1,10 @@
+package com.skillstorm.taxservice.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs the application's @Scheduled background jobs, such as the W2 image sweep:
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,38 @@
+package com.skillstorm.taxservice.configs;
+
+import com.skillstorm.taxservice.aspects.TracingAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Only active with taxes.tracing.enabled. Otherwise nothing is proxied for tracing, so it costs nothing:
+@Configuration
+@ConditionalOnProperty(name = "taxes.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+
+    // The configuration and the tracing itself are never traced:
+    private static final String NEVER_TRACED = "within(com.skillstorm.taxservice.configs..*) || within(com.skillstorm.taxservice.aspects..*)";
+
+    // Trace the methods matched by the include pointcut that aren't matched by the exclude pointcut. Both are AspectJ
+    // pointcut expressions. The meter registry is looked up on first use, since advisors are created before the
+    // beans they advise and the registry shouldn't be one of those created early:
+    @Bean
+    public static Advisor tracingAdvisor(@Value("${taxes.tracing.include}") String include,
+                                         @Value("${taxes.tracing.exclude:}") String exclude,
+                                         @Value("${taxes.tracing.sample-rate:0.1}") double sampleRate,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        String expression = "(" + include + ") && !(" + NEVER_TRACED + ")";
+        if (!exclude.isBlank()) {
+            expression += " && !(" + exclude + ")";
+        }
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(expression);
+        advisor.setAdvice(new TracingAspect(meterRegistry::getObject, sampleRate));
+        return advisor;
+    }
+}
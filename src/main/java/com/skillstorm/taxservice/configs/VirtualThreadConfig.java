@@ -0,0 +1,42 @@
+package com.skillstorm.taxservice.configs;
+
+import com.skillstorm.taxservice.utilities.ConcurrencyLimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Only active with spring.threads.virtual.enabled on a Java 21 runtime. Spring Boot then runs every servlet request,
+// and the blocking JPA and S3 calls it makes, on its own virtual thread instead of Tomcat's platform-thread pool:
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // Tomcat's thread pool no longer limits how many requests reach the database at once, so queue them for a
+    // connection here. Defaults to the Hikari pool size, so requests wait their turn instead of piling up in the pool:
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Value("${taxes.datasource.max-concurrency:0}") int maxConcurrency,
+            @Value("${taxes.datasource.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    int limit = maxConcurrency > 0 ? maxConcurrency : poolSize(dataSource);
+                    return new ConcurrencyLimitedDataSource(dataSource, limit, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+    }
+}
@@ -0,0 +1,32 @@
+package com.skillstorm.taxservice.constants;
+
+import lombok.Getter;
+
+@Getter
+public enum CalculationEngine {
+
+    BIGDECIMAL("bigdecimal"), FIXED_POINT("fixed-point");
+
+    // Convert String to CalculationEngine. Used to translate the taxes.calculation.engine property. Anything
+    // unrecognized falls back to the BigDecimal calculation:
+    public static CalculationEngine fromString(String engine) {
+        if (engine == null) {
+            return BIGDECIMAL;
+        }
+        return switch (engine.trim().toLowerCase()) {
+            case "fixed-point", "fixed_point", "fixedpoint" -> FIXED_POINT;
+            default -> BIGDECIMAL;
+        };
+    }
+
+    private final String value;
+
+    CalculationEngine(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
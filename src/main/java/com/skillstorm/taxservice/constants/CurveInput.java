@@ -0,0 +1,8 @@
+package com.skillstorm.taxservice.constants;
+
+// Inputs a refund curve can vary. ADDITIONAL_INCOME is the additional income reported with the return's other income,
+// and IRA_CONTRIBUTIONS the contributions counted towards the saver's credit:
+public enum CurveInput {
+
+    ADDITIONAL_INCOME, IRA_CONTRIBUTIONS
+}
@@ -1,28 +1,43 @@
 package com.skillstorm.taxservice.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillstorm.taxservice.dtos.BatchCalculationRequestDto;
+import com.skillstorm.taxservice.dtos.BatchCalculationResultDto;
+import com.skillstorm.taxservice.dtos.FilingStatusComparisonDto;
+import com.skillstorm.taxservice.dtos.RefundCurveDto;
+import com.skillstorm.taxservice.dtos.RefundCurveRequestDto;
 import com.skillstorm.taxservice.dtos.RefundDto;
 import com.skillstorm.taxservice.dtos.TaxReturnDeductionDto;
 import com.skillstorm.taxservice.dtos.TaxReturnDto;
 import com.skillstorm.taxservice.dtos.UserDataDto;
+import com.skillstorm.taxservice.services.BatchCalculationService;
 import com.skillstorm.taxservice.services.TaxReturnService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/taxreturns")
 public class TaxReturnController {
 
     private final TaxReturnService taxReturnService;
+    private final BatchCalculationService batchCalculationService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TaxReturnController(TaxReturnService taxReturnService) {
+    public TaxReturnController(TaxReturnService taxReturnService, BatchCalculationService batchCalculationService,
+                               ObjectMapper objectMapper) {
         this.taxReturnService = taxReturnService;
+        this.batchCalculationService = batchCalculationService;
+        this.objectMapper = objectMapper;
     }
 
     // Add new TaxReturn. Should at least contain the year and can be updated later. Can also contain all user info but a
@@ -46,6 +61,40 @@ public class TaxReturnController {
         return ResponseEntity.ok(taxReturnService.getRefund(id, userId));
     }
 
+    // Get the federal and state refunds over a range of values of one input, for charting. Nothing is saved:
+    @PostMapping("/{id}/curve")
+    public ResponseEntity<RefundCurveDto> getRefundCurve(@PathVariable("id") int id, @Valid @RequestBody RefundCurveRequestDto request,
+                                                         @RequestHeader("User-ID") int userId) {
+        return ResponseEntity.ok(taxReturnService.getRefundCurve(id, userId, request));
+    }
+
+    // Calculate a TaxReturn under every filing status and return the results side by side. Nothing is saved:
+    @GetMapping("/{id}/compare-filing-status")
+    public ResponseEntity<List<FilingStatusComparisonDto>> compareFilingStatuses(@PathVariable("id") int id, @RequestHeader("User-ID") int userId) {
+        return ResponseEntity.ok(batchCalculationService.compareFilingStatuses(id, userId));
+    }
+
+    // Calculate a TaxReturn from the request body without saving anything. Used for what-if estimates:
+    @PostMapping("/simulate")
+    public ResponseEntity<TaxReturnDto> simulate(@Valid @RequestBody TaxReturnDto taxReturn, @RequestHeader("User-ID") int userId) {
+        return ResponseEntity.ok(taxReturnService.simulate(taxReturn, userId));
+    }
+
+    // Calculate many TaxReturns at once, by id and/or sent in the body. Results are streamed back as newline-delimited
+    // JSON in request order, each line written as soon as its calculation is done:
+    @PostMapping(value = "/calculate:batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> calculateBatch(@RequestBody BatchCalculationRequestDto request, @RequestHeader("User-ID") int userId) {
+        List<CompletableFuture<BatchCalculationResultDto>> results = batchCalculationService.calculateBatch(request, userId);
+        StreamingResponseBody body = outputStream -> {
+            for (CompletableFuture<BatchCalculationResultDto> result : results) {
+                outputStream.write(objectMapper.writeValueAsBytes(result.join()));
+                outputStream.write('\n');
+                outputStream.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     // Get all TaxReturns by userId (and optionally by year):
     @GetMapping
     public ResponseEntity<List<TaxReturnDto>> findAllByUserId(@RequestParam(value = "year", required = false) Integer year, @RequestHeader("User-ID") int userId) {
@@ -75,6 +124,12 @@ public class TaxReturnController {
         return ResponseEntity.ok(taxReturnService.claimDeduction(id, deduction));
     }
 
+    // Claim several deductions at once:
+    @PostMapping("/{id}/deductions:batch")
+    public ResponseEntity<List<TaxReturnDeductionDto>> claimDeductions(@PathVariable("id") int id, @RequestBody List<TaxReturnDeductionDto> deductions) {
+        return ResponseEntity.ok(taxReturnService.claimDeductions(id, deductions));
+    }
+
     // View a TaxReturnDeduction by ID:
     @GetMapping("taxreturn/deductions/{taxReturnDeductionId}")
     public ResponseEntity<TaxReturnDeductionDto> getTaxReturnDeductionById(@PathVariable("taxReturnDeductionId") int taxReturnDeductionId) {
@@ -0,0 +1,70 @@
+package com.skillstorm.taxservice.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillstorm.taxservice.dtos.W2BulkResultDto;
+import com.skillstorm.taxservice.services.W2BulkService;
+import com.skillstorm.taxservice.utilities.W2RecordReader;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Kept apart from W2Controller because Spring always puts a "/" between a class and method mapping, so /w2s:bulk can't
+// be mapped under /w2s:
+@RestController
+public class W2BulkController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final W2BulkService w2BulkService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public W2BulkController(W2BulkService w2BulkService, ObjectMapper objectMapper) {
+        this.w2BulkService = w2BulkService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Add many W2s from an NDJSON or CSV body. The body is read and stored as it arrives, and each stored chunk's results
+    // are written back straight away as one NDJSON line per W2, so neither side has to hold the whole import in memory.
+    // Runs on the request thread rather than as a StreamingResponseBody so a long import isn't cut off by the async
+    // request timeout:
+    @PostMapping(value = "/w2s:bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void addW2s(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                       @RequestHeader("User-ID") int userId, HttpServletResponse response) throws IOException {
+        W2RecordReader.Format format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? W2RecordReader.Format.NDJSON : W2RecordReader.Format.CSV;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        // Read the CSV header before anything is written, so a bad one is still answered with a 400:
+        W2RecordReader reader = new W2RecordReader(new InputStreamReader(body, charset), format, objectMapper);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream outputStream = new BufferedOutputStream(response.getOutputStream());
+        w2BulkService.addW2s(reader, userId, results -> {
+            try {
+                for (W2BulkResultDto result : results) {
+                    outputStream.write(objectMapper.writeValueAsBytes(result));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        outputStream.flush();
+    }
+}
@@ -1,20 +1,22 @@
 package com.skillstorm.taxservice.controllers;
 
 import com.skillstorm.taxservice.dtos.W2Dto;
-import com.skillstorm.taxservice.exceptions.UndeterminedContentException;
+import com.skillstorm.taxservice.dtos.W2ImageDto;
 import com.skillstorm.taxservice.services.W2Service;
 import jakarta.validation.Valid;
-import lombok.SneakyThrows;
-import org.apache.tika.Tika;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/w2s")
@@ -69,33 +71,50 @@ public class W2Controller {
         return ResponseEntity.noContent().build();
     }
 
-    // Upload image to S3:
+    // Upload image to S3. The request body is read as a stream and passed through to S3 as it arrives. The request
+    // thread is released while S3 finishes the upload, and the response is sent once it has. Send the image's
+    // Content-MD5 to skip sending it to S3 at all when the same image is already stored:
     @PostMapping("/{id}/image")
-    public ResponseEntity<Void> uploadImageToS3(@PathVariable("id") int id, @RequestBody byte[] image,
-                                              @RequestHeader("Content-Type") String contentType, @RequestHeader("User-ID") int userId) {
-        String imageKey = w2Service.uploadImage(id, image, contentType, userId);
-        return ResponseEntity.created(URI.create("/" + imageKey)).build();
+    public CompletableFuture<ResponseEntity<Void>> uploadImageToS3(@PathVariable("id") int id, InputStream image,
+                                              @RequestHeader(name = "Content-Length", required = false, defaultValue = "-1") long contentLength,
+                                              @RequestHeader("Content-Type") String contentType,
+                                              @RequestHeader(name = "Content-MD5", required = false) String contentMd5,
+                                              @RequestHeader("User-ID") int userId) {
+        return w2Service.uploadImage(id, image, contentLength, contentType, contentMd5, userId)
+                .thenApply(imageKey -> ResponseEntity.created(URI.create("/" + imageKey)).build());
     }
 
-    // Download image from S3:
-    @SneakyThrows
+    // Download image from S3. The image is streamed from S3 to the client as it arrives instead of being read into
+    // memory first. Send a Range header (e.g. "bytes=0-1023") to get part of it back as 206 Partial Content. Requests
+    // with If-None-Match or If-Modified-Since are answered 304 Not Modified from the stored metadata, without calling S3.
+    // The request thread is released while waiting for S3 to start answering:
     @GetMapping("/{id}/image")
-    public ResponseEntity<Resource> downloadImage(@PathVariable("id") int id, @RequestHeader("User-ID") int userId) {
-        Resource imageResource = w2Service.downloadImage(id, userId);
-        String contentType = determineContentType(imageResource);
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(contentType)).body(imageResource);
-    }
-
-    // Utility method to determine content type of returned image (image/png, image/jpg, application/pdf, etc).
-    // Probably unnecessary because we parsed the content type on the way in and used it to name the key,
-    // but leaving it here anyway:
-    @SneakyThrows
-    private String determineContentType(Resource imageResource) {
-        Tika tika = new Tika();
-        try {
-            return tika.detect(imageResource.getInputStream());
-        } catch (IOException e) {
-            throw new UndeterminedContentException("{unknown.content}");
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> downloadImage(@PathVariable("id") int id, @RequestHeader("User-ID") int userId,
+                                                               @RequestHeader(name = HttpHeaders.RANGE, required = false) String range,
+                                                               WebRequest webRequest) {
+        W2ImageDto image = w2Service.findImage(id, userId);
+        // Also adds the ETag and Last-Modified headers to the response:
+        if (webRequest.checkNotModified(image.getETag(), image.getUploadedAt().toEpochMilli())) {
+            return null;
         }
+
+        return w2Service.downloadImage(image, range).thenApply(download -> {
+            StreamingResponseBody body = outputStream -> {
+                try (InputStream content = download.getContent()) {
+                    content.transferTo(outputStream);
+                }
+            };
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(download.isPartial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentType(MediaType.parseMediaType(download.getContentType()));
+            if (download.getContentLength() != null) {
+                response.contentLength(download.getContentLength());
+            }
+            if (download.isPartial()) {
+                response.header(HttpHeaders.CONTENT_RANGE, download.getContentRange());
+            }
+            return response.body(body);
+        });
     }
 }
@@ -0,0 +1,20 @@
+package com.skillstorm.taxservice.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchCalculationRequestDto {
+
+    // IDs of stored TaxReturns to calculate:
+    private List<Integer> ids;
+
+    // TaxReturns sent in the request body. These are calculated as they are and never saved:
+    private List<TaxReturnDto> taxReturns;
+
+    public BatchCalculationRequestDto() {
+        ids = List.of();
+        taxReturns = List.of();
+    }
+}
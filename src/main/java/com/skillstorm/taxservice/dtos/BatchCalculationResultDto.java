@@ -0,0 +1,32 @@
+package com.skillstorm.taxservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skillstorm.taxservice.exceptions.ErrorMessage;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of the batch calculation response. Results for stored TaxReturns carry the id that was requested, results
+// for TaxReturns sent in the request body carry their position in the taxReturns list. Exactly one of taxReturn and
+// error is set:
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchCalculationResultDto {
+
+    private Integer id;
+    private Integer index;
+    private TaxReturnDto taxReturn;
+    private ErrorMessage error;
+
+    public static BatchCalculationResultDto forId(int id) {
+        BatchCalculationResultDto result = new BatchCalculationResultDto();
+        result.setId(id);
+        return result;
+    }
+
+    public static BatchCalculationResultDto forIndex(int index) {
+        BatchCalculationResultDto result = new BatchCalculationResultDto();
+        result.setIndex(index);
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package com.skillstorm.taxservice.dtos;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// The calculated results of one TaxReturn as if it were filed under the given filing status. The comparison returns
+// one of these per filing status, side by side:
+@Data
+@NoArgsConstructor
+public class FilingStatusComparisonDto {
+
+    private FilingStatus filingStatus;
+    private BigDecimal totalIncome;
+    private BigDecimal adjustedGrossIncome;
+    private BigDecimal taxableIncome;
+    private BigDecimal totalCredits;
+    private BigDecimal federalRefund;
+    private BigDecimal stateRefund;
+
+    public FilingStatusComparisonDto(TaxReturnDto taxReturn) {
+        this.filingStatus = taxReturn.getFilingStatus();
+        this.totalIncome = taxReturn.getTotalIncome();
+        this.adjustedGrossIncome = taxReturn.getAdjustedGrossIncome();
+        this.taxableIncome = taxReturn.getTaxableIncome();
+        this.totalCredits = taxReturn.getTotalCredits();
+        this.federalRefund = taxReturn.getFederalRefund();
+        this.stateRefund = taxReturn.getStateRefund();
+    }
+}
@@ -0,0 +1,19 @@
+package com.skillstorm.taxservice.dtos;
+
+import com.skillstorm.taxservice.constants.CurveInput;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Federal and state refunds at each point of a refund curve, in dollars. The arrays line up, so federalRefunds[i] and
+// stateRefunds[i] are the refunds with the input set to values[i]:
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundCurveDto {
+
+    private CurveInput input;
+    private double[] values;
+    private double[] federalRefunds;
+    private double[] stateRefunds;
+}
@@ -0,0 +1,29 @@
+package com.skillstorm.taxservice.dtos;
+
+import com.skillstorm.taxservice.constants.CurveInput;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class RefundCurveRequestDto {
+
+    @NotNull(message = "{curve.input.must}")
+    private CurveInput input;
+
+    // The input goes from `from` to `to` in evenly spaced steps, rounded to cents, over the given number of points:
+    @NotNull(message = "{curve.from.min}")
+    @Min(value = 0, message = "{curve.from.min}")
+    private BigDecimal from;
+
+    @NotNull(message = "{curve.to.min}")
+    @Min(value = 0, message = "{curve.to.min}")
+    private BigDecimal to;
+
+    @Min(value = 2, message = "{curve.points.size}")
+    @Max(value = 1000, message = "{curve.points.size}")
+    private int points;
+}
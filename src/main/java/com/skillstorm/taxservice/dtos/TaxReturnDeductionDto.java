@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.skillstorm.taxservice.models.Deduction;
 import com.skillstorm.taxservice.models.TaxReturn;
 import com.skillstorm.taxservice.models.TaxReturnDeduction;
+import com.skillstorm.taxservice.projections.DeductionAmount;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -34,6 +35,14 @@ public class TaxReturnDeductionDto {
         this.agiLimit = taxReturnDeduction.getDeduction().getAgiLimit();
     }
 
+    // A claimed deduction with just what the calculation reads. Its agiLimit is set by the calculation:
+    public TaxReturnDeductionDto(DeductionAmount deductionAmount) {
+        this();
+        this.deduction = deductionAmount.getDeduction();
+        this.itemized = deductionAmount.isItemized();
+        this.amountSpent = deductionAmount.getAmountSpent();
+    }
+
     @JsonIgnore
     public TaxReturnDeduction mapToEntity() {
         TaxReturnDeduction taxReturnDeduction = new TaxReturnDeduction();
@@ -1,10 +1,12 @@
 package com.skillstorm.taxservice.dtos;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.skillstorm.taxservice.constants.FilingStatus;
 import com.skillstorm.taxservice.constants.State;
 import com.skillstorm.taxservice.models.TaxReturn;
+import com.skillstorm.taxservice.projections.RefundInputs;
 import com.skillstorm.taxservice.utilities.mappers.OtherIncomeMapper;
 import com.skillstorm.taxservice.utilities.mappers.TaxReturnCreditMapper;
 
@@ -69,6 +71,13 @@ public class TaxReturnDto {
     private BigDecimal federalRefund;
     private BigDecimal stateRefund;
 
+    // Set by the service, never by the request body:
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int revision;
+
+    @JsonIgnore
+    private Integer calculatedRevision;
+
     public TaxReturnDto() {
         // Default values to avoid null pointers:
         this.filingStatus = FilingStatus.SINGLE;
@@ -127,6 +136,69 @@ public class TaxReturnDto {
         this.totalCredits = taxReturn.getTotalCredits();
         this.federalRefund = taxReturn.getFederalRefund();
         this.stateRefund = taxReturn.getStateRefund();
+        this.revision = taxReturn.getRevision();
+        this.calculatedRevision = taxReturn.getCalculatedRevision();
+    }
+
+    // A TaxReturn with only the fields the calculation reads, built from column projections instead of the entity.
+    // Its calculated fields start at zero:
+    public TaxReturnDto(int id, RefundInputs inputs, List<W2Dto> w2s, List<TaxReturnDeductionDto> deductions) {
+        this();
+        this.id = id;
+        this.year = inputs.getYear();
+        this.userId = inputs.getUserId();
+        this.filingStatus = FilingStatus.fromValue(inputs.getFilingStatus());
+        this.state = inputs.getState();
+        if (inputs.getDateOfBirth() != null) {
+            this.dateOfBirth = inputs.getDateOfBirth().toString();
+        }
+        this.w2s = w2s;
+        this.deductions = deductions;
+        if (inputs.getOtherIncomeId() != null) {
+            this.otherIncome = new OtherIncomeDto();
+            this.otherIncome.setId(inputs.getOtherIncomeId());
+            this.otherIncome.setTaxReturnId(id);
+            this.otherIncome.setLongTermCapitalGains(inputs.getLongTermCapitalGains());
+            this.otherIncome.setShortTermCapitalGains(inputs.getShortTermCapitalGains());
+            this.otherIncome.setOtherInvestmentIncome(inputs.getOtherInvestmentIncome());
+            this.otherIncome.setNetBusinessIncome(inputs.getNetBusinessIncome());
+            this.otherIncome.setAdditionalIncome(inputs.getAdditionalIncome());
+        }
+        if (inputs.getTaxCreditId() != null) {
+            this.taxCredit = new TaxReturnCreditDto();
+            this.taxCredit.setId(inputs.getTaxCreditId());
+            this.taxCredit.setTaxReturnId(id);
+            this.taxCredit.setNumDependents(inputs.getNumDependents());
+            this.taxCredit.setNumDependentsAotc(inputs.getNumDependentsAotc());
+            this.taxCredit.setNumChildren(inputs.getNumChildren());
+            this.taxCredit.setChildCareExpenses(inputs.getChildCareExpenses());
+            this.taxCredit.setEducationExpenses(inputs.getEducationExpenses());
+            this.taxCredit.setLlcEducationExpenses(inputs.getLlcEducationExpenses());
+            this.taxCredit.setIraContributions(inputs.getIraContributions());
+            this.taxCredit.setClaimedAsDependent(inputs.getClaimedAsDependent());
+            this.taxCredit.setClaimLlcCredit(inputs.getClaimLlcCredit());
+        }
+        this.revision = inputs.getRevision();
+        this.calculatedRevision = inputs.getCalculatedRevision();
+    }
+
+    // Whether the calculated fields were calculated at the current revision and can be served as they are:
+    public boolean hasCurrentResults() {
+        return calculatedRevision != null && calculatedRevision == revision;
+    }
+
+    // Prepare a TaxReturn sent in a request body to be calculated for the user without being stored. It isn't a stored
+    // TaxReturn, even if the body carries the id of one, so it mustn't replace that TaxReturn's calculation checkpoint.
+    // Missing W2s and deductions count as none:
+    public void prepareForSimulation(int userId) {
+        this.id = 0;
+        this.userId = userId;
+        if (w2s == null) {
+            w2s = List.of();
+        }
+        if (deductions == null) {
+            deductions = List.of();
+        }
     }
 
     public TaxReturn mapToEntity() {
@@ -161,6 +233,8 @@ public class TaxReturnDto {
         taxReturn.setTotalCredits(totalCredits);
         taxReturn.setFederalRefund(federalRefund);
         taxReturn.setStateRefund(stateRefund);
+        taxReturn.setRevision(revision);
+        taxReturn.setCalculatedRevision(calculatedRevision);
 
         return taxReturn;
     }
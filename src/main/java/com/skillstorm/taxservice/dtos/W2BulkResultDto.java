@@ -0,0 +1,24 @@
+package com.skillstorm.taxservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skillstorm.taxservice.exceptions.ErrorMessage;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of the bulk W2 response, for the line of the request it was read from. Stored W2s carry their new id,
+// anything that couldn't be stored carries an error instead:
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class W2BulkResultDto {
+
+    private int line;
+    private Integer id;
+    private ErrorMessage error;
+
+    public static W2BulkResultDto forLine(int line) {
+        W2BulkResultDto result = new W2BulkResultDto();
+        result.setLine(line);
+        return result;
+    }
+}
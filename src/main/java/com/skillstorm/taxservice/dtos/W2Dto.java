@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.skillstorm.taxservice.constants.State;
 import com.skillstorm.taxservice.models.TaxReturn;
 import com.skillstorm.taxservice.models.W2;
+import com.skillstorm.taxservice.projections.W2StateTotals;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -73,6 +74,17 @@ public class W2Dto {
         this.imageKey = w2.getImageKey();
     }
 
+    // A W2 carrying the totals of every W2 from one state, for calculations that only need the sums:
+    public W2Dto(W2StateTotals totals) {
+        this();
+        this.state = State.fromValue(totals.getState());
+        this.wages = totals.getWages();
+        this.federalIncomeTaxWithheld = totals.getFederalIncomeTaxWithheld();
+        this.stateIncomeTaxWithheld = totals.getStateIncomeTaxWithheld();
+        this.socialSecurityTaxWithheld = totals.getSocialSecurityTaxWithheld();
+        this.medicareTaxWithheld = totals.getMedicareTaxWithheld();
+    }
+
     @JsonIgnore
     public W2 mapToEntity() {
         W2 w2 = new W2();
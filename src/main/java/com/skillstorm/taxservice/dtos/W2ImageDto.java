@@ -0,0 +1,37 @@
+package com.skillstorm.taxservice.dtos;
+
+import com.skillstorm.taxservice.models.W2Image;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.InputStream;
+import java.time.Instant;
+
+// A W2 image's stored metadata and, once it has been opened, a stream of it from S3. The caller must close the content:
+@Data
+@NoArgsConstructor
+public class W2ImageDto {
+
+    private String imageKey;
+    private String contentType;
+    private Long contentLength;
+    private String eTag;
+    private Instant uploadedAt;
+
+    private InputStream content;
+
+    // Only set when a single byte range was requested, e.g. "bytes 0-1023/146515":
+    private String contentRange;
+
+    public W2ImageDto(W2Image image) {
+        this.imageKey = image.getImageKey();
+        this.contentType = image.getContentType();
+        this.contentLength = image.getContentLength();
+        this.eTag = image.getETag();
+        this.uploadedAt = image.getUploadedAt();
+    }
+
+    public boolean isPartial() {
+        return contentRange != null;
+    }
+}
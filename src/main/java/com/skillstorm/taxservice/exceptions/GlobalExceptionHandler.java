@@ -95,11 +95,26 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(S3Exception.class)
     public ResponseEntity<ErrorMessage> handleS3Exception(S3Exception e) {
         ErrorMessage error = new ErrorMessage();
+        // S3 rejects a byte range that starts past the end of the image. Pass that on to the client as is:
+        if (e.statusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+            error.setErrorCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            error.setMessage(e.getMessage());
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).body(error);
+        }
         error.setErrorCode(HttpStatus.FORBIDDEN.value());
         error.setMessage(e.getMessage());
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
     }
 
+    // Handle ImageTooLargeException from uploading a W2 image over the size limit:
+    @ExceptionHandler(ImageTooLargeException.class)
+    public ResponseEntity<ErrorMessage> handleImageTooLargeException(ImageTooLargeException e) {
+        ErrorMessage error = new ErrorMessage();
+        error.setErrorCode(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        error.setMessage(e.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorMessage> handleIllegalArgumentException(IllegalArgumentException e) {
         ErrorMessage error = new ErrorMessage();
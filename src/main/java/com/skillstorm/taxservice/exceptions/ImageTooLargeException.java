@@ -0,0 +1,11 @@
+package com.skillstorm.taxservice.exceptions;
+
+public class ImageTooLargeException extends RuntimeException {
+    public ImageTooLargeException(String message) {
+        super(message);
+    }
+
+    public ImageTooLargeException(String message, long maxBytes) {
+        this(message + " " + maxBytes + " bytes");
+    }
+}
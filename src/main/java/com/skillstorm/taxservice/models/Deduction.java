@@ -28,6 +28,21 @@ public class Deduction {
 
     private boolean itemized;
 
+    // Adjustments to the AGI limit, applied by DeductionRule. Married couples filing jointly get
+    // agiLimit * jointMultiplier + jointAddition. The age additions apply by age at the end of the tax year, and
+    // someone 55 or older gets both:
+    @Column(name = "joint_multiplier")
+    private int jointMultiplier = 1;
+
+    @Column(name = "joint_addition")
+    private int jointAddition;
+
+    @Column(name = "age_50_addition")
+    private int age50Addition;
+
+    @Column(name = "age_55_addition")
+    private int age55Addition;
+
     public Deduction(int id) {
         super();
         this.id = id;
@@ -37,4 +52,11 @@ public class Deduction {
         this(id);
         this.name = name;
     }
+
+    // A deduction without any filing status or age adjustments:
+    public Deduction(int id, String name, BigDecimal agiLimit, boolean itemized) {
+        this(id, name);
+        this.agiLimit = agiLimit;
+        this.itemized = itemized;
+    }
 }
@@ -31,6 +31,15 @@ public class FilingStatus {
   @Column
   private String status;
 
+  // The constants.FilingStatus value this row is for. Each tax year has its own row per filing status, and the
+  // brackets, standard deduction and credits of that year hang off it:
+  @Column(name = "status_code")
+  private int statusCode;
+
+  // First tax year this row applies to:
+  @Column(name = "tax_year")
+  private int taxYear;
+
   @ManyToOne
   @JsonIgnore
   @JoinColumn(name = "child_tax_credit_id")
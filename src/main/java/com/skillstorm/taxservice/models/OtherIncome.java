@@ -14,7 +14,8 @@ import java.math.BigDecimal;
 public class OtherIncome {
   
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "other_income_id_seq")
+  @SequenceGenerator(name = "other_income_id_seq", sequenceName = "other_income_id_seq", allocationSize = 50)
   private int id;
 
   @OneToOne
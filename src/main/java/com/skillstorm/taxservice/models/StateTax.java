@@ -35,4 +35,8 @@ public class StateTax {
   @Column(name = "rate", precision = 6, scale = 5)
   private BigDecimal rate;
 
+  // First tax year these brackets apply to:
+  @Column(name = "tax_year")
+  private int taxYear;
+
 }
@@ -2,6 +2,7 @@ package com.skillstorm.taxservice.models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 
 import com.skillstorm.taxservice.constants.State;
 
@@ -16,7 +17,8 @@ import java.util.List;
 public class TaxReturn {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tax_return_id_seq")
+    @SequenceGenerator(name = "tax_return_id_seq", sequenceName = "tax_return_id_seq", allocationSize = 50)
     private int id;
 
     @Column(name = "years")
@@ -54,9 +56,11 @@ public class TaxReturn {
     private String ssn;
 
     @OneToMany(mappedBy = "taxReturn", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<W2> w2s;
 
     @OneToMany(mappedBy = "taxReturn", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<TaxReturnDeduction> deductions;
 
     @OneToOne(mappedBy = "taxReturn", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -95,6 +99,15 @@ public class TaxReturn {
     @Column(name = "state_refund")
     private BigDecimal stateRefund;
 
+    // Bumped by every change to the TaxReturn or to one of its W2s, deductions, other income or credits. Both counters
+    // are only written by the repository's update queries, never by saving the entity:
+    @Column(nullable = false, updatable = false)
+    private int revision;
+
+    // The revision the stored results above were calculated at. Null until the TaxReturn is first calculated:
+    @Column(name = "calculated_revision", updatable = false)
+    private Integer calculatedRevision;
+
     public TaxReturn() {
         w2s = List.of();
         deductions = List.of();
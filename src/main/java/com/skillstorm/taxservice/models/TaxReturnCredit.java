@@ -16,7 +16,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class TaxReturnCredit {
   
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "taxreturn_credit_id_seq")
+  @SequenceGenerator(name = "taxreturn_credit_id_seq", sequenceName = "taxreturn_credit_id_seq", allocationSize = 50)
   private int id;
 
   @OneToOne
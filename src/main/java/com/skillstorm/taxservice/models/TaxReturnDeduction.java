@@ -14,7 +14,8 @@ import java.math.BigDecimal;
 public class TaxReturnDeduction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "taxreturn_deduction_id_seq")
+    @SequenceGenerator(name = "taxreturn_deduction_id_seq", sequenceName = "taxreturn_deduction_id_seq", allocationSize = 50)
     private int id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -11,7 +11,8 @@ import java.math.BigDecimal;
 public class W2 {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "w2_id_seq")
+    @SequenceGenerator(name = "w2_id_seq", sequenceName = "w2_id_seq", allocationSize = 50)
     private int id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,38 @@
+package com.skillstorm.taxservice.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// What we know about an image stored in S3, so downloads can be answered or revalidated without asking S3 first:
+@Data
+@Entity
+@Table(name = "w2_image")
+public class W2Image {
+
+    @Id
+    @Column(name = "image_key")
+    private String imageKey;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "content_length")
+    private long contentLength;
+
+    // The ETag S3 gave the object, quotes included:
+    @Column(name = "e_tag")
+    private String eTag;
+
+    @Column(name = "uploaded_at")
+    private Instant uploadedAt;
+
+    // Number of W2s using the image. Images are stored once however many W2s use them:
+    @Column(name = "reference_count")
+    private long referenceCount;
+
+    // When the last W2 using the image stopped using it. The sweep deletes images left unreferenced long enough:
+    @Column(name = "unreferenced_at")
+    private Instant unreferencedAt;
+}
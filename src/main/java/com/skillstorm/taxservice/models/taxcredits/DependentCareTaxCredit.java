@@ -28,5 +28,9 @@ public class DependentCareTaxCredit {
 
   @Column
   private BigDecimal rate;
+
+  // First tax year this bracket applies to:
+  @Column(name = "tax_year")
+  private int taxYear;
 }
 
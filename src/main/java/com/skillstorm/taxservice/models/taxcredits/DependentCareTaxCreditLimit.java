@@ -30,4 +30,8 @@ public class DependentCareTaxCreditLimit {
   // Indicates whether credit is refundable
   @Column
   private boolean refundable;
+
+  // First tax year this limit applies to:
+  @Column(name = "tax_year")
+  private int taxYear;
 }
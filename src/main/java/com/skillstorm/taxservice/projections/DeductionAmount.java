@@ -0,0 +1,13 @@
+package com.skillstorm.taxservice.projections;
+
+import java.math.BigDecimal;
+
+// A deduction claimed on a TaxReturn as the calculation reads it. The limit comes from the cached reference data:
+public interface DeductionAmount {
+
+    int getDeduction();
+
+    boolean isItemized();
+
+    BigDecimal getAmountSpent();
+}
@@ -0,0 +1,66 @@
+package com.skillstorm.taxservice.projections;
+
+import com.skillstorm.taxservice.constants.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// The columns of a TaxReturn, its OtherIncome and its TaxReturnCredit that the refund calculation reads, fetched in a
+// single row. The OtherIncome and TaxReturnCredit columns are null when the TaxReturn doesn't have one:
+public interface RefundInputs {
+
+    int getUserId();
+
+    int getYear();
+
+    int getFilingStatus();
+
+    State getState();
+
+    LocalDate getDateOfBirth();
+
+    int getRevision();
+
+    Integer getCalculatedRevision();
+
+    BigDecimal getFederalRefund();
+
+    BigDecimal getStateRefund();
+
+    Integer getOtherIncomeId();
+
+    BigDecimal getLongTermCapitalGains();
+
+    BigDecimal getShortTermCapitalGains();
+
+    BigDecimal getOtherInvestmentIncome();
+
+    BigDecimal getNetBusinessIncome();
+
+    BigDecimal getAdditionalIncome();
+
+    Integer getTaxCreditId();
+
+    Integer getNumDependents();
+
+    Integer getNumDependentsAotc();
+
+    Integer getNumChildren();
+
+    BigDecimal getChildCareExpenses();
+
+    BigDecimal getEducationExpenses();
+
+    BigDecimal getLlcEducationExpenses();
+
+    BigDecimal getIraContributions();
+
+    Boolean getClaimedAsDependent();
+
+    Boolean getClaimLlcCredit();
+
+    // Whether the stored refunds were calculated at the TaxReturn's current revision:
+    default boolean hasCurrentResults() {
+        return getCalculatedRevision() != null && getCalculatedRevision() == getRevision();
+    }
+}
@@ -0,0 +1,20 @@
+package com.skillstorm.taxservice.projections;
+
+import java.math.BigDecimal;
+
+// The wages and withholdings of a TaxReturn's W2s summed per state. The calculation only reads these totals, so one
+// row per state stands in for every W2 from that state:
+public interface W2StateTotals {
+
+    int getState();
+
+    BigDecimal getWages();
+
+    BigDecimal getFederalIncomeTaxWithheld();
+
+    BigDecimal getStateIncomeTaxWithheld();
+
+    BigDecimal getSocialSecurityTaxWithheld();
+
+    BigDecimal getMedicareTaxWithheld();
+}
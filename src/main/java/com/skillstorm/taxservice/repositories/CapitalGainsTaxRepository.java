@@ -10,6 +10,7 @@ import com.skillstorm.taxservice.models.CapitalGainsTax;
 @Repository
 public interface CapitalGainsTaxRepository extends JpaRepository<CapitalGainsTax, Integer> {
   
-  public List<CapitalGainsTax> findByFilingStatus_Id(int id);
+  // The capital gains brackets for a filing status code in a tax year, in the order they're applied:
+  public List<CapitalGainsTax> findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(int statusCode, int taxYear);
 
 }
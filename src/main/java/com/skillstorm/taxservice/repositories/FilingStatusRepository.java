@@ -9,6 +9,7 @@ import com.skillstorm.taxservice.models.FilingStatus;
 
 @Repository
 public interface FilingStatusRepository extends JpaRepository<FilingStatus, Integer> {
-  Optional<FilingStatus> findByStatus(String status);
+  // Each tax year has its own row for a filing status, so a status code alone doesn't identify one:
+  Optional<FilingStatus> findByStatusCodeAndTaxYear(int statusCode, int taxYear);
 }
 
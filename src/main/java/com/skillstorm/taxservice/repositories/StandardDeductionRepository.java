@@ -10,5 +10,6 @@ import com.skillstorm.taxservice.models.StandardDeduction;
 @Repository
 public interface StandardDeductionRepository extends JpaRepository<StandardDeduction, Integer> {
   
-  public Optional<StandardDeduction> findByFilingStatus_Id(int filingStatusId);
+  // The standard deduction for a filing status code in a tax year:
+  public Optional<StandardDeduction> findByFilingStatus_StatusCodeAndFilingStatus_TaxYear(int statusCode, int taxYear);
 }
@@ -10,5 +10,6 @@ import com.skillstorm.taxservice.models.TaxBracket;
 @Repository
 public interface TaxBracketRepository extends JpaRepository<TaxBracket, Integer> {
   
-  public List<TaxBracket> findByFilingStatus_Id(int id);
+  // The brackets for a filing status code in a tax year, in the order they're applied:
+  public List<TaxBracket> findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(int statusCode, int taxYear);
 }
@@ -1,7 +1,10 @@
 package com.skillstorm.taxservice.repositories;
 
 import com.skillstorm.taxservice.models.TaxReturnDeduction;
+import com.skillstorm.taxservice.projections.DeductionAmount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +17,9 @@ public interface TaxReturnDeductionRepository extends JpaRepository<TaxReturnDed
 
     // Find all TaxReturns associated with a given tax return:
     List<TaxReturnDeduction> findAllByTaxReturnId(int taxReturnId);
+
+    // Find the deductions claimed on a given tax return and the amount spent on each:
+    @Query("select d.deduction.id as deduction, d.deduction.itemized as itemized, d.amountSpent as amountSpent " +
+            "from TaxReturnDeduction d where d.taxReturn.id = :taxReturnId")
+    List<DeductionAmount> findAmountsByTaxReturnId(@Param("taxReturnId") int taxReturnId);
 }
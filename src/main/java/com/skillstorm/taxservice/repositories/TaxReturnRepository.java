@@ -1,10 +1,18 @@
 package com.skillstorm.taxservice.repositories;
 
 import com.skillstorm.taxservice.models.TaxReturn;
+import com.skillstorm.taxservice.projections.RefundInputs;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface TaxReturnRepository extends JpaRepository<TaxReturn, Integer> {
@@ -15,6 +23,78 @@ public interface TaxReturnRepository extends JpaRepository<TaxReturn, Integer> {
     // Find all TaxReturns by UserId for a given year. Should only return one:
     List<TaxReturn> findAllByUserIdAndYear(int userId, int year);
 
+    // Find the TaxReturns in a batch calculation that belong to the user. The one-to-one components are fetched in the
+    // same query and the W2s and deductions are loaded in batches when the TaxReturns are mapped to DTOs:
+    @Query("select t from TaxReturn t left join fetch t.otherIncome left join fetch t.taxCredit " +
+            "where t.id in :ids and t.userId = :userId")
+    List<TaxReturn> findAllForCalculation(@Param("ids") Collection<Integer> ids, @Param("userId") int userId);
+
+    // Find a TaxReturn with everything its DTO reads: the one-to-one components and the W2s. The deductions are a
+    // second list, which can't be join fetched in the same query, so they're loaded by findWithDeductionsById:
+    @Query("select t from TaxReturn t left join fetch t.otherIncome left join fetch t.taxCredit " +
+            "left join fetch t.w2s where t.id = :id")
+    Optional<TaxReturn> findWithW2sById(@Param("id") int id);
+
+    // Fill in the deductions of a TaxReturn, along with the Deduction each one claims:
+    @Query("select t from TaxReturn t left join fetch t.deductions d left join fetch d.deduction where t.id = :id")
+    Optional<TaxReturn> findWithDeductionsById(@Param("id") int id);
+
+    // Find a TaxReturn and all of its components in two queries. Both run in the same persistence context, so the
+    // second one fills in the deductions of the TaxReturn returned by the first instead of lazy loading each list and
+    // one-to-one component separately:
+    @Transactional(readOnly = true)
+    default Optional<TaxReturn> findCompleteById(int id) {
+        Optional<TaxReturn> taxReturn = findWithW2sById(id);
+        taxReturn.ifPresent(found -> findWithDeductionsById(id));
+        return taxReturn;
+    }
+
+    // Find the columns the refund calculation reads from a TaxReturn and its one-to-one components, along with the
+    // stored refunds, in a single row:
+    @Query("select t.userId as userId, t.year as year, t.filingStatus as filingStatus, t.state as state, " +
+            "t.dateOfBirth as dateOfBirth, t.revision as revision, t.calculatedRevision as calculatedRevision, " +
+            "t.federalRefund as federalRefund, t.stateRefund as stateRefund, " +
+            "o.id as otherIncomeId, o.longTermCapitalGains as longTermCapitalGains, " +
+            "o.shortTermCapitalGains as shortTermCapitalGains, o.otherInvestmentIncome as otherInvestmentIncome, " +
+            "o.netBusinessIncome as netBusinessIncome, o.additionalIncome as additionalIncome, " +
+            "c.id as taxCreditId, c.numDependents as numDependents, c.numDependentsAotc as numDependentsAotc, " +
+            "c.numChildren as numChildren, c.childCareExpenses as childCareExpenses, " +
+            "c.educationExpenses as educationExpenses, c.llcEducationExpenses as llcEducationExpenses, " +
+            "c.iraContributions as iraContributions, c.claimedAsDependent as claimedAsDependent, " +
+            "c.claimLlcCredit as claimLlcCredit " +
+            "from TaxReturn t left join t.otherIncome o left join t.taxCredit c where t.id = :id")
+    Optional<RefundInputs> findRefundInputsById(@Param("id") int id);
+
+    // Record a change to a TaxReturn or one of its components. Its stored results are recalculated on the next read:
+    @Modifying
+    @Transactional
+    @Query("update TaxReturn t set t.revision = t.revision + 1 where t.id = :id")
+    int incrementRevision(@Param("id") int id);
+
+    // Record changes to several TaxReturns at once:
+    @Modifying
+    @Transactional
+    @Query("update TaxReturn t set t.revision = t.revision + 1 where t.id in :ids")
+    int incrementRevisions(@Param("ids") Collection<Integer> ids);
+
+    // Find which of the TaxReturns exist and belong to the user:
+    @Query("select t.id from TaxReturn t where t.id in :ids and t.userId = :userId")
+    Set<Integer> findIdsByIdInAndUserId(@Param("ids") Collection<Integer> ids, @Param("userId") int userId);
+
+    // Store the calculated fields of a TaxReturn along with the revision they were calculated at. Nothing is written
+    // if the TaxReturn has changed since it was read, since those results are already out of date:
+    @Modifying
+    @Transactional
+    @Query("update TaxReturn t set t.totalIncome = :#{#results.totalIncome}, " +
+            "t.adjustedGrossIncome = :#{#results.adjustedGrossIncome}, t.taxableIncome = :#{#results.taxableIncome}, " +
+            "t.fedTaxWithheld = :#{#results.fedTaxWithheld}, t.stateTaxWithheld = :#{#results.stateTaxWithheld}, " +
+            "t.socialSecurityTaxWithheld = :#{#results.socialSecurityTaxWithheld}, " +
+            "t.medicareTaxWithheld = :#{#results.medicareTaxWithheld}, t.totalCredits = :#{#results.totalCredits}, " +
+            "t.federalRefund = :#{#results.federalRefund}, t.stateRefund = :#{#results.stateRefund}, " +
+            "t.calculatedRevision = t.revision " +
+            "where t.id = :#{#results.id} and t.revision = :#{#results.revision}")
+    int saveCalculatedResults(@Param("results") TaxReturn results);
+
     // Delete all TaxReturns by userId:
     void deleteAllByUserId(int userId);
 }
@@ -0,0 +1,12 @@
+package com.skillstorm.taxservice.repositories;
+
+import com.skillstorm.taxservice.models.W2;
+
+import java.util.List;
+
+// Inserts for storing many W2s at once without holding on to them. Mixed into W2Repository:
+public interface W2BatchRepository {
+
+    // Insert the W2s with one JDBC batch and return their generated ids, in order. Runs in the caller's transaction:
+    int[] insertAll(List<W2> w2s);
+}
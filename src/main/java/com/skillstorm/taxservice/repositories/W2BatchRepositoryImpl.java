@@ -0,0 +1,24 @@
+package com.skillstorm.taxservice.repositories;
+
+import com.skillstorm.taxservice.models.W2;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+// Persists every W2 and flushes once, so Hibernate sends them as one JDBC batch with ids it has already taken from
+// w2_id_seq. The W2s are detached again afterwards so a long import doesn't keep every one it has stored in the
+// persistence context:
+public class W2BatchRepositoryImpl implements W2BatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int[] insertAll(List<W2> w2s) {
+        w2s.forEach(entityManager::persist);
+        entityManager.flush();
+        w2s.forEach(entityManager::detach);
+        return w2s.stream().mapToInt(W2::getId).toArray();
+    }
+}
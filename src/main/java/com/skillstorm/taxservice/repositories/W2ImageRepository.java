@@ -0,0 +1,55 @@
+package com.skillstorm.taxservice.repositories;
+
+import com.skillstorm.taxservice.models.W2Image;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface W2ImageRepository extends JpaRepository<W2Image, String> {
+
+    // Add a W2's reference to a stored image. Returns 0 if the image isn't stored, or has just been collected:
+    @Modifying
+    @Transactional
+    @Query("update W2Image i set i.referenceCount = i.referenceCount + 1, i.unreferencedAt = null where i.imageKey = :imageKey")
+    int addReference(@Param("imageKey") String imageKey);
+
+    // Drop a W2's reference to a stored image, noting when the last one goes so the sweep knows how long it has been
+    // unreferenced:
+    @Modifying
+    @Transactional
+    @Query("update W2Image i set i.referenceCount = i.referenceCount - 1, " +
+            "i.unreferencedAt = case when i.referenceCount = 1 then :now else i.unreferencedAt end " +
+            "where i.imageKey = :imageKey and i.referenceCount > 0")
+    int removeReference(@Param("imageKey") String imageKey, @Param("now") Instant now);
+
+    // Set every image's reference count to the number of W2s that use it. Catches up with W2s whose image changed
+    // other than through the image endpoints:
+    @Modifying
+    @Transactional
+    @Query("update W2Image i set i.referenceCount = (select count(w) from W2 w where w.imageKey = i.imageKey)")
+    int recountReferences();
+
+    // Note when each image was first seen unreferenced, and forget it for those referenced again:
+    @Modifying
+    @Transactional
+    @Query("update W2Image i set i.unreferencedAt = case when i.referenceCount > 0 then null " +
+            "else coalesce(i.unreferencedAt, :now) end")
+    int markUnreferenced(@Param("now") Instant now);
+
+    // Find images nothing has referenced since before the cutoff:
+    List<W2Image> findTop100ByUnreferencedAtBefore(Instant cutoff);
+
+    // Find an image, locking its row until the transaction ends so no reference can be added meanwhile:
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<W2Image> findLockedByImageKey(String imageKey);
+}
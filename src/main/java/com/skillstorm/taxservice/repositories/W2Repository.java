@@ -1,13 +1,16 @@
 package com.skillstorm.taxservice.repositories;
 
 import com.skillstorm.taxservice.models.W2;
+import com.skillstorm.taxservice.projections.W2StateTotals;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface W2Repository extends JpaRepository<W2, Integer> {
+public interface W2Repository extends JpaRepository<W2, Integer>, W2BatchRepository {
 
     // Find all W2s by UserId:
     List<W2> findAllByUserId(int userId);
@@ -20,4 +23,19 @@ public interface W2Repository extends JpaRepository<W2, Integer> {
 
     // Find all W2s by TaxReturnId:
     List<W2> findAllByTaxReturnId(int taxReturnId);
+
+    // Check whether any W2 uses an image:
+    boolean existsByImageKey(String imageKey);
+
+    // Count the W2s that use an image:
+    long countByImageKey(String imageKey);
+
+    // Sum the wages and withholdings of a TaxReturn's W2s per state:
+    @Query("select w.state as state, sum(w.wages) as wages, " +
+            "sum(w.federalIncomeTaxWithheld) as federalIncomeTaxWithheld, " +
+            "sum(w.stateIncomeTaxWithheld) as stateIncomeTaxWithheld, " +
+            "sum(w.socialSecurityTaxWithheld) as socialSecurityTaxWithheld, " +
+            "sum(w.medicareTaxWithheld) as medicareTaxWithheld " +
+            "from W2 w where w.taxReturn.id = :taxReturnId group by w.state")
+    List<W2StateTotals> findStateTotalsByTaxReturnId(@Param("taxReturnId") int taxReturnId);
 }
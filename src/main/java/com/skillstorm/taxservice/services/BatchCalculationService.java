@@ -0,0 +1,193 @@
+package com.skillstorm.taxservice.services;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.dtos.BatchCalculationRequestDto;
+import com.skillstorm.taxservice.dtos.BatchCalculationResultDto;
+import com.skillstorm.taxservice.dtos.FilingStatusComparisonDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.exceptions.ErrorMessage;
+import com.skillstorm.taxservice.exceptions.NotFoundException;
+import com.skillstorm.taxservice.exceptions.UnauthorizedException;
+import com.skillstorm.taxservice.models.TaxReturn;
+import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@PropertySource("classpath:SystemMessages.properties")
+public class BatchCalculationService {
+
+    private final TaxReturnRepository taxReturnRepository;
+    private final TaxCalculatorService taxCalculatorService;
+    private final ExecutorService calculationExecutor;
+    private final Validator validator;
+    private final Environment environment;
+    private final int maxBatchSize;
+
+    @Autowired
+    public BatchCalculationService(TaxReturnRepository taxReturnRepository, TaxCalculatorService taxCalculatorService,
+                                   @Qualifier("calculationExecutor") ExecutorService calculationExecutor, Validator validator,
+                                   Environment environment, @Value("${taxes.batch.max-size:500}") int maxBatchSize) {
+        this.taxReturnRepository = taxReturnRepository;
+        this.taxCalculatorService = taxCalculatorService;
+        this.calculationExecutor = calculationExecutor;
+        this.validator = validator;
+        this.environment = environment;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // Calculate a batch of TaxReturns. The stored TaxReturns are loaded with one query and mapped to DTOs before the
+    // transaction ends, then every calculation is handed to the calculation executor. The futures are returned in
+    // request order: the requested ids first, then the TaxReturns from the request body. A future never completes
+    // exceptionally, a TaxReturn that can't be found, fails validation or can't be calculated gets a result with an
+    // error instead:
+    @Transactional(readOnly = true)
+    public List<CompletableFuture<BatchCalculationResultDto>> calculateBatch(BatchCalculationRequestDto request, int userId) {
+        List<Integer> ids = request.getIds() == null ? List.of() : request.getIds();
+        List<TaxReturnDto> taxReturns = request.getTaxReturns() == null ? List.of() : request.getTaxReturns();
+
+        int batchSize = ids.size() + taxReturns.size();
+        if (batchSize == 0 || batchSize > maxBatchSize) {
+            throw new IllegalArgumentException(environment.getProperty("taxreturn.batch.size") + " " + maxBatchSize);
+        }
+
+        // Only TaxReturns owned by the user are loaded, anything else is reported as not found:
+        Map<Integer, TaxReturn> stored = ids.isEmpty() ? Map.of() :
+                taxReturnRepository.findAllForCalculation(new LinkedHashSet<>(ids), userId).stream()
+                        .collect(Collectors.toMap(TaxReturn::getId, Function.identity()));
+
+        List<CompletableFuture<BatchCalculationResultDto>> results = new ArrayList<>(batchSize);
+        for (Integer id : ids) {
+            TaxReturn taxReturn = stored.get(id);
+            if (taxReturn == null) {
+                BatchCalculationResultDto result = BatchCalculationResultDto.forId(id);
+                result.setError(error(HttpStatus.BAD_REQUEST,
+                        new NotFoundException(environment.getProperty("taxreturn.not.found"), id).getMessage()));
+                results.add(CompletableFuture.completedFuture(result));
+            } else {
+                // Map inside the transaction so the calculation never touches a lazy collection. A TaxReturn
+                // requested twice gets its own DTO for each result. Stored results that are still current are
+                // returned without recalculating:
+                TaxReturnDto taxReturnDto = new TaxReturnDto(taxReturn);
+                if (taxReturnDto.hasCurrentResults()) {
+                    BatchCalculationResultDto result = BatchCalculationResultDto.forId(id);
+                    result.setTaxReturn(taxReturnDto);
+                    results.add(CompletableFuture.completedFuture(result));
+                } else {
+                    taxReturnDto.setTotalCredits(BigDecimal.ZERO.setScale(2));
+                    results.add(submit(BatchCalculationResultDto.forId(id), taxReturnDto));
+                }
+            }
+        }
+        for (int i = 0; i < taxReturns.size(); i++) {
+            // TaxReturns from the body aren't stored, so they're prepared and validated the same as for simulate:
+            TaxReturnDto taxReturnDto = taxReturns.get(i);
+            taxReturnDto.prepareForSimulation(userId);
+            Set<ConstraintViolation<TaxReturnDto>> violations = validator.validate(taxReturnDto);
+            if (!violations.isEmpty()) {
+                BatchCalculationResultDto result = BatchCalculationResultDto.forIndex(i);
+                result.setError(error(HttpStatus.BAD_REQUEST, violations.stream()
+                        .map(ConstraintViolation::getMessage).collect(Collectors.joining(", "))));
+                results.add(CompletableFuture.completedFuture(result));
+                continue;
+            }
+            results.add(submit(BatchCalculationResultDto.forIndex(i), taxReturnDto));
+        }
+        return results;
+    }
+
+    // Calculate one TaxReturn under every filing status it's eligible for, to see which comes out best. The TaxReturn
+    // is loaded once and each filing status gets its own DTO mapped from it, since the calculation writes its results
+    // into the DTO. The calculations run in parallel on the calculation executor and share the read-only reference
+    // data. Results are in FilingStatus order:
+    public List<FilingStatusComparisonDto> compareFilingStatuses(int id, int userId) {
+        TaxReturn taxReturn = taxReturnRepository.findCompleteById(id)
+                .orElseThrow(() -> new NotFoundException(environment.getProperty("taxreturn.not.found"), id));
+        if (taxReturn.getUserId() != userId) {
+            throw new UnauthorizedException(environment.getProperty("user.unauthorized"));
+        }
+
+        List<FilingStatus> filingStatuses = eligibleFilingStatuses(taxReturn);
+        List<CompletableFuture<FilingStatusComparisonDto>> results = new ArrayList<>(filingStatuses.size());
+        for (FilingStatus filingStatus : filingStatuses) {
+            // The copies are calculated without an id, so they don't replace the stored TaxReturn's checkpoint:
+            TaxReturnDto taxReturnDto = new TaxReturnDto(taxReturn);
+            taxReturnDto.setId(0);
+            taxReturnDto.setFilingStatus(filingStatus);
+            taxReturnDto.setTotalCredits(BigDecimal.ZERO.setScale(2));
+            results.add(CompletableFuture.supplyAsync(
+                    () -> new FilingStatusComparisonDto(taxCalculatorService.calculateAll(taxReturnDto)), calculationExecutor));
+        }
+
+        // A calculation that fails fails the whole comparison, with the exception it threw:
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Filing statuses open to the filer of the TaxReturn. Whether they're married is taken from the status they filed
+    // under: married filers can file jointly or separately. Anyone else can file single, as head of household if they
+    // claim a dependent, and as a surviving spouse only if they already do, since the TaxReturn doesn't record when a
+    // spouse died:
+    private static List<FilingStatus> eligibleFilingStatuses(TaxReturn taxReturn) {
+        FilingStatus filedAs = FilingStatus.fromValue(taxReturn.getFilingStatus());
+        if (filedAs == FilingStatus.MARRIED_FILING_JOINTLY || filedAs == FilingStatus.MARRIED_FILING_SEPARATELY) {
+            return List.of(FilingStatus.MARRIED_FILING_JOINTLY, FilingStatus.MARRIED_FILING_SEPARATELY);
+        }
+        List<FilingStatus> filingStatuses = new ArrayList<>(List.of(FilingStatus.SINGLE));
+        if (taxReturn.getTaxCredit() != null && taxReturn.getTaxCredit().getNumDependents() > 0) {
+            filingStatuses.add(FilingStatus.HEAD_OF_HOUSEHOLD);
+        }
+        if (filedAs == FilingStatus.WIDOW) {
+            filingStatuses.add(FilingStatus.WIDOW);
+        }
+        return filingStatuses;
+    }
+
+    private CompletableFuture<BatchCalculationResultDto> submit(BatchCalculationResultDto result, TaxReturnDto taxReturnDto) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                taxCalculatorService.calculateAll(taxReturnDto);
+                result.setTaxReturn(taxReturnDto);
+            } catch (NotFoundException | IllegalArgumentException e) {
+                result.setError(error(HttpStatus.BAD_REQUEST, e.getMessage()));
+            } catch (RuntimeException e) {
+                result.setError(error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage()));
+            }
+            return result;
+        }, calculationExecutor);
+    }
+
+    // Same shape GlobalExceptionHandler returns for a failed single request:
+    private static ErrorMessage error(HttpStatus status, String message) {
+        ErrorMessage error = new ErrorMessage();
+        error.setErrorCode(status.value());
+        error.setMessage(message);
+        return error;
+    }
+}
@@ -17,11 +17,11 @@ public class CapitalGainsTaxService {
     this.capitalGainsTaxRepository = capitalGainsTaxRepository;
   }
 
-  // Get the tax bracket by filing status id
-  public List<CapitalGainsTax> findByFilingStatusID(int id) {
-    List<CapitalGainsTax> capitalGainsTax = capitalGainsTaxRepository.findByFilingStatus_Id(id);
+  // Get the capital gains brackets by filing status code and tax year
+  public List<CapitalGainsTax> findByFilingStatus(int statusCode, int taxYear) {
+    List<CapitalGainsTax> capitalGainsTax = capitalGainsTaxRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(statusCode, taxYear);
     if (capitalGainsTax.isEmpty()) {
-      throw new NotFoundException("No capital gains tax info found for filing status id: " + id);
+      throw new NotFoundException("No capital gains tax info found for filing status: " + statusCode + " in tax year " + taxYear);
     }
     return capitalGainsTax;
   }
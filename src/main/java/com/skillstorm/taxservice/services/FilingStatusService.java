@@ -17,14 +17,14 @@ public class FilingStatusService {
     this.filingStatusRepository = filingStatusRepository;
   }
 
-  // Get filing status by the status string
-  public FilingStatus findByStatus(String status) {
-    Optional<FilingStatus> filingStatus = filingStatusRepository.findByStatus(status);
+  // Get filing status by the status code and tax year
+  public FilingStatus findByStatus(int statusCode, int taxYear) {
+    Optional<FilingStatus> filingStatus = filingStatusRepository.findByStatusCodeAndTaxYear(statusCode, taxYear);
 
     if (filingStatus.isPresent()) {
       return filingStatus.get();
     } else {
-      throw new NotFoundException("Filing status: " + status + " not found");
+      throw new NotFoundException("Filing status: " + statusCode + " not found for tax year " + taxYear);
     }
   }
 
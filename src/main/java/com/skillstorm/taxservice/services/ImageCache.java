@@ -0,0 +1,40 @@
+package com.skillstorm.taxservice.services;
+
+import java.io.Closeable;
+import java.io.InputStream;
+
+// A local copy of W2 images kept in front of S3. Image keys are derived from the image's content, so a cached image
+// never goes stale and nothing ever needs to be invalidated:
+public interface ImageCache {
+
+    // No caching. Every download goes to S3:
+    ImageCache NONE = new ImageCache() {
+        @Override
+        public CachedImage get(String imageKey) {
+            return null;
+        }
+
+        @Override
+        public InputStream readThrough(String imageKey, InputStream content, long contentLength) {
+            return content;
+        }
+    };
+
+    // The cached image with this key, or null if it isn't cached:
+    CachedImage get(String imageKey);
+
+    // Wrap a download of a whole image from S3 so that it is added to the cache as the client reads it:
+    InputStream readThrough(String imageKey, InputStream content, long contentLength);
+
+    // A cached image held open for reading, so it can't be evicted out from under us. Either open a stream of it,
+    // which then owns the file, or close it:
+    interface CachedImage extends Closeable {
+
+        long size();
+
+        InputStream open(long start, long count);
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,57 @@
+package com.skillstorm.taxservice.services;
+
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// The S3 bucket W2 images are kept in. S3AsyncService is used unless taxes.s3.client is set to blocking, in which case
+// S3Service makes each call on the calling thread and returns it already completed:
+public interface ImageStorage {
+
+    // S3 rejects multipart uploads with parts smaller than this, other than the last one:
+    long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    // Upload a stream of unknown length, storing its content type as object metadata so downloads can send it back
+    // as is. The stream is read to the end on the calling thread before this returns, so it can be hashed as it goes;
+    // the returned future completes once S3 has all of it:
+    CompletableFuture<Void> uploadStream(String key, InputStream content, String contentType) throws IOException;
+
+    // Move an object to a new key within the bucket and return its new ETag. The copy happens inside S3 and keeps
+    // the object's metadata:
+    CompletableFuture<String> moveObject(String sourceKey, String destinationKey);
+
+    CompletableFuture<Void> deleteObject(String key);
+
+    // Look up an object's metadata without downloading it:
+    CompletableFuture<HeadObjectResponse> headObject(String key);
+
+    // Download an object. The stream reads from the HTTP connection as the caller reads it and must be closed. A null
+    // range downloads the whole object; otherwise it is an HTTP Range header value such as "bytes=0-1023":
+    CompletableFuture<ResponseInputStream<GetObjectResponse>> getObject(String key, String range);
+
+    // Wait for a call, rethrowing whatever it failed with so the exception handler sees the S3 error itself:
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Uploads larger than the multipart threshold are sent in parts of this size:
+    static int partSize(DataSize multipartThreshold) {
+        if (multipartThreshold.toBytes() < MIN_PART_SIZE || multipartThreshold.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("taxes.s3.multipart-threshold must be between 5MB and 2GB");
+        }
+        return (int) multipartThreshold.toBytes();
+    }
+}
@@ -41,20 +41,24 @@ public class OtherIncomeService {
     return OtherIncomeMapper.toDto(existingOtherIncome);
   }
 
+  @Transactional
   public OtherIncomeDto createOtherIncome(OtherIncomeDto otherIncomeDto) {
     taxReturnRepository.findById(otherIncomeDto.getTaxReturnId())
       .orElseThrow(() -> new IllegalArgumentException("No existing tax return with ID: " + otherIncomeDto.getTaxReturnId()));
     OtherIncome newOtherIncome = OtherIncomeMapper.toEntity(otherIncomeDto);
     newOtherIncome = otherIncomeRepository.save(newOtherIncome);
+    taxReturnRepository.incrementRevision(otherIncomeDto.getTaxReturnId());
 
     return OtherIncomeMapper.toDto(newOtherIncome);
   }
 
+  @Transactional
   public OtherIncomeDto updateOtherIncome(OtherIncomeDto otherIncomeDto) {
     OtherIncome existingOtherIncome = otherIncomeRepository.findByTaxReturnId(otherIncomeDto.getTaxReturnId())
       .orElseThrow(() -> new NotFoundException(env.getProperty("otherincome.not.found") + otherIncomeDto.getTaxReturnId()));
     existingOtherIncome = OtherIncomeMapper.updateEntity(existingOtherIncome, otherIncomeDto);
     existingOtherIncome = otherIncomeRepository.save(existingOtherIncome);
+    taxReturnRepository.incrementRevision(otherIncomeDto.getTaxReturnId());
 
     return OtherIncomeMapper.toDto(existingOtherIncome);
   }
@@ -64,10 +68,14 @@ public class OtherIncomeService {
     OtherIncome existingOtherIncome = otherIncomeRepository.findByTaxReturnId(otherIncomeDto.getTaxReturnId())
       .orElseThrow(() -> new NotFoundException(env.getProperty("otherincome.not.found") + otherIncomeDto.getTaxReturnId()));
     otherIncomeRepository.delete(existingOtherIncome);
+    taxReturnRepository.incrementRevision(otherIncomeDto.getTaxReturnId());
   }
 
   //@Transactional
   public void deleteOtherIncomeById(int otherIncomeId) {
-    otherIncomeRepository.deleteById(otherIncomeId);
+    otherIncomeRepository.findById(otherIncomeId).ifPresent(existingOtherIncome -> {
+      otherIncomeRepository.deleteById(otherIncomeId);
+      taxReturnRepository.incrementRevision(existingOtherIncome.getTaxReturn().getId());
+    });
   }
 }
@@ -0,0 +1,189 @@
+package com.skillstorm.taxservice.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Makes every S3 call without holding the calling thread while S3 answers. The returned futures complete on the S3
+// client's own threads. Used unless taxes.s3.client is set to blocking:
+@Service
+@ConditionalOnProperty(name = "taxes.s3.client", havingValue = "async", matchIfMissing = true)
+public class S3AsyncService implements ImageStorage {
+
+    // Parts of one multipart upload that can be uploading while the next part is read. Together with the part being
+    // read, this caps how much of any one upload is held in memory:
+    private static final int MAX_PARTS_IN_FLIGHT = 2;
+
+    private final S3AsyncClient s3;
+    private final String imageBucket;
+    private final int partSize;
+
+    @Autowired
+    // If the IMAGE_BUCKET environment variable is not set, the default value is an empty string:
+    public S3AsyncService(S3AsyncClient s3, @Value("${IMAGE_BUCKET:}") String imageBucket,
+                          @Value("${taxes.s3.multipart-threshold:8MB}") DataSize multipartThreshold) {
+        this.s3 = s3;
+        this.imageBucket = imageBucket;
+        this.partSize = ImageStorage.partSize(multipartThreshold);
+    }
+
+    // Anything shorter than the multipart threshold goes up in a single PUT. Anything longer is sent as a multipart
+    // upload, reading the next part while earlier ones are still uploading. The upload is aborted if reading the stream
+    // or uploading a part fails, so S3 doesn't keep the parts around:
+    @Override
+    public CompletableFuture<Void> uploadStream(String key, InputStream content, String contentType) throws IOException {
+        byte[] part = new byte[partSize];
+        int length = content.readNBytes(part, 0, partSize);
+        if (length < partSize) {
+            return s3.putObject(
+                    PutObjectRequest.builder()
+                            .bucket(imageBucket)
+                            .key(key)
+                            .contentType(contentType)
+                            .build(),
+                    AsyncRequestBody.fromBytes(Arrays.copyOf(part, length))
+            ).thenApply(response -> null);
+        }
+
+        CompletableFuture<String> uploadId = s3.createMultipartUpload(
+                CreateMultipartUploadRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build()
+        ).thenApply(CreateMultipartUploadResponse::uploadId);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            while (length > 0) {
+                // Wait for the oldest part still uploading before reading any more, and stop reading if it failed:
+                if (parts.size() >= MAX_PARTS_IN_FLIGHT) {
+                    CompletableFuture<CompletedPart> oldest = parts.get(parts.size() - MAX_PARTS_IN_FLIGHT);
+                    oldest.exceptionally(e -> null).join();
+                    if (oldest.isCompletedExceptionally()) {
+                        break;
+                    }
+                }
+                parts.add(uploadPart(key, uploadId, parts.size() + 1, Arrays.copyOf(part, length)));
+                length = content.readNBytes(part, 0, partSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(key, uploadId);
+            throw e;
+        }
+
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]))
+                .thenCompose(uploaded -> uploadId)
+                .thenCompose(id -> s3.completeMultipartUpload(
+                        CompleteMultipartUploadRequest.builder()
+                                .bucket(imageBucket)
+                                .key(key)
+                                .uploadId(id)
+                                .multipartUpload(CompletedMultipartUpload.builder()
+                                        .parts(parts.stream().map(CompletableFuture::join).toList())
+                                        .build())
+                                .build()
+                ))
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        abortMultipartUpload(key, uploadId);
+                    }
+                })
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<String> moveObject(String sourceKey, String destinationKey) {
+        return s3.copyObject(
+                CopyObjectRequest.builder()
+                        .sourceBucket(imageBucket)
+                        .sourceKey(sourceKey)
+                        .destinationBucket(imageBucket)
+                        .destinationKey(destinationKey)
+                        .build()
+        ).thenCompose(response -> deleteObject(sourceKey).thenApply(deleted -> response.copyObjectResult().eTag()));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteObject(String key) {
+        return s3.deleteObject(
+                DeleteObjectRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .build()
+        ).thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<HeadObjectResponse> headObject(String key) {
+        return s3.headObject(
+                HeadObjectRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .build()
+        );
+    }
+
+    // Completes as soon as S3 starts answering. The body then arrives as the returned stream is read:
+    @Override
+    public CompletableFuture<ResponseInputStream<GetObjectResponse>> getObject(String key, String range) {
+        return s3.getObject(
+                GetObjectRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .range(range)
+                        .build(),
+                AsyncResponseTransformer.toBlockingInputStream()
+        );
+    }
+
+    private CompletableFuture<CompletedPart> uploadPart(String key, CompletableFuture<String> uploadId, int partNumber, byte[] part) {
+        return uploadId.thenCompose(id -> s3.uploadPart(
+                UploadPartRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .uploadId(id)
+                        .partNumber(partNumber)
+                        .contentLength((long) part.length)
+                        .build(),
+                AsyncRequestBody.fromBytes(part)
+        )).thenApply(response -> CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+    }
+
+    // Nothing to abort if the upload was never created:
+    private void abortMultipartUpload(String key, CompletableFuture<String> uploadId) {
+        uploadId.thenCompose(id -> s3.abortMultipartUpload(
+                AbortMultipartUploadRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .uploadId(id)
+                        .build()
+        ));
+    }
+}
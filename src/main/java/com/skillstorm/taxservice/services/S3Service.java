@@ -2,45 +2,158 @@ package com.skillstorm.taxservice.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+// Makes every S3 call on the calling thread, so it is held for the whole call. Used when taxes.s3.client is blocking:
 @Service
-public class S3Service {
+@ConditionalOnProperty(name = "taxes.s3.client", havingValue = "blocking")
+public class S3Service implements ImageStorage {
 
     private final S3Client s3;
     private final String imageBucket;
+    private final int partSize;
 
     @Autowired
     // If the IMAGE_BUCKET environment variable is not set, the default value is an empty string:
-    public S3Service(S3Client s3 ,@Value("${IMAGE_BUCKET:}") String imageBucket) {
+    public S3Service(S3Client s3 ,@Value("${IMAGE_BUCKET:}") String imageBucket,
+                     @Value("${taxes.s3.multipart-threshold:8MB}") DataSize multipartThreshold) {
         this.s3 = s3;
         this.imageBucket = imageBucket;
+        this.partSize = ImageStorage.partSize(multipartThreshold);
     }
 
-    // Upload file to S3 bucket:
-    public void uploadFile(String key, byte[] file) {
-        s3.putObject(
-                PutObjectRequest.builder()
+    // Upload a stream of unknown length to S3 holding at most one part of it in memory. Anything shorter than the
+    // multipart threshold goes up in a single PUT; anything longer is sent as a multipart upload in threshold-sized
+    // parts, which is aborted if reading the stream or uploading a part fails so S3 doesn't keep the parts around:
+    @Override
+    public CompletableFuture<Void> uploadStream(String key, InputStream content, String contentType) throws IOException {
+        byte[] part = new byte[partSize];
+        int length = content.readNBytes(part, 0, partSize);
+        if (length < partSize) {
+            s3.putObject(
+                    PutObjectRequest.builder()
+                            .bucket(imageBucket)
+                            .key(key)
+                            .contentType(contentType)
+                            .build(),
+                    RequestBody.fromInputStream(new ByteArrayInputStream(part, 0, length), length)
+            );
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String uploadId = s3.createMultipartUpload(
+                CreateMultipartUploadRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build()
+        ).uploadId();
+        try {
+            List<CompletedPart> completedParts = new ArrayList<>();
+            while (length > 0) {
+                int partNumber = completedParts.size() + 1;
+                String eTag = s3.uploadPart(
+                        UploadPartRequest.builder()
+                                .bucket(imageBucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(part, 0, length), length)
+                ).eTag();
+                completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                length = content.readNBytes(part, 0, partSize);
+            }
+            s3.completeMultipartUpload(
+                    CompleteMultipartUploadRequest.builder()
+                            .bucket(imageBucket)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                            .build()
+            );
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | RuntimeException e) {
+            s3.abortMultipartUpload(
+                    AbortMultipartUploadRequest.builder()
+                            .bucket(imageBucket)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .build()
+            );
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> moveObject(String sourceKey, String destinationKey) {
+        String eTag = s3.copyObject(
+                CopyObjectRequest.builder()
+                        .sourceBucket(imageBucket)
+                        .sourceKey(sourceKey)
+                        .destinationBucket(imageBucket)
+                        .destinationKey(destinationKey)
+                        .build()
+        ).copyObjectResult().eTag();
+        deleteObject(sourceKey);
+        return CompletableFuture.completedFuture(eTag);
+    }
+
+    @Override
+    public CompletableFuture<HeadObjectResponse> headObject(String key) {
+        return CompletableFuture.completedFuture(s3.headObject(
+                HeadObjectRequest.builder()
+                        .bucket(imageBucket)
+                        .key(key)
+                        .build()
+        ));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteObject(String key) {
+        s3.deleteObject(
+                DeleteObjectRequest.builder()
                         .bucket(imageBucket)
                         .key(key)
-                        .build(),
-                RequestBody.fromBytes(file)
+                        .build()
         );
+        return CompletableFuture.completedFuture(null);
     }
 
-    // Download file from S3 bucket:
-    public InputStream getObject(String key) {
-        return s3.getObject(
+    @Override
+    public CompletableFuture<ResponseInputStream<GetObjectResponse>> getObject(String key, String range) {
+        return CompletableFuture.completedFuture(s3.getObject(
                 GetObjectRequest.builder()
                         .bucket(imageBucket)
                         .key(key)
+                        .range(range)
                         .build()
-        );
+        ));
     }
 }
@@ -15,9 +15,9 @@ public class StandardDeductionService {
     this.standardDeductionRepository = standardDeductionRepository;
   }
 
-  // Get the standardized deduction amount by Filing Status id
-  public StandardDeduction getByFilingStatusId(int filingStatusId) {
-    return standardDeductionRepository.findByFilingStatus_Id(filingStatusId)
-      .orElseThrow(() -> new NotFoundException("Standardized deduction not found for filing status id: " + filingStatusId));
+  // Get the standardized deduction amount by Filing Status code and tax year
+  public StandardDeduction getByFilingStatus(int statusCode, int taxYear) {
+    return standardDeductionRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYear(statusCode, taxYear)
+      .orElseThrow(() -> new NotFoundException("Standardized deduction not found for filing status: " + statusCode + " in tax year " + taxYear));
   }
 }
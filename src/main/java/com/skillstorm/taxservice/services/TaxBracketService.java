@@ -16,9 +16,9 @@ public class TaxBracketService {
     this.taxBracketRepository = taxBracketRepository;
   }
 
-  // Get the tax bracket by filing status id
-  public List<TaxBracket> findByFilingStatusID(int id) {
-    List<TaxBracket> taxBrackets = taxBracketRepository.findByFilingStatus_Id(id);
+  // Get the tax brackets by filing status code and tax year
+  public List<TaxBracket> findByFilingStatus(int statusCode, int taxYear) {
+    List<TaxBracket> taxBrackets = taxBracketRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(statusCode, taxYear);
     return taxBrackets;
   }
 }
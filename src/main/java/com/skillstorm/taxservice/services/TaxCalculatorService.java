@@ -1,9 +1,23 @@
 package com.skillstorm.taxservice.services;
 
+import com.skillstorm.taxservice.calculation.AgeBand;
+import com.skillstorm.taxservice.calculation.BracketSchedule;
+import com.skillstorm.taxservice.calculation.CalculationCheckpoints;
+import com.skillstorm.taxservice.calculation.CalculationInput;
+import com.skillstorm.taxservice.calculation.CalculationMetrics;
+import com.skillstorm.taxservice.calculation.CalculationStage;
+import com.skillstorm.taxservice.calculation.FixedPointTaxEngine;
+import com.skillstorm.taxservice.calculation.TaxReferenceSnapshot;
 import com.skillstorm.taxservice.dtos.*;
 import com.skillstorm.taxservice.models.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.skillstorm.taxservice.constants.CalculationEngine;
+import com.skillstorm.taxservice.constants.CurveInput;
 import com.skillstorm.taxservice.constants.State;
 import com.skillstorm.taxservice.models.taxcredits.ChildTaxCredit;
 import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCredit;
@@ -15,57 +29,200 @@ import com.skillstorm.taxservice.models.taxcredits.SaversTaxCredit;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class TaxCalculatorService {
 
-    private final TaxCreditService taxCreditService;
-    private final FilingStatusService filingStatusService;
-    private final TaxBracketService taxBracketService;
-    private final StateTaxService stateTaxService;
-    private final CapitalGainsTaxService capitalGainsTaxService;
-    private final StandardDeductionService standardDeductionService;
-    private final DeductionService deductionService;
-
-    public TaxCalculatorService(TaxCreditService taxCreditService,
-                                FilingStatusService filingStatusService,
-                                TaxBracketService taxBracketService,
-                                StateTaxService stateTaxService,
-                                CapitalGainsTaxService capitalGainsTaxService,
-                                StandardDeductionService standardDeductionService,
-                                DeductionService deductionService) {
-      this.taxCreditService = taxCreditService;
-      this.filingStatusService = filingStatusService;
-      this.taxBracketService = taxBracketService;
-      this.stateTaxService = stateTaxService;
-      this.capitalGainsTaxService = capitalGainsTaxService;
-      this.standardDeductionService = standardDeductionService;
-      this.deductionService = deductionService;
+    private final TaxReferenceDataService taxReferenceDataService;
+    private final CalculationEngine calculationEngine;
+    private final FixedPointTaxEngine fixedPointTaxEngine = new FixedPointTaxEngine();
+
+    // Stage results of recently calculated TaxReturns, so a recalculation only reruns the stages an edit affects:
+    private static final int MAX_CHECKPOINTS = 10_000;
+    private final CalculationCheckpoints checkpoints = new CalculationCheckpoints(MAX_CHECKPOINTS);
+
+    private final CalculationMetrics calculationMetrics;
+
+    @Autowired
+    public TaxCalculatorService(TaxReferenceDataService taxReferenceDataService,
+                                @Value("${taxes.calculation.engine:bigdecimal}") String calculationEngine,
+                                MeterRegistry meterRegistry) {
+      this.taxReferenceDataService = taxReferenceDataService;
+      this.calculationEngine = CalculationEngine.fromString(calculationEngine);
+      this.calculationMetrics = new CalculationMetrics(meterRegistry);
+    }
+
+    // Used by tests and benchmarks. A CompositeMeterRegistry with nothing added to it records nothing:
+    public TaxCalculatorService(TaxReferenceDataService taxReferenceDataService, String calculationEngine) {
+      this(taxReferenceDataService, calculationEngine, new CompositeMeterRegistry());
+    }
+
+    public CalculationEngine getCalculationEngine() {
+      return calculationEngine;
     }
 
     public TaxReturnDto calculateAll(TaxReturnDto taxReturn) {
+      if (calculationEngine == CalculationEngine.FIXED_POINT) {
+        try {
+          return calculateAllFixedPoint(taxReturn);
+        } catch (ArithmeticException e) {
+          // The return can't be calculated exactly in fixed point (overflow, or more decimals than it carries), so
+          // fall through to the BigDecimal calculation. The fixed-point engine hasn't written anything to the dto:
+        }
+      }
+
+      // Stored returns are recalculated from their last checkpoint. Returns without an id, like what-if estimates,
+      // have nothing to compare against:
+      if (taxReturn.getId() > 0) {
+        return calculateIncrementally(taxReturn);
+      }
+      return calculateAllBigDecimal(taxReturn);
+    }
+
+    // Same pipeline as calculateAllBigDecimal, run on long fixed-point values by the FixedPointTaxEngine:
+    public TaxReturnDto calculateAllFixedPoint(TaxReturnDto taxReturn) {
 
-      // First, perform any income related calculations; calculating total income, then agi, then taxable income
-      calculateTotalIncome(taxReturn);
-      calculateAgi(taxReturn);
-      calculateTaxableIncome(taxReturn);
+      // Deduction limits are still set on the deductions themselves, so do that first:
+      if (!taxReturn.getDeductions().isEmpty()) {
+        setDeductionLimits(taxReturn);
+      }
+      // The engine runs the stages in one pass, so only the calculation as a whole is timed. Returns it can't
+      // calculate aren't timed here, only by the BigDecimal calculation they fall back to:
+      CalculationMetrics.Recording recording = calculationMetrics.start(CalculationEngine.FIXED_POINT, taxReturn);
+      TaxReturnDto result = fixedPointTaxEngine.calculateAll(taxReturn, snapshot(taxReturn));
+      recording.finish();
+      return result;
+    }
 
-      // Second, calculate tax liabilities
-      calculateWithholdings(taxReturn);
-      calculateFederalTaxes(taxReturn);
-      calculateStateTaxes(taxReturn);
-      calculateCapitalGainsTax(taxReturn);
+    // Federal and state refunds of the TaxReturn with one input set to each of the values, given in cents. The
+    // fixed-point engine calculates every point in one pass over the TaxReturn's inputs, whichever engine is
+    // configured. A TaxReturn it can't calculate exactly is run through the BigDecimal calculation once per point
+    // instead, which gives the same refunds:
+    public RefundCurveDto calculateRefundCurve(TaxReturnDto taxReturn, CurveInput input, long[] valuesCents) {
 
-      // Third, calculate applicable credits applied to federal tax liability
-      calculateNonRefundableTaxCredits(taxReturn);
-      calculateRefundableTaxCredits(taxReturn);
+      // Reporting an amount means filling in the form it belongs to, so a TaxReturn without one gets an empty one:
+      if (input == CurveInput.ADDITIONAL_INCOME && taxReturn.getOtherIncome() == null) {
+        taxReturn.setOtherIncome(new OtherIncomeDto());
+      }
+      if (input == CurveInput.IRA_CONTRIBUTIONS && taxReturn.getTaxCredit() == null) {
+        taxReturn.setTaxCredit(new TaxReturnCreditDto());
+      }
+      if (!taxReturn.getDeductions().isEmpty()) {
+        setDeductionLimits(taxReturn);
+      }
+
+      long[] federalRefunds = new long[valuesCents.length];
+      long[] stateRefunds = new long[valuesCents.length];
+      try {
+        fixedPointTaxEngine.refundCurve(taxReturn, snapshot(taxReturn), input, valuesCents, federalRefunds, stateRefunds);
+      } catch (ArithmeticException e) {
+        BigDecimal totalCredits = taxReturn.getTotalCredits();
+        for (int i = 0; i < valuesCents.length; i++) {
+          BigDecimal value = BigDecimal.valueOf(valuesCents[i], 2);
+          if (input == CurveInput.ADDITIONAL_INCOME) {
+            taxReturn.getOtherIncome().setAdditionalIncome(value);
+          } else {
+            taxReturn.getTaxCredit().setIraContributions(value);
+          }
+          // The credit calculations add to the total credits, so every point starts from the same total:
+          taxReturn.setTotalCredits(totalCredits);
+          calculateAllBigDecimal(taxReturn);
+          federalRefunds[i] = cents(taxReturn.getFederalRefund());
+          stateRefunds[i] = cents(taxReturn.getStateRefund());
+        }
+      }
+      return new RefundCurveDto(input, dollars(valuesCents), dollars(federalRefunds), dollars(stateRefunds));
+    }
+
+    private static long cents(BigDecimal dollars) {
+      return dollars.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static double[] dollars(long[] cents) {
+      double[] dollars = new double[cents.length];
+      for (int i = 0; i < cents.length; i++) {
+        dollars[i] = cents[i] / 100.0;
+      }
+      return dollars;
+    }
+
+    public TaxReturnDto calculateAllBigDecimal(TaxReturnDto taxReturn) {
+      CalculationMetrics.Recording recording = calculationMetrics.start(CalculationEngine.BIGDECIMAL, taxReturn);
+
+      // Run every stage in dependency order: first the income related calculations; total income, then agi, then
+      // taxable income. Second, the tax liabilities. Third, the credits applied to federal tax liability:
+      for (CalculationStage stage : CalculationStage.values()) {
+        runStage(stage, taxReturn, recording);
+      }
 
       // Finally, scale the relevant BigDecimals to be presentable
+      scaleResults(taxReturn);
+      recording.finish();
+      return taxReturn;
+    }
+
+    // Same result as calculateAllBigDecimal, but only the stages affected by inputs that changed since the last
+    // calculation of this return are run. Every other stage gets its previous outputs put back instead. Everything
+    // runs when the return hasn't been calculated before, or when its year or that year's reference data has changed
+    // since:
+    public TaxReturnDto calculateIncrementally(TaxReturnDto taxReturn) {
+      CalculationMetrics.Recording recording = calculationMetrics.start(CalculationEngine.BIGDECIMAL, taxReturn);
+      TaxReferenceSnapshot snapshot = taxReferenceDataService.getSnapshot(taxReturn.getYear());
+      Map<CalculationInput, Object> fingerprints = CalculationInput.fingerprints(taxReturn);
+      CalculationCheckpoints.Checkpoint previous = checkpoints.get(taxReturn.getId());
+
+      Set<CalculationStage> stagesToRun = previous == null || previous.getSnapshot() != snapshot
+              ? EnumSet.allOf(CalculationStage.class)
+              : CalculationStage.affectedBy(CalculationInput.changed(previous.getFingerprints(), fingerprints));
+
+      Map<CalculationStage, Object[]> outputs = new EnumMap<>(CalculationStage.class);
+      for (CalculationStage stage : CalculationStage.values()) {
+        if (stagesToRun.contains(stage)) {
+          runStage(stage, taxReturn, recording);
+          outputs.put(stage, stage.capture(taxReturn));
+        } else {
+          Object[] previousOutputs = previous.getOutputs(stage);
+          stage.restore(taxReturn, previousOutputs);
+          outputs.put(stage, previousOutputs);
+        }
+      }
+      checkpoints.put(taxReturn.getId(), new CalculationCheckpoints.Checkpoint(snapshot, fingerprints, outputs));
+
+      scaleResults(taxReturn);
+      recording.finish();
+      return taxReturn;
+    }
+
+    // Stages restored from a checkpoint aren't run, so they aren't timed either:
+    private void runStage(CalculationStage stage, TaxReturnDto taxReturn, CalculationMetrics.Recording recording) {
+      long start = System.nanoTime();
+      switch (stage) {
+        case TOTAL_INCOME -> calculateTotalIncome(taxReturn);
+        case AGI -> calculateAgi(taxReturn);
+        case TAXABLE_INCOME -> calculateTaxableIncome(taxReturn);
+        case WITHHOLDINGS -> calculateWithholdings(taxReturn);
+        case FEDERAL_TAX -> calculateFederalTaxes(taxReturn);
+        case STATE_TAX -> calculateStateTaxes(taxReturn);
+        case CAPITAL_GAINS_TAX -> calculateCapitalGainsTax(taxReturn);
+        case NON_REFUNDABLE_CREDITS -> calculateNonRefundableTaxCredits(taxReturn);
+        case REFUNDABLE_CREDITS -> calculateRefundableTaxCredits(taxReturn);
+      }
+      recording.stage(stage, start);
+    }
+
+    // Every lookup of reference data made while calculating the return goes through here, so it's counted:
+    private TaxReferenceSnapshot snapshot(TaxReturnDto taxReturn) {
+      calculationMetrics.countLookup(taxReturn);
+      return taxReferenceDataService.getSnapshot(taxReturn.getYear());
+    }
+
+    private TaxReturnDto scaleResults(TaxReturnDto taxReturn) {
       taxReturn.setTotalIncome(taxReturn.getTotalIncome().setScale(2, RoundingMode.HALF_UP));
       taxReturn.setAdjustedGrossIncome(taxReturn.getAdjustedGrossIncome().setScale(2, RoundingMode.HALF_UP));
       taxReturn.setTaxableIncome(taxReturn.getTaxableIncome().setScale(2, RoundingMode.HALF_UP));
@@ -121,83 +278,15 @@ public class TaxCalculatorService {
       return taxReturn;
     }
 
-    // Adjust deduction limits based on user's age and filing status
+    // Set each deduction's limit for the user's filing status and age at the end of the tax year. The limits are
+    // precomputed per deduction in the snapshot, so this is one lookup per deduction:
   private void setDeductionLimits(TaxReturnDto taxReturn) {
-
-    // Calculate user's age
-    LocalDate dateOfBirth = LocalDate.parse(taxReturn.getDateOfBirth());
-    int age = (int) ChronoUnit.YEARS.between(dateOfBirth, LocalDate.now());
-
-    // Set up conditions to make the checks more readable:
-    boolean isMarriedFilingJointly = com.skillstorm.taxservice.constants.FilingStatus.MARRIED_FILING_JOINTLY.equals(taxReturn.getFilingStatus());
-    boolean is50OrOlder = age >= 50;
-    boolean is55OrOlder = age >= 55;
-    BigDecimal totalIncome = taxReturn.getTotalIncome();
-
-    // Reset agiLimits to their default values to avoid compounding. Might be unnecessary because
-    // the changes may not be being saved anywhere:
-    resetAgiLimits(taxReturn);
-
-    // Modify agiLimits for each deduction for users matching the above conditions as applicable:
-    for(TaxReturnDeductionDto deduction : taxReturn.getDeductions()) {
-
-      int deductionId = deduction.getDeduction();
-      BigDecimal agiLimit = deduction.getAgiLimit();
-
-      switch (deductionId) {
-        // Health Savings Account:
-        case 1:
-          if (isMarriedFilingJointly) {
-            agiLimit = agiLimit
-                    .multiply(BigDecimal.valueOf(2))
-                    .add(BigDecimal.valueOf(50));
-          }
-          if (is55OrOlder) {
-            agiLimit = agiLimit.add(BigDecimal.valueOf(1000));
-          }
-          break;
-
-        // IRA Contributions:
-        case 2:
-          if (is50OrOlder) {
-            agiLimit = agiLimit.add(BigDecimal.valueOf(1000));
-          }
-          break;
-
-        // Student Loan Interest payments:
-        case 3:
-          if (isMarriedFilingJointly) {
-            agiLimit = agiLimit
-                    .multiply(BigDecimal.valueOf(2))
-                    .add(BigDecimal.valueOf(5000));
-          }
-          // For Student Loan Interest, eligibility is based on the user's adjusted income. You cannot claim
-          // the deduction if your adjusted gross income exceeds the agiLimit, but because of the way
-          // we're going to be comparing the AGI to the agiLimit in the next step, we want to set it
-          // to 0 if the Adjusted Gross Income exceeds the eligibility cap:
-          if (totalIncome.compareTo(deduction.getAgiLimit()) > 0) {
-            deduction.setAgiLimit(BigDecimal.ZERO);
-          }
-          break;
-
-        // Educator Expenses:
-        case 4:
-          if (isMarriedFilingJointly) {
-            deduction.setAgiLimit(deduction.getAgiLimit().multiply(BigDecimal.valueOf(2)));
-          }
-          break;
-
-      }
-      deduction.setAgiLimit(agiLimit);
-    };
-  }
-
-  // Reset AGI Limit to base value:
-  private void resetAgiLimits(TaxReturnDto taxReturn) {
-      taxReturn.getDeductions().forEach(taxReturnDeduction -> {
-        DeductionDto deduction = deductionService.findById(taxReturnDeduction.getDeduction());
-        taxReturnDeduction.setAgiLimit(deduction.getAgiLimit());
-      });
+    TaxReferenceSnapshot snapshot = snapshot(taxReturn);
+    AgeBand ageBand = AgeBand.of(taxReturn.getDateOfBirth(), taxReturn.getYear());
+    for (TaxReturnDeductionDto deduction : taxReturn.getDeductions()) {
+      deduction.setAgiLimit(snapshot.getDeductionRule(deduction.getDeduction())
+              .getAgiLimit(taxReturn.getFilingStatus(), ageBand));
+    }
   }
 
 
@@ -216,9 +305,7 @@ public class TaxCalculatorService {
               .reduce(BigDecimal.ZERO, BigDecimal::add);
 
       // Get the standard deduction amount based on user's filing status:
-      BigDecimal standardDeduction =
-              BigDecimal.valueOf(standardDeductionService.getByFilingStatusId(taxReturn.getFilingStatus().getValue())
-                      .getDeductionAmount());
+      BigDecimal standardDeduction = snapshot(taxReturn).getStandardDeduction(taxReturn.getFilingStatus());
 
       // Note: We choose the greater of standard deduction vs itemized deductions. We may want to find a way to
       // communicate which choice was made to the user in the future:
@@ -278,28 +365,11 @@ public class TaxCalculatorService {
       // Get taxable income
       BigDecimal taxableIncome = taxReturn.getTaxableIncome();
 
-      // Get tax brackets based on user's filing status
-      List<TaxBracket> taxBrackets = taxBracketService.findByFilingStatusID(taxReturn.getFilingStatus().getValue());
-
-      // Initialize tax amount & remaining income
-      BigDecimal taxesOwed = BigDecimal.ZERO;
-      BigDecimal remainingIncome = taxableIncome;
-
-      // Calculate the tax amount at each bracket user's income falls into
-      for (TaxBracket bracket : taxBrackets) {
-          double minIncome = bracket.getMinIncome();
-          double maxIncome = bracket.getMaxIncome();
-          BigDecimal taxRate = bracket.getRate();
-
-          if (remainingIncome.compareTo(BigDecimal.ZERO) <= 0) {
-              break; // No more income to tax
-          }
+      // Get the compiled tax schedule based on user's filing status
+      BracketSchedule taxSchedule = snapshot(taxReturn).getFederalSchedule(taxReturn.getFilingStatus());
 
-          BigDecimal taxableAmountInBracket = remainingIncome.min(BigDecimal.valueOf(maxIncome - minIncome));
-          BigDecimal taxInBracket = taxableAmountInBracket.multiply(taxRate);
-          taxesOwed = taxesOwed.add(taxInBracket);
-          remainingIncome = remainingIncome.subtract(taxableAmountInBracket);
-      }
+      // Look up the tax owed on the user's income from the cumulative schedule
+      BigDecimal taxesOwed = taxSchedule.taxFor(taxableIncome);
 
       // Set the federal tax amount in the TaxReturnDto
       taxReturn.setFederalRefund(taxesPaid
@@ -345,7 +415,7 @@ public class TaxCalculatorService {
         }
 
         // Calculate state tax for the total wages of the state
-        BigDecimal stateTaxForState = calculateTaxForIncome(totalWagesForState, state.getValue());
+        BigDecimal stateTaxForState = calculateTaxForIncome(taxReturn, totalWagesForState, state);
 
         // Update total state tax amount
         totalTaxAmount = totalTaxAmount.add(stateTaxForState);
@@ -354,12 +424,12 @@ public class TaxCalculatorService {
       // If the tax return's state does not match any of the W2s' states,
       // calculate taxes on OtherIncome for the tax return's state separately
       if (!w2sByState.containsKey(taxReturnState) && taxReturn.getOtherIncome() != null) {
-        BigDecimal otherIncomeTaxForState = calculateTaxForIncome(
+        BigDecimal otherIncomeTaxForState = calculateTaxForIncome(taxReturn,
                 taxReturn.getOtherIncome().getOtherInvestmentIncome()
                   .add(taxReturn.getOtherIncome().getNetBusinessIncome())
                   .add(taxReturn.getOtherIncome().getShortTermCapitalGains())
                   .add(taxReturn.getOtherIncome().getAdditionalIncome()),
-                taxReturnState.getValue()
+                taxReturnState
         );
         // Add OtherIncome taxes to the total state tax amount
         totalTaxAmount = totalTaxAmount.add(otherIncomeTaxForState);
@@ -375,28 +445,8 @@ public class TaxCalculatorService {
     }
 
   
-    private BigDecimal calculateTaxForIncome(BigDecimal income, int stateId) {
-      BigDecimal totalTaxAmount = BigDecimal.ZERO;
-      List<StateTax> taxBrackets = stateTaxService.getTaxBracketsByStateId(stateId);
-  
-      BigDecimal remainingIncome = income;
-  
-      for (StateTax bracket : taxBrackets) {
-          BigDecimal bracketIncome = remainingIncome.min(BigDecimal.valueOf(bracket.getIncomeRange()));
-  
-          if (bracketIncome.compareTo(BigDecimal.ZERO) == 0) {
-              bracketIncome = remainingIncome;
-          }
-  
-          totalTaxAmount = totalTaxAmount.add(bracketIncome.multiply(bracket.getRate()));
-          remainingIncome = remainingIncome.subtract(bracketIncome);
-  
-          if (remainingIncome.compareTo(BigDecimal.ZERO) <= 0) {
-              break;
-          }
-      }
-  
-      return totalTaxAmount;
+    private BigDecimal calculateTaxForIncome(TaxReturnDto taxReturn, BigDecimal income, State state) {
+      return snapshot(taxReturn).getStateSchedule(state).taxFor(income);
     }
 
 
@@ -413,47 +463,14 @@ public class TaxCalculatorService {
       // Get capital gains amount
       BigDecimal longTermCapitalGains = taxReturn.getOtherIncome().getLongTermCapitalGains();
 
-      // Initialize tax amounts
-      BigDecimal longTermCapitalGainsTaxAmount = BigDecimal.ZERO;
-
-      // Get long term capital gains federal tax rates based on user's filing status
-      List<CapitalGainsTax> longTermCapitalGainsTaxBrackets = capitalGainsTaxService.findByFilingStatusID(taxReturn.getFilingStatus().getValue());
+      // Get long term capital gains federal tax schedule based on user's filing status
+      BracketSchedule capitalGainsSchedule = snapshot(taxReturn).getCapitalGainsSchedule(taxReturn.getFilingStatus());
 
-      // Initialize remaining income
+      // Gains are stacked on top of ordinary income, so they're taxed at the rates for the income range they occupy
+      // above it. That is the tax on all taxable income minus the tax on the ordinary income alone:
       BigDecimal ordinaryIncome = taxableIncome.subtract(longTermCapitalGains);
-      BigDecimal remainingCapGains = longTermCapitalGains;
-
-      // Calculate long term capital gains tax
-      for (CapitalGainsTax bracket : longTermCapitalGainsTaxBrackets) {
-
-        // If at the last bracket (income range is 0) tax remaining gains at that rate
-        if (bracket.getIncomeRange() == 0) {
-          longTermCapitalGainsTaxAmount = longTermCapitalGainsTaxAmount.add(remainingCapGains.multiply(bracket.getRate()));
-          break;
-        }
-
-        // Start at tax bracket that ordinary income falls into
-        if (ordinaryIncome.compareTo(BigDecimal.valueOf(bracket.getIncomeRange())) >= 0) {
-          ordinaryIncome = ordinaryIncome.subtract(BigDecimal.valueOf(bracket.getIncomeRange()).max(BigDecimal.ZERO));
-          continue;
-        }
-
-        // Any leftover ordinary income is subtracted from the income range
-        double bracketRange = (double) bracket.getIncomeRange() - ordinaryIncome.doubleValue();
-        ordinaryIncome = BigDecimal.ZERO;
-
-        // Calculate the taxable amount of the gains
-        double taxableAmount = Math.min(bracketRange, remainingCapGains.doubleValue());
-
-        // Calculate the tax amount
-        longTermCapitalGainsTaxAmount = longTermCapitalGainsTaxAmount.add(BigDecimal.valueOf(taxableAmount).multiply(bracket.getRate()));
-
-        // Subtract taxable amount to see if next bracket should apply
-        remainingCapGains = remainingCapGains.subtract(BigDecimal.valueOf(taxableAmount));
-
-        // If there are no more gains to tax, break here
-        if (remainingCapGains.doubleValue() <= 0) break;
-      }
+      BigDecimal longTermCapitalGainsTaxAmount = capitalGainsSchedule.taxFor(taxableIncome)
+              .subtract(capitalGainsSchedule.taxFor(ordinaryIncome));
 
       // Add tax amount to federal refund of tax return
       taxReturn.setFederalRefund(taxReturn.getFederalRefund()
@@ -491,7 +508,7 @@ public class TaxCalculatorService {
 
     public TaxReturnDto calculateChildTaxCredits(TaxReturnDto taxReturn) {
       TaxReturnCreditDto taxReturnCredit = taxReturn.getTaxCredit();
-      FilingStatus filingStatus = filingStatusService.findById(taxReturn.getFilingStatus().getValue());
+      FilingStatus filingStatus = snapshot(taxReturn).getFilingStatus(taxReturn.getFilingStatus());
       ChildTaxCredit childTaxCredit = filingStatus.getChildTaxCredit();
 
       // Get relevant fields
@@ -545,7 +562,7 @@ public class TaxCalculatorService {
     public TaxReturnDto calculateEarnedIncomeTaxCredit(TaxReturnDto taxReturn) {
 
       TaxReturnCreditDto taxReturnCredit = taxReturn.getTaxCredit();
-      FilingStatus filingStatus = filingStatusService.findById(taxReturn.getFilingStatus().getValue());
+      FilingStatus filingStatus = snapshot(taxReturn).getFilingStatus(taxReturn.getFilingStatus());
       EarnedIncomeTaxCredit earnedIncomeTaxCredit = filingStatus.getEarnedIncomeTaxCredit();
 
       // Get agi value
@@ -597,7 +614,7 @@ public class TaxCalculatorService {
     // refundable
     public TaxReturnDto calculateEducationTaxCreditAotc(TaxReturnDto taxReturn) {
       TaxReturnCreditDto taxReturnCredit = taxReturn.getTaxCredit();
-      FilingStatus filingStatus = filingStatusService.findById(taxReturn.getFilingStatus().getValue());
+      FilingStatus filingStatus = snapshot(taxReturn).getFilingStatus(taxReturn.getFilingStatus());
       EducationTaxCreditAotc educationTaxCreditAotc = filingStatus.getEducationTaxCreditAotc();
 
       // Get relevant variables
@@ -674,7 +691,7 @@ public class TaxCalculatorService {
       }
 
       // Get tax credit static data based on filing status
-      FilingStatus filingStatus = filingStatusService.findById(taxReturn.getFilingStatus().getValue());
+      FilingStatus filingStatus = snapshot(taxReturn).getFilingStatus(taxReturn.getFilingStatus());
       EducationTaxCreditLlc educationTaxCreditLlc = filingStatus.getEducationTaxCreditLlc();
 
       // Get user's AGI
@@ -728,7 +745,7 @@ public class TaxCalculatorService {
       }
 
       // Get tax credit static data based on user's filing status
-      FilingStatus filingStatus = filingStatusService.findById(taxReturn.getFilingStatus().getValue());
+      FilingStatus filingStatus = snapshot(taxReturn).getFilingStatus(taxReturn.getFilingStatus());
       SaversTaxCredit saversTaxCredit = filingStatus.getSaversTaxCredit();
 
       // Get user's AGI
@@ -791,9 +808,10 @@ public class TaxCalculatorService {
       }
 
       // Get tax credit static data
-      List<DependentCareTaxCredit> dependentCareTaxCredit = taxCreditService.getDependentCareTaxCreditBrackets();
+      TaxReferenceSnapshot snapshot = snapshot(taxReturn);
+      List<DependentCareTaxCredit> dependentCareTaxCredit = snapshot.getDependentCareBrackets();
 
-      DependentCareTaxCreditLimit creditLimit = taxCreditService.getDependentCareTaxCreditLimitByNumDependents(numChildren);
+      DependentCareTaxCreditLimit creditLimit = snapshot.getDependentCareLimit(numChildren);
 
       // Get user's AGI
       double remainingAgi = taxReturn.getAdjustedGrossIncome().doubleValue();
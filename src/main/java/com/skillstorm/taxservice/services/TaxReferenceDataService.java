@@ -0,0 +1,98 @@
+package com.skillstorm.taxservice.services;
+
+import com.skillstorm.taxservice.calculation.TaxReferenceSnapshot;
+import com.skillstorm.taxservice.calculation.TaxYearSnapshots;
+import com.skillstorm.taxservice.repositories.CapitalGainsTaxRepository;
+import com.skillstorm.taxservice.repositories.DeductionRepository;
+import com.skillstorm.taxservice.repositories.FilingStatusRepository;
+import com.skillstorm.taxservice.repositories.StandardDeductionRepository;
+import com.skillstorm.taxservice.repositories.StateTaxRepository;
+import com.skillstorm.taxservice.repositories.TaxBracketRepository;
+import com.skillstorm.taxservice.repositories.taxcredits.DependentCareTaxCreditLimitRepository;
+import com.skillstorm.taxservice.repositories.taxcredits.DependentCareTaxCreditRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+@Service
+@PropertySource("classpath:SystemMessages.properties")
+public class TaxReferenceDataService {
+
+  private final FilingStatusRepository filingStatusRepository;
+  private final TaxBracketRepository taxBracketRepository;
+  private final StateTaxRepository stateTaxRepository;
+  private final CapitalGainsTaxRepository capitalGainsTaxRepository;
+  private final StandardDeductionRepository standardDeductionRepository;
+  private final DependentCareTaxCreditRepository dependentCareTaxCreditRepository;
+  private final DependentCareTaxCreditLimitRepository dependentCareTaxCreditLimitRepository;
+  private final DeductionRepository deductionRepository;
+  private final Environment environment;
+
+  // The reference tables only change when data.sql is rerun, so one set of per-year snapshots is shared by every
+  // calculation:
+  private volatile TaxYearSnapshots snapshots;
+
+  public TaxReferenceDataService(FilingStatusRepository filingStatusRepository,
+                                 TaxBracketRepository taxBracketRepository,
+                                 StateTaxRepository stateTaxRepository,
+                                 CapitalGainsTaxRepository capitalGainsTaxRepository,
+                                 StandardDeductionRepository standardDeductionRepository,
+                                 DependentCareTaxCreditRepository dependentCareTaxCreditRepository,
+                                 DependentCareTaxCreditLimitRepository dependentCareTaxCreditLimitRepository,
+                                 DeductionRepository deductionRepository,
+                                 Environment environment) {
+    this.filingStatusRepository = filingStatusRepository;
+    this.taxBracketRepository = taxBracketRepository;
+    this.stateTaxRepository = stateTaxRepository;
+    this.capitalGainsTaxRepository = capitalGainsTaxRepository;
+    this.standardDeductionRepository = standardDeductionRepository;
+    this.dependentCareTaxCreditRepository = dependentCareTaxCreditRepository;
+    this.dependentCareTaxCreditLimitRepository = dependentCareTaxCreditLimitRepository;
+    this.deductionRepository = deductionRepository;
+    this.environment = environment;
+  }
+
+  // Load the snapshot once the schema and data scripts have run so the first request doesn't pay for it:
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    reload();
+  }
+
+  // Get the snapshot for a tax year, loading the snapshots on first use if the application hasn't finished starting yet:
+  public TaxReferenceSnapshot getSnapshot(int year) {
+    return getSnapshots().get(year);
+  }
+
+  public TaxYearSnapshots getSnapshots() {
+    TaxYearSnapshots current = snapshots;
+    if (current == null) {
+      synchronized (this) {
+        current = snapshots;
+        if (current == null) {
+          current = reload();
+        }
+      }
+    }
+    return current;
+  }
+
+  // Rebuild every year's snapshot from the reference tables and swap them in atomically:
+  public synchronized TaxYearSnapshots reload() {
+    Sort byId = Sort.by("id");
+    TaxYearSnapshots loaded = new TaxYearSnapshots(
+            filingStatusRepository.findAll(byId),
+            taxBracketRepository.findAll(byId),
+            stateTaxRepository.findAll(byId),
+            capitalGainsTaxRepository.findAll(byId),
+            standardDeductionRepository.findAll(byId),
+            dependentCareTaxCreditRepository.findAll(byId),
+            dependentCareTaxCreditLimitRepository.findAll(byId),
+            deductionRepository.findAll(byId),
+            environment.getProperty("deduction.not.found"));
+    snapshots = loaded;
+    return loaded;
+  }
+}
@@ -2,6 +2,7 @@ package com.skillstorm.taxservice.services;
 
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.skillstorm.taxservice.dtos.TaxReturnCreditDto;
 import com.skillstorm.taxservice.exceptions.NotFoundException;
@@ -41,6 +42,7 @@ public class TaxReturnCreditService {
     return TaxReturnCreditMapper.toDto(existingTaxCreditReturn);
   }
 
+  @Transactional
   public TaxReturnCreditDto createTaxReturnCredit(TaxReturnCreditDto taxReturnCreditDto) {
     TaxReturn existingTaxReturn = taxReturnRepository.findById(taxReturnCreditDto.getTaxReturnId())
       .orElseThrow(() -> new IllegalArgumentException("no tax return exists with id: " + taxReturnCreditDto.getTaxReturnId()));
@@ -48,21 +50,24 @@ public class TaxReturnCreditService {
     TaxReturnCredit newTaxReturnCredit = TaxReturnCreditMapper.toEntity(taxReturnCreditDto);
     newTaxReturnCredit.setTaxReturn(existingTaxReturn);
     newTaxReturnCredit = taxReturnCreditRepository.save(newTaxReturnCredit);
+    taxReturnRepository.incrementRevision(existingTaxReturn.getId());
     return TaxReturnCreditMapper.toDto(newTaxReturnCredit);
   }
 
+  @Transactional
   public TaxReturnCreditDto updateTaxReturnCredit(TaxReturnCreditDto taxReturnCreditDto) {
     TaxReturnCredit existingTaxReturnCredit = taxReturnCreditRepository.findByTaxReturnId(taxReturnCreditDto.getTaxReturnId())
       .orElseThrow(() -> new NotFoundException(environment.getProperty("taxreturncredit.not.found") + taxReturnCreditDto.getTaxReturnId()));
     existingTaxReturnCredit = TaxReturnCreditMapper.updateEntity(existingTaxReturnCredit, taxReturnCreditDto);
     existingTaxReturnCredit = taxReturnCreditRepository.save(existingTaxReturnCredit);
+    taxReturnRepository.incrementRevision(taxReturnCreditDto.getTaxReturnId());
     return TaxReturnCreditMapper.toDto(existingTaxReturnCredit);
   }
 
   public void deleteTaxReturnCredit(int id) {
-    if(!taxReturnCreditRepository.existsById(id)) {
-      throw new NotFoundException(environment.getProperty("taxreturncredit.not.found") + id);
-    }
+    TaxReturnCredit existingTaxReturnCredit = taxReturnCreditRepository.findById(id)
+      .orElseThrow(() -> new NotFoundException(environment.getProperty("taxreturncredit.not.found") + id));
     taxReturnCreditRepository.deleteById(id);
+    taxReturnRepository.incrementRevision(existingTaxReturnCredit.getTaxReturn().getId());
   }
 }
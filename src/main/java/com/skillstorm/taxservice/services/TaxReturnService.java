@@ -1,21 +1,24 @@
 package com.skillstorm.taxservice.services;
 
+import com.skillstorm.taxservice.calculation.FixedPoint;
 import com.skillstorm.taxservice.constants.FilingStatus;
 import com.skillstorm.taxservice.dtos.*;
 import com.skillstorm.taxservice.exceptions.DuplicateDataException;
 import com.skillstorm.taxservice.exceptions.NotFoundException;
 import com.skillstorm.taxservice.exceptions.UnauthorizedException;
-import com.skillstorm.taxservice.models.TaxReturn;
+import com.skillstorm.taxservice.projections.RefundInputs;
 import com.skillstorm.taxservice.repositories.TaxReturnDeductionRepository;
 import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import com.skillstorm.taxservice.repositories.W2Repository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 
 @Service
@@ -24,14 +27,16 @@ public class TaxReturnService {
 
     private final TaxReturnRepository taxReturnRepository;
     private final TaxReturnDeductionRepository taxReturnDeductionRepository;
+    private final W2Repository w2Repository;
     private final TaxCalculatorService taxCalculatorService;
     private final Environment environment;
 
     @Autowired
     public TaxReturnService(TaxReturnRepository taxReturnRepository, TaxReturnDeductionRepository taxReturnDeductionRepository,
-                            TaxCalculatorService taxCalculatorService, Environment environment) {
+                            W2Repository w2Repository, TaxCalculatorService taxCalculatorService, Environment environment) {
         this.taxReturnRepository = taxReturnRepository;
         this.taxReturnDeductionRepository = taxReturnDeductionRepository;
+        this.w2Repository = w2Repository;
         this.taxCalculatorService = taxCalculatorService;
         this.environment = environment;
     }
@@ -45,15 +50,39 @@ public class TaxReturnService {
         }
     }
 
-    // Get TaxReturn by id:
-    @PostAuthorize("returnObject.userId == #userId")
+    // Get TaxReturn by id. The stored results are returned as they are unless the TaxReturn has changed since they
+    // were calculated. In that case it's recalculated and the new results are stored for the next read. Ownership is
+    // checked before anything is calculated or stored:
     public TaxReturnDto findById(int id, int userId) {
-        TaxReturnDto taxReturnDto = new TaxReturnDto(taxReturnRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException(environment.getProperty("taxreturn.not.found") + " " + id)));
-        taxCalculatorService.calculateAll(taxReturnDto);
+        TaxReturnDto taxReturnDto = findWithoutCalculating(id);
+        if (userId != taxReturnDto.getUserId()) {
+            throw new UnauthorizedException(environment.getProperty("user.unauthorized"));
+        }
+        if (!taxReturnDto.hasCurrentResults()) {
+            // The credit calculations add to the total credits, so don't start from the previously stored total:
+            taxReturnDto.setTotalCredits(BigDecimal.ZERO.setScale(2));
+            taxCalculatorService.calculateAll(taxReturnDto);
+            if (taxReturnRepository.saveCalculatedResults(taxReturnDto.mapToEntity()) > 0) {
+                taxReturnDto.setCalculatedRevision(taxReturnDto.getRevision());
+            }
+        }
         return taxReturnDto;
     }
 
+    // Get TaxReturn by id as it's stored, for changes that don't need its calculated fields. The TaxReturn and all of
+    // its components are loaded up front rather than lazily while mapping to the DTO:
+    private TaxReturnDto findWithoutCalculating(int id) {
+        return new TaxReturnDto(taxReturnRepository.findCompleteById(id)
+                .orElseThrow(() -> new NotFoundException(environment.getProperty("taxreturn.not.found") + " " + id)));
+    }
+
+    // Calculate a TaxReturn sent in the request without reading or writing the database. The calculation only uses
+    // the cached reference data, so what-if estimates don't cost a transaction or any queries:
+    public TaxReturnDto simulate(TaxReturnDto taxReturn, int userId) {
+        taxReturn.prepareForSimulation(userId);
+        return taxCalculatorService.calculateAll(taxReturn);
+    }
+
     // Find all TaxReturns by userId:
     public List<TaxReturnDto> findAllByUserId(int userId) {
         return taxReturnRepository.findAllByUserId(userId)
@@ -67,10 +96,11 @@ public class TaxReturnService {
     }
 
     // Update TaxReturn. Just the User Info. Other fields are determined by its components:
+    @Transactional
     public UserDataDto updateTaxReturn(int id, TaxReturnDto updatedTaxReturn) {
 
         // Verify that the TaxReturn exists:
-        TaxReturnDto oldTaxReturn = findById(id, updatedTaxReturn.getUserId());
+        TaxReturnDto oldTaxReturn = findWithoutCalculating(id);
 
         // Set the ID of the updated TaxReturn in case it was not set in the request body
         updatedTaxReturn.setId(id);
@@ -82,14 +112,17 @@ public class TaxReturnService {
         updatedTaxReturn.setOtherIncome(oldTaxReturn.getOtherIncome());
         updatedTaxReturn.setTaxCredit(oldTaxReturn.getTaxCredit());
 
-        // Save the updated TaxReturn to the database:
-        return new UserDataDto(taxReturnRepository.saveAndFlush(updatedTaxReturn.mapToEntity()));
+        // Save the updated TaxReturn to the database. The filing status, state and date of birth are part of the
+        // calculation, so the stored results are out of date:
+        UserDataDto result = new UserDataDto(taxReturnRepository.saveAndFlush(updatedTaxReturn.mapToEntity()));
+        taxReturnRepository.incrementRevision(id);
+        return result;
     }
 
     // Delete TaxReturn by id:
     public void deleteTaxReturn(int id, int userId) {
         // Verify that the TaxReturn exists:
-        TaxReturnDto taxReturnDto = findById(id, userId);
+        TaxReturnDto taxReturnDto = findWithoutCalculating(id);
         if (userId != taxReturnDto.getUserId()) {
             throw new UnauthorizedException(environment.getProperty("user.unauthorized"));
         }
@@ -97,18 +130,72 @@ public class TaxReturnService {
     }
 
     // Claim a deduction for a TaxReturn:
+    @Transactional
     public TaxReturnDeductionDto claimDeduction(int id, TaxReturnDeductionDto deduction) {
         deduction.setTaxReturn(id);
-        return new TaxReturnDeductionDto(taxReturnDeductionRepository.saveAndFlush(deduction.mapToEntity()));
+        TaxReturnDeductionDto claimedDeduction = new TaxReturnDeductionDto(taxReturnDeductionRepository.saveAndFlush(deduction.mapToEntity()));
+        taxReturnRepository.incrementRevision(id);
+        return claimedDeduction;
+    }
+
+    // Claim several deductions for a TaxReturn at once. They're inserted with one JDBC batch and the TaxReturn's
+    // revision is incremented once for all of them:
+    @Transactional
+    public List<TaxReturnDeductionDto> claimDeductions(int id, List<TaxReturnDeductionDto> deductions) {
+        deductions.forEach(deduction -> deduction.setTaxReturn(id));
+        List<TaxReturnDeductionDto> claimedDeductions = taxReturnDeductionRepository.saveAllAndFlush(
+                deductions.stream().map(TaxReturnDeductionDto::mapToEntity).toList())
+                .stream().map(TaxReturnDeductionDto::new).toList();
+        taxReturnRepository.incrementRevision(id);
+        return claimedDeductions;
     }
 
     // Get the current tax refund for a TaxReturn. Used for front end to keep a running total of the refund amount
-    // without having to pass the entire TaxReturn object back and forth between the front end and back end:
+    // without having to pass the entire TaxReturn object back and forth between the front end and back end. Only the
+    // columns the calculation reads are queried, and the stored refunds are returned as they are if they're current:
     public RefundDto getRefund(int id, int userId) {
-        TaxReturnDto taxReturnDto = findById(id, userId);
+        RefundInputs inputs = taxReturnRepository.findRefundInputsById(id)
+                .orElseThrow(() -> new NotFoundException(environment.getProperty("taxreturn.not.found") + " " + id));
+        if (userId != inputs.getUserId()) {
+            throw new UnauthorizedException(environment.getProperty("user.unauthorized"));
+        }
+        if (inputs.hasCurrentResults()) {
+            return new RefundDto(inputs.getFederalRefund(), inputs.getStateRefund());
+        }
+
+        // Calculate from the W2 totals per state and the claimed deduction amounts rather than the full TaxReturn:
+        TaxReturnDto taxReturnDto = new TaxReturnDto(id, inputs,
+                w2Repository.findStateTotalsByTaxReturnId(id).stream().map(W2Dto::new).toList(),
+                taxReturnDeductionRepository.findAmountsByTaxReturnId(id).stream().map(TaxReturnDeductionDto::new).toList());
+        taxCalculatorService.calculateAll(taxReturnDto);
+        taxReturnRepository.saveCalculatedResults(taxReturnDto.mapToEntity());
         return new RefundDto(taxReturnDto.getFederalRefund(), taxReturnDto.getStateRefund());
     }
 
+    // Get the TaxReturn's federal and state refunds over a range of values of one input, e.g. to chart the refund
+    // against extra income. The TaxReturn is read once and every point is calculated from it without saving anything:
+    public RefundCurveDto getRefundCurve(int id, int userId, RefundCurveRequestDto request) {
+        TaxReturnDto taxReturnDto = findWithoutCalculating(id);
+        if (userId != taxReturnDto.getUserId()) {
+            throw new UnauthorizedException(environment.getProperty("user.unauthorized"));
+        }
+        // The credit calculations add to the total credits, so don't start from the previously stored total:
+        taxReturnDto.setTotalCredits(BigDecimal.ZERO.setScale(2));
+        return taxCalculatorService.calculateRefundCurve(taxReturnDto, request.getInput(), curveValues(request));
+    }
+
+    // Evenly spaced values from the request's `from` to its `to`, in cents:
+    private static long[] curveValues(RefundCurveRequestDto request) {
+        long from = request.getFrom().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        long to = request.getTo().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        int steps = request.getPoints() - 1;
+        long[] values = new long[request.getPoints()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = from + FixedPoint.roundDiv(Math.multiplyExact(to - from, i), steps);
+        }
+        return values;
+    }
+
     // Get a TaxReturnDeduction by ID:
     public TaxReturnDeductionDto getTaxReturnDeductionById(int taxReturnDeductionId) {
         return new TaxReturnDeductionDto(taxReturnDeductionRepository.findById(taxReturnDeductionId)
@@ -122,6 +209,7 @@ public class TaxReturnService {
     }
 
     // Update a TaxReturnDeduction:
+    @Transactional
     public TaxReturnDeductionDto updateTaxReturnDeduction(int taxReturnDeductionId, TaxReturnDeductionDto amountSpent) {
 
         // Verify that the TaxReturnDeduction exists and pull it from the database:
@@ -131,14 +219,17 @@ public class TaxReturnService {
         existingDeduction.setAmountSpent(amountSpent.getAmountSpent());
 
         // Save the updated TaxReturnDeduction to the database:
-        return new TaxReturnDeductionDto(taxReturnDeductionRepository.saveAndFlush(existingDeduction.mapToEntity()));
+        TaxReturnDeductionDto updatedDeduction = new TaxReturnDeductionDto(taxReturnDeductionRepository.saveAndFlush(existingDeduction.mapToEntity()));
+        taxReturnRepository.incrementRevision(existingDeduction.getTaxReturn());
+        return updatedDeduction;
     }
 
     // Delete a TaxReturnDeduction:
     public void deleteTaxReturnDeduction(int taxReturnDeductionId) {
         // Verify that the TaxReturnDeduction exists:
-        getTaxReturnDeductionById(taxReturnDeductionId);
+        TaxReturnDeductionDto deduction = getTaxReturnDeductionById(taxReturnDeductionId);
         taxReturnDeductionRepository.deleteById(taxReturnDeductionId);
+        taxReturnRepository.incrementRevision(deduction.getTaxReturn());
     }
 
     // Clean up all entities associated with a User when they delete their account:
@@ -152,10 +243,9 @@ public class TaxReturnService {
         return FilingStatus.getFilingStatuses();
     }
 
-    // Submit a  completed TaxReturn:
+    // Submit a  completed TaxReturn. Finding it stores its results if they weren't already up to date:
     public RefundDto submitTaxReturn(int id, int userId) {
         TaxReturnDto taxReturnDto = findById(id, userId);
-        TaxReturn completedTaxReturn = taxReturnRepository.saveAndFlush(taxReturnDto.mapToEntity());
-        return new RefundDto(completedTaxReturn.getFederalRefund(), completedTaxReturn.getStateRefund());
+        return new RefundDto(taxReturnDto.getFederalRefund(), taxReturnDto.getStateRefund());
     }
 }
@@ -0,0 +1,161 @@
+package com.skillstorm.taxservice.services;
+
+import com.skillstorm.taxservice.dtos.W2BulkResultDto;
+import com.skillstorm.taxservice.dtos.W2Dto;
+import com.skillstorm.taxservice.exceptions.ErrorMessage;
+import com.skillstorm.taxservice.exceptions.NotFoundException;
+import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import com.skillstorm.taxservice.repositories.W2Repository;
+import com.skillstorm.taxservice.utilities.W2RecordReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+@PropertySource("classpath:SystemMessages.properties")
+public class W2BulkService {
+
+    private final W2Repository w2Repository;
+    private final TaxReturnRepository taxReturnRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final Environment environment;
+    private final int chunkSize;
+
+    @Autowired
+    public W2BulkService(W2Repository w2Repository, TaxReturnRepository taxReturnRepository,
+                         TransactionTemplate transactionTemplate, Validator validator, Environment environment,
+                         @Value("${taxes.w2.bulk.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("taxes.w2.bulk.chunk-size must be at least 1");
+        }
+        this.w2Repository = w2Repository;
+        this.taxReturnRepository = taxReturnRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.environment = environment;
+        this.chunkSize = chunkSize;
+    }
+
+    // Store every W2 the reader returns for the user, chunkSize at a time. Each chunk is inserted with JDBC batches in
+    // its own transaction, along with one revision update for the TaxReturns it adds to, and its results are handed to
+    // the consumer, in line order, once it's committed. Only one chunk is held in memory at a time. A line that can't
+    // be read, fails validation or names a TaxReturn the user doesn't own gets an error, and the rest are still stored:
+    public void addW2s(W2RecordReader reader, int userId, Consumer<List<W2BulkResultDto>> results) throws IOException {
+        List<W2RecordReader.Record> chunk = new ArrayList<>(chunkSize);
+        W2RecordReader.Record record;
+        while ((record = reader.next()) != null) {
+            chunk.add(record);
+            if (chunk.size() == chunkSize) {
+                results.accept(store(chunk, userId));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.accept(store(chunk, userId));
+        }
+    }
+
+    private List<W2BulkResultDto> store(List<W2RecordReader.Record> chunk, int userId) {
+        List<W2BulkResultDto> results = new ArrayList<>(chunk.size());
+        List<W2Dto> pending = new ArrayList<>(chunk.size());
+        List<W2BulkResultDto> pendingResults = new ArrayList<>(chunk.size());
+        for (W2RecordReader.Record record : chunk) {
+            W2BulkResultDto result = W2BulkResultDto.forLine(record.getLine());
+            results.add(result);
+            if (record.getError() != null) {
+                result.setError(error(HttpStatus.BAD_REQUEST, record.getError()));
+                continue;
+            }
+
+            // The same fields the single W2 endpoint lets the client set:
+            W2Dto w2 = record.getW2();
+            w2.setId(0);
+            w2.setUserId(userId);
+            w2.setImageKey(null);
+            Set<ConstraintViolation<W2Dto>> violations = validator.validate(w2);
+            if (!violations.isEmpty()) {
+                result.setError(error(HttpStatus.BAD_REQUEST, violations.stream()
+                        .map(ConstraintViolation::getMessage).collect(Collectors.joining(", "))));
+                continue;
+            }
+            pending.add(w2);
+            pendingResults.add(result);
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
+
+        // Look up every TaxReturn the chunk adds to in one query. W2s for anything else are reported as not found:
+        Set<Integer> owned = taxReturnRepository.findIdsByIdInAndUserId(
+                pending.stream().map(W2Dto::getTaxReturnId).collect(Collectors.toSet()), userId);
+        List<W2Dto> insertable = new ArrayList<>(pending.size());
+        List<W2BulkResultDto> insertableResults = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            W2Dto w2 = pending.get(i);
+            if (owned.contains(w2.getTaxReturnId())) {
+                insertable.add(w2);
+                insertableResults.add(pendingResults.get(i));
+            } else {
+                pendingResults.get(i).setError(error(HttpStatus.BAD_REQUEST,
+                        new NotFoundException(environment.getProperty("taxreturn.not.found"), w2.getTaxReturnId()).getMessage()));
+            }
+        }
+        if (!insertable.isEmpty()) {
+            insert(insertable, insertableResults);
+        }
+        return results;
+    }
+
+    // Insert the W2s as one batch. If the database rejects any of them, the batch is rolled back and each W2 is
+    // inserted on its own instead, so only the ones it rejects fail:
+    private void insert(List<W2Dto> w2s, List<W2BulkResultDto> results) {
+        try {
+            int[] ids = transactionTemplate.execute(status -> {
+                int[] inserted = w2Repository.insertAll(w2s.stream().map(W2Dto::mapToEntity).toList());
+                taxReturnRepository.incrementRevisions(w2s.stream().map(W2Dto::getTaxReturnId)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)));
+                return inserted;
+            });
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).setId(ids[i]);
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (w2s.size() > 1) {
+                for (int i = 0; i < w2s.size(); i++) {
+                    insert(List.of(w2s.get(i)), List.of(results.get(i)));
+                }
+            } else {
+                results.get(0).setError(error(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage()));
+            }
+        } catch (DataAccessException e) {
+            for (W2BulkResultDto result : results) {
+                result.setError(error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage()));
+            }
+        }
+    }
+
+    // Same shape GlobalExceptionHandler returns for a failed single request:
+    private static ErrorMessage error(HttpStatus status, String message) {
+        ErrorMessage error = new ErrorMessage();
+        error.setErrorCode(status.value());
+        error.setMessage(message);
+        return error;
+    }
+}
@@ -0,0 +1,76 @@
+package com.skillstorm.taxservice.services;
+
+import com.skillstorm.taxservice.models.W2Image;
+import com.skillstorm.taxservice.repositories.W2ImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Deletes W2 images from S3 once no W2 has used them for the grace period. Each sweep first recounts every image's
+// references from the W2s themselves, so W2s changed or deleted other than through the image endpoints are caught up
+// with. The grace period keeps images that are uploaded again soon after being dropped. Collected images are counted in
+// w2.image.gc.collected:
+@Service
+@ConditionalOnProperty(name = "taxes.w2.image.gc.enabled", havingValue = "true", matchIfMissing = true)
+public class W2ImageSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(W2ImageSweeper.class);
+
+    private final W2ImageRepository w2ImageRepository;
+    private final W2Service w2Service;
+    private final Duration gracePeriod;
+    private final Counter collected;
+
+    @Autowired
+    public W2ImageSweeper(W2ImageRepository w2ImageRepository, W2Service w2Service,
+                          @Value("${taxes.w2.image.gc.grace-period:24h}") Duration gracePeriod, MeterRegistry meterRegistry) {
+        this.w2ImageRepository = w2ImageRepository;
+        this.w2Service = w2Service;
+        this.gracePeriod = gracePeriod;
+        this.collected = Counter.builder("w2.image.gc.collected").register(meterRegistry);
+    }
+
+    // Returns the number of images deleted:
+    @Scheduled(initialDelayString = "${taxes.w2.image.gc.interval:1h}", fixedDelayString = "${taxes.w2.image.gc.interval:1h}")
+    public int sweep() {
+        Instant now = Instant.now();
+        w2ImageRepository.recountReferences();
+        w2ImageRepository.markUnreferenced(now);
+        Instant cutoff = now.minus(gracePeriod);
+
+        int deleted = 0;
+        List<W2Image> batch;
+        int deletedFromBatch;
+        // Keep going while there are full batches to work through, unless none of a batch could be deleted:
+        do {
+            batch = w2ImageRepository.findTop100ByUnreferencedAtBefore(cutoff);
+            deletedFromBatch = 0;
+            for (W2Image image : batch) {
+                try {
+                    if (w2Service.collectImage(image.getImageKey(), cutoff)) {
+                        deletedFromBatch++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Unable to delete unreferenced image {}", image.getImageKey(), e);
+                }
+            }
+            deleted += deletedFromBatch;
+        } while (batch.size() == 100 && deletedFromBatch > 0);
+
+        collected.increment(deleted);
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced W2 images", deleted);
+        }
+        return deleted;
+    }
+}
@@ -1,44 +1,71 @@
 package com.skillstorm.taxservice.services;
 
 import com.skillstorm.taxservice.dtos.W2Dto;
+import com.skillstorm.taxservice.dtos.W2ImageDto;
+import com.skillstorm.taxservice.exceptions.ImageTooLargeException;
 import com.skillstorm.taxservice.exceptions.NotFoundException;
 import com.skillstorm.taxservice.exceptions.UnableToReadStreamException;
 import com.skillstorm.taxservice.models.W2;
+import com.skillstorm.taxservice.models.W2Image;
+import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import com.skillstorm.taxservice.repositories.W2ImageRepository;
 import com.skillstorm.taxservice.repositories.W2Repository;
+import com.skillstorm.taxservice.utilities.DigestingInputStream;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
-
-import static software.amazon.awssdk.utils.IoUtils.toByteArray;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @PropertySource("classpath:SystemMessages.properties")
 public class W2Service {
 
     private final W2Repository w2Repository;
-    private final S3Service s3Service;
+    private final TaxReturnRepository taxReturnRepository;
+    private final W2ImageRepository w2ImageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageCache imageCache;
     private final Environment environment;
+    private final DataSize maxImageSize;
 
     @Autowired
-    public W2Service(W2Repository w2Repository, S3Service s3Service, Environment environment) {
+    public W2Service(W2Repository w2Repository, TaxReturnRepository taxReturnRepository, W2ImageRepository w2ImageRepository,
+                     ImageStorage imageStorage, ImageCache imageCache, Environment environment,
+                     @Value("${taxes.w2.image.max-size:20MB}") DataSize maxImageSize) {
         this.w2Repository = w2Repository;
-        this.s3Service = s3Service;
+        this.taxReturnRepository = taxReturnRepository;
+        this.w2ImageRepository = w2ImageRepository;
+        this.imageStorage = imageStorage;
+        this.imageCache = imageCache;
         this.environment = environment;
+        this.maxImageSize = maxImageSize;
     }
 
     // Add new W2 by UserId and Year:
+    @Transactional
     public W2Dto addW2(W2Dto newW2) {
-        return new W2Dto(w2Repository.saveAndFlush(newW2.mapToEntity()));
+        W2Dto addedW2 = new W2Dto(w2Repository.saveAndFlush(newW2.mapToEntity()));
+        taxReturnRepository.incrementRevision(newW2.getTaxReturnId());
+        return addedW2;
     }
 
     // Find W2 by ID:
@@ -65,47 +92,233 @@ public class W2Service {
     }
 
     // Update W2 by ID:
+    @Transactional
     public W2Dto updateById(int id, W2Dto updatedW2) {
         // Verify W2 exists:
         if(!w2Repository.existsById(id)) {
             throw new NotFoundException(environment.getProperty("w2.not.found"), id);
         }
         updatedW2.setId(id);
-        return new W2Dto(w2Repository.saveAndFlush(updatedW2.mapToEntity()));
+        W2Dto savedW2 = new W2Dto(w2Repository.saveAndFlush(updatedW2.mapToEntity()));
+        taxReturnRepository.incrementRevision(updatedW2.getTaxReturnId());
+        return savedW2;
     }
 
     // Delete W2 by Id:
     public void deleteById(int id) {
-        // Verify W2 exists:
-        if(!w2Repository.existsById(id)) {
-            throw new NotFoundException(environment.getProperty("w2.not.found"), id);
-        }
+        // Verify W2 exists and find the TaxReturn it belongs to:
+        W2 w2 = w2Repository.findById(id)
+                .orElseThrow(() -> new NotFoundException(environment.getProperty("w2.not.found"), id));
         w2Repository.deleteById(id);
+        taxReturnRepository.incrementRevision(w2.getTaxReturn().getId());
+        if (w2.getImageKey() != null) {
+            w2ImageRepository.removeReference(w2.getImageKey(), Instant.now());
+        }
+    }
+
+    // Upload image to S3. Images are stored once under a key derived from their content, however many W2s use them.
+    // The image is streamed through to S3 and hashed on the way, so it is never held in memory whole. It lands under a
+    // temporary key and is moved to its content-derived key once the hash is known, unless an image with that key is
+    // already stored, in which case the new copy is dropped. The body is read on the calling thread; the returned
+    // future completes with the image key once S3 has finished with it:
+    @SneakyThrows
+    public CompletableFuture<String> uploadImage(int id, InputStream image, long contentLength, String contentType,
+                                                 String contentMd5, int userId) {
+        W2 w2 = findById(id, userId).mapToEntity();
+        // Reject uploads that say up front they are too big before sending anything to S3:
+        if (contentLength > maxImageSize.toBytes()) {
+            throw new ImageTooLargeException(environment.getProperty("w2.image.too.large"), maxImageSize.toBytes());
+        }
+        DigestingInputStream digestingImage = new DigestingInputStream(image, maxImageSize.toBytes(),
+                environment.getProperty("w2.image.too.large"));
+
+        // A client that sends the image's Content-MD5 lets an image that is already stored skip S3 altogether. The
+        // body is still read and hashed, so only a client that really has the image gets a reference to it:
+        String expectedKey = contentMd5 == null ? null : imageKey(DigestingInputStream.nameUUID(md5Digest(contentMd5)), contentType);
+        if (expectedKey != null && w2ImageRepository.addReference(expectedKey) > 0) {
+            try {
+                digestingImage.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                w2ImageRepository.removeReference(expectedKey, Instant.now());
+                throw new UnableToReadStreamException(environment.getProperty("stream.read.unable"));
+            } catch (RuntimeException e) {
+                w2ImageRepository.removeReference(expectedKey, Instant.now());
+                throw e;
+            }
+            if (!expectedKey.equals(imageKey(digestingImage.nameUUID(), contentType))) {
+                w2ImageRepository.removeReference(expectedKey, Instant.now());
+                throw new IllegalArgumentException(environment.getProperty("w2.image.digest.mismatch"));
+            }
+            return CompletableFuture.completedFuture(attachImage(w2, expectedKey));
+        }
+
+        String uploadKey = "uploads/" + UUID.randomUUID();
+        CompletableFuture<Void> upload;
+        try {
+            upload = imageStorage.uploadStream(uploadKey, digestingImage, contentType);
+        } catch (IOException e) {
+            throw new UnableToReadStreamException(environment.getProperty("stream.read.unable"));
+        }
+        String imageKey = imageKey(digestingImage.nameUUID(), contentType);
+        if (expectedKey != null && !expectedKey.equals(imageKey)) {
+            upload.thenCompose(uploaded -> imageStorage.deleteObject(uploadKey));
+            throw new IllegalArgumentException(environment.getProperty("w2.image.digest.mismatch"));
+        }
+        return upload.thenCompose(uploaded -> {
+            // Already stored, so keep the copy we have:
+            if (w2ImageRepository.addReference(imageKey) > 0) {
+                return imageStorage.deleteObject(uploadKey).thenApply(deleted -> attachImage(w2, imageKey));
+            }
+            return imageStorage.moveObject(uploadKey, imageKey).thenApply(eTag -> {
+                W2Image w2Image = new W2Image();
+                w2Image.setImageKey(imageKey);
+                w2Image.setContentType(contentType);
+                w2Image.setContentLength(digestingImage.getBytesRead());
+                w2Image.setETag(eTag);
+                w2Image.setUploadedAt(Instant.now());
+                w2Image.setReferenceCount(1);
+                w2ImageRepository.save(w2Image);
+                return attachImage(w2, imageKey);
+            });
+        });
+    }
+
+    // Find the stored metadata of a W2's image. Enough to answer a conditional GET without going to S3. Images
+    // uploaded before metadata was kept are looked up in S3 once and recorded:
+    public W2ImageDto findImage(int id, int userId) {
+        W2 w2 = findById(id, userId).mapToEntity();
+        if (w2.getImageKey() == null) {
+            throw new NotFoundException(environment.getProperty("w2.image.not.found"), id);
+        }
+        return new W2ImageDto(w2ImageRepository.findById(w2.getImageKey())
+                .orElseGet(() -> w2ImageRepository.save(recordImage(w2.getImageKey()))));
+    }
+
+    // Download an image found with findImage, from the local image cache if it's there and otherwise from S3. Returns
+    // an open stream rather than reading the image into memory. A single byte range is served from the cache or passed
+    // through to S3; anything else gets the whole image. The future completes once S3 starts answering:
+    public CompletableFuture<W2ImageDto> downloadImage(W2ImageDto image, String range) {
+        String singleRange = singleRange(range);
+        ImageCache.CachedImage cached = imageCache.get(image.getImageKey());
+        if (cached != null && serveFromCache(image, cached, singleRange)) {
+            return CompletableFuture.completedFuture(image);
+        }
+
+        return imageStorage.getObject(image.getImageKey(), singleRange).thenApply(object -> {
+            GetObjectResponse metadata = object.response();
+            // Only whole images are cached. Keys are derived from the content, so a cached image never goes stale:
+            image.setContent(singleRange == null && metadata.contentLength() != null
+                    ? imageCache.readThrough(image.getImageKey(), object, metadata.contentLength())
+                    : object);
+            image.setContentLength(metadata.contentLength());
+            image.setContentRange(metadata.contentRange());
+            return image;
+        });
     }
 
-    // Upload image to S3:
-    // TODO: Add content type as S3 meta info instead of using Tika
-    public String uploadImage(int id, byte[] image, String contentType, int userId) {
-        W2 w2 =findById(id, userId).mapToEntity();
-        String imageKey = UUID.nameUUIDFromBytes(image).toString() + "." + contentType.split("/")[1];
-        s3Service.uploadFile(imageKey, image);
+    // Serve the image, or the requested range of it, from the local image cache. Returns false for a range that
+    // starts past the end of the image, leaving S3 to answer it with 416:
+    private boolean serveFromCache(W2ImageDto image, ImageCache.CachedImage cached, String range) {
+        long size = cached.size();
+        long start = 0;
+        long end = size - 1;
+        if (range != null) {
+            HttpRange httpRange = HttpRange.parseRanges(range).get(0);
+            start = httpRange.getRangeStart(size);
+            end = httpRange.getRangeEnd(size);
+            // HttpRange doesn't reject a range past the end, it just clamps the end to the last byte:
+            if (start >= size) {
+                cached.close();
+                return false;
+            }
+            image.setContentRange("bytes " + start + "-" + end + "/" + size);
+        }
+        image.setContent(cached.open(start, end - start + 1));
+        image.setContentLength(end - start + 1);
+        return true;
+    }
+
+    // Delete an image from S3 if no W2 has used it since before the cutoff. Its row stays locked until the image is
+    // gone, so an upload of the same image either adds its reference first or waits and then stores it again:
+    @Transactional
+    public boolean collectImage(String imageKey, Instant cutoff) {
+        W2Image image = w2ImageRepository.findLockedByImageKey(imageKey).orElse(null);
+        if (image == null || image.getUnreferencedAt() == null || !image.getUnreferencedAt().isBefore(cutoff)) {
+            return false;
+        }
+        // The count can lag behind W2s changed other than through the image endpoints, so check the W2s themselves:
+        long references = w2Repository.countByImageKey(imageKey);
+        if (references > 0) {
+            image.setReferenceCount(references);
+            image.setUnreferencedAt(null);
+            return false;
+        }
+        ImageStorage.await(imageStorage.deleteObject(imageKey));
+        w2ImageRepository.delete(image);
+        return true;
+    }
+
+    // Point a W2 at its new image, and drop its reference to the one it had before:
+    private String attachImage(W2 w2, String imageKey) {
+        String previousKey = w2.getImageKey();
         w2.setImageKey(imageKey);
         w2Repository.saveAndFlush(w2);
+        if (previousKey != null) {
+            w2ImageRepository.removeReference(previousKey, Instant.now());
+        }
         return imageKey;
     }
 
-    // Download image from S3:
-    @SneakyThrows
-    public Resource downloadImage(int id, int userId) {
-        W2 w2 = findById(id, userId).mapToEntity();
-        InputStream inputStream = s3Service.getObject(w2.getImageKey());
-        byte[] byteArray;
+    // The key an image is stored under: its content's name UUID, with the upload's Content-Type as the extension:
+    private String imageKey(UUID nameUUID, String contentType) {
+        return nameUUID + "." + contentType.split("/")[1];
+    }
+
+    // Decode a Content-MD5 header, which is the base64-encoded MD5 digest of the body:
+    private byte[] md5Digest(String contentMd5) {
         try {
-            byteArray = toByteArray(inputStream);
-        } catch (IOException e) {
-            throw new UnableToReadStreamException(environment.getProperty("stream.read.unable"));
+            byte[] digest = Base64.getDecoder().decode(contentMd5);
+            if (digest.length == 16) {
+                return digest;
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through to the error below.
+        }
+        throw new IllegalArgumentException(environment.getProperty("w2.image.digest.invalid"));
+    }
+
+    private W2Image recordImage(String imageKey) {
+        HeadObjectResponse metadata = ImageStorage.await(imageStorage.headObject(imageKey));
+        W2Image image = new W2Image();
+        image.setImageKey(imageKey);
+        image.setContentType(contentType(imageKey, metadata.contentType()));
+        image.setContentLength(metadata.contentLength());
+        image.setETag(metadata.eTag());
+        image.setUploadedAt(metadata.lastModified());
+        image.setReferenceCount(w2Repository.countByImageKey(imageKey));
+        return image;
+    }
+
+    // Only forward well-formed, single-range requests. Multiple ranges would need a multipart/byteranges response,
+    // and per RFC 9110 a server may ignore a Range header it doesn't support and send the whole representation:
+    private String singleRange(String range) {
+        if (range == null) {
+            return null;
+        }
+        try {
+            return HttpRange.parseRanges(range).size() == 1 ? range : null;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
+    }
 
-        return new ByteArrayResource(byteArray);
+    // Images uploaded before content types were stored on the object report binary/octet-stream, so fall back
+    // to the file extension in the key, which was taken from the upload's Content-Type:
+    private String contentType(String imageKey, String storedContentType) {
+        if (storedContentType != null && !storedContentType.equals("binary/octet-stream")
+                && !storedContentType.equals(MediaType.APPLICATION_OCTET_STREAM_VALUE)) {
+            return storedContentType;
+        }
+        return MediaTypeFactory.getMediaType(imageKey).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
     }
 }
@@ -0,0 +1,114 @@
+package com.skillstorm.taxservice.utilities;
+
+import com.skillstorm.taxservice.exceptions.ImageTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+// Hashes a stream as it is read, so its name UUID is known once it has been passed on without ever holding all of it.
+// Reading more than maxBytes throws ImageTooLargeException with the given message, before the extra bytes are returned:
+public class DigestingInputStream extends FilterInputStream {
+
+    private final MessageDigest md5;
+    private final long maxBytes;
+    private final String tooLargeMessage;
+    private long bytesRead;
+
+    public DigestingInputStream(InputStream in, long maxBytes, String tooLargeMessage) {
+        super(in);
+        try {
+            this.md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalError("MD5 not supported", e);
+        }
+        this.maxBytes = maxBytes;
+        this.tooLargeMessage = tooLargeMessage;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            count(1);
+            md5.update((byte) b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            count(n);
+            md5.update(b, off, n);
+        }
+        return n;
+    }
+
+    // Skipped bytes still have to be hashed, so read through them:
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] discard = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(discard, 0, (int) Math.min(n - skipped, discard.length));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    // The same UUID UUID.nameUUIDFromBytes gives for everything read so far. Only call once the stream is exhausted:
+    public UUID nameUUID() {
+        return nameUUID(md5.digest());
+    }
+
+    // The same UUID UUID.nameUUIDFromBytes gives for content with this MD5 digest, without needing the content:
+    public static UUID nameUUID(byte[] md5Digest) {
+        byte[] hash = md5Digest.clone();
+        hash[6] &= 0x0f;
+        hash[6] |= 0x30;
+        hash[8] &= 0x3f;
+        hash[8] |= (byte) 0x80;
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (hash[i] & 0xff);
+        }
+        for (int i = 8; i < 16; i++) {
+            lsb = (lsb << 8) | (hash[i] & 0xff);
+        }
+        return new UUID(msb, lsb);
+    }
+
+    private void count(int n) {
+        bytesRead += n;
+        if (bytesRead > maxBytes) {
+            throw new ImageTooLargeException(tooLargeMessage, maxBytes);
+        }
+    }
+}
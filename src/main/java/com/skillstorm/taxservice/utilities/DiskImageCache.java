@@ -0,0 +1,281 @@
+package com.skillstorm.taxservice.utilities;
+
+import com.skillstorm.taxservice.services.ImageCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps up to maxBytes of images on local disk, evicting the least recently used first. The index of what is cached
+// lives in memory, so the directory is emptied on start-up. Hits and misses are counted in w2.image.cache.requests,
+// and the bytes served from disk instead of S3 in w2.image.cache.bytes.saved:
+public class DiskImageCache implements ImageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskImageCache.class);
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Image key to file size, in access order so the first entry is always the least recently used:
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    // Keys being downloaded into the cache right now, so the same image isn't written twice at once:
+    private final Set<String> loading = new HashSet<>();
+    private long currentBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesSaved;
+
+    public DiskImageCache(Path directory, long maxBytes, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            FileSystemUtils.deleteRecursively(directory);
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create image cache directory " + directory, e);
+        }
+        this.hits = Counter.builder("w2.image.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("w2.image.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.bytesSaved = Counter.builder("w2.image.cache.bytes.saved").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("w2.image.cache.size", this, DiskImageCache::getCurrentBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized boolean contains(String imageKey) {
+        return index.containsKey(imageKey);
+    }
+
+    @Override
+    public CachedImage get(String imageKey) {
+        FileChannel channel;
+        // Open the file while holding the lock, so it can't be evicted first. Once it is open, deleting it on
+        // eviction doesn't affect readers:
+        synchronized (this) {
+            if (index.get(imageKey) == null) {
+                misses.increment();
+                return null;
+            }
+            try {
+                channel = FileChannel.open(path(imageKey), StandardOpenOption.READ);
+            } catch (IOException e) {
+                log.warn("Dropping unreadable cached image {}", imageKey, e);
+                currentBytes -= index.remove(imageKey);
+                misses.increment();
+                return null;
+            }
+        }
+        hits.increment();
+        return new DiskCachedImage(channel);
+    }
+
+    @Override
+    public InputStream readThrough(String imageKey, InputStream content, long contentLength) {
+        // Images of unknown size, or too big to ever fit, go straight through:
+        if (contentLength < 0 || contentLength > maxBytes) {
+            return content;
+        }
+        synchronized (this) {
+            if (index.containsKey(imageKey) || !loading.add(imageKey)) {
+                return content;
+            }
+        }
+        try {
+            Path download = Files.createTempFile(directory, "download-", ".tmp");
+            return new CachingInputStream(content, imageKey, contentLength, download);
+        } catch (IOException e) {
+            log.warn("Unable to cache image {}", imageKey, e);
+            finishLoading(imageKey);
+            return content;
+        }
+    }
+
+    // Add a fully downloaded image to the cache, then evict the least recently used images until it fits:
+    private void commit(String imageKey, Path download, long size) throws IOException {
+        synchronized (this) {
+            if (index.containsKey(imageKey)) {
+                return;
+            }
+            Files.move(download, path(imageKey), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            index.put(imageKey, size);
+            currentBytes += size;
+            Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                Files.deleteIfExists(path(entry.getKey()));
+                currentBytes -= entry.getValue();
+                eldest.remove();
+            }
+        }
+    }
+
+    private synchronized void finishLoading(String imageKey) {
+        loading.remove(imageKey);
+    }
+
+    // Image keys can contain slashes, so encode them into a single file name:
+    private Path path(String imageKey) {
+        return directory.resolve(URLEncoder.encode(imageKey, StandardCharsets.UTF_8));
+    }
+
+    private class DiskCachedImage implements CachedImage {
+
+        private final FileChannel channel;
+
+        private DiskCachedImage(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public long size() {
+            try {
+                return channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public InputStream open(long start, long count) {
+            bytesSaved.increment(count);
+            return new FileRegionInputStream(channel, start, count);
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Unable to close cached image", e);
+            }
+        }
+    }
+
+    // Copies everything read from S3 into a temporary file, and adds it to the cache once all of it has been read.
+    // If the client goes away part way through, or the disk fills up, the partial copy is thrown away:
+    private class CachingInputStream extends FilterInputStream {
+
+        private final String imageKey;
+        private final long contentLength;
+        private final Path download;
+        private OutputStream file;
+        private long written;
+        private boolean finished;
+
+        private CachingInputStream(InputStream in, String imageKey, long contentLength, Path download) throws IOException {
+            super(in);
+            this.imageKey = imageKey;
+            this.contentLength = contentLength;
+            this.download = download;
+            this.file = Files.newOutputStream(download);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b == -1) {
+                complete();
+            } else {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n == -1) {
+                complete();
+            } else {
+                write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                in.close();
+            } finally {
+                abandon();
+            }
+        }
+
+        private void write(byte[] b, int off, int len) {
+            if (file == null) {
+                return;
+            }
+            try {
+                file.write(b, off, len);
+                written += len;
+            } catch (IOException e) {
+                log.warn("Unable to cache image {}", imageKey, e);
+                abandon();
+            }
+        }
+
+        private void complete() {
+            if (file == null) {
+                return;
+            }
+            try {
+                file.close();
+                file = null;
+                if (written == contentLength) {
+                    commit(imageKey, download, written);
+                }
+            } catch (IOException e) {
+                log.warn("Unable to cache image {}", imageKey, e);
+            } finally {
+                abandon();
+            }
+        }
+
+        // Stop copying and delete whatever hasn't been committed to the cache:
+        private void abandon() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                if (file != null) {
+                    file.close();
+                    file = null;
+                }
+                Files.deleteIfExists(download);
+            } catch (IOException e) {
+                log.warn("Unable to delete partial download of {}", imageKey, e);
+            } finally {
+                finishLoading(imageKey);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.skillstorm.taxservice.utilities;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+// Counts the bytes sent to and received from S3 in taxes.s3.bytes, tagged with the direction. Request bodies are
+// counted on every attempt, so retried uploads count each time they're sent. Downloads are counted as the length S3
+// answers with:
+public class S3TransferMetrics implements ExecutionInterceptor {
+
+    private final Counter bytesOut;
+    private final Counter bytesIn;
+
+    public S3TransferMetrics(MeterRegistry meterRegistry) {
+        this.bytesOut = Counter.builder("taxes.s3.bytes").tag("direction", "out").baseUnit("bytes").register(meterRegistry);
+        this.bytesIn = Counter.builder("taxes.s3.bytes").tag("direction", "in").baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        context.requestBody().map(RequestBody::contentLength).ifPresent(bytesOut::increment);
+        context.asyncRequestBody().flatMap(AsyncRequestBody::contentLength).ifPresent(bytesOut::increment);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        if (context.response() instanceof GetObjectResponse response && response.contentLength() != null) {
+            bytesIn.increment(response.contentLength());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.skillstorm.taxservice.utilities;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Sees every SQL statement Hibernate prepares. Counts them all in taxes.db.statements, and counts the ones each thread
+// prepares between start() and stop() so they can be attributed to the request the thread is serving:
+public class StatementCounter implements StatementInspector {
+
+    private final Counter statements;
+    private final ThreadLocal<int[]> counts = new ThreadLocal<>();
+
+    public StatementCounter(MeterRegistry meterRegistry) {
+        this.statements = Counter.builder("taxes.db.statements")
+                .description("SQL statements prepared by Hibernate")
+                .register(meterRegistry);
+    }
+
+    // Leaves the statement as it is:
+    @Override
+    public String inspect(String sql) {
+        statements.increment();
+        int[] count = counts.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        counts.set(new int[1]);
+    }
+
+    // Statements prepared on this thread since start():
+    public int stop() {
+        int[] count = counts.get();
+        counts.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -0,0 +1,216 @@
+package com.skillstorm.taxservice.utilities;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillstorm.taxservice.dtos.W2Dto;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reads W2s one line at a time from NDJSON, one W2 object per line, or CSV, a header naming W2Dto properties followed
+// by one W2 per line. Only the current line is held in memory, so content of any length is read in constant memory.
+// Blank lines are skipped. A line that can't be read as a W2 is returned as a Record with an error instead of
+// stopping the read. CSV values can be quoted, with "" for a quote inside one, but can't span lines:
+public class W2RecordReader {
+
+    public enum Format { NDJSON, CSV }
+
+    // Longest line kept. Anything longer is skipped to its end and reported as an error:
+    static final int MAX_LINE_LENGTH = 8192;
+
+    // The W2Dto properties a CSV header can name. Everything else is set by the service:
+    static final Set<String> CSV_COLUMNS = Set.of("taxReturnId", "year", "employer", "state", "wages",
+            "federalIncomeTaxWithheld", "stateIncomeTaxWithheld", "socialSecurityTaxWithheld", "medicareTaxWithheld");
+
+    private final Reader content;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private final StringBuilder line = new StringBuilder();
+    private boolean lineTooLong;
+    private int lineNumber;
+    private List<String> columns;
+
+    // Reads the CSV header straight away, so a request with an unusable header is rejected before any W2 is stored:
+    public W2RecordReader(Reader content, Format format, ObjectMapper objectMapper) throws IOException {
+        this.content = content;
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == Format.CSV) {
+            readHeader();
+        }
+    }
+
+    // The next W2 or unreadable line, or null once the content has been read:
+    public Record next() throws IOException {
+        while (readLine()) {
+            if (lineTooLong) {
+                return Record.failed(lineNumber, "Line is longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            if (!line.toString().isBlank()) {
+                return format == Format.CSV ? csvRecord() : ndjsonRecord();
+            }
+        }
+        return null;
+    }
+
+    private Record ndjsonRecord() {
+        try {
+            W2Dto w2 = objectMapper.readValue(line.toString(), W2Dto.class);
+            return w2 == null ? Record.failed(lineNumber, "Line must be a W2 object") : Record.read(lineNumber, w2);
+        } catch (JsonProcessingException e) {
+            return Record.failed(lineNumber, e.getOriginalMessage());
+        }
+    }
+
+    // Empty values are left out, so those properties keep W2Dto's defaults:
+    private Record csvRecord() {
+        List<String> values = splitCsv(line);
+        if (values == null) {
+            return Record.failed(lineNumber, "Line has an unterminated quoted value");
+        }
+        if (values.size() != columns.size()) {
+            return Record.failed(lineNumber, "Line has " + values.size() + " values but the header has " + columns.size() + " columns");
+        }
+        Map<String, String> properties = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                properties.put(columns.get(i), value);
+            }
+        }
+        try {
+            return Record.read(lineNumber, objectMapper.convertValue(properties, W2Dto.class));
+        } catch (IllegalArgumentException e) {
+            return Record.failed(lineNumber, e.getCause() instanceof JsonProcessingException cause ? cause.getOriginalMessage() : e.getMessage());
+        }
+    }
+
+    private void readHeader() throws IOException {
+        while (readLine()) {
+            if (!line.toString().isBlank()) {
+                // Spreadsheets often start the file with a byte order mark:
+                if (line.charAt(0) == '\uFEFF') {
+                    line.deleteCharAt(0);
+                }
+                columns = lineTooLong ? null : splitCsv(line);
+                if (columns == null) {
+                    throw new IllegalArgumentException("CSV header can't be read");
+                }
+                columns = columns.stream().map(String::trim).toList();
+                for (String column : columns) {
+                    if (!CSV_COLUMNS.contains(column)) {
+                        throw new IllegalArgumentException("Unknown W2 column: " + column + ". Columns must be among " + CSV_COLUMNS);
+                    }
+                }
+                return;
+            }
+        }
+        throw new IllegalArgumentException("CSV content must start with a header");
+    }
+
+    // Read the next line into line, without its terminator. Returns false at the end of the content:
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        lineTooLong = false;
+        boolean read = false;
+        while (true) {
+            if (position == limit) {
+                limit = Math.max(content.read(buffer), 0);
+                position = 0;
+                if (limit == 0) {
+                    if (read) {
+                        lineNumber++;
+                    }
+                    return read;
+                }
+            }
+            read = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++;
+                lineNumber++;
+                if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                    line.setLength(line.length() - 1);
+                }
+                return true;
+            }
+        }
+    }
+
+    private void append(int start, int end) {
+        int room = MAX_LINE_LENGTH - line.length();
+        if (end - start > room) {
+            lineTooLong = true;
+        }
+        line.append(buffer, start, Math.min(end - start, Math.max(room, 0)));
+    }
+
+    // Split a CSV line into its values, or null if a quoted value isn't closed:
+    static List<String> splitCsv(CharSequence csv) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    // One line read as a W2, with the line number it was read from. Exactly one of w2 and error is set:
+    @Getter
+    public static final class Record {
+
+        private final int line;
+        private final W2Dto w2;
+        private final String error;
+
+        private Record(int line, W2Dto w2, String error) {
+            this.line = line;
+            this.w2 = w2;
+            this.error = error;
+        }
+
+        public static Record read(int line, W2Dto w2) {
+            return new Record(line, w2, null);
+        }
+
+        public static Record failed(int line, String error) {
+            return new Record(line, null, error);
+        }
+    }
+}
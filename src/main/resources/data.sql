@@ -4,25 +4,25 @@ INSERT INTO child_tax_credit (per_qualifying_child, per_other_child, income_thre
 -- other filing statuses
 INSERT INTO child_tax_credit (per_qualifying_child, per_other_child, income_threshold, rate_factor, refundable, refund_limit, refund_rate) VALUES (2000, 500, 200000, 0.05, TRUE, 1600, 1.00);
 
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (15000, 0.35);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.34);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.33);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.32);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.31);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.30);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.29);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.28);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.27);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.26);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.25);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.24);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.23);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.22);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (2000, 0.21);
-INSERT INTO dependent_care_tax_credit (income_range, rate) VALUES (0, 0.20);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (15000, 0.35, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.34, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.33, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.32, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.31, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.30, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.29, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.28, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.27, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.26, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.25, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.24, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.23, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.22, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (2000, 0.21, 2023);
+INSERT INTO dependent_care_tax_credit (income_range, rate, tax_year) VALUES (0, 0.20, 2023);
 
-INSERT INTO dependent_care_tax_credit_limit (num_dependents, credit_limit, refundable) VALUES (1, 3000, FALSE);
-INSERT INTO dependent_care_tax_credit_limit (num_dependents, credit_limit, refundable) VALUES (2, 6000, FALSE);
+INSERT INTO dependent_care_tax_credit_limit (num_dependents, credit_limit, refundable, tax_year) VALUES (1, 3000, FALSE, 2023);
+INSERT INTO dependent_care_tax_credit_limit (num_dependents, credit_limit, refundable, tax_year) VALUES (2, 6000, FALSE, 2023);
 
 -- married filing jointly
 INSERT INTO earned_income_tax_credit (agi_threshold_3children, 
@@ -132,40 +132,50 @@ COMMIT;
 
 BEGIN;
 INSERT INTO filing_status (status, 
+                          status_code,
+                          tax_year,
                           child_tax_credit_id, 
                           earned_income_tax_credit_id, 
                           education_tax_credit_aotc_id, 
                           education_tax_credit_llc_id, 
                           savers_tax_credit_id) 
-                          VALUES ('Single', 2, 2, 2, 2, 3);
+                          VALUES ('Single', 1, 2023, 2, 2, 2, 2, 3);
 INSERT INTO filing_status (status,
+                          status_code,
+                          tax_year,
                           child_tax_credit_id,
                           earned_income_tax_credit_id,
                           education_tax_credit_aotc_id,
                           education_tax_credit_llc_id,
                           savers_tax_credit_id) 
-                          VALUES ('Married filing jointly', 1, 1, 1, 1, 1);
+                          VALUES ('Married filing jointly', 2, 2023, 1, 1, 1, 1, 1);
 INSERT INTO filing_status (status,
+                          status_code,
+                          tax_year,
                           child_tax_credit_id,
                           earned_income_tax_credit_id,
                           education_tax_credit_aotc_id,
                           education_tax_credit_llc_id,
                           savers_tax_credit_id) 
-                          VALUES ('Married filing separately', 2, 2, 2, 2, 3);
+                          VALUES ('Married filing separately', 3, 2023, 2, 2, 2, 2, 3);
 INSERT INTO filing_status (status,
+                          status_code,
+                          tax_year,
                           child_tax_credit_id,
                           earned_income_tax_credit_id,
                           education_tax_credit_aotc_id,
                           education_tax_credit_llc_id,
                           savers_tax_credit_id) 
-                          VALUES ('Head of Household', 2, 2, 2, 2, 2);
+                          VALUES ('Head of Household', 4, 2023, 2, 2, 2, 2, 2);
 INSERT INTO filing_status (status,
+                          status_code,
+                          tax_year,
                           child_tax_credit_id,
                           earned_income_tax_credit_id,
                           education_tax_credit_aotc_id,
                           education_tax_credit_llc_id,
                           savers_tax_credit_id) 
-                          VALUES ('Qualifying Surviving Spouse', 2, 2, 2, 2, 3);
+                          VALUES ('Qualifying Surviving Spouse', 5, 2023, 2, 2, 2, 2, 3);
 COMMIT;
 
 BEGIN;
@@ -356,221 +366,221 @@ COMMIT;
 
 BEGIN;
 -- Alabama
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (1, 0.02, 500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (1, 0.04, 2500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (1, 0.05, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (1, 0.02, 500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (1, 0.04, 2500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (1, 0.05, 0, 2023);
 -- Alaska
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (2, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (2, 0.00, 0, 2023);
 -- Arizona
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (3, 0.025, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (3, 0.025, 0, 2023);
 -- Arkansas
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (4, 0.02, 4400);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (4, 0.04, 4400);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (4, 0.044, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (4, 0.02, 4400, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (4, 0.04, 4400, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (4, 0.044, 0, 2023);
 -- California
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.01, 10412);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.02, 14272);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.04, 14275);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.06, 15122);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.08, 14269);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.093, 280787);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.103, 69824);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.113, 279310);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.123, 301729);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (5, 0.133, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.01, 10412, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.02, 14272, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.04, 14275, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.06, 15122, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.08, 14269, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.093, 280787, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.103, 69824, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.113, 279310, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.123, 301729, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (5, 0.133, 0, 2023);
 -- Colorado
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (6, 0.044, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (6, 0.044, 0, 2023);
 -- Connecticut
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (7, 0.02, 10000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (7, 0.045, 40000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (7, 0.055, 50000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (7, 0.06, 100000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (7, 0.065, 50000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (7, 0.069, 250000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (7, 0.0699, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (7, 0.02, 10000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (7, 0.045, 40000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (7, 0.055, 50000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (7, 0.06, 100000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (7, 0.065, 50000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (7, 0.069, 250000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (7, 0.0699, 0, 2023);
 -- Delaware
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (8, 0.022, 5000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (8, 0.039, 5000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (8, 0.048, 10000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (8, 0.052, 5000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (8, 0.0555, 35000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (8, 0.066, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (8, 0.022, 5000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (8, 0.039, 5000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (8, 0.048, 10000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (8, 0.052, 5000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (8, 0.0555, 35000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (8, 0.066, 0, 2023);
 -- Florida
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (9, 0.0, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (9, 0.0, 0, 2023);
 -- Georgia
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (10, 0.0549, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (10, 0.0549, 0, 2023);
 -- Hawaii
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.014, 2400);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.032, 2400);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.055, 4800);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.064, 4800);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.068, 4800);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.072, 4800);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.076, 12000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.079, 12000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.0825, 102000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.09, 25000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.1, 25000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (11, 0.11, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.014, 2400, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.032, 2400, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.055, 4800, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.064, 4800, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.068, 4800, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.072, 4800, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.076, 12000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.079, 12000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.0825, 102000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.09, 25000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.1, 25000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (11, 0.11, 0, 2023);
 -- Idaho
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (12, 0.058, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (12, 0.058, 0, 2023);
 -- Illinois
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (13, 0.0495, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (13, 0.0495, 0, 2023);
 -- Indiana
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (14, 0.0305, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (14, 0.0305, 0, 2023);
 -- Iowa
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (15, 0.00, 6210);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (15, 0.00, 24840);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (15, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (15, 0.00, 6210, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (15, 0.00, 24840, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (15, 0.00, 0, 2023);
 -- Kansas
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (16, 0.031, 15000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (16, 0.0525, 15000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (16, 0.057, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (16, 0.031, 15000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (16, 0.0525, 15000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (16, 0.057, 0, 2023);
 -- Kentucky
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (17, 0.04, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (17, 0.04, 0, 2023);
 -- Louisiana
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (18, 0.0185, 12500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (18, 0.035, 37500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (18, 0.0425, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (18, 0.0185, 12500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (18, 0.035, 37500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (18, 0.0425, 0, 2023);
 -- Maine
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (19, 0.058, 26050);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (19, 0.0675, 35550);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (19, 0.0715, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (19, 0.058, 26050, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (19, 0.0675, 35550, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (19, 0.0715, 0, 2023);
 -- Maryland
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.02, 1000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.03, 1000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.04, 1000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.0475, 97000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.05, 25000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.0525, 25000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.055, 100000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (20, 0.0575, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.02, 1000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.03, 1000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.04, 1000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.0475, 97000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.05, 25000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.0525, 25000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.055, 100000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (20, 0.0575, 0, 2023);
 -- Massachusetts
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (21, 0.05, 1000000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (21, 0.09, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (21, 0.05, 1000000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (21, 0.09, 0, 2023);
 -- Michigan
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (22, 0.0425, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (22, 0.0425, 0, 2023);
 -- Minnesota
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (23, 0.0535, 31690);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (23, 0.068, 72400);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (23, 0.0785, 89150);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (23, 0.0985, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (23, 0.0535, 31690, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (23, 0.068, 72400, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (23, 0.0785, 89150, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (23, 0.0985, 0, 2023);
 -- Mississippi
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (24, 0.047, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (24, 0.047, 0, 2023);
 -- Missouri
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (25, 0.02, 2546);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (25, 0.025, 1273);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (25, 0.03, 1273);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (25, 0.035, 1273);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (25, 0.04, 1273);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (25, 0.045, 1273);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (25, 0.048, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (25, 0.02, 2546, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (25, 0.025, 1273, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (25, 0.03, 1273, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (25, 0.035, 1273, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (25, 0.04, 1273, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (25, 0.045, 1273, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (25, 0.048, 0, 2023);
 -- Montana
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (26, 0.047, 20500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (26, 0.059, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (26, 0.047, 20500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (26, 0.059, 0, 2023);
 -- Nebraska
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (27, 0.0246, 3700);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (27, 0.0351, 18470);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (27, 0.0501, 13560);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (27, 0.0584, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (27, 0.0246, 3700, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (27, 0.0351, 18470, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (27, 0.0501, 13560, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (27, 0.0584, 0, 2023);
 -- Nevada
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (28, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (28, 0.00, 0, 2023);
 -- New Hampshire
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (29, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (29, 0.00, 0, 2023);
 -- New Jersey
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (30, 0.014, 20000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (30, 0.0175, 15000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (30, 0.035, 5000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (30, 0.05525, 35000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (30, 0.0637, 425000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (30, 0.0897, 500000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (30, 0.1075, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (30, 0.014, 20000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (30, 0.0175, 15000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (30, 0.035, 5000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (30, 0.05525, 35000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (30, 0.0637, 425000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (30, 0.0897, 500000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (30, 0.1075, 0, 2023);
 -- New Mexico
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (31, 0.017, 5500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (31, 0.032, 4500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (31, 0.047, 5000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (31, 0.049, 194000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (31, 0.059, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (31, 0.017, 5500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (31, 0.032, 4500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (31, 0.047, 5000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (31, 0.049, 194000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (31, 0.059, 0, 2023);
 -- New York
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.04, 8500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.045, 3200);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.0525, 2200);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.055, 66750);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.06, 134750);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.0685, 862150);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.0965, 3922450);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.103, 20000000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (32, 0.109, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.04, 8500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.045, 3200, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.0525, 2200, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.055, 66750, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.06, 134750, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.0685, 862150, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.0965, 3922450, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.103, 20000000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (32, 0.109, 0, 2023);
 -- North Carolina
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (33, 0.045, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (33, 0.045, 0, 2023);
 -- North Dakota
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (34, 0.0195, 225975);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (34, 0.025, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (34, 0.0195, 225975, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (34, 0.025, 0, 2023);
 -- Ohio
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (35, 0.025, 92150);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (35, 0.035, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (35, 0.025, 92150, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (35, 0.035, 0, 2023);
 -- Oklahoma
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (36, 0.0025, 1000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (36, 0.0075, 1500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (36, 0.0175, 1250);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (36, 0.0275, 1150);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (36, 0.0375, 2300);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (36, 0.0475, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (36, 0.0025, 1000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (36, 0.0075, 1500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (36, 0.0175, 1250, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (36, 0.0275, 1150, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (36, 0.0375, 2300, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (36, 0.0475, 0, 2023);
 -- Oregon
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (37, 0.0475, 4300);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (37, 0.0675, 6450);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (37, 0.0875, 114250);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (37, 0.099, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (37, 0.0475, 4300, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (37, 0.0675, 6450, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (37, 0.0875, 114250, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (37, 0.099, 0, 2023);
 -- Pennsylvania
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (38, 0.0307, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (38, 0.0307, 0, 2023);
 -- Rhode Island
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (39, 0.0375, 77450);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (39, 0.0475, 98600);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (39, 0.0599, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (39, 0.0375, 77450, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (39, 0.0475, 98600, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (39, 0.0599, 0, 2023);
 -- South Carolina
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (40, 0.00, 3460);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (40, 0.03, 13870);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (40, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (40, 0.00, 3460, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (40, 0.03, 13870, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (40, 0.00, 0, 2023);
 -- South Dakota
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (41, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (41, 0.00, 0, 2023);
 -- Tennessee
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (42, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (42, 0.00, 0, 2023);
 -- Texas
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (43, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (43, 0.00, 0, 2023);
 -- Utah
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (44, 0.0465, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (44, 0.0465, 0, 2023);
 -- Vermont
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (45, 0.0335, 45400);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (45, 0.066, 64650);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (45, 0.076, 119500);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (45, 0.0875, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (45, 0.0335, 45400, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (45, 0.066, 64650, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (45, 0.076, 119500, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (45, 0.0875, 0, 2023);
 -- Virginia
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (46, 0.02, 3000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (46, 0.03, 2000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (46, 0.05, 12000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (46, 0.0575, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (46, 0.02, 3000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (46, 0.03, 2000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (46, 0.05, 12000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (46, 0.0575, 0, 2023);
 -- Washington
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (47, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (47, 0.00, 0, 2023);
 -- West Virginia
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (48, 0.0236, 10000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (48, 0.0315, 15000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (48, 0.0354, 15000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (48, 0.0472, 20000);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (48, 0.0512, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (48, 0.0236, 10000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (48, 0.0315, 15000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (48, 0.0354, 15000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (48, 0.0472, 20000, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (48, 0.0512, 0, 2023);
 -- Wisconsin
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (49, 0.035, 14320);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (49, 0.044, 14320);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (49, 0.053, 286670);
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (49, 0.0765, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (49, 0.035, 14320, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (49, 0.044, 14320, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (49, 0.053, 286670, 2023);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (49, 0.0765, 0, 2023);
 -- Wyoming
-INSERT INTO state_tax (state_id, rate, income_range) VALUES (50, 0.00, 0);
+INSERT INTO state_tax (state_id, rate, income_range, tax_year) VALUES (50, 0.00, 0, 2023);
 COMMIT;
 
 BEGIN;
 -- Non-itemized deductions
-INSERT INTO deduction (name, agi_limit, itemized) VALUES ('Health Savings Account', 3850.000, false);
-INSERT INTO deduction (name, agi_limit, itemized) VALUES ('IRA Contributions', 6500.000, false);
-INSERT INTO deduction (name, agi_limit, itemized) VALUES ('Student Loan Interest', 90000.000, false);
+INSERT INTO deduction (name, agi_limit, itemized, joint_multiplier, joint_addition, age_55_addition) VALUES ('Health Savings Account', 3850.000, false, 2, 50, 1000);
+INSERT INTO deduction (name, agi_limit, itemized, age_50_addition) VALUES ('IRA Contributions', 6500.000, false, 1000);
+INSERT INTO deduction (name, agi_limit, itemized, joint_multiplier, joint_addition) VALUES ('Student Loan Interest', 90000.000, false, 2, 5000);
 INSERT INTO deduction (name, agi_limit, itemized) VALUES ('Educator Expenses', 300.000, false);
 
 -- Itemized deductions
@@ -33,14 +33,17 @@ CREATE TABLE IF NOT EXISTS child_tax_credit (
 CREATE TABLE IF NOT EXISTS dependent_care_tax_credit (
   id SERIAL PRIMARY KEY,
   income_range INT NOT NULL,
-  rate DECIMAL(5, 2) NOT NULL
+  rate DECIMAL(5, 2) NOT NULL,
+  tax_year INT NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS dependent_care_tax_credit_limit (
   id SERIAL PRIMARY KEY,
   num_dependents INT NOT NULL,
   credit_limit INT NOT NULL,
-  refundable BOOLEAN NOT NULL
+  refundable BOOLEAN NOT NULL,
+  tax_year INT NOT NULL,
+  CONSTRAINT unique_dependent_care_limit_year UNIQUE (num_dependents, tax_year)
 );
 
 CREATE TABLE IF NOT EXISTS earned_income_tax_credit (
@@ -96,9 +99,15 @@ CREATE TABLE IF NOT EXISTS savers_tax_credit (
   refundable BOOLEAN NOT NULL
 );
 
+-- The reference tables are keyed by tax year. Each tax year has its own filing_status rows, and the brackets, capital
+-- gains rates, standard deductions and credits linked to them are that year's. state_tax and the dependent care
+-- tables carry their own tax_year. A year's rows apply to returns for that year and later, until a later year has
+-- rows for the same table, so a new year only needs the tables that changed:
 CREATE TABLE IF NOT EXISTS filing_status (
   id SERIAL PRIMARY KEY,
-  status VARCHAR(50) NOT NULL UNIQUE,
+  status VARCHAR(50) NOT NULL,
+  status_code INT NOT NULL,
+  tax_year INT NOT NULL,
   child_tax_credit_id INT NOT NULL,
   earned_income_tax_credit_id INT NOT NULL,
   education_tax_credit_aotc_id INT NOT NULL,
@@ -108,7 +117,8 @@ CREATE TABLE IF NOT EXISTS filing_status (
   FOREIGN KEY (earned_income_tax_credit_id) REFERENCES earned_income_tax_credit(id),
   FOREIGN KEY (education_tax_credit_aotc_id) REFERENCES education_tax_credit_aotc(id),
   FOREIGN KEY (education_tax_credit_llc_id) REFERENCES education_tax_credit_llc(id),
-  FOREIGN KEY (savers_tax_credit_id) REFERENCES savers_tax_credit(id)
+  FOREIGN KEY (savers_tax_credit_id) REFERENCES savers_tax_credit(id),
+  CONSTRAINT unique_filing_status_year UNIQUE (status_code, tax_year)
 );
 
 CREATE TABLE IF NOT EXISTS standard_deduction (
@@ -146,6 +156,7 @@ CREATE TABLE IF NOT EXISTS state_tax (
   state_id INT NOT NULL,
   income_range INT NOT NULL,
   rate DECIMAL(6, 5) NOT NULL,
+  tax_year INT NOT NULL,
   FOREIGN KEY (state_id) REFERENCES states(id)
 );
 
@@ -153,7 +164,11 @@ CREATE TABLE IF NOT EXISTS deduction (
     id SERIAL PRIMARY KEY,
     name VARCHAR(50),
     agi_limit DECIMAL(10, 3),
-    itemized BOOLEAN
+    itemized BOOLEAN,
+    joint_multiplier INT NOT NULL DEFAULT 1,
+    joint_addition INT NOT NULL DEFAULT 0,
+    age_50_addition INT NOT NULL DEFAULT 0,
+    age_55_addition INT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS tax_return (
@@ -181,6 +196,8 @@ CREATE TABLE IF NOT EXISTS tax_return (
     total_credits NUMERIC,
     federal_refund NUMERIC,
     state_refund NUMERIC,
+    revision INT NOT NULL DEFAULT 0,
+    calculated_revision INT,
     CONSTRAINT unique_year_user_id UNIQUE (years, user_id)
 );
 
@@ -210,6 +227,22 @@ CREATE TABLE IF NOT EXISTS w2 (
     CONSTRAINT fk_tax_return FOREIGN KEY (tax_return_id) REFERENCES tax_return(id)
 );
 
+CREATE TABLE IF NOT EXISTS w2_image (
+    image_key VARCHAR(50) PRIMARY KEY,
+    content_type VARCHAR(100),
+    content_length BIGINT,
+    e_tag VARCHAR(100),
+    uploaded_at TIMESTAMP WITH TIME ZONE,
+    reference_count BIGINT NOT NULL DEFAULT 0,
+    unreferenced_at TIMESTAMP WITH TIME ZONE
+);
+
+-- w2_image outlives restarts, so add the reference counting columns to tables created before them:
+ALTER TABLE w2_image ADD COLUMN IF NOT EXISTS reference_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE w2_image ADD COLUMN IF NOT EXISTS unreferenced_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_w2_image_key ON w2 (image_key);
+
 CREATE TABLE IF NOT EXISTS other_income (
   id SERIAL PRIMARY KEY,
   tax_return_id INT NOT NULL,
@@ -236,4 +269,11 @@ CREATE TABLE IF NOT EXISTS taxreturn_credit (
   FOREIGN KEY (tax_return_id) REFERENCES tax_return(id)
 );
 
-
+-- Hibernate takes ids for these tables from their SERIAL sequences 50 at a time (allocationSize = 50), so it can send
+-- inserts as JDBC batches instead of one round trip per row. Each sequence has to step by the same 50, and is altered
+-- here, after the tables are recreated, since recreating them resets it:
+ALTER SEQUENCE IF EXISTS tax_return_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS w2_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS taxreturn_deduction_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS other_income_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS taxreturn_credit_id_seq INCREMENT BY 50;
@@ -0,0 +1,82 @@
+package com.skillstorm.taxservice.aspects;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    // Every call is timed at a sample rate of 1:
+    @Test
+    void invokeSampledTest() {
+
+        //Call the method to test:
+        Calculator calculator = traced(1);
+        int result = calculator.add(1, 2);
+        calculator.add(3, 4);
+
+        //Verify the result:
+        assertEquals(3, result, "Traced method should still return its result");
+        Timer timer = meterRegistry.get("method.calls").tag("class", "Calculator").tag("method", "add")
+                .tag("exception", "none").timer();
+        assertEquals(2, timer.count(), "Both calls should be timed");
+    }
+
+    // No call is timed at a sample rate of 0:
+    @Test
+    void invokeNotSampledTest() {
+
+        //Call the method to test:
+        traced(0).add(1, 2);
+
+        //Verify the result:
+        assertNull(meterRegistry.find("method.calls").timer(), "Nothing should be recorded");
+    }
+
+    // Calls that throw are timed separately, tagged with the exception:
+    @Test
+    void invokeThrowsTest() {
+
+        //Call the method to test:
+        assertThrows(ArithmeticException.class, () -> traced(1).divide(1, 0));
+
+        //Verify the result:
+        assertEquals(1, meterRegistry.get("method.calls").tag("method", "divide")
+                .tag("exception", "ArithmeticException").timer().count());
+    }
+
+    // Sample rates outside 0 to 1 are rejected:
+    @Test
+    void sampleRateOutOfRangeTest() {
+        assertThrows(IllegalArgumentException.class, () -> new TracingAspect(() -> meterRegistry, 1.5));
+    }
+
+    private Calculator traced(double sampleRate) {
+        ProxyFactory proxyFactory = new ProxyFactory(new Calculator());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TracingAspect(() -> meterRegistry, sampleRate));
+        return (Calculator) proxyFactory.getProxy();
+    }
+
+    static class Calculator {
+
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public int divide(int a, int b) {
+            return a / b;
+        }
+    }
+}
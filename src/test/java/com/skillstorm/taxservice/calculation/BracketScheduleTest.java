@@ -0,0 +1,95 @@
+package com.skillstorm.taxservice.calculation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class BracketScheduleTest {
+
+    // Single filer federal brackets from data.sql, applied by width (max - min) as the calculator does:
+    private final BracketSchedule federalSingle = BracketSchedule.builder()
+            .bracket(11000, new BigDecimal("0.10"))
+            .bracket(44725 - 11001, new BigDecimal("0.12"))
+            .bracket(95375 - 44726, new BigDecimal("0.22"))
+            .bracket(182100 - 95376, new BigDecimal("0.24"))
+            .bracket(231250 - 182101, new BigDecimal("0.32"))
+            .bracket(578125 - 231251, new BigDecimal("0.35"))
+            .openEnded(new BigDecimal("0.37"))
+            .build();
+
+    // Walk the widths one bracket at a time, the way the calculator used to:
+    private BigDecimal linearTax(BigDecimal income) {
+        long[] widths = {11000, 33724, 50649, 86724, 49149, 346874};
+        String[] rates = {"0.10", "0.12", "0.22", "0.24", "0.32", "0.35"};
+        BigDecimal tax = BigDecimal.ZERO;
+        BigDecimal remaining = income;
+        for (int i = 0; i < widths.length && remaining.signum() > 0; i++) {
+            BigDecimal inBracket = remaining.min(BigDecimal.valueOf(widths[i]));
+            tax = tax.add(inBracket.multiply(new BigDecimal(rates[i])));
+            remaining = remaining.subtract(inBracket);
+        }
+        if (remaining.signum() > 0) {
+            tax = tax.add(remaining.multiply(new BigDecimal("0.37")));
+        }
+        return tax;
+    }
+
+    @Test
+    void taxFor_MatchesLinearBracketWalk() {
+        String[] incomes = {"0.01", "5000", "11000", "11000.50", "44724", "50000.99", "95375", "182101", "250000", "578125", "1000000"};
+        for (String income : incomes) {
+            BigDecimal value = new BigDecimal(income);
+            assertEquals(0, linearTax(value).compareTo(federalSingle.taxFor(value)), "income " + income);
+        }
+    }
+
+    @Test
+    void taxFor_ZeroIncome_ReturnsZero() {
+        assertEquals(0, BigDecimal.ZERO.compareTo(federalSingle.taxFor(BigDecimal.ZERO)));
+    }
+
+    @Test
+    void taxFor_NegativeIncome_UsesFirstRate() {
+        assertEquals(0, new BigDecimal("-10.00").compareTo(federalSingle.taxFor(new BigDecimal("-100"))));
+    }
+
+    @Test
+    void taxFor_BoundedSchedule_DoesNotTaxIncomeAboveLastBracket() {
+        BracketSchedule bounded = BracketSchedule.builder()
+                .bracket(20000, new BigDecimal("0.10"))
+                .bracket(30000, new BigDecimal("0.20"))
+                .build();
+
+        assertFalse(bounded.isOpenEnded());
+        assertEquals(0, new BigDecimal("8000").compareTo(bounded.taxFor(new BigDecimal("50000"))));
+        assertEquals(0, new BigDecimal("8000").compareTo(bounded.taxFor(new BigDecimal("90000"))));
+    }
+
+    @Test
+    void taxFor_OpenEndedOnly_TaxesEverythingAtFlatRate() {
+        BracketSchedule flat = BracketSchedule.builder().openEnded(new BigDecimal("0.025")).build();
+
+        assertTrue(flat.isOpenEnded());
+        assertEquals(1, flat.size());
+        assertEquals(0, new BigDecimal("2500").compareTo(flat.taxFor(new BigDecimal("100000"))));
+    }
+
+    @Test
+    void segmentFor_BoundaryIncome_StartsNextSegment() {
+        assertEquals(0, federalSingle.segmentFor(new BigDecimal("10999.99")));
+        assertEquals(1, federalSingle.segmentFor(new BigDecimal("11000")));
+        assertEquals(6, federalSingle.segmentFor(new BigDecimal("10000000")));
+    }
+
+    @Test
+    void builder_BracketAfterOpenEnded_Throws() {
+        BracketSchedule.Builder builder = BracketSchedule.builder().openEnded(new BigDecimal("0.05"));
+
+        assertThrows(IllegalStateException.class, () -> builder.bracket(1000, new BigDecimal("0.01")));
+    }
+}
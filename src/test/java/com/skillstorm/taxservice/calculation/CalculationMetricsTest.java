@@ -0,0 +1,85 @@
+package com.skillstorm.taxservice.calculation;
+
+import com.skillstorm.taxservice.constants.CalculationEngine;
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.dtos.W2Dto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CalculationMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CalculationMetrics calculationMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        calculationMetrics = new CalculationMetrics(meterRegistry);
+    }
+
+    @Test
+    void recording_TagsWithEngineFilingStatusAndStates() {
+        TaxReturnDto taxReturn = taxReturn(FilingStatus.HEAD_OF_HOUSEHOLD, State.NY, State.NJ, State.NY);
+
+        CalculationMetrics.Recording recording = calculationMetrics.start(CalculationEngine.FIXED_POINT, taxReturn);
+        recording.stage(CalculationStage.STATE_TAX, System.nanoTime());
+        recording.finish();
+
+        assertEquals(1, meterRegistry.get("taxes.calculation").tag("engine", "fixed-point")
+                .tag("filing.status", "HEAD_OF_HOUSEHOLD").tag("states", "2").timer().count());
+        assertEquals(1, meterRegistry.get("taxes.calculation.stage").tag("engine", "fixed-point")
+                .tag("stage", "STATE_TAX").tag("filing.status", "HEAD_OF_HOUSEHOLD").tag("states", "2").timer().count());
+    }
+
+    @Test
+    void recording_ReusesTimers() {
+        TaxReturnDto taxReturn = taxReturn(FilingStatus.SINGLE, State.CA);
+
+        calculationMetrics.start(CalculationEngine.BIGDECIMAL, taxReturn).finish();
+        calculationMetrics.start(CalculationEngine.BIGDECIMAL, taxReturn).finish();
+
+        assertEquals(1, meterRegistry.find("taxes.calculation").timers().size());
+        assertEquals(2, meterRegistry.get("taxes.calculation").timer().count());
+        assertNull(meterRegistry.find("taxes.calculation.stage").timer());
+    }
+
+    @Test
+    void countLookup_WithoutFilingStatus() {
+        TaxReturnDto taxReturn = taxReturn(null);
+
+        calculationMetrics.countLookup(taxReturn);
+        calculationMetrics.countLookup(taxReturn);
+
+        assertEquals(2, meterRegistry.get("taxes.reference.lookups").tag("filing.status", "NONE")
+                .tag("states", "0").counter().count());
+    }
+
+    @Test
+    void stateCount_CappedAtMaxStates() {
+        assertEquals(0, CalculationMetrics.stateCount(taxReturn(FilingStatus.SINGLE)));
+        assertEquals(1, CalculationMetrics.stateCount(taxReturn(FilingStatus.SINGLE, State.TX, State.TX)));
+        assertEquals(CalculationMetrics.MAX_STATES,
+                CalculationMetrics.stateCount(taxReturn(FilingStatus.SINGLE, State.AL, State.AK, State.AZ, State.WY)));
+    }
+
+    private static TaxReturnDto taxReturn(FilingStatus filingStatus, State... w2States) {
+        TaxReturnDto taxReturn = new TaxReturnDto();
+        taxReturn.setFilingStatus(filingStatus);
+        List<W2Dto> w2s = Arrays.stream(w2States).map(state -> {
+            W2Dto w2 = new W2Dto();
+            w2.setState(state);
+            return w2;
+        }).toList();
+        taxReturn.setW2s(w2s);
+        return taxReturn;
+    }
+}
@@ -0,0 +1,188 @@
+package com.skillstorm.taxservice.calculation;
+
+import static com.skillstorm.taxservice.calculation.ReferenceDataFixture.credits;
+import static com.skillstorm.taxservice.calculation.ReferenceDataFixture.deduction;
+import static com.skillstorm.taxservice.calculation.ReferenceDataFixture.w2;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.OtherIncomeDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.services.TaxCalculatorService;
+import com.skillstorm.taxservice.services.TaxReferenceDataService;
+
+@ExtendWith(MockitoExtension.class)
+class CalculationStageTest {
+
+    @Mock
+    private TaxReferenceDataService taxReferenceDataService;
+
+    private TaxCalculatorService taxCalculatorService;
+
+    @BeforeEach
+    void setUp() {
+        taxCalculatorService = spy(new TaxCalculatorService(taxReferenceDataService, "bigdecimal"));
+    }
+
+    // A stored return with something for every stage to do:
+    private static TaxReturnDto taxReturn() {
+        TaxReturnDto taxReturn = new TaxReturnDto();
+        taxReturn.setId(7);
+        taxReturn.setFilingStatus(FilingStatus.MARRIED_FILING_JOINTLY);
+        taxReturn.setState(State.CA);
+        taxReturn.setYear(2023);
+        taxReturn.setDateOfBirth("1968-09-30");
+        taxReturn.setW2s(List.of(
+                w2(State.CA, "61234.50", "7000.00", "2100.00"),
+                w2(State.AZ, "18000.00", "1500.00", "400.00")));
+        taxReturn.setDeductions(List.of(
+                deduction(1, false, "4200.00"),
+                deduction(6, true, "9000.00"),
+                deduction(7, true, "16400.00")));
+        OtherIncomeDto otherIncome = new OtherIncomeDto();
+        otherIncome.setLongTermCapitalGains(new BigDecimal("5200.00"));
+        otherIncome.setShortTermCapitalGains(new BigDecimal("800.00"));
+        taxReturn.setOtherIncome(otherIncome);
+        taxReturn.setTaxCredit(credits(2, 1, 2, "3000.00", "2500.00", "1000.00", "1200.00"));
+        return taxReturn;
+    }
+
+    // Calculate the return, edit it, recalculate it incrementally and check the result matches a full calculation
+    // of the edited return:
+    private TaxReturnDto assertRecalculationMatches(Consumer<TaxReturnDto> edit) {
+        taxCalculatorService.calculateAll(taxReturn());
+        clearInvocations(taxCalculatorService);
+
+        TaxReturnDto edited = taxReturn();
+        edit.accept(edited);
+        TaxReturnDto actual = taxCalculatorService.calculateAll(edited);
+
+        TaxReturnDto fullCalculation = taxReturn();
+        edit.accept(fullCalculation);
+        TaxReturnDto expected = new TaxCalculatorService(taxReferenceDataService, "bigdecimal").calculateAllBigDecimal(fullCalculation);
+
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    @Test
+    void affectedBy_TaxCredit_OnlyCreditStages() {
+        assertEquals(EnumSet.of(CalculationStage.NON_REFUNDABLE_CREDITS, CalculationStage.REFUNDABLE_CREDITS),
+                CalculationStage.affectedBy(List.of(CalculationInput.TAX_CREDIT)));
+    }
+
+    @Test
+    void affectedBy_W2s_EveryStage() {
+        assertEquals(EnumSet.allOf(CalculationStage.class), CalculationStage.affectedBy(List.of(CalculationInput.W2S)));
+    }
+
+    @Test
+    void affectedBy_State_OnlyStateTax() {
+        assertEquals(EnumSet.of(CalculationStage.STATE_TAX), CalculationStage.affectedBy(List.of(CalculationInput.STATE)));
+    }
+
+    @Test
+    void affectedBy_NothingChanged_NoStages() {
+        assertTrue(CalculationStage.affectedBy(List.of()).isEmpty());
+    }
+
+    @Test
+    void stages_DeclaredAfterTheirDependencies() {
+        for (CalculationStage stage : CalculationStage.values()) {
+            for (CalculationStage dependency : stage.getDependencies()) {
+                assertTrue(dependency.ordinal() < stage.ordinal(), stage + " depends on " + dependency);
+            }
+        }
+    }
+
+    @Test
+    void calculateAll_TaxCreditEdited_RerunsOnlyCredits() {
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(ReferenceDataFixture.snapshot());
+
+        assertRecalculationMatches(taxReturn -> taxReturn.getTaxCredit().setChildCareExpenses(new BigDecimal("4500.00")));
+
+        verify(taxCalculatorService, never()).calculateTotalIncome(any());
+        verify(taxCalculatorService, never()).calculateAgi(any());
+        verify(taxCalculatorService, never()).calculateFederalTaxes(any());
+        verify(taxCalculatorService, never()).calculateStateTaxes(any());
+        verify(taxCalculatorService, times(1)).calculateNonRefundableTaxCredits(any());
+        verify(taxCalculatorService, times(1)).calculateRefundableTaxCredits(any());
+    }
+
+    @Test
+    void calculateAll_DeductionEdited_RerunsFromAgi() {
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(ReferenceDataFixture.snapshot());
+
+        assertRecalculationMatches(taxReturn -> taxReturn.getDeductions().get(2).setAmountSpent(new BigDecimal("21000.00")));
+
+        verify(taxCalculatorService, never()).calculateTotalIncome(any());
+        verify(taxCalculatorService, never()).calculateStateTaxes(any());
+        verify(taxCalculatorService, times(1)).calculateAgi(any());
+        verify(taxCalculatorService, times(1)).calculateFederalTaxes(any());
+        verify(taxCalculatorService, times(1)).calculateRefundableTaxCredits(any());
+    }
+
+    @Test
+    void calculateAll_StateEdited_RerunsOnlyStateTax() {
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(ReferenceDataFixture.snapshot());
+
+        assertRecalculationMatches(taxReturn -> taxReturn.setState(State.AL));
+
+        verify(taxCalculatorService, times(1)).calculateStateTaxes(any());
+        verify(taxCalculatorService, never()).calculateFederalTaxes(any());
+        verify(taxCalculatorService, never()).calculateNonRefundableTaxCredits(any());
+    }
+
+    @Test
+    void calculateAll_WagesEdited_RerunsEverything() {
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(ReferenceDataFixture.snapshot());
+
+        assertRecalculationMatches(taxReturn -> taxReturn.getW2s().get(0).setWages(new BigDecimal("75000.00")));
+
+        verify(taxCalculatorService, times(1)).calculateTotalIncome(any());
+        verify(taxCalculatorService, times(1)).calculateStateTaxes(any());
+        verify(taxCalculatorService, times(1)).calculateRefundableTaxCredits(any());
+    }
+
+    @Test
+    void calculateAll_NothingEdited_RerunsNothing() {
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(ReferenceDataFixture.snapshot());
+
+        assertRecalculationMatches(taxReturn -> { });
+
+        verify(taxCalculatorService, never()).calculateTotalIncome(any());
+        verify(taxCalculatorService, never()).calculateRefundableTaxCredits(any());
+    }
+
+    @Test
+    void calculateAll_ReferenceDataReloaded_RerunsEverything() {
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(ReferenceDataFixture.snapshot(), ReferenceDataFixture.snapshot());
+
+        taxCalculatorService.calculateAll(taxReturn());
+        taxCalculatorService.calculateAll(taxReturn());
+
+        verify(taxCalculatorService, times(2)).calculateTotalIncome(any());
+        verify(taxCalculatorService, times(2)).calculateRefundableTaxCredits(any());
+    }
+}
@@ -0,0 +1,57 @@
+package com.skillstorm.taxservice.calculation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.models.Deduction;
+
+class DeductionRuleTest {
+
+    // Rows as in data.sql:
+    private final DeductionRule healthSavings = new DeductionRule(
+            new Deduction(1, "Health Savings Account", new BigDecimal("3850.000"), false, 2, 50, 0, 1000));
+    private final DeductionRule iraContributions = new DeductionRule(
+            new Deduction(2, "IRA Contributions", new BigDecimal("6500.000"), false, 1, 0, 1000, 0));
+    private final DeductionRule charitableContributions = new DeductionRule(
+            new Deduction(8, "Charitable Contributions", new BigDecimal("0.600"), true));
+
+    @Test
+    void getAgiLimit_NoAdjustmentsApply_ReturnsBaseLimit() {
+        assertEquals(new BigDecimal("3850.000"), healthSavings.getAgiLimit(FilingStatus.SINGLE, AgeBand.FROM_50));
+        assertEquals(new BigDecimal("6500.000"), iraContributions.getAgiLimit(FilingStatus.MARRIED_FILING_JOINTLY, AgeBand.UNDER_50));
+    }
+
+    @Test
+    void getAgiLimit_MarriedFilingJointly_AppliesJointAdjustment() {
+        assertEquals(new BigDecimal("7750.000"), healthSavings.getAgiLimit(FilingStatus.MARRIED_FILING_JOINTLY, AgeBand.UNDER_50));
+        assertEquals(new BigDecimal("3850.000"), healthSavings.getAgiLimit(FilingStatus.MARRIED_FILING_SEPARATELY, AgeBand.UNDER_50));
+    }
+
+    @Test
+    void getAgiLimit_AgeBands_AddUp() {
+        assertEquals(new BigDecimal("8750.000"), healthSavings.getAgiLimit(FilingStatus.MARRIED_FILING_JOINTLY, AgeBand.FROM_55));
+        assertEquals(new BigDecimal("7500.000"), iraContributions.getAgiLimit(FilingStatus.SINGLE, AgeBand.FROM_50));
+        assertEquals(new BigDecimal("7500.000"), iraContributions.getAgiLimit(FilingStatus.SINGLE, AgeBand.FROM_55));
+    }
+
+    @Test
+    void getAgiLimit_ItemizedWithoutAdjustments_KeepsRate() {
+        for (FilingStatus filingStatus : FilingStatus.values()) {
+            for (AgeBand ageBand : AgeBand.values()) {
+                assertEquals(new BigDecimal("0.600"), charitableContributions.getAgiLimit(filingStatus, ageBand));
+            }
+        }
+    }
+
+    @Test
+    void ageBandOf_UsesAgeAtEndOfTaxYear() {
+        assertEquals(AgeBand.FROM_50, AgeBand.of("1974-12-31", 2024));
+        assertEquals(AgeBand.UNDER_50, AgeBand.of("1975-01-01", 2024));
+        assertEquals(AgeBand.FROM_55, AgeBand.of("1969-06-15", 2024));
+        assertEquals(AgeBand.UNDER_50, AgeBand.of(null, 2024));
+    }
+}
@@ -0,0 +1,252 @@
+package com.skillstorm.taxservice.calculation;
+
+import static com.skillstorm.taxservice.calculation.ReferenceDataFixture.credits;
+import static com.skillstorm.taxservice.calculation.ReferenceDataFixture.deduction;
+import static com.skillstorm.taxservice.calculation.ReferenceDataFixture.w2;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.skillstorm.taxservice.constants.CalculationEngine;
+import com.skillstorm.taxservice.constants.CurveInput;
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.OtherIncomeDto;
+import com.skillstorm.taxservice.dtos.RefundCurveDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.services.TaxCalculatorService;
+import com.skillstorm.taxservice.services.TaxReferenceDataService;
+
+// Runs the same returns through both calculation engines and checks the fixed-point results against the BigDecimal
+// ones, against the reference data in ReferenceDataFixture:
+@ExtendWith(MockitoExtension.class)
+class FixedPointTaxEngineTest {
+
+    @Mock
+    private TaxReferenceDataService taxReferenceDataService;
+
+    private TaxCalculatorService taxCalculatorService;
+
+    @BeforeEach
+    void setUp() {
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(ReferenceDataFixture.snapshot());
+        taxCalculatorService = new TaxCalculatorService(taxReferenceDataService, "fixed-point");
+    }
+
+    // Each engine gets its own copy of the return, since both write their results into it:
+    private void assertEnginesAgree(Supplier<TaxReturnDto> taxReturn) {
+        TaxReturnDto expected = taxCalculatorService.calculateAllBigDecimal(taxReturn.get());
+        TaxReturnDto actual = taxCalculatorService.calculateAllFixedPoint(taxReturn.get());
+
+        assertEquals(expected.getTotalIncome(), actual.getTotalIncome());
+        assertEquals(expected.getAdjustedGrossIncome(), actual.getAdjustedGrossIncome());
+        assertEquals(expected.getTaxableIncome(), actual.getTaxableIncome());
+        assertEquals(expected.getFedTaxWithheld(), actual.getFedTaxWithheld());
+        assertEquals(expected.getStateTaxWithheld(), actual.getStateTaxWithheld());
+        assertEquals(expected.getSocialSecurityTaxWithheld(), actual.getSocialSecurityTaxWithheld());
+        assertEquals(expected.getMedicareTaxWithheld(), actual.getMedicareTaxWithheld());
+        assertEquals(expected.getTotalCredits(), actual.getTotalCredits());
+        assertEquals(expected.getFederalRefund(), actual.getFederalRefund());
+        assertEquals(expected.getStateRefund(), actual.getStateRefund());
+    }
+
+    @Test
+    void calculateAll_DefaultValues_MatchesBigDecimal() {
+        assertEnginesAgree(TaxReturnDto::new);
+    }
+
+    @Test
+    void calculateAll_WagesInSeveralStates_MatchesBigDecimal() {
+        assertEnginesAgree(() -> {
+            TaxReturnDto taxReturn = new TaxReturnDto();
+            taxReturn.setState(State.CA);
+            taxReturn.setW2s(List.of(
+                    w2(State.CA, "84321.17", "12000.00", "4100.33"),
+                    w2(State.AZ, "20000.01", "2500.50", "480.00"),
+                    w2(State.CA, "1234.56", "0.00", "12.34")));
+            return taxReturn;
+        });
+    }
+
+    @Test
+    void calculateAll_OtherIncomeOutsideW2States_MatchesBigDecimal() {
+        assertEnginesAgree(() -> {
+            TaxReturnDto taxReturn = new TaxReturnDto();
+            taxReturn.setState(State.AL);
+            taxReturn.setW2s(List.of(w2(State.AZ, "152000.00", "30000.00", "3800.00")));
+            OtherIncomeDto otherIncome = new OtherIncomeDto();
+            otherIncome.setLongTermCapitalGains(new BigDecimal("48250.75"));
+            otherIncome.setShortTermCapitalGains(new BigDecimal("1200.40"));
+            otherIncome.setOtherInvestmentIncome(new BigDecimal("310.09"));
+            otherIncome.setNetBusinessIncome(new BigDecimal("9000.00"));
+            otherIncome.setAdditionalIncome(new BigDecimal("77.77"));
+            taxReturn.setOtherIncome(otherIncome);
+            return taxReturn;
+        });
+    }
+
+    @Test
+    void calculateAll_DeductionsAndItemizing_MatchesBigDecimal() {
+        assertEnginesAgree(() -> {
+            TaxReturnDto taxReturn = new TaxReturnDto();
+            taxReturn.setFilingStatus(FilingStatus.MARRIED_FILING_JOINTLY);
+            taxReturn.setYear(2023);
+            taxReturn.setDateOfBirth("1965-03-14");
+            taxReturn.setW2s(List.of(w2(State.AL, "98765.43", "15000.00", "3000.00")));
+            taxReturn.setDeductions(List.of(
+                    deduction(1, false, "9000.00"),
+                    deduction(2, false, "4000.00"),
+                    deduction(4, false, "250.25"),
+                    deduction(6, true, "10000.00"),
+                    deduction(7, true, "18400.50")));
+            return taxReturn;
+        });
+    }
+
+    @Test
+    void calculateAll_LowIncomeWithEveryCredit_MatchesBigDecimal() {
+        assertEnginesAgree(() -> {
+            TaxReturnDto taxReturn = new TaxReturnDto();
+            taxReturn.setW2s(List.of(w2(State.AL, "31250.55", "1800.00", "900.00")));
+            taxReturn.setTaxCredit(credits(2, 1, 2, "4500.00", "3100.00", "2500.00", "1500.00"));
+            return taxReturn;
+        });
+    }
+
+    @Test
+    void calculateAll_ChildTaxCreditPhaseout_MatchesBigDecimal() {
+        // The phaseout rounds the AGI excess / 1000 at the AGI's scale, so check both two and three decimals:
+        for (String wages : new String[] {"213456.78", "213456.789", "213499"}) {
+            assertEnginesAgree(() -> {
+                TaxReturnDto taxReturn = new TaxReturnDto();
+                taxReturn.setW2s(List.of(w2(State.AZ, wages, "60000.00", "5000.00")));
+                taxReturn.setTaxCredit(credits(3, 0, 0, "0", "0", "0", "0"));
+                return taxReturn;
+            });
+        }
+    }
+
+    @Test
+    void calculateAll_EducationCredits_MatchesBigDecimal() {
+        for (FilingStatus filingStatus : new FilingStatus[] {FilingStatus.SINGLE, FilingStatus.MARRIED_FILING_SEPARATELY}) {
+            assertEnginesAgree(() -> {
+                TaxReturnDto taxReturn = new TaxReturnDto();
+                taxReturn.setFilingStatus(filingStatus);
+                taxReturn.setW2s(List.of(w2(State.AL, "92500.00", "9000.00", "3500.00")));
+                taxReturn.setTaxCredit(credits(0, 3, 0, "0", "10000.01", "12000.00", "0"));
+                return taxReturn;
+            });
+        }
+    }
+
+    @Test
+    void calculateAllFixedPoint_InexactInput_ThrowsArithmeticException() {
+        TaxReturnDto taxReturn = new TaxReturnDto();
+        taxReturn.setW2s(List.of(w2(State.AL, "50000.0001", "5000.00", "1000.00")));
+
+        assertThrows(ArithmeticException.class, () -> taxCalculatorService.calculateAllFixedPoint(taxReturn));
+        assertEquals(BigDecimal.ZERO.setScale(2), taxReturn.getFederalRefund());
+    }
+
+    @Test
+    void calculateAll_InexactInput_FallsBackToBigDecimal() {
+        Supplier<TaxReturnDto> taxReturn = () -> {
+            TaxReturnDto result = new TaxReturnDto();
+            result.setW2s(List.of(w2(State.AL, "50000.0001", "5000.00", "1000.00")));
+            return result;
+        };
+
+        TaxReturnDto expected = taxCalculatorService.calculateAllBigDecimal(taxReturn.get());
+        TaxReturnDto actual = taxCalculatorService.calculateAll(taxReturn.get());
+
+        assertEquals(CalculationEngine.FIXED_POINT, taxCalculatorService.getCalculationEngine());
+        assertEquals(expected.getTotalIncome(), actual.getTotalIncome());
+        assertEquals(expected.getFederalRefund(), actual.getFederalRefund());
+        assertEquals(expected.getStateRefund(), actual.getStateRefund());
+    }
+
+    // Each point of the curve should be the refund the BigDecimal calculation gives a fresh copy of the return with
+    // the input set to that value:
+    private void assertCurveMatchesBigDecimal(Supplier<TaxReturnDto> taxReturn, CurveInput input, long[] valuesCents) {
+        RefundCurveDto curve = taxCalculatorService.calculateRefundCurve(taxReturn.get(), input, valuesCents);
+
+        assertEquals(input, curve.getInput());
+        assertEquals(valuesCents.length, curve.getFederalRefunds().length);
+        for (int i = 0; i < valuesCents.length; i++) {
+            BigDecimal value = BigDecimal.valueOf(valuesCents[i], 2);
+            TaxReturnDto expected = taxReturn.get();
+            if (input == CurveInput.ADDITIONAL_INCOME) {
+                expected.getOtherIncome().setAdditionalIncome(value);
+            } else {
+                expected.getTaxCredit().setIraContributions(value);
+            }
+            taxCalculatorService.calculateAllBigDecimal(expected);
+
+            assertEquals(value.doubleValue(), curve.getValues()[i]);
+            assertEquals(expected.getFederalRefund().doubleValue(), curve.getFederalRefunds()[i]);
+            assertEquals(expected.getStateRefund().setScale(2, RoundingMode.HALF_UP).doubleValue(), curve.getStateRefunds()[i]);
+        }
+    }
+
+    @Test
+    void calculateRefundCurve_AdditionalIncome_MatchesBigDecimal() {
+        assertCurveMatchesBigDecimal(() -> {
+            TaxReturnDto taxReturn = new TaxReturnDto();
+            taxReturn.setState(State.CA);
+            taxReturn.setW2s(List.of(w2(State.CA, "28400.10", "2100.00", "700.00"), w2(State.AZ, "6100.00", "300.00", "90.00")));
+            taxReturn.setDeductions(List.of(deduction(1, false, "3000.00"), deduction(7, true, "9100.25")));
+            OtherIncomeDto otherIncome = new OtherIncomeDto();
+            otherIncome.setLongTermCapitalGains(new BigDecimal("2500.00"));
+            taxReturn.setOtherIncome(otherIncome);
+            taxReturn.setTaxCredit(credits(2, 1, 2, "4500.00", "3100.00", "2500.00", "1500.00"));
+            return taxReturn;
+        }, CurveInput.ADDITIONAL_INCOME, new long[] {0, 123456, 1500000, 4000001, 25000000});
+    }
+
+    @Test
+    void calculateRefundCurve_IraContributions_MatchesBigDecimal() {
+        assertCurveMatchesBigDecimal(() -> {
+            TaxReturnDto taxReturn = new TaxReturnDto();
+            taxReturn.setFilingStatus(FilingStatus.MARRIED_FILING_JOINTLY);
+            taxReturn.setW2s(List.of(w2(State.AL, "41000.00", "2600.00", "1100.00")));
+            taxReturn.setTaxCredit(credits(1, 0, 1, "1200.00", "0", "0", "0"));
+            return taxReturn;
+        }, CurveInput.IRA_CONTRIBUTIONS, new long[] {0, 50000, 99999, 200000, 400000});
+    }
+
+    @Test
+    void calculateRefundCurve_WithoutOtherIncome_StartsFromEmptyOtherIncome() {
+        TaxReturnDto taxReturn = new TaxReturnDto();
+        taxReturn.setW2s(List.of(w2(State.AZ, "52000.00", "6000.00", "1300.00")));
+
+        RefundCurveDto curve = taxCalculatorService.calculateRefundCurve(taxReturn, CurveInput.ADDITIONAL_INCOME, new long[] {0, 1000000});
+
+        TaxReturnDto expected = new TaxReturnDto();
+        expected.setW2s(List.of(w2(State.AZ, "52000.00", "6000.00", "1300.00")));
+        taxCalculatorService.calculateAllBigDecimal(expected);
+        assertEquals(expected.getFederalRefund().doubleValue(), curve.getFederalRefunds()[0]);
+        assertEquals(expected.getStateRefund().setScale(2, RoundingMode.HALF_UP).doubleValue(), curve.getStateRefunds()[0]);
+    }
+
+    @Test
+    void calculateRefundCurve_InexactInput_FallsBackToBigDecimal() {
+        assertCurveMatchesBigDecimal(() -> {
+            TaxReturnDto taxReturn = new TaxReturnDto();
+            taxReturn.setW2s(List.of(w2(State.AL, "50000.0001", "5000.00", "1000.00")));
+            taxReturn.setOtherIncome(new OtherIncomeDto());
+            return taxReturn;
+        }, CurveInput.ADDITIONAL_INCOME, new long[] {0, 250000, 1000000});
+    }
+}
@@ -0,0 +1,53 @@
+package com.skillstorm.taxservice.calculation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class FixedPointTest {
+
+    @Test
+    void toMills_ExactValue_ConvertsWithoutRounding() {
+        assertEquals(12_345_678L, FixedPoint.toMills(new BigDecimal("12345.678")));
+        assertEquals(75L, FixedPoint.toMills(new BigDecimal("0.075")));
+        assertEquals(5_000L, FixedPoint.toMills(new BigDecimal("5.0000")));
+    }
+
+    @Test
+    void toMills_MoreThanThreeDecimals_ThrowsArithmeticException() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.toMills(new BigDecimal("0.0001")));
+    }
+
+    @Test
+    void ppmOrUnsupported_InexactRate_ReturnsUnsupported() {
+        assertEquals(25_000L, FixedPoint.ppmOrUnsupported(new BigDecimal("0.025")));
+        assertEquals(FixedPoint.UNSUPPORTED, FixedPoint.ppmOrUnsupported(new BigDecimal("0.0000001")));
+        assertEquals(FixedPoint.UNSUPPORTED, FixedPoint.ppmOrUnsupported(null));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.requirePpm(FixedPoint.UNSUPPORTED));
+    }
+
+    @Test
+    void roundDiv_RoundsHalfAwayFromZero() {
+        assertEquals(2, FixedPoint.roundDiv(15, 10));
+        assertEquals(1, FixedPoint.roundDiv(14, 10));
+        assertEquals(-2, FixedPoint.roundDiv(-15, 10));
+        assertEquals(-1, FixedPoint.roundDiv(-14, 10));
+        assertEquals(0, FixedPoint.roundDiv(0, 10));
+    }
+
+    @Test
+    void nanosTimesRate_InexactProduct_ThrowsArithmeticException() {
+        assertEquals(750_000_000L, FixedPoint.nanosTimesRate(1_000_000_000L, 750_000L));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.nanosTimesRate(1L, 750_000L));
+    }
+
+    @Test
+    void nanosToDollars_RoundsToCents() {
+        assertEquals(new BigDecimal("1.24"), FixedPoint.nanosToDollars(1_235_000_000L));
+        assertEquals(new BigDecimal("-1.24"), FixedPoint.nanosToDollars(-1_235_000_000L));
+        assertEquals(new BigDecimal("0.00"), FixedPoint.nanosToDollars(4_999_999L));
+    }
+}
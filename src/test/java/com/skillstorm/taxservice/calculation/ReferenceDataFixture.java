@@ -0,0 +1,175 @@
+package com.skillstorm.taxservice.calculation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.TaxReturnCreditDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDeductionDto;
+import com.skillstorm.taxservice.dtos.W2Dto;
+import com.skillstorm.taxservice.models.CapitalGainsTax;
+import com.skillstorm.taxservice.models.Deduction;
+import com.skillstorm.taxservice.models.StandardDeduction;
+import com.skillstorm.taxservice.models.StateTax;
+import com.skillstorm.taxservice.models.TaxBracket;
+import com.skillstorm.taxservice.models.taxcredits.ChildTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCreditLimit;
+import com.skillstorm.taxservice.models.taxcredits.EarnedIncomeTaxCredit;
+import com.skillstorm.taxservice.models.taxcredits.EducationTaxCreditAotc;
+import com.skillstorm.taxservice.models.taxcredits.EducationTaxCreditLlc;
+import com.skillstorm.taxservice.models.taxcredits.SaversTaxCredit;
+
+// Reference data and return parts shared by the calculation tests. The reference data is the subset of data.sql the
+// test returns touch:
+final class ReferenceDataFixture {
+
+    // deduction.not.found in SystemMessages.properties:
+    static final String DEDUCTION_NOT_FOUND = "No Deduction exists with ID:";
+
+    private ReferenceDataFixture() {
+    }
+
+    static TaxReferenceSnapshot snapshot() {
+        ChildTaxCredit childJoint = new ChildTaxCredit(1, 2000, 500, 400000, new BigDecimal("0.05"), true, 1600, new BigDecimal("1.00"));
+        ChildTaxCredit childOther = new ChildTaxCredit(2, 2000, 500, 200000, new BigDecimal("0.05"), true, 1600, new BigDecimal("1.00"));
+        EarnedIncomeTaxCredit eitcJoint = new EarnedIncomeTaxCredit(1, 63398, 59478, 53120, 24210, 7430, 6604, 3995, 600, 11000, true, 0, new BigDecimal("1.00"));
+        EarnedIncomeTaxCredit eitcOther = new EarnedIncomeTaxCredit(2, 56838, 52918, 46560, 17640, 7430, 6604, 3995, 600, 11000, true, 0, new BigDecimal("1.00"));
+        EducationTaxCreditAotc aotcJoint = new EducationTaxCreditAotc(1, 160000, 20000, new BigDecimal("0.75"), 2500, 2000, 2000, new BigDecimal("0.40"), true, 1000, new BigDecimal("0.4"));
+        EducationTaxCreditAotc aotcOther = new EducationTaxCreditAotc(2, 80000, 10000, new BigDecimal("0.75"), 2500, 2000, 2000, new BigDecimal("0.40"), true, 1000, new BigDecimal("0.4"));
+        EducationTaxCreditLlc llcJoint = new EducationTaxCreditLlc(1, 160000, 20000, new BigDecimal("0.75"), 2000, 10000, new BigDecimal("0.20"), false);
+        EducationTaxCreditLlc llcOther = new EducationTaxCreditLlc(2, 80000, 20000, new BigDecimal("0.75"), 2000, 10000, new BigDecimal("0.20"), false);
+        SaversTaxCredit saversJoint = new SaversTaxCredit(1, 43500, 3999, 25499, new BigDecimal("0.5"), new BigDecimal("0.2"), new BigDecimal("0.1"), 2000, false);
+        SaversTaxCredit saversOther = new SaversTaxCredit(3, 21750, 1999, 12749, new BigDecimal("0.5"), new BigDecimal("0.2"), new BigDecimal("0.1"), 2000, false);
+
+        com.skillstorm.taxservice.models.FilingStatus single = filingStatus(1, "Single", childOther, eitcOther, aotcOther, llcOther, saversOther);
+        com.skillstorm.taxservice.models.FilingStatus joint = filingStatus(2, "Married filing jointly", childJoint, eitcJoint, aotcJoint, llcJoint, saversJoint);
+        com.skillstorm.taxservice.models.FilingStatus separate = filingStatus(3, "Married filing separately", childOther, eitcOther, aotcOther, llcOther, saversOther);
+
+        List<TaxBracket> taxBrackets = new ArrayList<>();
+        int[] singleBounds = {0, 11000, 11001, 44725, 44726, 95375, 95376, 182100, 182101, 231250, 231251, 578125, 578126, Integer.MAX_VALUE};
+        int[] jointBounds = {0, 22000, 22001, 89450, 89451, 190750, 190751, 364200, 364201, 462500, 462501, 693750, 693751, Integer.MAX_VALUE};
+        String[] rates = {"0.10", "0.12", "0.22", "0.24", "0.32", "0.35", "0.37"};
+        for (int i = 0; i < rates.length; i++) {
+            taxBrackets.add(new TaxBracket(taxBrackets.size() + 1, single, new BigDecimal(rates[i]), singleBounds[2 * i], singleBounds[2 * i + 1]));
+            taxBrackets.add(new TaxBracket(taxBrackets.size() + 1, joint, new BigDecimal(rates[i]), jointBounds[2 * i], jointBounds[2 * i + 1]));
+            taxBrackets.add(new TaxBracket(taxBrackets.size() + 1, separate, new BigDecimal(rates[i]), singleBounds[2 * i], singleBounds[2 * i + 1]));
+        }
+
+        com.skillstorm.taxservice.models.State alabama = state(1);
+        com.skillstorm.taxservice.models.State arizona = state(3);
+        com.skillstorm.taxservice.models.State california = state(5);
+        List<StateTax> stateTaxes = new ArrayList<>(List.of(
+                new StateTax(1, alabama, 500, new BigDecimal("0.02"), 2023),
+                new StateTax(2, alabama, 2500, new BigDecimal("0.04"), 2023),
+                new StateTax(3, alabama, 0, new BigDecimal("0.05"), 2023),
+                new StateTax(4, arizona, 0, new BigDecimal("0.025"), 2023)));
+        int[] californiaRanges = {10412, 14272, 14275, 15122, 14269, 280787, 69824, 279310, 301729, 0};
+        String[] californiaRates = {"0.01", "0.02", "0.04", "0.06", "0.08", "0.093", "0.103", "0.113", "0.123", "0.133"};
+        for (int i = 0; i < californiaRanges.length; i++) {
+            stateTaxes.add(new StateTax(stateTaxes.size() + 1, california, californiaRanges[i], new BigDecimal(californiaRates[i]), 2023));
+        }
+
+        List<CapitalGainsTax> capitalGains = List.of(
+                new CapitalGainsTax(1, single, new BigDecimal("0.0"), 47025),
+                new CapitalGainsTax(2, single, new BigDecimal("0.15"), 471874),
+                new CapitalGainsTax(3, single, new BigDecimal("0.2"), 0),
+                new CapitalGainsTax(4, joint, new BigDecimal("0.0"), 94050),
+                new CapitalGainsTax(5, joint, new BigDecimal("0.15"), 489699),
+                new CapitalGainsTax(6, joint, new BigDecimal("0.2"), 0),
+                new CapitalGainsTax(7, separate, new BigDecimal("0.0"), 47025),
+                new CapitalGainsTax(8, separate, new BigDecimal("0.15"), 244824),
+                new CapitalGainsTax(9, separate, new BigDecimal("0.2"), 0));
+
+        List<StandardDeduction> standardDeductions = List.of(
+                standardDeduction(single, 12950), standardDeduction(joint, 25900), standardDeduction(separate, 12950));
+
+        List<DependentCareTaxCredit> dependentCare = new ArrayList<>();
+        dependentCare.add(new DependentCareTaxCredit(1, 15000, new BigDecimal("0.35"), 2023));
+        for (int rate = 34; rate >= 21; rate--) {
+            dependentCare.add(new DependentCareTaxCredit(dependentCare.size() + 1, 2000, BigDecimal.valueOf(rate, 2), 2023));
+        }
+        dependentCare.add(new DependentCareTaxCredit(dependentCare.size() + 1, 0, new BigDecimal("0.20"), 2023));
+
+        List<DependentCareTaxCreditLimit> dependentCareLimits = List.of(
+                new DependentCareTaxCreditLimit(1, 1, 3000, false, 2023),
+                new DependentCareTaxCreditLimit(2, 2, 6000, false, 2023));
+
+        List<Deduction> deductions = List.of(
+                new Deduction(1, "Health Savings Account", new BigDecimal("3850.000"), false, 2, 50, 0, 1000),
+                new Deduction(2, "IRA Contributions", new BigDecimal("6500.000"), false, 1, 0, 1000, 0),
+                new Deduction(3, "Student Loan Interest", new BigDecimal("90000.000"), false, 2, 5000, 0, 0),
+                new Deduction(4, "Educator Expenses", new BigDecimal("300.000"), false),
+                new Deduction(5, "Medical Expenses", new BigDecimal("0.075"), true),
+                new Deduction(6, "State and Local Taxes", new BigDecimal("1.000"), true),
+                new Deduction(7, "Mortgage Interest", new BigDecimal("1.000"), true),
+                new Deduction(8, "Charitable Contributions", new BigDecimal("0.600"), true));
+
+        return new TaxReferenceSnapshot(List.of(single, joint, separate), taxBrackets, stateTaxes, capitalGains,
+                standardDeductions, dependentCare, dependentCareLimits, deductions, DEDUCTION_NOT_FOUND);
+    }
+
+    private static com.skillstorm.taxservice.models.FilingStatus filingStatus(int id, String status, ChildTaxCredit child,
+                                                                               EarnedIncomeTaxCredit eitc, EducationTaxCreditAotc aotc,
+                                                                               EducationTaxCreditLlc llc, SaversTaxCredit savers) {
+        com.skillstorm.taxservice.models.FilingStatus filingStatus = new com.skillstorm.taxservice.models.FilingStatus();
+        filingStatus.setId(id);
+        filingStatus.setStatusCode(id);
+        filingStatus.setTaxYear(2023);
+        filingStatus.setStatus(status);
+        filingStatus.setChildTaxCredit(child);
+        filingStatus.setEarnedIncomeTaxCredit(eitc);
+        filingStatus.setEducationTaxCreditAotc(aotc);
+        filingStatus.setEducationTaxCreditLlc(llc);
+        filingStatus.setSaversTaxCredit(savers);
+        return filingStatus;
+    }
+
+    private static com.skillstorm.taxservice.models.State state(int id) {
+        com.skillstorm.taxservice.models.State state = new com.skillstorm.taxservice.models.State();
+        state.setId(id);
+        return state;
+    }
+
+    private static StandardDeduction standardDeduction(com.skillstorm.taxservice.models.FilingStatus filingStatus, int amount) {
+        StandardDeduction standardDeduction = new StandardDeduction();
+        standardDeduction.setFilingStatus(filingStatus);
+        standardDeduction.setDeductionAmount(amount);
+        return standardDeduction;
+    }
+
+    static W2Dto w2(State state, String wages, String federalWithheld, String stateWithheld) {
+        W2Dto w2 = new W2Dto();
+        w2.setState(state);
+        w2.setWages(new BigDecimal(wages));
+        w2.setFederalIncomeTaxWithheld(new BigDecimal(federalWithheld));
+        w2.setStateIncomeTaxWithheld(new BigDecimal(stateWithheld));
+        w2.setSocialSecurityTaxWithheld(new BigDecimal(wages).multiply(new BigDecimal("0.062")).setScale(2, RoundingMode.HALF_UP));
+        w2.setMedicareTaxWithheld(new BigDecimal(wages).multiply(new BigDecimal("0.0145")).setScale(2, RoundingMode.HALF_UP));
+        return w2;
+    }
+
+    static TaxReturnDeductionDto deduction(int id, boolean itemized, String amountSpent) {
+        TaxReturnDeductionDto deduction = new TaxReturnDeductionDto();
+        deduction.setDeduction(id);
+        deduction.setItemized(itemized);
+        deduction.setAmountSpent(new BigDecimal(amountSpent));
+        return deduction;
+    }
+
+    static TaxReturnCreditDto credits(int numDependents, int numDependentsAotc, int numChildren, String childCareExpenses,
+                                              String educationExpenses, String llcEducationExpenses, String iraContributions) {
+        TaxReturnCreditDto credit = new TaxReturnCreditDto();
+        credit.setNumDependents(numDependents);
+        credit.setNumDependentsAotc(numDependentsAotc);
+        credit.setNumChildren(numChildren);
+        credit.setChildCareExpenses(new BigDecimal(childCareExpenses));
+        credit.setEducationExpenses(new BigDecimal(educationExpenses));
+        credit.setLlcEducationExpenses(new BigDecimal(llcEducationExpenses));
+        credit.setClaimLlcCredit(true);
+        credit.setIraContributions(new BigDecimal(iraContributions));
+        return credit;
+    }
+}
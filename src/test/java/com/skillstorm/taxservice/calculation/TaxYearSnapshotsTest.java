@@ -0,0 +1,98 @@
+package com.skillstorm.taxservice.calculation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.exceptions.NotFoundException;
+import com.skillstorm.taxservice.models.StandardDeduction;
+import com.skillstorm.taxservice.models.StateTax;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCreditLimit;
+
+class TaxYearSnapshotsTest {
+
+    private static final String DEDUCTION_NOT_FOUND = ReferenceDataFixture.DEDUCTION_NOT_FOUND;
+
+    // Single filer's standard deduction for 2022 and 2024, Alabama's brackets for 2022 only, and a dependent care
+    // limit for 2023 only:
+    private final TaxYearSnapshots snapshots = new TaxYearSnapshots(
+            List.of(single(1, 2022), single(2, 2024)),
+            List.of(),
+            List.of(new StateTax(1, alabama(), 0, new BigDecimal("0.05"), 2022)),
+            List.of(),
+            List.of(standardDeduction(single(1, 2022), 12950), standardDeduction(single(2, 2024), 14600)),
+            List.of(),
+            List.of(new DependentCareTaxCreditLimit(1, 1, 3000, false, 2023)),
+            List.of(),
+            DEDUCTION_NOT_FOUND);
+
+    private static com.skillstorm.taxservice.models.FilingStatus single(int id, int year) {
+        com.skillstorm.taxservice.models.FilingStatus filingStatus = new com.skillstorm.taxservice.models.FilingStatus();
+        filingStatus.setId(id);
+        filingStatus.setStatusCode(FilingStatus.SINGLE.getValue());
+        filingStatus.setTaxYear(year);
+        filingStatus.setStatus("Single");
+        return filingStatus;
+    }
+
+    private static com.skillstorm.taxservice.models.State alabama() {
+        com.skillstorm.taxservice.models.State state = new com.skillstorm.taxservice.models.State();
+        state.setId(State.AL.getValue());
+        return state;
+    }
+
+    private static StandardDeduction standardDeduction(com.skillstorm.taxservice.models.FilingStatus filingStatus, int amount) {
+        StandardDeduction standardDeduction = new StandardDeduction();
+        standardDeduction.setFilingStatus(filingStatus);
+        standardDeduction.setDeductionAmount(amount);
+        return standardDeduction;
+    }
+
+    @Test
+    void get_EachYear_UsesThatYearsRows() {
+        assertEquals(BigDecimal.valueOf(12950), snapshots.get(2022).getStandardDeduction(FilingStatus.SINGLE));
+        assertEquals(BigDecimal.valueOf(14600), snapshots.get(2024).getStandardDeduction(FilingStatus.SINGLE));
+        assertEquals(2022, snapshots.get(2022).getFilingStatus(FilingStatus.SINGLE).getTaxYear());
+        assertEquals(2024, snapshots.get(2024).getFilingStatus(FilingStatus.SINGLE).getTaxYear());
+    }
+
+    @Test
+    void get_YearWithoutRows_CarriesEarlierYearForward() {
+        // 2023 has its own dependent care limit but no standard deduction, and 2024 has no state tax brackets:
+        assertEquals(BigDecimal.valueOf(12950), snapshots.get(2023).getStandardDeduction(FilingStatus.SINGLE));
+        assertEquals(3000, snapshots.get(2023).getDependentCareLimit(1).getCreditLimit());
+        assertEquals(3000, snapshots.get(2024).getDependentCareLimit(1).getCreditLimit());
+        assertEquals(0, new BigDecimal("50.00").compareTo(snapshots.get(2024).getStateSchedule(State.AL).taxFor(BigDecimal.valueOf(1000))));
+    }
+
+    @Test
+    void get_OutsideLoadedYears_ClampsToFirstAndLastYears() {
+        assertEquals(2022, snapshots.getFirstYear());
+        assertEquals(2024, snapshots.getLastYear());
+        assertSame(snapshots.get(2022), snapshots.get(1990));
+        assertSame(snapshots.get(2024), snapshots.get(2100));
+        assertNotSame(snapshots.get(2022), snapshots.get(2024));
+    }
+
+    @Test
+    void get_BeforeTablesFirstYear_UsesItsEarliestRows() {
+        // The dependent care limits start in 2023, so 2022 borrows them rather than having none:
+        assertEquals(3000, snapshots.get(2022).getDependentCareLimit(1).getCreditLimit());
+    }
+
+    @Test
+    void empty_AnyYear_BehavesAsEmptyTables() {
+        TaxYearSnapshots empty = TaxYearSnapshots.empty(DEDUCTION_NOT_FOUND);
+
+        assertSame(empty.get(2020), empty.get(2030));
+        assertThrows(NotFoundException.class, () -> empty.get(2023).getFilingStatus(FilingStatus.SINGLE));
+    }
+}
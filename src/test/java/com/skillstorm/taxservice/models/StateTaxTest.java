@@ -43,8 +43,8 @@ public class StateTaxTest {
     public void testEqualsAndHashCode() {
         // Given
         State state = new State();
-        StateTax stateTax1 = new StateTax(1, state, 50000, BigDecimal.valueOf(0.05));
-        StateTax stateTax2 = new StateTax(1, state, 50000, BigDecimal.valueOf(0.05));
+        StateTax stateTax1 = new StateTax(1, state, 50000, BigDecimal.valueOf(0.05), 2023);
+        StateTax stateTax2 = new StateTax(1, state, 50000, BigDecimal.valueOf(0.05), 2023);
 
         // Then
         assertThat(stateTax1).isEqualTo(stateTax2);
@@ -55,7 +55,7 @@ public class StateTaxTest {
     public void testToString() {
         // Given
         State state = new State();
-        StateTax stateTax = new StateTax(1, state, 50000, BigDecimal.valueOf(0.05));
+        StateTax stateTax = new StateTax(1, state, 50000, BigDecimal.valueOf(0.05), 2023);
 
         // When
         String taxString = stateTax.toString();
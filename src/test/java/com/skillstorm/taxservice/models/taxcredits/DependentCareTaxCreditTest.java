@@ -25,12 +25,13 @@ public class DependentCareTaxCreditTest {
         BigDecimal rate = BigDecimal.valueOf(0.20);
 
         // When
-        DependentCareTaxCredit credit = new DependentCareTaxCredit(id, incomeRange, rate);
+        DependentCareTaxCredit credit = new DependentCareTaxCredit(id, incomeRange, rate, 2023);
 
         // Then
         assertThat(credit.getId()).isEqualTo(id);
         assertThat(credit.getIncomeRange()).isEqualTo(incomeRange);
         assertThat(credit.getRate()).isEqualTo(rate);
+        assertThat(credit.getTaxYear()).isEqualTo(2023);
     }
 
     @Test
@@ -52,8 +53,8 @@ public class DependentCareTaxCreditTest {
     @Test
     public void testEqualsAndHashCode() {
         // Given
-        DependentCareTaxCredit credit1 = new DependentCareTaxCredit(1, 50000, BigDecimal.valueOf(0.20));
-        DependentCareTaxCredit credit2 = new DependentCareTaxCredit(1, 50000, BigDecimal.valueOf(0.20));
+        DependentCareTaxCredit credit1 = new DependentCareTaxCredit(1, 50000, BigDecimal.valueOf(0.20), 2023);
+        DependentCareTaxCredit credit2 = new DependentCareTaxCredit(1, 50000, BigDecimal.valueOf(0.20), 2023);
 
         // Then
         assertThat(credit1).isEqualTo(credit2);
@@ -63,7 +64,7 @@ public class DependentCareTaxCreditTest {
     @Test
     public void testToString() {
         // Given
-        DependentCareTaxCredit credit = new DependentCareTaxCredit(1, 50000, BigDecimal.valueOf(0.20));
+        DependentCareTaxCredit credit = new DependentCareTaxCredit(1, 50000, BigDecimal.valueOf(0.20), 2023);
 
         // When
         String creditString = credit.toString();
@@ -31,7 +31,7 @@ public class CapitalGainsTaxRepositoryTest {
         when(filingStatusRepository.findById(1)).thenReturn(java.util.Optional.of(filingStatus));
 
         // When
-        List<CapitalGainsTax> taxes = capitalGainsTaxRepository.findByFilingStatus_Id(1);
+        List<CapitalGainsTax> taxes = capitalGainsTaxRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(1, 2023);
 
         // Then
         assertThat(taxes).isNotNull();
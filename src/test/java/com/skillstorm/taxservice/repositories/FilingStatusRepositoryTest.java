@@ -2,13 +2,17 @@ package com.skillstorm.taxservice.repositories;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import com.skillstorm.taxservice.models.FilingStatus;
+import com.skillstorm.taxservice.models.TaxBracket;
 
 @DataJpaTest
 public class FilingStatusRepositoryTest {
@@ -16,29 +20,63 @@ public class FilingStatusRepositoryTest {
     @Autowired
     private FilingStatusRepository filingStatusRepository;
 
-    @Test
-    public void testFindByStatus() {
-        // Given
-        String status = "Single";
+    @Autowired
+    private TaxBracketRepository taxBracketRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
 
+    @Test
+    public void testFindByStatusCodeAndTaxYear() {
         // When
-        Optional<FilingStatus> filingStatusOptional = filingStatusRepository.findByStatus(status);
+        Optional<FilingStatus> filingStatusOptional = filingStatusRepository.findByStatusCodeAndTaxYear(1, 2023);
 
         // Then
         assertThat(filingStatusOptional).isPresent();
         FilingStatus filingStatus = filingStatusOptional.get();
-        assertThat(filingStatus.getStatus()).isEqualTo(status);
+        assertThat(filingStatus.getStatus()).isEqualTo("Single");
+        assertThat(filingStatus.getTaxYear()).isEqualTo(2023);
     }
 
     @Test
-    public void testFindByStatus_NotFound() {
-        // Given
-        String status = "NonExistentStatus";
-
+    public void testFindByStatusCodeAndTaxYear_NotFound() {
         // When
-        Optional<FilingStatus> filingStatusOptional = filingStatusRepository.findByStatus(status);
+        Optional<FilingStatus> filingStatusOptional = filingStatusRepository.findByStatusCodeAndTaxYear(1, 2015);
 
         // Then
         assertThat(filingStatusOptional).isNotPresent();
     }
+
+    @Test
+    public void testFindByStatusCodeAndTaxYear_TwoYears() {
+        // Given: a second year's Single filing status with a bracket of its own
+        FilingStatus single2023 = filingStatusRepository.findByStatusCodeAndTaxYear(1, 2023).orElseThrow();
+        FilingStatus single2024 = new FilingStatus();
+        single2024.setStatus("Single");
+        single2024.setStatusCode(1);
+        single2024.setTaxYear(2024);
+        single2024.setChildTaxCredit(single2023.getChildTaxCredit());
+        single2024.setEarnedIncomeTaxCredit(single2023.getEarnedIncomeTaxCredit());
+        single2024.setEducationTaxCreditAotc(single2023.getEducationTaxCreditAotc());
+        single2024.setEducationTaxCreditLlc(single2023.getEducationTaxCreditLlc());
+        single2024.setSaversTaxCredit(single2023.getSaversTaxCredit());
+        entityManager.persist(single2024);
+        entityManager.persist(new TaxBracket(0, single2024, new BigDecimal("0.10"), 0, 11600));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        FilingStatus found2023 = filingStatusRepository.findByStatusCodeAndTaxYear(1, 2023).orElseThrow();
+        FilingStatus found2024 = filingStatusRepository.findByStatusCodeAndTaxYear(1, 2024).orElseThrow();
+        List<TaxBracket> brackets2023 = taxBracketRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(1, 2023);
+        List<TaxBracket> brackets2024 = taxBracketRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(1, 2024);
+
+        // Then: each year gets its own row and only its own brackets
+        assertThat(found2023.getId()).isEqualTo(single2023.getId());
+        assertThat(found2024.getId()).isEqualTo(single2024.getId());
+        assertThat(brackets2023).isNotEmpty()
+                .allMatch(bracket -> bracket.getFilingStatus().getTaxYear() == 2023);
+        assertThat(brackets2024).hasSize(1);
+        assertThat(brackets2024.get(0).getMaxIncome()).isEqualTo(11600);
+    }
 }
@@ -0,0 +1,253 @@
+package com.skillstorm.taxservice.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.RefundDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDeductionDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.models.Deduction;
+import com.skillstorm.taxservice.models.OtherIncome;
+import com.skillstorm.taxservice.models.TaxReturn;
+import com.skillstorm.taxservice.models.TaxReturnCredit;
+import com.skillstorm.taxservice.models.TaxReturnDeduction;
+import com.skillstorm.taxservice.models.W2;
+import com.skillstorm.taxservice.services.TaxCalculatorService;
+import com.skillstorm.taxservice.services.TaxReferenceDataService;
+import com.skillstorm.taxservice.services.TaxReturnService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// Counts the statements Hibernate prepares to read a TaxReturn or its refund, or to store several of its components at
+// once, so a change to the fetch plan that brings back a lazy load per component, or an id strategy that stops inserts
+// from being batched, shows up here:
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({TaxReturnService.class, TaxCalculatorService.class, TaxReferenceDataService.class, SimpleMeterRegistry.class})
+public class TaxReturnRepositoryTest {
+
+    @Autowired
+    private TaxReturnRepository taxReturnRepository;
+
+    @Autowired
+    private W2Repository w2Repository;
+
+    @Autowired
+    private TaxReturnService taxReturnService;
+
+    @Autowired
+    private TaxReferenceDataService taxReferenceDataService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private int taxReturnId;
+
+    @BeforeEach
+    public void setUp() {
+        TaxReturn taxReturn = new TaxReturn();
+        taxReturn.setYear(2023);
+        taxReturn.setUserId(1);
+        taxReturn.setState(State.AL);
+        taxReturnId = entityManager.persistAndGetId(taxReturn, Integer.class);
+
+        for (String wages : new String[] {"52000.00", "8000.00"}) {
+            W2 w2 = new W2();
+            w2.setTaxReturn(taxReturn);
+            w2.setYear(2023);
+            w2.setUserId(1);
+            w2.setState(State.AL.getValue());
+            w2.setWages(new BigDecimal(wages));
+            w2.setFederalIncomeTaxWithheld(new BigDecimal("5000.00"));
+            w2.setStateIncomeTaxWithheld(new BigDecimal("1000.00"));
+            w2.setSocialSecurityTaxWithheld(new BigDecimal("3000.00"));
+            w2.setMedicareTaxWithheld(new BigDecimal("700.00"));
+            entityManager.persist(w2);
+        }
+
+        for (int deductionId : new int[] {1, 4}) {
+            TaxReturnDeduction deduction = new TaxReturnDeduction();
+            deduction.setTaxReturn(taxReturn);
+            deduction.setDeduction(entityManager.find(Deduction.class, deductionId));
+            deduction.setAmountSpent(new BigDecimal("250.00"));
+            entityManager.persist(deduction);
+        }
+
+        OtherIncome otherIncome = new OtherIncome();
+        otherIncome.setTaxReturn(taxReturn);
+        otherIncome.setLongTermCapitalGains(new BigDecimal("1000.00"));
+        otherIncome.setShortTermCapitalGains(BigDecimal.ZERO);
+        otherIncome.setOtherInvestmentIncome(BigDecimal.ZERO);
+        otherIncome.setNetBusinessIncome(BigDecimal.ZERO);
+        otherIncome.setAdditionalIncome(BigDecimal.ZERO);
+        entityManager.persist(otherIncome);
+
+        TaxReturnCredit taxCredit = new TaxReturnCredit();
+        taxCredit.setTaxReturn(taxReturn);
+        taxCredit.setNumDependents(1);
+        taxCredit.setChildCareExpenses(BigDecimal.ZERO);
+        taxCredit.setEducationExpenses(BigDecimal.ZERO);
+        taxCredit.setLlcEducationExpenses(BigDecimal.ZERO);
+        taxCredit.setIraContributions(BigDecimal.ZERO);
+        entityManager.persist(taxCredit);
+
+        // Load the reference data now so it isn't counted, then start every test from an empty persistence context:
+        taxReferenceDataService.getSnapshots();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindCompleteById_LoadsEveryComponentInTwoQueries() {
+        TaxReturnDto taxReturn = new TaxReturnDto(taxReturnRepository.findCompleteById(taxReturnId).orElseThrow());
+
+        assertThat(taxReturn.getW2s()).hasSize(2);
+        assertThat(taxReturn.getDeductions()).hasSize(2);
+        assertThat(taxReturn.getOtherIncome()).isNotNull();
+        assertThat(taxReturn.getTaxCredit()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFindCompleteById_NotFound() {
+        assertThat(taxReturnRepository.findCompleteById(-1)).isNotPresent();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindById_OutOfDateResults_LoadsAndStoresResults() {
+        // Two selects for the TaxReturn and one update for its recalculated results:
+        taxReturnService.findById(taxReturnId, 1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFindById_CurrentResults_OnlyLoads() {
+        taxReturnService.findById(taxReturnId, 1);
+        entityManager.clear();
+        statistics.clear();
+
+        taxReturnService.findById(taxReturnId, 1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testGetRefund_CurrentResults_ReadsOneRow() {
+        taxReturnService.findById(taxReturnId, 1);
+        entityManager.clear();
+        statistics.clear();
+
+        taxReturnService.getRefund(taxReturnId, 1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetRefund_OutOfDateResults_MatchesFindById() {
+        // One select for the TaxReturn columns, one each for the W2 totals and the deduction amounts, and one update:
+        RefundDto refund = taxReturnService.getRefund(taxReturnId, 1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+
+        // Recalculate the full TaxReturn and check the compact inputs gave the same refunds:
+        taxReturnRepository.incrementRevision(taxReturnId);
+        entityManager.clear();
+        TaxReturnDto taxReturn = taxReturnService.findById(taxReturnId, 1);
+        assertThat(taxReturn.getFederalRefund()).isEqualByComparingTo(refund.getFederalRefund());
+        assertThat(taxReturn.getStateRefund()).isEqualByComparingTo(refund.getStateRefund());
+    }
+
+    @Test
+    public void testUpdateTaxReturn_LeavesRevisionsToTheRepository() {
+        taxReturnService.findById(taxReturnId, 1);
+        taxReturnRepository.incrementRevision(taxReturnId);
+        entityManager.clear();
+
+        // The request body never carries the revisions, so saving it mustn't write them back:
+        TaxReturnDto updatedTaxReturn = new TaxReturnDto();
+        updatedTaxReturn.setYear(2023);
+        updatedTaxReturn.setUserId(1);
+        updatedTaxReturn.setFirstName("Updated");
+        taxReturnService.updateTaxReturn(taxReturnId, updatedTaxReturn);
+        entityManager.clear();
+
+        TaxReturn stored = taxReturnRepository.findById(taxReturnId).orElseThrow();
+        assertThat(stored.getFirstName()).isEqualTo("Updated");
+        assertThat(stored.getRevision()).isEqualTo(2);
+        assertThat(stored.getCalculatedRevision()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSubmitTaxReturn_CurrentResults_OnlyLoads() {
+        taxReturnService.findById(taxReturnId, 1);
+        entityManager.clear();
+        statistics.clear();
+
+        taxReturnService.submitTaxReturn(taxReturnId, 1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testInsertAll_SendsOneBatch() {
+        List<W2> w2s = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            W2 w2 = new W2();
+            w2.setTaxReturn(new TaxReturn(taxReturnId));
+            w2.setYear(2023);
+            w2.setUserId(1);
+            w2.setEmployer("Employer " + i);
+            w2.setWages(new BigDecimal("1000.00"));
+            w2s.add(w2);
+        }
+
+        int[] ids = w2Repository.insertAll(w2s);
+
+        // One insert for all ten, with ids from the block the sequence handed out in setUp:
+        assertThat(Arrays.stream(ids).distinct().filter(id -> id > 0).count()).isEqualTo(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(taxReturnRepository.findCompleteById(taxReturnId).orElseThrow().getW2s()).hasSize(12);
+    }
+
+    @Test
+    public void testClaimDeductions_SendsOneBatch() {
+        List<TaxReturnDeductionDto> deductions = new ArrayList<>();
+        for (int deductionId : new int[] {2, 3}) {
+            TaxReturnDeductionDto deduction = new TaxReturnDeductionDto();
+            deduction.setDeduction(deductionId);
+            deduction.setAmountSpent(new BigDecimal("100.00"));
+            deductions.add(deduction);
+        }
+
+        List<TaxReturnDeductionDto> claimed = taxReturnService.claimDeductions(taxReturnId, deductions);
+
+        // One insert for both deductions and one update of the revision:
+        assertThat(claimed).extracting(TaxReturnDeductionDto::getDeduction).containsExactly(2, 3);
+        assertThat(claimed).allMatch(deduction -> deduction.getId() > 0 && deduction.getTaxReturn() == taxReturnId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,290 @@
+package com.skillstorm.taxservice.services;
+
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.dtos.BatchCalculationRequestDto;
+import com.skillstorm.taxservice.dtos.BatchCalculationResultDto;
+import com.skillstorm.taxservice.dtos.FilingStatusComparisonDto;
+import com.skillstorm.taxservice.dtos.TaxReturnDto;
+import com.skillstorm.taxservice.exceptions.NotFoundException;
+import com.skillstorm.taxservice.exceptions.UnauthorizedException;
+import com.skillstorm.taxservice.models.TaxReturn;
+import com.skillstorm.taxservice.models.TaxReturnCredit;
+import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCalculationServiceTest {
+
+    @Mock private TaxReturnRepository taxReturnRepository;
+    @Mock private TaxCalculatorService taxCalculatorService;
+    @Mock private Environment environment;
+
+    private ExecutorService calculationExecutor;
+    private BatchCalculationService batchCalculationService;
+
+    @BeforeEach
+    void setUp() {
+        calculationExecutor = Executors.newFixedThreadPool(2);
+        batchCalculationService = new BatchCalculationService(taxReturnRepository, taxCalculatorService,
+                calculationExecutor, Validation.buildDefaultValidatorFactory().getValidator(), environment, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        calculationExecutor.shutdownNow();
+    }
+
+    private static TaxReturn storedTaxReturn(int id) {
+        TaxReturn taxReturn = new TaxReturn(id);
+        taxReturn.setUserId(1);
+        taxReturn.setYear(2023);
+        taxReturn.setFilingStatus(1);
+        return taxReturn;
+    }
+
+    private static BatchCalculationRequestDto request(List<Integer> ids, List<TaxReturnDto> taxReturns) {
+        BatchCalculationRequestDto request = new BatchCalculationRequestDto();
+        request.setIds(ids);
+        request.setTaxReturns(taxReturns);
+        return request;
+    }
+
+    private static List<BatchCalculationResultDto> join(List<CompletableFuture<BatchCalculationResultDto>> futures) {
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // Stored and inline TaxReturns are calculated and returned in request order:
+    @Test
+    void calculateBatch_ReturnsResultsInRequestOrder() {
+        when(taxReturnRepository.findAllForCalculation(Set.of(2, 1), 1))
+                .thenReturn(List.of(storedTaxReturn(1), storedTaxReturn(2)));
+        doAnswer(invocation -> {
+            TaxReturnDto taxReturnDto = invocation.getArgument(0);
+            taxReturnDto.setFederalRefund(BigDecimal.valueOf(taxReturnDto.getId()));
+            return null;
+        }).when(taxCalculatorService).calculateAll(any(TaxReturnDto.class));
+
+        // An inline TaxReturn carrying a stored TaxReturn's id is still calculated as unstored:
+        TaxReturnDto inline = new TaxReturnDto();
+        inline.setId(1);
+        inline.setYear(2023);
+
+        List<BatchCalculationResultDto> results = join(batchCalculationService.calculateBatch(
+                request(List.of(2, 1), List.of(inline)), 1));
+
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(0).getId());
+        assertEquals(BigDecimal.valueOf(2), results.get(0).getTaxReturn().getFederalRefund());
+        assertEquals(1, results.get(1).getId());
+        assertEquals(BigDecimal.valueOf(1), results.get(1).getTaxReturn().getFederalRefund());
+        assertNull(results.get(2).getId());
+        assertEquals(0, results.get(2).getIndex());
+        assertEquals(1, results.get(2).getTaxReturn().getUserId());
+        assertEquals(0, results.get(2).getTaxReturn().getId());
+        results.forEach(result -> assertNull(result.getError()));
+        verify(taxCalculatorService, times(3)).calculateAll(any(TaxReturnDto.class));
+    }
+
+    // Inline TaxReturns are validated like the simulate body, and missing W2s and deductions count as none:
+    @Test
+    void calculateBatch_InlineTaxReturns_ValidatedAndDefaulted() {
+        TaxReturnDto valid = new TaxReturnDto();
+        valid.setYear(2023);
+        TaxReturnDto invalid = new TaxReturnDto();
+        invalid.setYear(2023);
+        invalid.setZip("1234");
+
+        List<BatchCalculationResultDto> results = join(batchCalculationService.calculateBatch(
+                request(null, List.of(valid, invalid)), 1));
+
+        assertNull(results.get(0).getError());
+        assertEquals(List.of(), results.get(0).getTaxReturn().getW2s());
+        assertEquals(List.of(), results.get(0).getTaxReturn().getDeductions());
+        assertEquals(1, results.get(1).getIndex());
+        assertNull(results.get(1).getTaxReturn());
+        assertEquals(400, results.get(1).getError().getErrorCode());
+        verify(taxCalculatorService, times(1)).calculateAll(valid);
+    }
+
+    // Ids that don't exist or belong to another user get a not found error without failing the batch:
+    @Test
+    void calculateBatch_MissingId_ReturnsError() {
+        when(taxReturnRepository.findAllForCalculation(Set.of(1, 99), 1)).thenReturn(List.of(storedTaxReturn(1)));
+        when(environment.getProperty("taxreturn.not.found")).thenReturn("No Tax Return exists with ID:");
+
+        List<BatchCalculationResultDto> results = join(batchCalculationService.calculateBatch(
+                request(List.of(1, 99), null), 1));
+
+        assertNotNull(results.get(0).getTaxReturn());
+        assertNull(results.get(1).getTaxReturn());
+        assertEquals(400, results.get(1).getError().getErrorCode());
+        assertEquals("No Tax Return exists with ID: 99", results.get(1).getError().getMessage());
+    }
+
+    // A TaxReturn requested twice is loaded once and calculated into separate results:
+    @Test
+    void calculateBatch_DuplicateId_CalculatesEachOccurrence() {
+        when(taxReturnRepository.findAllForCalculation(Set.of(1), 1)).thenReturn(List.of(storedTaxReturn(1)));
+
+        List<BatchCalculationResultDto> results = join(batchCalculationService.calculateBatch(
+                request(List.of(1, 1), List.of()), 1));
+
+        assertEquals(2, results.size());
+        assertNotSame(results.get(0).getTaxReturn(), results.get(1).getTaxReturn());
+        verify(taxReturnRepository, times(1)).findAllForCalculation(any(), anyInt());
+    }
+
+    // Stored results calculated at the current revision are returned without recalculating:
+    @Test
+    void calculateBatch_CurrentStoredResults_SkipsCalculation() {
+        TaxReturn taxReturn = storedTaxReturn(1);
+        taxReturn.setRevision(2);
+        taxReturn.setCalculatedRevision(2);
+        taxReturn.setFederalRefund(new BigDecimal("250.00"));
+        when(taxReturnRepository.findAllForCalculation(Set.of(1), 1)).thenReturn(List.of(taxReturn));
+
+        List<BatchCalculationResultDto> results = join(batchCalculationService.calculateBatch(
+                request(List.of(1), List.of()), 1));
+
+        assertEquals(new BigDecimal("250.00"), results.get(0).getTaxReturn().getFederalRefund());
+        verifyNoInteractions(taxCalculatorService);
+    }
+
+    // A calculation that fails is reported on its own line:
+    @Test
+    void calculateBatch_CalculationFails_ReturnsServerError() {
+        doThrow(new IllegalStateException("boom")).when(taxCalculatorService).calculateAll(any(TaxReturnDto.class));
+        TaxReturnDto inline = new TaxReturnDto();
+        inline.setYear(2023);
+
+        List<BatchCalculationResultDto> results = join(batchCalculationService.calculateBatch(
+                request(List.of(), List.of(inline)), 1));
+
+        assertEquals(500, results.get(0).getError().getErrorCode());
+        assertEquals("boom", results.get(0).getError().getMessage());
+        verifyNoInteractions(taxReturnRepository);
+    }
+
+    // Empty and oversized batches are rejected before anything is loaded:
+    @Test
+    void calculateBatch_InvalidSize_Throws() {
+        when(environment.getProperty("taxreturn.batch.size")).thenReturn("Number of tax returns in a batch must be between 1 and");
+
+        IllegalArgumentException empty = assertThrows(IllegalArgumentException.class,
+                () -> batchCalculationService.calculateBatch(request(List.of(), List.of()), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> batchCalculationService.calculateBatch(request(List.of(1, 2, 3, 4), List.of()), 1));
+
+        assertEquals("Number of tax returns in a batch must be between 1 and 3", empty.getMessage());
+        verifyNoInteractions(taxReturnRepository, taxCalculatorService);
+    }
+
+    // Calculate the TaxReturn under each eligible filing status, recording the DTOs the calculator was given:
+    private List<FilingStatusComparisonDto> compare(TaxReturn taxReturn, List<TaxReturnDto> calculated) {
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(taxReturn));
+        doAnswer(invocation -> {
+            TaxReturnDto taxReturnDto = invocation.getArgument(0);
+            taxReturnDto.setFederalRefund(BigDecimal.valueOf(taxReturnDto.getFilingStatus().getValue()));
+            calculated.add(taxReturnDto);
+            return taxReturnDto;
+        }).when(taxCalculatorService).calculateAll(any(TaxReturnDto.class));
+        return batchCalculationService.compareFilingStatuses(1, 1);
+    }
+
+    // A married filer is compared filing jointly and separately, each on its own copy of the TaxReturn, loaded once:
+    @Test
+    void compareFilingStatuses_Married_ComparesJointAndSeparate() {
+        TaxReturn taxReturn = storedTaxReturn(1);
+        taxReturn.setFilingStatus(FilingStatus.MARRIED_FILING_SEPARATELY.getValue());
+        List<TaxReturnDto> calculated = new CopyOnWriteArrayList<>();
+
+        List<FilingStatusComparisonDto> results = compare(taxReturn, calculated);
+
+        assertEquals(List.of(FilingStatus.MARRIED_FILING_JOINTLY, FilingStatus.MARRIED_FILING_SEPARATELY),
+                results.stream().map(FilingStatusComparisonDto::getFilingStatus).toList());
+        assertEquals(BigDecimal.valueOf(2), results.get(0).getFederalRefund());
+        assertEquals(BigDecimal.valueOf(3), results.get(1).getFederalRefund());
+        // A shared DTO would show the same filing status on every calculation:
+        assertEquals(2, calculated.stream().map(TaxReturnDto::getFilingStatus).distinct().count());
+        // Without an id the copies never touch the stored TaxReturn's checkpoint:
+        calculated.forEach(taxReturnDto -> assertEquals(0, taxReturnDto.getId()));
+        verify(taxReturnRepository, times(1)).findCompleteById(1);
+    }
+
+    // An unmarried filer can file single, and as head of household only with a dependent:
+    @Test
+    void compareFilingStatuses_Unmarried_AddsHeadOfHouseholdWithDependent() {
+        TaxReturn withoutDependents = storedTaxReturn(1);
+
+        assertEquals(List.of(FilingStatus.SINGLE), compare(withoutDependents, new CopyOnWriteArrayList<>()).stream()
+                .map(FilingStatusComparisonDto::getFilingStatus).toList());
+
+        TaxReturn withDependent = storedTaxReturn(1);
+        withDependent.setFilingStatus(FilingStatus.HEAD_OF_HOUSEHOLD.getValue());
+        TaxReturnCredit taxCredit = new TaxReturnCredit();
+        taxCredit.setTaxReturn(withDependent);
+        taxCredit.setNumDependents(1);
+        withDependent.setTaxCredit(taxCredit);
+
+        assertEquals(List.of(FilingStatus.SINGLE, FilingStatus.HEAD_OF_HOUSEHOLD), compare(withDependent, new CopyOnWriteArrayList<>()).stream()
+                .map(FilingStatusComparisonDto::getFilingStatus).toList());
+    }
+
+    // Surviving spouse is only compared for a filer who already files as one:
+    @Test
+    void compareFilingStatuses_SurvivingSpouse_KeepsWidow() {
+        TaxReturn taxReturn = storedTaxReturn(1);
+        taxReturn.setFilingStatus(FilingStatus.WIDOW.getValue());
+
+        assertEquals(List.of(FilingStatus.SINGLE, FilingStatus.WIDOW), compare(taxReturn, new CopyOnWriteArrayList<>()).stream()
+                .map(FilingStatusComparisonDto::getFilingStatus).toList());
+    }
+
+    // Another user's TaxReturn is rejected before anything is calculated:
+    @Test
+    void compareFilingStatuses_OtherUser_Throws() {
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(storedTaxReturn(1)));
+
+        assertThrows(UnauthorizedException.class, () -> batchCalculationService.compareFilingStatuses(1, 2));
+        verifyNoInteractions(taxCalculatorService);
+    }
+
+    // A TaxReturn that doesn't exist is reported as not found:
+    @Test
+    void compareFilingStatuses_MissingId_Throws() {
+        when(taxReturnRepository.findCompleteById(99)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> batchCalculationService.compareFilingStatuses(99, 1));
+        verifyNoInteractions(taxCalculatorService);
+    }
+
+    // A calculation that fails fails the comparison with its own exception:
+    @Test
+    void compareFilingStatuses_CalculationFails_Throws() {
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(storedTaxReturn(1)));
+        doThrow(new IllegalStateException("boom")).when(taxCalculatorService).calculateAll(any(TaxReturnDto.class));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> batchCalculationService.compareFilingStatuses(1, 1));
+        assertEquals("boom", e.getMessage());
+    }
+}
@@ -31,17 +31,17 @@ class CapitalGainsTaxServiceTest {
     private CapitalGainsTaxService capitalGainsTaxService;
 
     @Test
-    void testFindByFilingStatusID_WhenTaxInfoExists_ShouldReturnTaxInfoList() {
+    void testFindByFilingStatus_WhenTaxInfoExists_ShouldReturnTaxInfoList() {
         // Mocking the repository method to return a list of tax info
         List<CapitalGainsTax> mockTaxInfoList = new ArrayList<>();
         mockTaxInfoList.add(new CapitalGainsTax());
-        when(capitalGainsTaxRepository.findByFilingStatus_Id(anyInt())).thenReturn(mockTaxInfoList);
+        when(capitalGainsTaxRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(anyInt(), anyInt())).thenReturn(mockTaxInfoList);
 
         // Calling the service method
-        List<CapitalGainsTax> result = capitalGainsTaxService.findByFilingStatusID(1);
+        List<CapitalGainsTax> result = capitalGainsTaxService.findByFilingStatus(1, 2023);
 
         // Verifying that the repository method was called with the correct parameter
-        verify(capitalGainsTaxRepository).findByFilingStatus_Id(1);
+        verify(capitalGainsTaxRepository).findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(1, 2023);
 
         // Asserting that the result is not null and has the correct size
         assertNotNull(result);
@@ -49,13 +49,13 @@ class CapitalGainsTaxServiceTest {
     }
 
     @Test
-    void testFindByFilingStatusID_WhenTaxInfoDoesNotExist_ShouldThrowNotFoundException() {
+    void testFindByFilingStatus_WhenTaxInfoDoesNotExist_ShouldThrowNotFoundException() {
       // Mocking the repository method to return an empty list
-      when(capitalGainsTaxRepository.findByFilingStatus_Id(anyInt())).thenReturn(Collections.emptyList());
+      when(capitalGainsTaxRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 
       // Calling the service method and expecting NotFoundException
       assertThrows(NotFoundException.class, () -> {
-          capitalGainsTaxService.findByFilingStatusID(1);
+          capitalGainsTaxService.findByFilingStatus(1, 2023);
       });
     }
 }
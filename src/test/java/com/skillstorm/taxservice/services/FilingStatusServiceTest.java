@@ -26,12 +26,13 @@ public class FilingStatusServiceTest {
 
     @Test
     void findByStatus_ReturnsFilingStatus() {
-        String status = "Single";
         FilingStatus filingStatus = new FilingStatus();
-        filingStatus.setStatus(status);
-        when(filingStatusRepository.findByStatus(status)).thenReturn(Optional.of(filingStatus));
+        filingStatus.setStatus("Single");
+        filingStatus.setStatusCode(1);
+        filingStatus.setTaxYear(2023);
+        when(filingStatusRepository.findByStatusCodeAndTaxYear(1, 2023)).thenReturn(Optional.of(filingStatus));
 
-        FilingStatus result = filingStatusService.findByStatus(status);
+        FilingStatus result = filingStatusService.findByStatus(1, 2023);
 
         assertNotNull(result);
         assertEquals(filingStatus, result);
@@ -39,14 +40,13 @@ public class FilingStatusServiceTest {
 
     @Test
     void findByStatus_NoDataFound_ThrowsNotFoundException() {
-        String status = "Unknown";
-        when(filingStatusRepository.findByStatus(status)).thenReturn(Optional.empty());
+        when(filingStatusRepository.findByStatusCodeAndTaxYear(9, 2023)).thenReturn(Optional.empty());
 
         NotFoundException thrown = assertThrows(NotFoundException.class, () -> {
-            filingStatusService.findByStatus(status);
+            filingStatusService.findByStatus(9, 2023);
         });
 
-        assertEquals("Filing status: " + status + " not found", thrown.getMessage());
+        assertEquals("Filing status: 9 not found for tax year 2023", thrown.getMessage());
     }
 
     @Test
@@ -0,0 +1,188 @@
+package com.skillstorm.taxservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.CopyObjectResult;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class S3AsyncServiceTest {
+
+    private static final int PART_SIZE = (int) DataSize.ofMegabytes(5).toBytes();
+
+    @Mock
+    private S3AsyncClient s3;
+
+    private S3AsyncService s3AsyncService;
+
+    @BeforeEach
+    void setup() {
+        s3AsyncService = new S3AsyncService(s3, "bucket", DataSize.ofMegabytes(5));
+    }
+
+    // Upload below the multipart threshold goes up in one PUT:
+    @Test
+    void uploadStreamSinglePutTest() throws IOException {
+
+        //Define stubbing:
+        when(s3.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        //Call the method to test:
+        s3AsyncService.uploadStream("uploads/1", new ByteArrayInputStream(new byte[PART_SIZE - 1]), "image/png").join();
+
+        //Verify the method was called:
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<AsyncRequestBody> bodyCaptor = ArgumentCaptor.forClass(AsyncRequestBody.class);
+        verify(s3).putObject(requestCaptor.capture(), bodyCaptor.capture());
+        verify(s3, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+
+        //Verify the result:
+        assertEquals("image/png", requestCaptor.getValue().contentType(), "Content type should be stored with the object");
+        assertEquals(Long.valueOf(PART_SIZE - 1), bodyCaptor.getValue().contentLength().orElseThrow(), "Whole image should be sent");
+    }
+
+    // Upload at or above the multipart threshold is split into parts:
+    @Test
+    void uploadStreamMultipartTest() throws IOException {
+
+        //Define stubbing:
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("upload").build()));
+        when(s3.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("etag").build()));
+        when(s3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().build()));
+
+        //Call the method to test:
+        s3AsyncService.uploadStream("uploads/1", new ByteArrayInputStream(new byte[2 * PART_SIZE + 1]), "image/png").join();
+
+        //Verify the method was called:
+        ArgumentCaptor<UploadPartRequest> partCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3, times(3)).uploadPart(partCaptor.capture(), any(AsyncRequestBody.class));
+        verify(s3).completeMultipartUpload(completeCaptor.capture());
+        verify(s3, never()).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+
+        //Verify the result:
+        assertEquals(Long.valueOf(PART_SIZE), partCaptor.getAllValues().get(0).contentLength(), "First part should be full");
+        assertEquals(Long.valueOf(1), partCaptor.getAllValues().get(2).contentLength(), "Last part should hold the remainder");
+        assertEquals(Integer.valueOf(3), completeCaptor.getValue().multipartUpload().parts().get(2).partNumber(), "Parts should be completed in order");
+        assertEquals("upload", completeCaptor.getValue().uploadId());
+    }
+
+    // Upload whose stream fails partway through is aborted:
+    @Test
+    void uploadStreamReadFailureAbortTest() {
+
+        //Define stubbing:
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("upload").build()));
+        when(s3.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("etag").build()));
+        when(s3.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build()));
+        InputStream failing = new SequenceInputStream(new ByteArrayInputStream(new byte[PART_SIZE]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        //Call the method to test:
+        assertThrows(IOException.class, () -> s3AsyncService.uploadStream("uploads/1", failing, "image/png"));
+
+        //Verify the method was called:
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    // Upload with a part S3 rejects stops reading, fails and is aborted:
+    @Test
+    void uploadStreamPartFailureAbortTest() throws IOException {
+
+        //Define stubbing:
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("upload").build()));
+        when(s3.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(500).build()));
+        when(s3.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build()));
+
+        //Call the method to test:
+        CompletableFuture<Void> upload = s3AsyncService.uploadStream("uploads/1", new ByteArrayInputStream(new byte[4 * PART_SIZE]), "image/png");
+
+        //Verify the result:
+        CompletionException thrown = assertThrows(CompletionException.class, upload::join);
+        assertInstanceOf(S3Exception.class, thrown.getCause(), "S3's error should be passed on");
+        verify(s3, times(2)).uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class));
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    // Move copies the object to its new key, then deletes the original:
+    @Test
+    void moveObjectTest() {
+
+        //Define stubbing:
+        when(s3.copyObject(any(CopyObjectRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                CopyObjectResponse.builder().copyObjectResult(CopyObjectResult.builder().eTag("\"etag\"").build()).build()));
+        when(s3.deleteObject(any(DeleteObjectRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectResponse.builder().build()));
+
+        //Call the method to test:
+        String eTag = s3AsyncService.moveObject("uploads/1", "1.png").join();
+
+        //Verify the method was called:
+        ArgumentCaptor<CopyObjectRequest> copyCaptor = ArgumentCaptor.forClass(CopyObjectRequest.class);
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3).copyObject(copyCaptor.capture());
+        verify(s3).deleteObject(deleteCaptor.capture());
+
+        //Verify the result:
+        assertEquals("\"etag\"", eTag, "ETag of the copy should be returned");
+        assertEquals("1.png", copyCaptor.getValue().destinationKey());
+        assertEquals("uploads/1", deleteCaptor.getValue().key());
+    }
+
+    // Multipart threshold below S3's minimum part size is rejected:
+    @Test
+    void multipartThresholdTooSmallTest() {
+        assertThrows(IllegalArgumentException.class, () -> new S3AsyncService(s3, "bucket", DataSize.ofMegabytes(1)));
+    }
+}
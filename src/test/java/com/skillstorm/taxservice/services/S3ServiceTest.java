@@ -0,0 +1,121 @@
+package com.skillstorm.taxservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class S3ServiceTest {
+
+    private static final int PART_SIZE = (int) DataSize.ofMegabytes(5).toBytes();
+
+    @Mock
+    private S3Client s3;
+
+    private S3Service s3Service;
+
+    @BeforeEach
+    void setup() {
+        s3Service = new S3Service(s3, "bucket", DataSize.ofMegabytes(5));
+    }
+
+    // Upload below the multipart threshold goes up in one PUT:
+    @Test
+    void uploadStreamSinglePutTest() throws IOException {
+
+        //Call the method to test:
+        s3Service.uploadStream("uploads/1", new ByteArrayInputStream(new byte[PART_SIZE - 1]), "image/png");
+
+        //Verify the method was called:
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<RequestBody> bodyCaptor = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3).putObject(requestCaptor.capture(), bodyCaptor.capture());
+        verify(s3, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+
+        //Verify the result:
+        assertEquals("image/png", requestCaptor.getValue().contentType(), "Content type should be stored with the object");
+        assertEquals(PART_SIZE - 1, bodyCaptor.getValue().contentLength(), "Whole image should be sent");
+    }
+
+    // Upload at or above the multipart threshold is split into parts:
+    @Test
+    void uploadStreamMultipartTest() throws IOException {
+
+        //Define stubbing:
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload").build());
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+        //Call the method to test:
+        s3Service.uploadStream("uploads/1", new ByteArrayInputStream(new byte[2 * PART_SIZE + 1]), "image/png");
+
+        //Verify the method was called:
+        ArgumentCaptor<UploadPartRequest> partCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3, times(3)).uploadPart(partCaptor.capture(), any(RequestBody.class));
+        verify(s3).completeMultipartUpload(completeCaptor.capture());
+        verify(s3, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+
+        //Verify the result:
+        assertEquals(Long.valueOf(PART_SIZE), partCaptor.getAllValues().get(0).contentLength(), "First part should be full");
+        assertEquals(Long.valueOf(1), partCaptor.getAllValues().get(2).contentLength(), "Last part should hold the remainder");
+        assertEquals(3, completeCaptor.getValue().multipartUpload().parts().size(), "All parts should be completed");
+        assertEquals("upload", completeCaptor.getValue().uploadId());
+    }
+
+    // Upload that fails partway through is aborted:
+    @Test
+    void uploadStreamAbortTest() {
+
+        //Define stubbing:
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload").build());
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        InputStream failing = new SequenceInputStream(new ByteArrayInputStream(new byte[PART_SIZE]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        //Call the method to test:
+        assertThrows(IOException.class, () -> s3Service.uploadStream("uploads/1", failing, "image/png"));
+
+        //Verify the method was called:
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    // Multipart threshold below S3's minimum part size is rejected:
+    @Test
+    void multipartThresholdTooSmallTest() {
+        assertThrows(IllegalArgumentException.class, () -> new S3Service(s3, "bucket", DataSize.ofMegabytes(1)));
+    }
+}
@@ -28,34 +28,34 @@ class StandardDeductionServiceTest {
     private StandardDeductionService standardDeductionService;
 
     @Test
-    void getByFilingStatusId_Found_ReturnsStandardDeduction() {
-        int filingStatusId = 1;
+    void getByFilingStatus_Found_ReturnsStandardDeduction() {
+        int statusCode = 1;
         FilingStatus filingStatus = new FilingStatus();
-        filingStatus.setId(filingStatusId);
+        filingStatus.setStatusCode(statusCode);
 
         StandardDeduction standardDeduction = new StandardDeduction();
         standardDeduction.setId(1);
         standardDeduction.setFilingStatus(filingStatus);
         standardDeduction.setDeductionAmount(12500);
 
-        when(standardDeductionRepository.findByFilingStatus_Id(filingStatusId)).thenReturn(Optional.of(standardDeduction));
+        when(standardDeductionRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYear(statusCode, 2023)).thenReturn(Optional.of(standardDeduction));
 
-        StandardDeduction result = standardDeductionService.getByFilingStatusId(filingStatusId);
+        StandardDeduction result = standardDeductionService.getByFilingStatus(statusCode, 2023);
 
         assertNotNull(result);
         assertEquals(12500, result.getDeductionAmount());
     }
 
     @Test
-    void getByFilingStatusId_NotFound_ThrowsNotFoundException() {
-        int filingStatusId = 1;
+    void getByFilingStatus_NotFound_ThrowsNotFoundException() {
+        int statusCode = 1;
 
-        when(standardDeductionRepository.findByFilingStatus_Id(filingStatusId)).thenReturn(Optional.empty());
+        when(standardDeductionRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYear(statusCode, 2023)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
-            standardDeductionService.getByFilingStatusId(filingStatusId);
+            standardDeductionService.getByFilingStatus(statusCode, 2023);
         });
 
-        assertEquals("Standardized deduction not found for filing status id: " + filingStatusId, exception.getMessage());
+        assertEquals("Standardized deduction not found for filing status: " + statusCode + " in tax year 2023", exception.getMessage());
     }
 }
@@ -36,8 +36,8 @@ class StateTaxServiceTest {
         State state = new State();
         state.setId(1);
 
-        StateTax stateTax1 = new StateTax(1, state, 0, BigDecimal.valueOf(0.05));
-        StateTax stateTax2 = new StateTax(2, state, 50000, BigDecimal.valueOf(0.06));
+        StateTax stateTax1 = new StateTax(1, state, 0, BigDecimal.valueOf(0.05), 2023);
+        StateTax stateTax2 = new StateTax(2, state, 50000, BigDecimal.valueOf(0.06), 2023);
 
         List<StateTax> stateTaxList = new ArrayList<>();
         stateTaxList.add(stateTax1);
@@ -72,8 +72,8 @@ class StateTaxServiceTest {
         State state = new State();
         state.setId(1);
 
-        StateTax stateTax1 = new StateTax(1, state, 0, BigDecimal.valueOf(0.05));
-        StateTax stateTax2 = new StateTax(2, state, 50000, BigDecimal.valueOf(0.06));
+        StateTax stateTax1 = new StateTax(1, state, 0, BigDecimal.valueOf(0.05), 2023);
+        StateTax stateTax2 = new StateTax(2, state, 50000, BigDecimal.valueOf(0.06), 2023);
 
         List<StateTax> stateTaxList = new ArrayList<>();
         stateTaxList.add(stateTax1);
@@ -108,8 +108,8 @@ class StateTaxServiceTest {
         State state = new State();
         state.setId(stateId);
 
-        StateTax stateTax1 = new StateTax(1, state, 0, BigDecimal.valueOf(0.05));
-        StateTax stateTax2 = new StateTax(2, state, 50000, BigDecimal.valueOf(0.06));
+        StateTax stateTax1 = new StateTax(1, state, 0, BigDecimal.valueOf(0.05), 2023);
+        StateTax stateTax2 = new StateTax(2, state, 50000, BigDecimal.valueOf(0.06), 2023);
 
         List<StateTax> stateTaxList = new ArrayList<>();
         stateTaxList.add(stateTax1);
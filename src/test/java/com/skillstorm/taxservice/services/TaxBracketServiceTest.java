@@ -27,11 +27,11 @@ class TaxBracketServiceTest {
     private TaxBracketService taxBracketService;
 
     @Test
-    void findByFilingStatusID_Found_ReturnsTaxBrackets() {
-        int filingStatusId = 1;
+    void findByFilingStatus_Found_ReturnsTaxBrackets() {
+        int statusCode = 1;
 
         FilingStatus filingStatus = new FilingStatus();
-        filingStatus.setId(filingStatusId);
+        filingStatus.setStatusCode(statusCode);
 
         TaxBracket taxBracket1 = new TaxBracket(1, filingStatus, BigDecimal.valueOf(0.1), 0, 10000);
         TaxBracket taxBracket2 = new TaxBracket(2, filingStatus, BigDecimal.valueOf(0.15), 10001, 20000);
@@ -40,9 +40,9 @@ class TaxBracketServiceTest {
         taxBrackets.add(taxBracket1);
         taxBrackets.add(taxBracket2);
 
-        when(taxBracketRepository.findByFilingStatus_Id(filingStatusId)).thenReturn(taxBrackets);
+        when(taxBracketRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(statusCode, 2023)).thenReturn(taxBrackets);
 
-        List<TaxBracket> result = taxBracketService.findByFilingStatusID(filingStatusId);
+        List<TaxBracket> result = taxBracketService.findByFilingStatus(statusCode, 2023);
 
         assertEquals(2, result.size());
         assertEquals(taxBracket1, result.get(0));
@@ -50,12 +50,12 @@ class TaxBracketServiceTest {
     }
 
     @Test
-    void findByFilingStatusID_NotFound_ReturnsEmptyList() {
-        int filingStatusId = 1;
+    void findByFilingStatus_NotFound_ReturnsEmptyList() {
+        int statusCode = 1;
 
-        when(taxBracketRepository.findByFilingStatus_Id(filingStatusId)).thenReturn(new ArrayList<>());
+        when(taxBracketRepository.findByFilingStatus_StatusCodeAndFilingStatus_TaxYearOrderById(statusCode, 2023)).thenReturn(new ArrayList<>());
 
-        List<TaxBracket> result = taxBracketService.findByFilingStatusID(filingStatusId);
+        List<TaxBracket> result = taxBracketService.findByFilingStatus(statusCode, 2023);
 
         assertEquals(0, result.size());
     }
@@ -1,7 +1,7 @@
 package com.skillstorm.taxservice.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.mock;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -12,10 +12,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.skillstorm.taxservice.calculation.TaxReferenceSnapshot;
 import com.skillstorm.taxservice.models.StandardDeduction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -38,34 +39,14 @@ import com.skillstorm.taxservice.models.taxcredits.SaversTaxCredit;
 
 public class TaxCalculatorServiceTest {
 
-  @Mock
-  private OtherIncomeService otherIncomeService;
-
-  @Mock
-  private StateTaxService stateTaxService;
-
-  @Mock
-  private CapitalGainsTaxService capitalGainsTaxService;
-
-  @Mock
-  private FilingStatusService filingStatusService;
+  // deduction.not.found in SystemMessages.properties:
+  private static final String DEDUCTION_NOT_FOUND = "No Deduction exists with ID:";
 
   @Mock
-  private com.skillstorm.taxservice.models.FilingStatus filingStatusModel;
+  private TaxReferenceDataService taxReferenceDataService;
 
-  @Mock
-  private TaxBracketService taxBracketService;
+  private SimpleMeterRegistry meterRegistry;
 
-  @Mock
-  private TaxCreditService taxCreditService;
-
-  @Mock
-  private StandardDeductionService standardDeductionService;
-
-  @Mock
-  private DeductionService deductionService;
-
-  @InjectMocks
   private TaxCalculatorService taxCalculatorService;
 
   private TaxReturnDto taxReturn;
@@ -73,21 +54,39 @@ public class TaxCalculatorServiceTest {
   @BeforeEach
   public void setUp() {
     MockitoAnnotations.openMocks(this);
+    meterRegistry = new SimpleMeterRegistry();
+    taxCalculatorService = new TaxCalculatorService(taxReferenceDataService, "bigdecimal", meterRegistry);
 
     taxReturn = new TaxReturnDto();
     taxReturn.setId(1);
   }
 
+  // Build a filing status model with the given id and status code so the snapshot can key it by the FilingStatus enum:
+  private com.skillstorm.taxservice.models.FilingStatus filingStatusModel(int id) {
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = new com.skillstorm.taxservice.models.FilingStatus();
+    filingStatus.setId(id);
+    filingStatus.setStatusCode(id);
+    filingStatus.setStatus("Single");
+    return filingStatus;
+  }
+
+  // Stub the reference data service with a snapshot holding only the given filing status:
+  private void mockSnapshot(com.skillstorm.taxservice.models.FilingStatus filingStatus) {
+    when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(new TaxReferenceSnapshot(List.of(filingStatus),
+            List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), DEDUCTION_NOT_FOUND));
+  }
+
   @Test
   public void testCalculateAll_DefaultValues() {
 
     // Arrange:
     StandardDeduction standardDeduction = new StandardDeduction();
     standardDeduction.setId(1);
-    standardDeduction.setFilingStatus(new com.skillstorm.taxservice.models.FilingStatus());
+    standardDeduction.setFilingStatus(filingStatusModel(1));
     standardDeduction.setDeductionAmount(12000);
 
-    when(standardDeductionService.getByFilingStatusId(1)).thenReturn(standardDeduction);
+    when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(new TaxReferenceSnapshot(List.of(), List.of(), List.of(),
+            List.of(), List.of(standardDeduction), List.of(), List.of(), List.of(), DEDUCTION_NOT_FOUND));
 
 
     TaxReturnDto result = taxCalculatorService.calculateAll(taxReturn);
@@ -105,6 +104,31 @@ public class TaxCalculatorServiceTest {
     assertEquals(expectedResult, result.getMedicareTaxWithheld());
   }
 
+  @Test
+  public void testCalculateAll_RecordsMetrics() {
+
+    // Arrange:
+    StandardDeduction standardDeduction = new StandardDeduction();
+    standardDeduction.setId(1);
+    standardDeduction.setFilingStatus(filingStatusModel(1));
+    standardDeduction.setDeductionAmount(12000);
+
+    when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(new TaxReferenceSnapshot(List.of(), List.of(), List.of(),
+            List.of(), List.of(standardDeduction), List.of(), List.of(), List.of(), DEDUCTION_NOT_FOUND));
+    taxReturn.setFilingStatus(FilingStatus.SINGLE);
+
+    // Act: calculate twice, so the second calculation is restored from its checkpoint:
+    taxCalculatorService.calculateAll(taxReturn);
+    taxCalculatorService.calculateAll(taxReturn);
+
+    // Assert:
+    assertEquals(2, meterRegistry.get("taxes.calculation").tag("engine", "bigdecimal")
+            .tag("filing.status", "SINGLE").tag("states", "0").timer().count());
+    assertEquals(1, meterRegistry.get("taxes.calculation.stage").tag("stage", "TAXABLE_INCOME").timer().count());
+    // Of the stages run for an empty return, only taxable income looks up reference data:
+    assertEquals(1, meterRegistry.get("taxes.reference.lookups").tag("filing.status", "SINGLE").counter().count());
+  }
+
   @Test
   public void testCalculateTotalIncome() {
     // Arrange
@@ -152,7 +176,10 @@ public class TaxCalculatorServiceTest {
 
     List<TaxBracket> taxBrackets = Arrays.asList(bracket1, bracket2);
 
-    when(taxBracketService.findByFilingStatusID(1)).thenReturn(taxBrackets);
+    bracket1.setFilingStatus(filingStatusModel(1));
+    bracket2.setFilingStatus(filingStatusModel(1));
+    when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(new TaxReferenceSnapshot(List.of(), taxBrackets, List.of(),
+            List.of(), List.of(), List.of(), List.of(), List.of(), DEDUCTION_NOT_FOUND));
 
     // Act
     TaxReturnDto result = taxCalculatorService.calculateFederalTaxes(taxReturn);
@@ -163,7 +190,7 @@ public class TaxCalculatorServiceTest {
 
     assertEquals(expectedFederalRefund, result.getFederalRefund());
     
-    verify(taxBracketService, times(1)).findByFilingStatusID(1);
+    verify(taxReferenceDataService, times(1)).getSnapshot(anyInt());
   }
 
   //@Test
@@ -212,7 +239,11 @@ public class TaxCalculatorServiceTest {
 
         List<StateTax> stateTaxBrackets = Arrays.asList(bracket1, bracket2, bracket3);
 
-        when(stateTaxService.getTaxBracketsByStateId(1)).thenReturn(stateTaxBrackets);
+        com.skillstorm.taxservice.models.State alabama = new com.skillstorm.taxservice.models.State();
+        alabama.setId(1);
+        stateTaxBrackets.forEach(bracket -> bracket.setState(alabama));
+        when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(new TaxReferenceSnapshot(List.of(), List.of(), stateTaxBrackets,
+                List.of(), List.of(), List.of(), List.of(), List.of(), DEDUCTION_NOT_FOUND));
 
         // Act
         TaxReturnDto result = taxCalculatorService.calculateStateTaxes(taxReturn);
@@ -235,7 +266,7 @@ public class TaxCalculatorServiceTest {
         assertEquals(new BigDecimal("3100.00").setScale(2, RoundingMode.HALF_UP), result.getSocialSecurityTaxWithheld());
         assertEquals(new BigDecimal("725.00").setScale(2, RoundingMode.HALF_UP), result.getMedicareTaxWithheld());
 
-        verify(stateTaxService, times(1)).getTaxBracketsByStateId(1);
+        verify(taxReferenceDataService, times(1)).getSnapshot(anyInt());
     }
 
   @Test
@@ -254,11 +285,11 @@ public class TaxCalculatorServiceTest {
     List<CapitalGainsTax> capitalGainsTaxBrackets = new ArrayList<>();
 
     // Mock capital gains tax brackets for married filing status
-    capitalGainsTaxBrackets.add(new CapitalGainsTax(1, new com.skillstorm.taxservice.models.FilingStatus(), BigDecimal.valueOf(0.1), 40000)); // Sample bracket 1
-    capitalGainsTaxBrackets.add(new CapitalGainsTax(2, new com.skillstorm.taxservice.models.FilingStatus(), BigDecimal.valueOf(0.15), 0)); // Sample last bracket
+    capitalGainsTaxBrackets.add(new CapitalGainsTax(1, filingStatusModel(1), BigDecimal.valueOf(0.1), 40000)); // Sample bracket 1
+    capitalGainsTaxBrackets.add(new CapitalGainsTax(2, filingStatusModel(1), BigDecimal.valueOf(0.15), 0)); // Sample last bracket
 
-    when(capitalGainsTaxService.findByFilingStatusID(taxReturn.getFilingStatus().getValue()))
-            .thenReturn(capitalGainsTaxBrackets);
+    when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(new TaxReferenceSnapshot(List.of(), List.of(), List.of(),
+            capitalGainsTaxBrackets, List.of(), List.of(), List.of(), List.of(), DEDUCTION_NOT_FOUND));
     
     // Calculate expected federal refund after capital gains tax
     BigDecimal expectedFederalRefund = taxReturn.getFederalRefund().subtract(BigDecimal.valueOf(1500)).setScale(2); // Sample expected federal refund after capital gains tax
@@ -286,17 +317,16 @@ public class TaxCalculatorServiceTest {
     FilingStatus filingStatusEnum = FilingStatus.SINGLE;
     taxReturn.setFilingStatus(filingStatusEnum);
 
-    com.skillstorm.taxservice.models.FilingStatus filingStatus = 
-      mock(com.skillstorm.taxservice.models.FilingStatus.class);
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = filingStatusModel(filingStatusEnum.getValue());
 
     ChildTaxCredit childTaxCredit = new ChildTaxCredit();
     childTaxCredit.setPerQualifyingChild(2000);
     childTaxCredit.setIncomeThreshold(75000);
     childTaxCredit.setRefundLimit(1400);
 
-    // Mocking FilingStatusService to return our sample filing status and child tax credit
-    when(filingStatusService.findById(filingStatusEnum.getValue())).thenReturn(filingStatus);
-    when(filingStatus.getChildTaxCredit()).thenReturn(childTaxCredit);
+    // Mocking TaxReferenceDataService to return our sample filing status and child tax credit
+    mockSnapshot(filingStatus);
+    filingStatus.setChildTaxCredit(childTaxCredit);
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateChildTaxCredits(taxReturn);
@@ -339,8 +369,8 @@ public class TaxCalculatorServiceTest {
     FilingStatus filingStatusEnum = FilingStatus.SINGLE;
     taxReturn.setFilingStatus(filingStatusEnum);
 
-    // Mocking FilingStatus and EarnedIncomeTaxCredit
-    com.skillstorm.taxservice.models.FilingStatus filingStatus = mock(com.skillstorm.taxservice.models.FilingStatus.class);
+    // Setting up FilingStatus and EarnedIncomeTaxCredit
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = filingStatusModel(filingStatusEnum.getValue());
     EarnedIncomeTaxCredit earnedIncomeTaxCredit = new EarnedIncomeTaxCredit();
     earnedIncomeTaxCredit.setInvestmentIncomeLimit(3500);
     earnedIncomeTaxCredit.setAgiThreshold0Children(15000);
@@ -352,9 +382,9 @@ public class TaxCalculatorServiceTest {
     earnedIncomeTaxCredit.setAmount2Children(3500);
     earnedIncomeTaxCredit.setAmount3Children(4000);
 
-    // Mocking FilingStatusService to return our sample filing status and earned income tax credit
-    when(filingStatusService.findById(filingStatusEnum.getValue())).thenReturn(filingStatus);
-    when(filingStatus.getEarnedIncomeTaxCredit()).thenReturn(earnedIncomeTaxCredit);
+    // Mocking TaxReferenceDataService to return our sample filing status and earned income tax credit
+    mockSnapshot(filingStatus);
+    filingStatus.setEarnedIncomeTaxCredit(earnedIncomeTaxCredit);
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateEarnedIncomeTaxCredit(taxReturn);
@@ -383,8 +413,8 @@ public class TaxCalculatorServiceTest {
     FilingStatus filingStatusEnum = FilingStatus.SINGLE;
     taxReturn.setFilingStatus(filingStatusEnum);
 
-    // Mocking FilingStatus and EducationTaxCreditAotc
-    com.skillstorm.taxservice.models.FilingStatus filingStatus = mock(com.skillstorm.taxservice.models.FilingStatus.class);
+    // Setting up FilingStatus and EducationTaxCreditAotc
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = filingStatusModel(filingStatusEnum.getValue());
     EducationTaxCreditAotc educationTaxCreditAotc = new EducationTaxCreditAotc();
     educationTaxCreditAotc.setFullCreditIncomeThreshold(80000);
     educationTaxCreditAotc.setPartialCreditIncomeThreshold(90000);
@@ -393,10 +423,9 @@ public class TaxCalculatorServiceTest {
     educationTaxCreditAotc.setExpensesPartialCreditRate(BigDecimal.valueOf(0.25));
     educationTaxCreditAotc.setMaxCreditAmountPerStudent(2500);
 
-    // Mocking FilingStatusService to return our sample filing status and education tax credit
-    when(filingStatusService.findById(filingStatusEnum.getValue())).thenReturn(filingStatus);
-    when(filingStatus.getEducationTaxCreditAotc()).thenReturn(educationTaxCreditAotc);
-    when(filingStatus.getStatus()).thenReturn("Single");
+    // Mocking TaxReferenceDataService to return our sample filing status and education tax credit
+    mockSnapshot(filingStatus);
+    filingStatus.setEducationTaxCreditAotc(educationTaxCreditAotc);
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateEducationTaxCreditAotc(taxReturn);
@@ -427,8 +456,8 @@ public class TaxCalculatorServiceTest {
     FilingStatus filingStatusEnum = FilingStatus.SINGLE;
     taxReturn.setFilingStatus(filingStatusEnum);
 
-    // Mocking FilingStatus and EducationTaxCreditLlc
-    com.skillstorm.taxservice.models.FilingStatus filingStatus = mock(com.skillstorm.taxservice.models.FilingStatus.class);
+    // Setting up FilingStatus and EducationTaxCreditLlc
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = filingStatusModel(filingStatusEnum.getValue());
     EducationTaxCreditLlc educationTaxCreditLlc = new EducationTaxCreditLlc();
     educationTaxCreditLlc.setFullCreditIncomeThreshold(60000);
     educationTaxCreditLlc.setPartialCreditIncomeThreshold(70000);
@@ -436,9 +465,9 @@ public class TaxCalculatorServiceTest {
     educationTaxCreditLlc.setExpensesThreshold(2000);
     educationTaxCreditLlc.setCreditRate(BigDecimal.valueOf(0.2));
 
-    // Mocking FilingStatusService to return our sample filing status and education tax credit
-    when(filingStatusService.findById(filingStatusEnum.getValue())).thenReturn(filingStatus);
-    when(filingStatus.getEducationTaxCreditLlc()).thenReturn(educationTaxCreditLlc);
+    // Mocking TaxReferenceDataService to return our sample filing status and education tax credit
+    mockSnapshot(filingStatus);
+    filingStatus.setEducationTaxCreditLlc(educationTaxCreditLlc);
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateEducationTaxCreditLlc(taxReturn);
@@ -491,8 +520,8 @@ public class TaxCalculatorServiceTest {
     FilingStatus filingStatusEnum = FilingStatus.SINGLE;
     taxReturn.setFilingStatus(filingStatusEnum);
 
-    // Mocking FilingStatus and EducationTaxCreditLlc
-    com.skillstorm.taxservice.models.FilingStatus filingStatus = mock(com.skillstorm.taxservice.models.FilingStatus.class);
+    // Setting up FilingStatus and EducationTaxCreditLlc
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = filingStatusModel(filingStatusEnum.getValue());
     EducationTaxCreditLlc educationTaxCreditLlc = new EducationTaxCreditLlc();
     educationTaxCreditLlc.setFullCreditIncomeThreshold(60000);
     educationTaxCreditLlc.setPartialCreditIncomeThreshold(70000);
@@ -500,9 +529,9 @@ public class TaxCalculatorServiceTest {
     educationTaxCreditLlc.setExpensesThreshold(2000);
     educationTaxCreditLlc.setCreditRate(BigDecimal.valueOf(0.2));
 
-    // Mocking FilingStatusService to return our sample filing status and education tax credit
-    when(filingStatusService.findById(filingStatusEnum.getValue())).thenReturn(filingStatus);
-    when(filingStatus.getEducationTaxCreditLlc()).thenReturn(educationTaxCreditLlc);
+    // Mocking TaxReferenceDataService to return our sample filing status and education tax credit
+    mockSnapshot(filingStatus);
+    filingStatus.setEducationTaxCreditLlc(educationTaxCreditLlc);
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateEducationTaxCreditLlc(taxReturn);
@@ -527,8 +556,8 @@ public class TaxCalculatorServiceTest {
     FilingStatus filingStatusEnum = FilingStatus.SINGLE;
     taxReturn.setFilingStatus(filingStatusEnum);
 
-    // Mocking FilingStatus and SaversTaxCredit
-    com.skillstorm.taxservice.models.FilingStatus filingStatus = mock(com.skillstorm.taxservice.models.FilingStatus.class);
+    // Setting up FilingStatus and SaversTaxCredit
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = filingStatusModel(filingStatusEnum.getValue());
     SaversTaxCredit saversTaxCredit = new SaversTaxCredit();
     saversTaxCredit.setAgiThresholdFirstContributionLimit(19000); // Sample first AGI threshold
     saversTaxCredit.setAgiThresholdSecondContributionLimit(10000); // Sample second AGI threshold
@@ -538,9 +567,9 @@ public class TaxCalculatorServiceTest {
     saversTaxCredit.setThirdContributionRate(BigDecimal.valueOf(0.1)); // Sample third contribution rate
     saversTaxCredit.setMaxContributionAmount(2000); // Sample max contribution amount
 
-    // Mocking FilingStatusService to return our sample filing status and savers tax credit
-    when(filingStatusService.findById(filingStatusEnum.getValue())).thenReturn(filingStatus);
-    when(filingStatus.getSaversTaxCredit()).thenReturn(saversTaxCredit);
+    // Mocking TaxReferenceDataService to return our sample filing status and savers tax credit
+    mockSnapshot(filingStatus);
+    filingStatus.setSaversTaxCredit(saversTaxCredit);
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateSaversTaxCredit(taxReturn);
@@ -594,8 +623,8 @@ public class TaxCalculatorServiceTest {
     FilingStatus filingStatusEnum = FilingStatus.SINGLE;
     taxReturn.setFilingStatus(filingStatusEnum);
 
-    // Mocking FilingStatus and SaversTaxCredit
-    com.skillstorm.taxservice.models.FilingStatus filingStatus = mock(com.skillstorm.taxservice.models.FilingStatus.class);
+    // Setting up FilingStatus and SaversTaxCredit
+    com.skillstorm.taxservice.models.FilingStatus filingStatus = filingStatusModel(filingStatusEnum.getValue());
     SaversTaxCredit saversTaxCredit = new SaversTaxCredit();
     saversTaxCredit.setAgiThresholdFirstContributionLimit(19000); // Sample first AGI threshold
     saversTaxCredit.setAgiThresholdSecondContributionLimit(29000); // Sample second AGI threshold
@@ -605,9 +634,9 @@ public class TaxCalculatorServiceTest {
     saversTaxCredit.setThirdContributionRate(BigDecimal.valueOf(0.1)); // Sample third contribution rate
     saversTaxCredit.setMaxContributionAmount(2000); // Sample max contribution amount
 
-    // Mocking FilingStatusService to return our sample filing status and savers tax credit
-    when(filingStatusService.findById(filingStatusEnum.getValue())).thenReturn(filingStatus);
-    when(filingStatus.getSaversTaxCredit()).thenReturn(saversTaxCredit);
+    // Mocking TaxReferenceDataService to return our sample filing status and savers tax credit
+    mockSnapshot(filingStatus);
+    filingStatus.setSaversTaxCredit(saversTaxCredit);
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateSaversTaxCredit(taxReturn);
@@ -643,9 +672,10 @@ public class TaxCalculatorServiceTest {
     DependentCareTaxCreditLimit creditLimit = new DependentCareTaxCreditLimit();
     creditLimit.setCreditLimit(3000); // Sample credit limit for number of dependents
 
-    // Mocking TaxCreditService to return our sample data
-    when(taxCreditService.getDependentCareTaxCreditBrackets()).thenReturn(dependentCareTaxCredit);
-    when(taxCreditService.getDependentCareTaxCreditLimitByNumDependents(2)).thenReturn(creditLimit);
+    // Mocking TaxReferenceDataService to return our sample data
+    creditLimit.setNumDependents(2);
+    when(taxReferenceDataService.getSnapshot(anyInt())).thenReturn(new TaxReferenceSnapshot(List.of(), List.of(), List.of(),
+            List.of(), List.of(), dependentCareTaxCredit, List.of(creditLimit), List.of(), DEDUCTION_NOT_FOUND));
 
     // Call the method to test
     TaxReturnDto result = taxCalculatorService.calculateDependentCareTaxCredit(taxReturn);
@@ -0,0 +1,164 @@
+package com.skillstorm.taxservice.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
+
+import com.skillstorm.taxservice.calculation.TaxReferenceSnapshot;
+import com.skillstorm.taxservice.calculation.TaxYearSnapshots;
+import com.skillstorm.taxservice.constants.FilingStatus;
+import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.exceptions.NotFoundException;
+import com.skillstorm.taxservice.models.Deduction;
+import com.skillstorm.taxservice.models.StandardDeduction;
+import com.skillstorm.taxservice.models.StateTax;
+import com.skillstorm.taxservice.models.TaxBracket;
+import com.skillstorm.taxservice.models.taxcredits.DependentCareTaxCreditLimit;
+import com.skillstorm.taxservice.repositories.CapitalGainsTaxRepository;
+import com.skillstorm.taxservice.repositories.DeductionRepository;
+import com.skillstorm.taxservice.repositories.FilingStatusRepository;
+import com.skillstorm.taxservice.repositories.StandardDeductionRepository;
+import com.skillstorm.taxservice.repositories.StateTaxRepository;
+import com.skillstorm.taxservice.repositories.TaxBracketRepository;
+import com.skillstorm.taxservice.repositories.taxcredits.DependentCareTaxCreditLimitRepository;
+import com.skillstorm.taxservice.repositories.taxcredits.DependentCareTaxCreditRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TaxReferenceDataServiceTest {
+
+    @Mock
+    private FilingStatusRepository filingStatusRepository;
+
+    @Mock
+    private TaxBracketRepository taxBracketRepository;
+
+    @Mock
+    private StateTaxRepository stateTaxRepository;
+
+    @Mock
+    private CapitalGainsTaxRepository capitalGainsTaxRepository;
+
+    @Mock
+    private StandardDeductionRepository standardDeductionRepository;
+
+    @Mock
+    private DependentCareTaxCreditRepository dependentCareTaxCreditRepository;
+
+    @Mock
+    private DependentCareTaxCreditLimitRepository dependentCareTaxCreditLimitRepository;
+
+    @Mock
+    private DeductionRepository deductionRepository;
+
+    @Mock
+    private Environment environment;
+
+    @InjectMocks
+    private TaxReferenceDataService taxReferenceDataService;
+
+    private com.skillstorm.taxservice.models.FilingStatus single;
+
+    @BeforeEach
+    void setUp() {
+        single = new com.skillstorm.taxservice.models.FilingStatus();
+        single.setId(1);
+        single.setStatusCode(1);
+        single.setTaxYear(2023);
+        single.setStatus("Single");
+
+        com.skillstorm.taxservice.models.State alabama = new com.skillstorm.taxservice.models.State();
+        alabama.setId(1);
+
+        StandardDeduction standardDeduction = new StandardDeduction();
+        standardDeduction.setFilingStatus(single);
+        standardDeduction.setDeductionAmount(12950);
+
+        when(filingStatusRepository.findAll(any(Sort.class))).thenReturn(List.of(single));
+        when(taxBracketRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new TaxBracket(1, single, BigDecimal.valueOf(0.10), 0, 11000)));
+        when(stateTaxRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new StateTax(1, alabama, 500, BigDecimal.valueOf(0.02), 2023),
+                new StateTax(2, alabama, 0, BigDecimal.valueOf(0.05), 2023)));
+        when(capitalGainsTaxRepository.findAll(any(Sort.class))).thenReturn(List.of());
+        when(standardDeductionRepository.findAll(any(Sort.class))).thenReturn(List.of(standardDeduction));
+        when(dependentCareTaxCreditRepository.findAll(any(Sort.class))).thenReturn(List.of());
+        when(dependentCareTaxCreditLimitRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new DependentCareTaxCreditLimit(1, 1, 3000, false, 2023),
+                new DependentCareTaxCreditLimit(2, 2, 6000, false, 2023)));
+        when(deductionRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new Deduction(2, "IRA Contributions", BigDecimal.valueOf(6500), false)));
+        when(environment.getProperty("deduction.not.found")).thenReturn("No Deduction exists with ID:");
+    }
+
+    @Test
+    void getSnapshot_LoadsOnceAndCaches() {
+        TaxReferenceSnapshot first = taxReferenceDataService.getSnapshot(2023);
+        TaxReferenceSnapshot second = taxReferenceDataService.getSnapshot(2023);
+
+        assertSame(first, second);
+        verify(taxBracketRepository, times(1)).findAll(any(Sort.class));
+        verify(stateTaxRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void getSnapshot_IndexesReferenceData() {
+        TaxReferenceSnapshot snapshot = taxReferenceDataService.getSnapshot(2023);
+
+        assertSame(single, snapshot.getFilingStatus(FilingStatus.SINGLE));
+        assertEquals(0, new BigDecimal("1100.00").compareTo(snapshot.getFederalSchedule(FilingStatus.SINGLE).taxFor(BigDecimal.valueOf(20000))));
+        assertEquals(0, BigDecimal.ZERO.compareTo(snapshot.getFederalSchedule(FilingStatus.MARRIED_FILING_JOINTLY).taxFor(BigDecimal.valueOf(20000))));
+        assertTrue(snapshot.getStateSchedule(State.AL).isOpenEnded());
+        assertEquals(BigDecimal.valueOf(12950), snapshot.getStandardDeduction(FilingStatus.SINGLE));
+        assertEquals(BigDecimal.valueOf(6500), snapshot.getDeduction(2).getAgiLimit());
+        assertEquals(3000, snapshot.getDependentCareLimit(1).getCreditLimit());
+        assertEquals(6000, snapshot.getDependentCareLimit(4).getCreditLimit());
+    }
+
+    @Test
+    void getSnapshot_MissingData_ThrowsNotFoundException() {
+        TaxReferenceSnapshot snapshot = taxReferenceDataService.getSnapshot(2023);
+
+        assertThrows(NotFoundException.class, () -> snapshot.getFilingStatus(FilingStatus.WIDOW));
+        assertThrows(NotFoundException.class, () -> snapshot.getStateSchedule(State.CA));
+        assertThrows(NotFoundException.class, () -> snapshot.getCapitalGainsSchedule(FilingStatus.SINGLE));
+        NotFoundException missingDeduction = assertThrows(NotFoundException.class, () -> snapshot.getDeduction(1));
+        assertEquals("No Deduction exists with ID: 1", missingDeduction.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getDependentCareLimit(0));
+    }
+
+    @Test
+    void getSnapshot_OutsideLoadedYears_UsesNearestYear() {
+        TaxReferenceSnapshot snapshot = taxReferenceDataService.getSnapshot(2023);
+
+        assertSame(snapshot, taxReferenceDataService.getSnapshot(2020));
+        assertSame(snapshot, taxReferenceDataService.getSnapshot(2030));
+    }
+
+    @Test
+    void reload_ReplacesSnapshots() {
+        TaxReferenceSnapshot first = taxReferenceDataService.getSnapshot(2023);
+        TaxYearSnapshots reloaded = taxReferenceDataService.reload();
+
+        assertSame(reloaded, taxReferenceDataService.getSnapshots());
+        assertSame(reloaded.get(2023), taxReferenceDataService.getSnapshot(2023));
+        assertNotSame(first, reloaded.get(2023));
+    }
+}
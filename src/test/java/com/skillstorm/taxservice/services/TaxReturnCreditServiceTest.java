@@ -77,15 +77,17 @@ class TaxReturnCreditServiceTest {
       TaxReturnCreditDto result = taxReturnCreditService.updateTaxReturnCredit(taxReturnCreditDto);
 
       assertEquals(taxReturnCreditDto.getNumDependentsAotc(), result.getNumDependentsAotc());
+      verify(taxReturnRepository).incrementRevision(taxReturnCreditDto.getTaxReturnId());
     }
 
     @Test
     void testDeleteTaxReturnCredit() {
-      when(taxReturnCreditRepository.existsById(taxReturnCreditDto.getTaxReturnId())).thenReturn(true);
+      when(taxReturnCreditRepository.findById(1)).thenReturn(Optional.of(taxReturnCredit));
 
       taxReturnCreditService.deleteTaxReturnCredit(1);
 
       verify(taxReturnCreditRepository).deleteById(1);
+      verify(taxReturnRepository).incrementRevision(1);
     }
 
     // Setup method
@@ -1,7 +1,10 @@
 package com.skillstorm.taxservice.services;
 
+import com.skillstorm.taxservice.constants.CurveInput;
 import com.skillstorm.taxservice.constants.FilingStatus;
 import com.skillstorm.taxservice.constants.State;
+import com.skillstorm.taxservice.dtos.RefundCurveDto;
+import com.skillstorm.taxservice.dtos.RefundCurveRequestDto;
 import com.skillstorm.taxservice.dtos.RefundDto;
 import com.skillstorm.taxservice.dtos.TaxReturnDeductionDto;
 import com.skillstorm.taxservice.dtos.TaxReturnDto;
@@ -12,8 +15,12 @@ import com.skillstorm.taxservice.exceptions.UnauthorizedException;
 import com.skillstorm.taxservice.models.Deduction;
 import com.skillstorm.taxservice.models.TaxReturn;
 import com.skillstorm.taxservice.models.TaxReturnDeduction;
+import com.skillstorm.taxservice.projections.DeductionAmount;
+import com.skillstorm.taxservice.projections.RefundInputs;
+import com.skillstorm.taxservice.projections.W2StateTotals;
 import com.skillstorm.taxservice.repositories.TaxReturnDeductionRepository;
 import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import com.skillstorm.taxservice.repositories.W2Repository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,7 +37,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith({MockitoExtension.class})
@@ -40,6 +51,7 @@ class TaxReturnServiceTest {
 
     @Mock private static TaxReturnRepository taxReturnRepository;
     @Mock private static TaxReturnDeductionRepository taxReturnDeductionRepository;
+    @Mock private static W2Repository w2Repository;
     @Mock private static TaxCalculatorService taxCalculatorService;
     @Spy private static Environment environment;
 
@@ -53,7 +65,7 @@ class TaxReturnServiceTest {
 
     @BeforeEach
     void setUp() {
-        taxReturnService = new TaxReturnService(taxReturnRepository, taxReturnDeductionRepository, taxCalculatorService, environment);
+        taxReturnService = new TaxReturnService(taxReturnRepository, taxReturnDeductionRepository, w2Repository, taxCalculatorService, environment);
 
         setupTaxReturns();
         setupDeductions();
@@ -169,7 +181,7 @@ class TaxReturnServiceTest {
     void findByIdSuccess() {
 
         // Define stubbing:
-        when(taxReturnRepository.findById(1)).thenReturn(Optional.of(returnedNewTaxReturn));
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(returnedNewTaxReturn));
 
         // Call the method to be tested:
         TaxReturnDto result = taxReturnService.findById(1, 1);
@@ -205,12 +217,66 @@ class TaxReturnServiceTest {
     void findByIdFailure() {
 
         // Define stubbing:
-        when(taxReturnRepository.findById(1)).thenReturn(Optional.empty());
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.empty());
 
         // Verify the exception
         assertThrows(NotFoundException.class, () -> taxReturnService.findById(1, 1), "NotFoundException should be thrown.");
     }
 
+    // Get TaxReturn by id owned by another user:
+    @Test
+    void findByIdUnauthorized() {
+
+        // Define stubbing:
+        returnedNewTaxReturn.setRevision(4);
+        returnedNewTaxReturn.setCalculatedRevision(3);
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(returnedNewTaxReturn));
+
+        // Verify the exception, and that nothing was calculated or stored for the other user's TaxReturn:
+        assertThrows(UnauthorizedException.class, () -> taxReturnService.findById(1, 2), "UnauthorizedException should be thrown.");
+        verifyNoInteractions(taxCalculatorService);
+        verify(taxReturnRepository, never()).saveCalculatedResults(any());
+    }
+
+    // Get TaxReturn by id with results calculated at the current revision:
+    @Test
+    void findByIdCurrentResults() {
+
+        // Define stubbing:
+        returnedNewTaxReturn.setRevision(3);
+        returnedNewTaxReturn.setCalculatedRevision(3);
+        returnedNewTaxReturn.setFederalRefund(new BigDecimal("512.00"));
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(returnedNewTaxReturn));
+
+        // Call the method to be tested:
+        TaxReturnDto result = taxReturnService.findById(1, 1);
+
+        // Verify the stored results were returned without recalculating:
+        assertEquals(new BigDecimal("512.00"), result.getFederalRefund(), "The stored federal refund should be returned.");
+        verifyNoInteractions(taxCalculatorService);
+        verify(taxReturnRepository, never()).saveCalculatedResults(any());
+    }
+
+    // Get TaxReturn by id that changed since its results were calculated:
+    @Test
+    void findByIdOutOfDateResults() {
+
+        // Define stubbing:
+        returnedNewTaxReturn.setRevision(4);
+        returnedNewTaxReturn.setCalculatedRevision(3);
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(returnedNewTaxReturn));
+        when(taxReturnRepository.saveCalculatedResults(any())).thenReturn(1);
+
+        // Call the method to be tested:
+        TaxReturnDto result = taxReturnService.findById(1, 1);
+
+        // Verify the TaxReturn was recalculated and the new results stored at the current revision:
+        verify(taxCalculatorService).calculateAll(result);
+        verify(taxReturnRepository).saveCalculatedResults(any());
+        assertEquals(4, result.getCalculatedRevision(), "The results should be marked as calculated at revision 4.");
+        assertTrue(result.hasCurrentResults(), "The results should be current.");
+    }
+
     // Find all TaxReturns by userId:
     @Test
     void findAllByUserId() {
@@ -250,7 +316,7 @@ class TaxReturnServiceTest {
     void updateTaxReturn() {
 
         // Define stubbing:
-        when(taxReturnRepository.findById(1)).thenReturn(Optional.of(updatedTaxReturn.mapToEntity()));
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(updatedTaxReturn.mapToEntity()));
         when(taxReturnRepository.saveAndFlush(updatedTaxReturn.mapToEntity())).thenReturn(updatedTaxReturn.mapToEntity());
 
         // Call the method to be tested:
@@ -266,6 +332,7 @@ class TaxReturnServiceTest {
         assertEquals("TestCity", result.getCity(), "The TaxReturn city should be TestCity.");
         assertEquals(State.FL, result.getState(), "The TaxReturn state should be FL.");
         assertEquals("TestZipCode", result.getZip(), "The TaxReturn zip code should be TestZipCode.");
+        verify(taxReturnRepository).incrementRevision(1);
     }
 
     // Delete TaxReturn Success:
@@ -273,7 +340,7 @@ class TaxReturnServiceTest {
     void deleteTaxReturn() {
 
         // Define stubbing:
-        when(taxReturnRepository.findById(1)).thenReturn(Optional.of(updatedTaxReturn.mapToEntity()));
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(updatedTaxReturn.mapToEntity()));
 
         //Define ArgumentCaptor:
         ArgumentCaptor<Integer> idCaptor = ArgumentCaptor.forClass(Integer.class);
@@ -293,7 +360,7 @@ class TaxReturnServiceTest {
     void deleteTaxReturnUnauthorized() {
 
         // Define stubbing:
-        when(taxReturnRepository.findById(1)).thenReturn(Optional.of(updatedTaxReturn.mapToEntity()));
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(updatedTaxReturn.mapToEntity()));
 
         // Verify the exception
         assertThrows(UnauthorizedException.class, () -> taxReturnService.deleteTaxReturn(1, 2), "UnauthorizedException should be thrown.");
@@ -316,6 +383,7 @@ class TaxReturnServiceTest {
         assertFalse(result.isItemized(), "The TaxReturnDeduction itemized should be false.");
         assertEquals(BigDecimal.valueOf(1000.00), result.getAmountSpent(), "The TaxReturnDeduction amount spent should be 1000.00.");
         assertEquals(BigDecimal.valueOf(3850.00), result.getAgiLimit(), "The TaxReturnDeduction AGI limit should be 3850.00.");
+        verify(taxReturnRepository).incrementRevision(1);
     }
 
     // Claim deductions duplicate:
@@ -328,18 +396,174 @@ class TaxReturnServiceTest {
         assertThrows(DuplicateDataException.class, () -> taxReturnService.claimDeduction(1, deductionRequest), "DuplicateDataException should be thrown.");
     }
 
-    // Get refund:
+    // Claim several deductions in one save:
+    @Test
+    void claimDeductionsSuccess() {
+        // Define stubbing:
+        when(taxReturnDeductionRepository.saveAllAndFlush(List.of(deductionRequest.mapToEntity()))).thenReturn(List.of(returnedDeduction));
+
+        // Call the method to be tested:
+        List<TaxReturnDeductionDto> result = taxReturnService.claimDeductions(1, List.of(deductionRequest));
+
+        // Verify the result:
+        assertEquals(1, result.size(), "One TaxReturnDeduction should be returned.");
+        assertEquals(1, result.get(0).getId(), "The TaxReturnDeduction ID should be 1.");
+        assertEquals(1, deductionRequest.getTaxReturn(), "The request should be claimed for TaxReturn 1.");
+        verify(taxReturnRepository).incrementRevision(1);
+    }
+
+    // Get refund with results calculated at the current revision:
     @Test
-    void getRefund() {
+    void getRefundCurrentResults() {
+
         // Define stubbing:
-        when(taxReturnRepository.findById(1)).thenReturn(Optional.of(updatedTaxReturn.mapToEntity()));
+        RefundInputs inputs = mock(RefundInputs.class);
+        when(inputs.getUserId()).thenReturn(1);
+        when(inputs.hasCurrentResults()).thenReturn(true);
+        when(inputs.getFederalRefund()).thenReturn(new BigDecimal("512.00"));
+        when(inputs.getStateRefund()).thenReturn(new BigDecimal("64.00"));
+        when(taxReturnRepository.findRefundInputsById(1)).thenReturn(Optional.of(inputs));
 
         // Call the method to be tested:
         RefundDto result = taxReturnService.getRefund(1, 1);
 
+        // Verify the stored refunds were returned without loading anything else or recalculating:
+        assertEquals(new BigDecimal("512.00"), result.getFederalRefund(), "The stored federal refund should be returned.");
+        assertEquals(new BigDecimal("64.00"), result.getStateRefund(), "The stored state refund should be returned.");
+        verifyNoInteractions(taxCalculatorService, w2Repository, taxReturnDeductionRepository);
+        verify(taxReturnRepository, never()).saveCalculatedResults(any());
+    }
+
+    // Get refund for a TaxReturn that changed since its results were calculated:
+    @Test
+    void getRefundOutOfDateResults() {
+
+        // Define stubbing:
+        RefundInputs inputs = mock(RefundInputs.class);
+        when(inputs.getUserId()).thenReturn(1);
+        when(inputs.getYear()).thenReturn(2024);
+        when(inputs.getFilingStatus()).thenReturn(FilingStatus.SINGLE.getValue());
+        when(inputs.getState()).thenReturn(State.FL);
+        when(inputs.getRevision()).thenReturn(4);
+        when(inputs.getCalculatedRevision()).thenReturn(3);
+        // Mockito answers 0 for an Integer, but a TaxReturn without other income or credits has null ids:
+        when(inputs.getOtherIncomeId()).thenReturn(null);
+        when(inputs.getTaxCreditId()).thenReturn(null);
+        W2StateTotals totals = mock(W2StateTotals.class);
+        when(totals.getState()).thenReturn(State.FL.getValue());
+        when(totals.getWages()).thenReturn(new BigDecimal("60000.00"));
+        when(totals.getFederalIncomeTaxWithheld()).thenReturn(new BigDecimal("6000.00"));
+        when(totals.getStateIncomeTaxWithheld()).thenReturn(BigDecimal.ZERO);
+        when(totals.getSocialSecurityTaxWithheld()).thenReturn(new BigDecimal("3720.00"));
+        when(totals.getMedicareTaxWithheld()).thenReturn(new BigDecimal("870.00"));
+        DeductionAmount deduction = mock(DeductionAmount.class);
+        when(deduction.getDeduction()).thenReturn(1);
+        when(deduction.getAmountSpent()).thenReturn(new BigDecimal("1000.00"));
+        when(taxReturnRepository.findRefundInputsById(1)).thenReturn(Optional.of(inputs));
+        when(w2Repository.findStateTotalsByTaxReturnId(1)).thenReturn(List.of(totals));
+        when(taxReturnDeductionRepository.findAmountsByTaxReturnId(1)).thenReturn(List.of(deduction));
+        ArgumentCaptor<TaxReturnDto> calculated = ArgumentCaptor.forClass(TaxReturnDto.class);
+
+        // Call the method to be tested:
+        taxReturnService.getRefund(1, 1);
+
+        // Verify the compact TaxReturn was calculated and its results stored:
+        verify(taxCalculatorService).calculateAll(calculated.capture());
+        verify(taxReturnRepository).saveCalculatedResults(any());
+        TaxReturnDto taxReturn = calculated.getValue();
+        assertEquals(1, taxReturn.getId(), "The TaxReturn ID should be 1.");
+        assertEquals(4, taxReturn.getRevision(), "The TaxReturn should be calculated at revision 4.");
+        assertEquals(State.FL, taxReturn.getW2s().get(0).getState(), "The W2 totals should keep their state.");
+        assertEquals(new BigDecimal("60000.00"), taxReturn.getW2s().get(0).getWages(), "The W2 totals should carry the summed wages.");
+        assertEquals(1, taxReturn.getDeductions().get(0).getDeduction(), "The claimed deduction should be included.");
+        assertNull(taxReturn.getOtherIncome(), "A TaxReturn without other income should have none.");
+        assertNull(taxReturn.getTaxCredit(), "A TaxReturn without credits should have none.");
+    }
+
+    // Get refund of another user's TaxReturn:
+    @Test
+    void getRefundUnauthorized() {
+
+        // Define stubbing:
+        RefundInputs inputs = mock(RefundInputs.class);
+        when(inputs.getUserId()).thenReturn(1);
+        when(taxReturnRepository.findRefundInputsById(1)).thenReturn(Optional.of(inputs));
+
+        // Verify the exception
+        assertThrows(UnauthorizedException.class, () -> taxReturnService.getRefund(1, 2), "UnauthorizedException should be thrown.");
+        verifyNoInteractions(taxCalculatorService);
+    }
+
+    // Get refund of a TaxReturn that doesn't exist:
+    @Test
+    void getRefundNotFound() {
+
+        // Define stubbing:
+        when(taxReturnRepository.findRefundInputsById(1)).thenReturn(Optional.empty());
+
+        // Verify the exception
+        assertThrows(NotFoundException.class, () -> taxReturnService.getRefund(1, 1), "NotFoundException should be thrown.");
+    }
+
+    // Get the refund curve of a TaxReturn over evenly spaced values:
+    @Test
+    void getRefundCurveSuccess() {
+
+        // Define stubbing:
+        RefundCurveRequestDto request = new RefundCurveRequestDto();
+        request.setInput(CurveInput.ADDITIONAL_INCOME);
+        request.setFrom(new BigDecimal("100"));
+        request.setTo(new BigDecimal("200.01"));
+        request.setPoints(4);
+        RefundCurveDto curve = new RefundCurveDto();
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(returnedNewTaxReturn));
+        when(taxCalculatorService.calculateRefundCurve(any(), any(), any())).thenReturn(curve);
+        ArgumentCaptor<long[]> values = ArgumentCaptor.forClass(long[].class);
+
+        // Call the method to be tested:
+        RefundCurveDto result = taxReturnService.getRefundCurve(1, 1, request);
+
         // Verify the result:
-        assertEquals(BigDecimal.ZERO.setScale(2), result.getFederalRefund(), "The TaxReturn federal refund should be 0.00.");
-        assertEquals(BigDecimal.ZERO.setScale(2), result.getStateRefund(), "The TaxReturn state refund should be 0.00.");
+        assertSame(curve, result, "The calculated curve should be returned.");
+        verify(taxCalculatorService).calculateRefundCurve(any(), any(), values.capture());
+        assertArrayEquals(new long[] {10000, 13334, 16667, 20001}, values.getValue(), "The values should be evenly spaced cents from `from` to `to`.");
+        verify(taxReturnRepository, never()).saveCalculatedResults(any());
+    }
+
+    // Get the refund curve of another user's TaxReturn:
+    @Test
+    void getRefundCurveUnauthorized() {
+
+        // Define stubbing:
+        RefundCurveRequestDto request = new RefundCurveRequestDto();
+        request.setInput(CurveInput.IRA_CONTRIBUTIONS);
+        request.setFrom(BigDecimal.ZERO);
+        request.setTo(new BigDecimal("4000"));
+        request.setPoints(10);
+        when(taxReturnRepository.findCompleteById(1)).thenReturn(Optional.of(returnedNewTaxReturn));
+
+        // Verify the exception
+        assertThrows(UnauthorizedException.class, () -> taxReturnService.getRefundCurve(1, 2, request), "UnauthorizedException should be thrown.");
+        verifyNoInteractions(taxCalculatorService);
+    }
+
+    // Simulate a TaxReturn without touching the database:
+    @Test
+    void simulate() {
+        // Define stubbing:
+        updatedTaxReturn.setUserId(0);
+        updatedTaxReturn.setW2s(null);
+        when(taxCalculatorService.calculateAll(updatedTaxReturn)).thenReturn(updatedTaxReturn);
+
+        // Call the method to be tested:
+        TaxReturnDto result = taxReturnService.simulate(updatedTaxReturn, 1);
+
+        // Verify the result:
+        assertSame(updatedTaxReturn, result, "The calculated TaxReturn should be returned.");
+        assertEquals(1, result.getUserId(), "The TaxReturn user ID should be set from the request header.");
+        assertEquals(List.of(), result.getW2s(), "Missing W2s should be treated as none.");
+        assertEquals(0, result.getId(), "The TaxReturn ID should be cleared so no stored TaxReturn's checkpoint is used.");
+        verifyNoInteractions(taxReturnRepository, taxReturnDeductionRepository);
     }
 
     // Get TaxReturnDeduction by ID success:
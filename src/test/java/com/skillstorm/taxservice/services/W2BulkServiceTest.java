@@ -0,0 +1,146 @@
+package com.skillstorm.taxservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillstorm.taxservice.dtos.W2BulkResultDto;
+import com.skillstorm.taxservice.models.W2;
+import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import com.skillstorm.taxservice.repositories.W2Repository;
+import com.skillstorm.taxservice.utilities.W2RecordReader;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class W2BulkServiceTest {
+
+    @Mock private W2Repository w2Repository;
+    @Mock private TaxReturnRepository taxReturnRepository;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private Environment environment;
+
+    private W2BulkService w2BulkService;
+
+    @BeforeEach
+    void setUp() {
+        w2BulkService = new W2BulkService(w2Repository, taxReturnRepository, transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), environment, 2);
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private List<List<W2BulkResultDto>> addW2s(String ndjson) throws IOException {
+        List<List<W2BulkResultDto>> chunks = new ArrayList<>();
+        w2BulkService.addW2s(new W2RecordReader(new StringReader(ndjson), W2RecordReader.Format.NDJSON, new ObjectMapper()),
+                7, chunks::add);
+        return chunks;
+    }
+
+    private static String w2(int taxReturnId) {
+        return "{\"taxReturnId\":" + taxReturnId + ",\"year\":2023,\"employer\":\"Acme\",\"state\":\"NY\",\"userId\":99,\"imageKey\":\"x\"}\n";
+    }
+
+    // Valid W2s are stored chunk by chunk, and unreadable, invalid or unowned ones are reported without stopping the rest:
+    @Test
+    void addW2s_StoresValidW2sAndReportsTheRest() throws IOException {
+        //Define stubbing:
+        runTransactionsInline();
+        when(environment.getProperty("taxreturn.not.found")).thenReturn("No Tax Return exists with ID:");
+        when(taxReturnRepository.findIdsByIdInAndUserId(Set.of(1), 7)).thenReturn(Set.of(1));
+        when(taxReturnRepository.findIdsByIdInAndUserId(Set.of(9, 1), 7)).thenReturn(Set.of(1));
+        when(w2Repository.insertAll(anyList())).thenReturn(new int[] {10}, new int[] {11});
+
+        //Call the method to test:
+        List<List<W2BulkResultDto>> chunks = addW2s(w2(1) + "{not json}\n" + w2(9) + w2(1)
+                + "{\"taxReturnId\":1,\"year\":2023,\"state\":\"NY\"}\n");
+
+        //Verify the result:
+        assertEquals(3, chunks.size());
+        List<W2BulkResultDto> results = chunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(1, 2, 3, 4, 5), results.stream().map(W2BulkResultDto::getLine).toList());
+        assertEquals(10, results.get(0).getId());
+        assertEquals(400, results.get(1).getError().getErrorCode());
+        assertEquals("No Tax Return exists with ID: 9", results.get(2).getError().getMessage());
+        assertEquals(11, results.get(3).getId());
+        assertNull(results.get(3).getError());
+        assertNull(results.get(4).getId());
+        assertEquals(400, results.get(4).getError().getErrorCode());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<W2>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(w2Repository, times(2)).insertAll(inserted.capture());
+        W2 stored = inserted.getValue().get(0);
+        assertEquals(7, stored.getUserId());
+        assertEquals(0, stored.getId());
+        assertNull(stored.getImageKey());
+        verify(taxReturnRepository, times(2)).incrementRevisions(Set.of(1));
+    }
+
+    // A batch the database rejects is retried one W2 at a time, so only the W2s it rejects fail:
+    @Test
+    void addW2s_RejectedBatch_InsertsEachW2OnItsOwn() throws IOException {
+        //Define stubbing:
+        runTransactionsInline();
+        when(taxReturnRepository.findIdsByIdInAndUserId(Set.of(1, 2), 7)).thenReturn(Set.of(1, 2));
+        when(w2Repository.insertAll(argThat(w2s -> w2s != null && w2s.size() == 2)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(w2Repository.insertAll(argThat(w2s -> w2s != null && w2s.size() == 1 && w2s.get(0).getTaxReturn().getId() == 1)))
+                .thenReturn(new int[] {10});
+        when(w2Repository.insertAll(argThat(w2s -> w2s != null && w2s.size() == 1 && w2s.get(0).getTaxReturn().getId() == 2)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        //Call the method to test:
+        List<W2BulkResultDto> results = addW2s(w2(1) + w2(2)).get(0);
+
+        //Verify the result:
+        assertEquals(10, results.get(0).getId());
+        assertNull(results.get(1).getId());
+        assertEquals(400, results.get(1).getError().getErrorCode());
+        assertEquals("value too long", results.get(1).getError().getMessage());
+    }
+
+    // Any other database failure fails the whole chunk without retrying each W2:
+    @Test
+    void addW2s_DatabaseUnavailable_FailsChunk() throws IOException {
+        //Define stubbing:
+        when(taxReturnRepository.findIdsByIdInAndUserId(Set.of(1), 7)).thenReturn(Set.of(1));
+        when(transactionTemplate.execute(any())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        //Call the method to test:
+        List<W2BulkResultDto> results = addW2s(w2(1) + w2(1)).get(0);
+
+        //Verify the result:
+        assertEquals(500, results.get(0).getError().getErrorCode());
+        assertEquals(500, results.get(1).getError().getErrorCode());
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void constructor_ChunkSizeBelowOne_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new W2BulkService(w2Repository, taxReturnRepository,
+                transactionTemplate, Validation.buildDefaultValidatorFactory().getValidator(), environment, 0));
+    }
+}
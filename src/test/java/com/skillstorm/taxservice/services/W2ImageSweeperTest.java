@@ -0,0 +1,88 @@
+package com.skillstorm.taxservice.services;
+
+import com.skillstorm.taxservice.models.W2Image;
+import com.skillstorm.taxservice.repositories.W2ImageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class W2ImageSweeperTest {
+
+    @Mock
+    private W2ImageRepository w2ImageRepository;
+    @Mock
+    private W2Service w2Service;
+
+    private SimpleMeterRegistry meterRegistry;
+    private W2ImageSweeper sweeper;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new W2ImageSweeper(w2ImageRepository, w2Service, Duration.ofHours(24), meterRegistry);
+    }
+
+    // Sweep recounts references before collecting images left unreferenced past the grace period:
+    @Test
+    void sweepTest() {
+
+        //Define stubbing:
+        when(w2ImageRepository.findTop100ByUnreferencedAtBefore(any(Instant.class)))
+                .thenReturn(List.of(w2Image("1.png"), w2Image("2.png")));
+        when(w2Service.collectImage(eq("1.png"), any(Instant.class))).thenReturn(true);
+        when(w2Service.collectImage(eq("2.png"), any(Instant.class))).thenReturn(false);
+
+        //Call the method to test:
+        int deleted = sweeper.sweep();
+
+        //Verify the method was called:
+        InOrder order = inOrder(w2ImageRepository, w2Service);
+        order.verify(w2ImageRepository).recountReferences();
+        order.verify(w2ImageRepository).markUnreferenced(any(Instant.class));
+        order.verify(w2Service).collectImage(eq("1.png"), any(Instant.class));
+
+        //Verify the result:
+        assertEquals(1, deleted, "Only the collected image should be counted");
+        assertEquals(1, meterRegistry.get("w2.image.gc.collected").counter().count());
+    }
+
+    // Sweep carries on past an image S3 fails to delete:
+    @Test
+    void sweepS3FailureTest() {
+
+        //Define stubbing:
+        when(w2ImageRepository.findTop100ByUnreferencedAtBefore(any(Instant.class)))
+                .thenReturn(List.of(w2Image("1.png"), w2Image("2.png")));
+        when(w2Service.collectImage(eq("1.png"), any(Instant.class))).thenThrow(S3Exception.builder().statusCode(500).build());
+        when(w2Service.collectImage(eq("2.png"), any(Instant.class))).thenReturn(true);
+
+        //Call the method to test:
+        int deleted = sweeper.sweep();
+
+        //Verify the result:
+        assertEquals(1, deleted, "Image after the failure should still be collected");
+    }
+
+    private static W2Image w2Image(String imageKey) {
+        W2Image image = new W2Image();
+        image.setImageKey(imageKey);
+        image.setUnreferencedAt(Instant.EPOCH);
+        return image;
+    }
+}
@@ -2,9 +2,14 @@ package com.skillstorm.taxservice.services;
 
 import com.skillstorm.taxservice.constants.State;
 import com.skillstorm.taxservice.dtos.W2Dto;
+import com.skillstorm.taxservice.dtos.W2ImageDto;
+import com.skillstorm.taxservice.exceptions.ImageTooLargeException;
 import com.skillstorm.taxservice.exceptions.NotFoundException;
 import com.skillstorm.taxservice.models.TaxReturn;
 import com.skillstorm.taxservice.models.W2;
+import com.skillstorm.taxservice.models.W2Image;
+import com.skillstorm.taxservice.repositories.TaxReturnRepository;
+import com.skillstorm.taxservice.repositories.W2ImageRepository;
 import com.skillstorm.taxservice.repositories.W2Repository;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,15 +21,36 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.env.Environment;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
-
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +62,11 @@ class W2ServiceTest {
     @Mock
     private static W2Repository w2Repository;
     @Mock
-    private static S3Service s3Service;
+    private static TaxReturnRepository taxReturnRepository;
+    @Mock
+    private static W2ImageRepository w2ImageRepository;
+    @Mock
+    private static ImageStorage imageStorage;
     @Spy
     private static Environment environment;
 
@@ -48,7 +78,7 @@ class W2ServiceTest {
     
     @BeforeEach
     public void setup() {
-        w2Service = new W2Service(w2Repository, s3Service, environment);
+        w2Service = new W2Service(w2Repository, taxReturnRepository, w2ImageRepository, imageStorage, ImageCache.NONE, environment, DataSize.ofMegabytes(20));
         
         setupW2s();
     }
@@ -229,7 +259,7 @@ class W2ServiceTest {
     void deleteW2ByIdTest() {
 
         //Define stubbing:
-        when(w2Repository.existsById(1)).thenReturn(true);
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
 
         //Define ArgumentCaptor:
         ArgumentCaptor<Integer> idCaptor = ArgumentCaptor.forClass(Integer.class);
@@ -242,33 +272,70 @@ class W2ServiceTest {
 
         //Verify the result:
         assertEquals(1, idCaptor.getValue(), "W2 ID should be 1");
+        verify(taxReturnRepository).incrementRevision(returnedW2.getTaxReturn().getId());
+        verifyNoInteractions(w2ImageRepository);
+    }
+
+    // Delete W2 with an image by ID:
+    @Test
+    void deleteW2WithImageByIdTest() {
+
+        returnedW2.setImageKey("w2s/1/1.png");
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+
+        //Call the method to test:
+        w2Service.deleteById(1);
+
+        //Verify the result:
+        verify(w2ImageRepository).removeReference(eq("w2s/1/1.png"), any(Instant.class));
     }
 
     // Upload W2 Image:
     @Test
+    @SneakyThrows
     void uploadW2ImageTest() {
 
         //Define stubbing:
         when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
 
+        // Mocked S3 reads the whole stream like the real upload does:
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            invocation.<InputStream>getArgument(1).transferTo(uploaded);
+            return CompletableFuture.completedFuture(null);
+        }).when(imageStorage).uploadStream(anyString(), any(InputStream.class), eq("image/png"));
+
+        when(imageStorage.moveObject(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture("\"etag\""));
+
         // Define ArgumentCaptors:
-        ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<byte[]> imageCaptor = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<String> uploadKeyCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<W2> w2Captor = ArgumentCaptor.forClass(W2.class);
+        ArgumentCaptor<W2Image> imageCaptor = ArgumentCaptor.forClass(W2Image.class);
 
         //Call the method to test:
         byte[] image = {0};
-        w2Service.uploadImage(1, image, "image/png", 1);
+        String imageKey = w2Service.uploadImage(1, new ByteArrayInputStream(image), image.length, "image/png", null, 1).join();
 
         //Verify the method was called:
-        verify(s3Service).uploadFile(keyCaptor.capture(), imageCaptor.capture());
+        verify(imageStorage).uploadStream(uploadKeyCaptor.capture(), any(InputStream.class), eq("image/png"));
+        verify(imageStorage).moveObject(uploadKeyCaptor.getValue(), imageKey);
         verify(w2Repository).saveAndFlush(w2Captor.capture());
+        verify(w2ImageRepository).save(imageCaptor.capture());
 
         // The w2Captor should capture the W2 object with the updated image key getting sent to the database:
         W2 result = w2Captor.getValue();
 
         //Verify the result:
-        assertArrayEquals(new byte[]{0}, imageCaptor.getValue(), "Image should be a byte array");
+        assertArrayEquals(new byte[]{0}, uploaded.toByteArray(), "Image should be streamed to S3");
+        assertEquals(imageKey, imageCaptor.getValue().getImageKey(), "Image metadata should be recorded under its key");
+        assertEquals("image/png", imageCaptor.getValue().getContentType(), "Content type should be recorded");
+        assertEquals(1, imageCaptor.getValue().getContentLength(), "Size should be recorded");
+        assertEquals("\"etag\"", imageCaptor.getValue().getETag(), "S3 ETag should be recorded");
+        assertEquals(1, imageCaptor.getValue().getReferenceCount(), "New image should be referenced by the W2");
+        assertEquals(UUID.nameUUIDFromBytes(image) + ".png", imageKey, "Image key should be derived from its content");
+        assertEquals(imageKey, result.getImageKey(), "Image key should be saved on the W2");
         assertEquals(1, result.getId(), "W2 ID should be 1");
         assertEquals("Test Employer", result.getEmployer(), "Employer should be 'Test Employer'");
         assertEquals(2024, result.getYear(), "Year should be 2024");
@@ -279,24 +346,385 @@ class W2ServiceTest {
         assertEquals(1, result.getUserId(), "User ID should be 1");
     }
 
-    // Download W2 Image Success:
+    // Upload W2 Image declared larger than the limit:
+    @Test
+    void uploadW2ImageTooLargeTest() {
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+
+        //Call the method to test:
+        assertThrows(ImageTooLargeException.class, () -> w2Service.uploadImage(1, new ByteArrayInputStream(new byte[0]),
+                DataSize.ofMegabytes(21).toBytes(), "image/png", null, 1));
+        verifyNoInteractions(imageStorage);
+    }
+
+    // Upload W2 Image that turns out to be larger than the limit while streaming:
     @Test
     @SneakyThrows
-    void testDownloadW2ImageSuccess() {
+    void uploadW2ImageTooLargeWhileStreamingTest() {
+        w2Service = new W2Service(w2Repository, taxReturnRepository, w2ImageRepository, imageStorage, ImageCache.NONE, environment, DataSize.ofBytes(2));
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+        doAnswer(invocation -> {
+            invocation.<InputStream>getArgument(1).readAllBytes();
+            return CompletableFuture.completedFuture(null);
+        }).when(imageStorage).uploadStream(anyString(), any(InputStream.class), eq("image/png"));
+
+        //Call the method to test:
+        assertThrows(ImageTooLargeException.class, () -> w2Service.uploadImage(1, new ByteArrayInputStream(new byte[]{1, 2, 3}),
+                -1, "image/png", null, 1));
+        verify(imageStorage, never()).moveObject(anyString(), anyString());
+        verify(w2Repository, never()).saveAndFlush(any());
+    }
+
+    // Upload W2 Image that is already stored:
+    @Test
+    @SneakyThrows
+    void uploadW2ImageAlreadyStoredTest() {
+
+        byte[] image = {0};
+        String imageKey = UUID.nameUUIDFromBytes(image) + ".png";
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+        doAnswer(invocation -> {
+            invocation.<InputStream>getArgument(1).readAllBytes();
+            return CompletableFuture.completedFuture(null);
+        }).when(imageStorage).uploadStream(anyString(), any(InputStream.class), eq("image/png"));
+        when(w2ImageRepository.addReference(imageKey)).thenReturn(1);
+        when(imageStorage.deleteObject(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Define ArgumentCaptors:
+        ArgumentCaptor<String> uploadKeyCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<W2> w2Captor = ArgumentCaptor.forClass(W2.class);
+
+        //Call the method to test:
+        String result = w2Service.uploadImage(1, new ByteArrayInputStream(image), image.length, "image/png", null, 1).join();
+
+        //Verify the result:
+        verify(imageStorage).uploadStream(uploadKeyCaptor.capture(), any(InputStream.class), eq("image/png"));
+        verify(imageStorage).deleteObject(uploadKeyCaptor.getValue());
+        verify(imageStorage, never()).moveObject(anyString(), anyString());
+        verify(w2ImageRepository, never()).save(any());
+        verify(w2Repository).saveAndFlush(w2Captor.capture());
+        assertEquals(imageKey, result, "Stored image should be reused");
+        assertEquals(imageKey, w2Captor.getValue().getImageKey(), "Image key should be saved on the W2");
+    }
+
+    // Upload W2 Image that is already stored, with its Content-MD5:
+    @Test
+    @SneakyThrows
+    void uploadW2ImageContentMd5AlreadyStoredTest() {
+
+        byte[] image = {0};
+        String imageKey = UUID.nameUUIDFromBytes(image) + ".png";
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+        when(w2ImageRepository.addReference(imageKey)).thenReturn(1);
+
+        // Define ArgumentCaptor:
+        ArgumentCaptor<W2> w2Captor = ArgumentCaptor.forClass(W2.class);
+
+        //Call the method to test:
+        String result = w2Service.uploadImage(1, new ByteArrayInputStream(image), image.length, "image/png", contentMd5(image), 1).join();
+
+        //Verify the result:
+        verifyNoInteractions(imageStorage);
+        verify(w2Repository).saveAndFlush(w2Captor.capture());
+        assertEquals(imageKey, result, "Stored image should be reused");
+        assertEquals(imageKey, w2Captor.getValue().getImageKey(), "Image key should be saved on the W2");
+    }
+
+    // Upload W2 Image with a Content-MD5 that doesn't match the body:
+    @Test
+    @SneakyThrows
+    void uploadW2ImageContentMd5MismatchTest() {
+
+        String imageKey = UUID.nameUUIDFromBytes(new byte[]{0}) + ".png";
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+        when(w2ImageRepository.addReference(imageKey)).thenReturn(1);
+
+        //Call the method to test:
+        assertThrows(IllegalArgumentException.class, () -> w2Service.uploadImage(1, new ByteArrayInputStream(new byte[]{1}),
+                1, "image/png", contentMd5(new byte[]{0}), 1));
+
+        //Verify the result:
+        verify(w2ImageRepository).removeReference(eq(imageKey), any(Instant.class));
+        verify(w2Repository, never()).saveAndFlush(any());
+    }
+
+    // Upload W2 Image replacing the one the W2 had:
+    @Test
+    @SneakyThrows
+    void uploadW2ImageReplacesPreviousTest() {
+
+        returnedW2.setImageKey("previous.png");
+        byte[] image = {0};
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+        when(w2ImageRepository.addReference(UUID.nameUUIDFromBytes(image) + ".png")).thenReturn(1);
+
+        //Call the method to test:
+        w2Service.uploadImage(1, new ByteArrayInputStream(image), image.length, "image/png", contentMd5(image), 1).join();
+
+        //Verify the result:
+        verify(w2ImageRepository).removeReference(eq("previous.png"), any(Instant.class));
+    }
+
+    // Collect W2 Image nothing has referenced since before the cutoff:
+    @Test
+    void collectW2ImageTest() {
+
+        W2Image image = w2Image("w2s/1/1.png", "image/png");
+        image.setUnreferencedAt(Instant.EPOCH);
+
+        //Define stubbing:
+        when(w2ImageRepository.findLockedByImageKey("w2s/1/1.png")).thenReturn(Optional.of(image));
+        when(w2Repository.countByImageKey("w2s/1/1.png")).thenReturn(0L);
+        when(imageStorage.deleteObject("w2s/1/1.png")).thenReturn(CompletableFuture.completedFuture(null));
+
+        //Call the method to test:
+        boolean result = w2Service.collectImage("w2s/1/1.png", Instant.EPOCH.plusSeconds(1));
+
+        //Verify the result:
+        assertTrue(result, "Unreferenced image should be collected");
+        verify(imageStorage).deleteObject("w2s/1/1.png");
+        verify(w2ImageRepository).delete(image);
+    }
+
+    // Collect W2 Image a W2 still uses, although its count says otherwise:
+    @Test
+    void collectW2ImageStillReferencedTest() {
+
+        W2Image image = w2Image("w2s/1/1.png", "image/png");
+        image.setUnreferencedAt(Instant.EPOCH);
+
+        //Define stubbing:
+        when(w2ImageRepository.findLockedByImageKey("w2s/1/1.png")).thenReturn(Optional.of(image));
+        when(w2Repository.countByImageKey("w2s/1/1.png")).thenReturn(2L);
+
+        //Call the method to test:
+        boolean result = w2Service.collectImage("w2s/1/1.png", Instant.EPOCH.plusSeconds(1));
+
+        //Verify the result:
+        assertFalse(result, "Referenced image should be kept");
+        verifyNoInteractions(imageStorage);
+        assertEquals(2, image.getReferenceCount(), "Reference count should be corrected");
+        assertNull(image.getUnreferencedAt(), "Image should no longer be marked unreferenced");
+    }
+
+    // Collect W2 Image unreferenced for less than the grace period:
+    @Test
+    void collectW2ImageRecentlyUnreferencedTest() {
+
+        W2Image image = w2Image("w2s/1/1.png", "image/png");
+        image.setUnreferencedAt(Instant.EPOCH.plusSeconds(1));
+
+        //Define stubbing:
+        when(w2ImageRepository.findLockedByImageKey("w2s/1/1.png")).thenReturn(Optional.of(image));
+
+        //Call the method to test:
+        assertFalse(w2Service.collectImage("w2s/1/1.png", Instant.EPOCH.plusSeconds(1)));
+
+        //Verify the result:
+        verifyNoInteractions(imageStorage);
+    }
+
+    // Find W2 Image metadata already recorded:
+    @Test
+    void testFindW2Image() {
 
-        byte[] imageBytes = {1, 2, 3};
-        Resource resource = new ByteArrayResource(imageBytes);
         returnedW2.setImageKey("w2s/1/1.png");
 
         //Define stubbing:
         when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
-        when(s3Service.getObject("w2s/1/1.png")).thenReturn(resource.getInputStream());
+        when(w2ImageRepository.findById("w2s/1/1.png")).thenReturn(Optional.of(w2Image("w2s/1/1.png", "image/png")));
+
+        //Call the method to test:
+        W2ImageDto result = w2Service.findImage(1, 1);
+
+        //Verify the result:
+        verifyNoInteractions(imageStorage);
+        assertEquals("\"etag\"", result.getETag(), "ETag should come from the stored metadata");
+        assertEquals("image/png", result.getContentType(), "Content type should come from the stored metadata");
+        assertEquals(Long.valueOf(3), result.getContentLength(), "Content length should come from the stored metadata");
+    }
+
+    // Find W2 Image uploaded before metadata was recorded:
+    @Test
+    void testFindW2ImageNotRecorded() {
+
+        returnedW2.setImageKey("w2s/1/1.pdf");
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+        when(w2ImageRepository.findById("w2s/1/1.pdf")).thenReturn(Optional.empty());
+        when(imageStorage.headObject("w2s/1/1.pdf")).thenReturn(CompletableFuture.completedFuture(HeadObjectResponse.builder()
+                .contentType("binary/octet-stream").contentLength(1L).eTag("\"etag\"").lastModified(Instant.EPOCH).build()));
+        when(w2ImageRepository.save(any(W2Image.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //Call the method to test:
+        W2ImageDto result = w2Service.findImage(1, 1);
+
+        //Verify the result:
+        verify(w2ImageRepository).save(any(W2Image.class));
+        assertEquals("application/pdf", result.getContentType(), "Content type should come from the key's extension");
+        assertEquals("\"etag\"", result.getETag(), "ETag should come from S3");
+        assertEquals(Instant.EPOCH, result.getUploadedAt(), "Upload time should come from S3");
+    }
+
+    // Find W2 Image when none has been uploaded:
+    @Test
+    void testFindW2ImageNotUploaded() {
+
+        //Define stubbing:
+        when(w2Repository.findById(1)).thenReturn(Optional.of(returnedW2));
+
+        //Call the method to test:
+        assertThrows(NotFoundException.class, () -> w2Service.findImage(1, 1));
+        verifyNoInteractions(imageStorage, w2ImageRepository);
+    }
+
+    // Download W2 Image Success:
+    @Test
+    @SneakyThrows
+    void testDownloadW2ImageSuccess() {
+
+        //Define stubbing:
+        when(imageStorage.getObject("w2s/1/1.png", null)).thenReturn(s3Object(new byte[]{1, 2, 3},
+                GetObjectResponse.builder().contentType("image/png").contentLength(3L).build()));
+
+        //Call the method to test:
+        W2ImageDto result = w2Service.downloadImage(new W2ImageDto(w2Image("w2s/1/1.png", "image/png")), null).join();
+
+        //Verify the result:
+        verify(imageStorage).getObject("w2s/1/1.png", null);
+        assertArrayEquals(new byte[]{1,2,3}, result.getContent().readAllBytes(), "Should return byte array {1,2,3}");
+        assertEquals("image/png", result.getContentType(), "Content type should come from the stored metadata");
+        assertEquals(Long.valueOf(3), result.getContentLength(), "Content length should come from S3");
+        assertFalse(result.isPartial(), "Whole image should not be partial");
+    }
+
+    // Download W2 Image with a single byte range:
+    @Test
+    void testDownloadW2ImageRange() {
+
+        //Define stubbing:
+        when(imageStorage.getObject("w2s/1/1.png", "bytes=1-2")).thenReturn(s3Object(new byte[]{2, 3},
+                GetObjectResponse.builder().contentType("image/png").contentLength(2L).contentRange("bytes 1-2/3").build()));
+
+        //Call the method to test:
+        W2ImageDto result = w2Service.downloadImage(new W2ImageDto(w2Image("w2s/1/1.png", "image/png")), "bytes=1-2").join();
+
+        //Verify the result:
+        assertTrue(result.isPartial(), "Ranged download should be partial");
+        assertEquals("bytes 1-2/3", result.getContentRange(), "Content range should come from S3");
+        assertEquals(Long.valueOf(2), result.getContentLength(), "Content length should be the length of the range");
+    }
+
+    // Download W2 Image with multiple or malformed ranges falls back to the whole image:
+    @Test
+    void testDownloadW2ImageUnsupportedRange() {
+
+        //Define stubbing:
+        when(imageStorage.getObject("w2s/1/1.png", null)).thenReturn(s3Object(new byte[]{1, 2, 3},
+                GetObjectResponse.builder().contentType("image/png").contentLength(3L).build()));
+
+        //Call the method to test:
+        w2Service.downloadImage(new W2ImageDto(w2Image("w2s/1/1.png", "image/png")), "bytes=0-0,2-2").join();
+        w2Service.downloadImage(new W2ImageDto(w2Image("w2s/1/1.png", "image/png")), "pages=1").join();
+
+        //Verify the result:
+        verify(imageStorage, times(2)).getObject("w2s/1/1.png", null);
+    }
+
+    // Download W2 Image from the local image cache:
+    @Test
+    @SneakyThrows
+    void testDownloadW2ImageCached() {
+        ImageCache imageCache = mock(ImageCache.class);
+        ImageCache.CachedImage cached = mock(ImageCache.CachedImage.class);
+        w2Service = new W2Service(w2Repository, taxReturnRepository, w2ImageRepository, imageStorage, imageCache, environment, DataSize.ofMegabytes(20));
+
+        //Define stubbing:
+        when(imageCache.get("w2s/1/1.png")).thenReturn(cached);
+        when(cached.size()).thenReturn(3L);
+        when(cached.open(0, 3)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
 
         //Call the method to test:
-        Resource result = w2Service.downloadImage(1, 1);
+        W2ImageDto result = w2Service.downloadImage(new W2ImageDto(w2Image("w2s/1/1.png", "image/png")), null).join();
 
         //Verify the result:
-        verify(s3Service).getObject("w2s/1/1.png");
-        assertArrayEquals(new byte[]{1,2,3}, result.getContentAsByteArray(), "Should return byte array {1,2,3}");
+        verifyNoInteractions(imageStorage);
+        assertArrayEquals(new byte[]{1,2,3}, result.getContent().readAllBytes(), "Should return byte array {1,2,3}");
+        assertEquals(Long.valueOf(3), result.getContentLength(), "Content length should be the cached size");
+        assertFalse(result.isPartial(), "Whole image should not be partial");
+    }
+
+    // Download W2 Image range from the local image cache:
+    @Test
+    void testDownloadW2ImageRangeCached() {
+        ImageCache imageCache = mock(ImageCache.class);
+        ImageCache.CachedImage cached = mock(ImageCache.CachedImage.class);
+        w2Service = new W2Service(w2Repository, taxReturnRepository, w2ImageRepository, imageStorage, imageCache, environment, DataSize.ofMegabytes(20));
+
+        //Define stubbing:
+        when(imageCache.get("w2s/1/1.png")).thenReturn(cached);
+        when(cached.size()).thenReturn(3L);
+        when(cached.open(1, 2)).thenReturn(new ByteArrayInputStream(new byte[]{2, 3}));
+
+        //Call the method to test:
+        W2ImageDto result = w2Service.downloadImage(new W2ImageDto(w2Image("w2s/1/1.png", "image/png")), "bytes=1-").join();
+
+        //Verify the result:
+        verifyNoInteractions(imageStorage);
+        assertEquals("bytes 1-2/3", result.getContentRange(), "Content range should be worked out from the cached size");
+        assertEquals(Long.valueOf(2), result.getContentLength(), "Content length should be the length of the range");
+    }
+
+    // Download W2 Image range past the end of the cached image goes to S3 for its 416:
+    @Test
+    void testDownloadW2ImageUnsatisfiableRangeCached() {
+        ImageCache imageCache = mock(ImageCache.class);
+        ImageCache.CachedImage cached = mock(ImageCache.CachedImage.class);
+        w2Service = new W2Service(w2Repository, taxReturnRepository, w2ImageRepository, imageStorage, imageCache, environment, DataSize.ofMegabytes(20));
+
+        //Define stubbing:
+        when(imageCache.get("w2s/1/1.png")).thenReturn(cached);
+        when(cached.size()).thenReturn(3L);
+        when(imageStorage.getObject("w2s/1/1.png", "bytes=5-"))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(416).build()));
+
+        //Call the method to test:
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> w2Service.downloadImage(new W2ImageDto(w2Image("w2s/1/1.png", "image/png")), "bytes=5-").join());
+        assertInstanceOf(S3Exception.class, thrown.getCause(), "S3's 416 should be passed on");
+        verify(cached).close();
+    }
+
+    @SneakyThrows
+    private static String contentMd5(byte[] image) {
+        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(image));
+    }
+
+    private static W2Image w2Image(String imageKey, String contentType) {
+        W2Image image = new W2Image();
+        image.setImageKey(imageKey);
+        image.setContentType(contentType);
+        image.setContentLength(3);
+        image.setETag("\"etag\"");
+        image.setUploadedAt(Instant.EPOCH);
+        return image;
+    }
+
+    private static CompletableFuture<ResponseInputStream<GetObjectResponse>> s3Object(byte[] bytes, GetObjectResponse response) {
+        return CompletableFuture.completedFuture(
+                new ResponseInputStream<>(response, AbortableInputStream.create(new ByteArrayInputStream(bytes))));
     }
 }
@@ -0,0 +1,84 @@
+package com.skillstorm.taxservice.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class DatabaseCallMetricsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatementCounter statementCounter;
+    private DatabaseCallMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statementCounter = new StatementCounter(meterRegistry);
+        filter = new DatabaseCallMetricsFilter(statementCounter, meterRegistry);
+    }
+
+    @Test
+    void doFilter_RecordsStatementsPerRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/taxreturns/1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet(3)));
+
+        DistributionSummary summary = meterRegistry.get("taxes.request.db.statements")
+                .tag("method", "GET").tag("uri", "/taxreturns/{id}").summary();
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+        assertEquals(3, meterRegistry.get("taxes.db.statements").counter().count());
+    }
+
+    @Test
+    void doFilter_RecordsWhenRequestFails() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/taxreturns");
+        MockFilterChain failingChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                statementCounter.inspect("select 1");
+                throw new IllegalStateException("failed");
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request, new MockHttpServletResponse(), failingChain));
+
+        assertEquals(1, meterRegistry.get("taxes.request.db.statements").tag("uri", "UNKNOWN").summary().totalAmount());
+    }
+
+    @Test
+    void inspect_OutsideRequest_OnlyCountsTotal() {
+        statementCounter.inspect("select 1");
+
+        assertEquals(0, statementCounter.stop());
+        assertEquals(1, meterRegistry.get("taxes.db.statements").counter().count());
+    }
+
+    // A servlet that runs the given number of statements for an endpoint mapped to /taxreturns/{id}:
+    private HttpServlet servlet(int statements) {
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/taxreturns/{id}");
+                for (int i = 0; i < statements; i++) {
+                    statementCounter.inspect("select 1");
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.skillstorm.taxservice.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.skillstorm.taxservice.exceptions.ImageTooLargeException;
+
+class DigestingInputStreamTest {
+
+    @Test
+    void nameUUID_MatchesNameUUIDFromBytes() throws IOException {
+        byte[] image = new byte[100_000];
+        new Random(1).nextBytes(image);
+        DigestingInputStream stream = new DigestingInputStream(new ByteArrayInputStream(image), image.length, "too large");
+
+        // Mix single-byte, skipped and bulk reads:
+        stream.read();
+        stream.skip(10);
+        stream.readNBytes(1000);
+        stream.readAllBytes();
+
+        assertEquals(UUID.nameUUIDFromBytes(image), stream.nameUUID());
+        assertEquals(image.length, stream.getBytesRead());
+    }
+
+    @Test
+    void nameUUID_FromDigest_MatchesNameUUIDFromBytes() throws NoSuchAlgorithmException {
+        byte[] image = new byte[1000];
+        new Random(2).nextBytes(image);
+        byte[] digest = MessageDigest.getInstance("MD5").digest(image);
+
+        assertEquals(UUID.nameUUIDFromBytes(image), DigestingInputStream.nameUUID(digest));
+    }
+
+    @Test
+    void read_PastMaxBytes_Throws() {
+        DigestingInputStream stream = new DigestingInputStream(new ByteArrayInputStream(new byte[11]), 10, "Image must not be larger than");
+
+        ImageTooLargeException e = assertThrows(ImageTooLargeException.class, stream::readAllBytes);
+        assertEquals("Image must not be larger than 10 bytes", e.getMessage());
+    }
+
+    @Test
+    void read_AtMaxBytes_DoesNotThrow() throws IOException {
+        DigestingInputStream stream = new DigestingInputStream(new ByteArrayInputStream(new byte[10]), 10, "too large");
+
+        assertEquals(10, stream.readAllBytes().length);
+    }
+}
@@ -0,0 +1,105 @@
+package com.skillstorm.taxservice.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.skillstorm.taxservice.services.ImageCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DiskImageCacheTest {
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DiskImageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DiskImageCache(directory, 10, meterRegistry);
+    }
+
+    @Test
+    void readThrough_FullyRead_IsCached() throws IOException {
+        download("w2s/1/1.png", new byte[] {1, 2, 3});
+
+        try (ImageCache.CachedImage cached = cache.get("w2s/1/1.png")) {
+            assertEquals(3, cached.size());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream content = cached.open(1, 2)) {
+                content.transferTo(out);
+            }
+            assertArrayEquals(new byte[] {2, 3}, out.toByteArray());
+        }
+        assertEquals(3, cache.getCurrentBytes());
+        assertEquals(1, meterRegistry.get("w2.image.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get("w2.image.cache.bytes.saved").counter().count());
+    }
+
+    @Test
+    void readThrough_ClosedPartWayThrough_IsNotCached() throws IOException {
+        try (InputStream content = cache.readThrough("w2s/1/1.png", new ByteArrayInputStream(new byte[] {1, 2, 3}), 3)) {
+            content.read();
+        }
+
+        assertNull(cache.get("w2s/1/1.png"));
+        assertEquals(0, cache.getCurrentBytes());
+        assertEquals(1, meterRegistry.get("w2.image.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void readThrough_LargerThanCache_PassesThrough() {
+        InputStream content = new ByteArrayInputStream(new byte[11]);
+
+        assertSame(content, cache.readThrough("w2s/1/1.png", content, 11));
+    }
+
+    @Test
+    void readThrough_OverMaxSize_EvictsLeastRecentlyUsed() throws IOException {
+        download("first", new byte[4]);
+        download("second", new byte[4]);
+        // Use the first, so the second is now the least recently used:
+        cache.get("first").close();
+        download("third", new byte[4]);
+
+        assertTrue(cache.contains("first"));
+        assertFalse(cache.contains("second"));
+        assertTrue(cache.contains("third"));
+        assertEquals(8, cache.getCurrentBytes());
+    }
+
+    @Test
+    void get_OpenWhileEvicted_StillReadable() throws IOException {
+        download("first", new byte[] {1, 2, 3, 4, 5, 6});
+        ImageCache.CachedImage cached = cache.get("first");
+        download("second", new byte[] {7, 8, 9, 10, 11, 12});
+
+        assertFalse(cache.contains("first"));
+        try (InputStream content = cached.open(0, cached.size())) {
+            assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6}, content.readAllBytes());
+        }
+    }
+
+    private void download(String imageKey, byte[] image) throws IOException {
+        try (InputStream content = cache.readThrough(imageKey, new ByteArrayInputStream(image), image.length)) {
+            content.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
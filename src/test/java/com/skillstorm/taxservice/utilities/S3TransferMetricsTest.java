@@ -0,0 +1,64 @@
+package com.skillstorm.taxservice.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+@ExtendWith(MockitoExtension.class)
+class S3TransferMetricsTest {
+
+    @Mock
+    private Context.BeforeTransmission beforeTransmission;
+
+    @Mock
+    private Context.AfterExecution afterExecution;
+
+    private SimpleMeterRegistry meterRegistry;
+    private S3TransferMetrics s3TransferMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        s3TransferMetrics = new S3TransferMetrics(meterRegistry);
+    }
+
+    @Test
+    void beforeTransmission_CountsSyncAndAsyncBodies() {
+        when(beforeTransmission.requestBody()).thenReturn(Optional.of(RequestBody.fromBytes(new byte[100])));
+        when(beforeTransmission.asyncRequestBody()).thenReturn(Optional.empty());
+        s3TransferMetrics.beforeTransmission(beforeTransmission, new ExecutionAttributes());
+
+        when(beforeTransmission.requestBody()).thenReturn(Optional.empty());
+        when(beforeTransmission.asyncRequestBody()).thenReturn(Optional.of(AsyncRequestBody.fromBytes(new byte[50])));
+        s3TransferMetrics.beforeTransmission(beforeTransmission, new ExecutionAttributes());
+
+        assertEquals(150, meterRegistry.get("taxes.s3.bytes").tag("direction", "out").counter().count());
+    }
+
+    @Test
+    void afterExecution_CountsDownloadsOnly() {
+        when(afterExecution.response()).thenReturn(GetObjectResponse.builder().contentLength(2048L).build());
+        s3TransferMetrics.afterExecution(afterExecution, new ExecutionAttributes());
+
+        when(afterExecution.response()).thenReturn(PutObjectResponse.builder().build());
+        s3TransferMetrics.afterExecution(afterExecution, new ExecutionAttributes());
+
+        assertEquals(2048, meterRegistry.get("taxes.s3.bytes").tag("direction", "in").counter().count());
+        assertEquals(0, meterRegistry.get("taxes.s3.bytes").tag("direction", "out").counter().count());
+    }
+}
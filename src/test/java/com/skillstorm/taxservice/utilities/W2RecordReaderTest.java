@@ -0,0 +1,121 @@
+package com.skillstorm.taxservice.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillstorm.taxservice.constants.State;
+
+class W2RecordReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private W2RecordReader reader(String content, W2RecordReader.Format format) throws IOException {
+        return new W2RecordReader(new StringReader(content), format, objectMapper);
+    }
+
+    @Test
+    void next_Ndjson_ReadsEachLineWithItsNumber() throws IOException {
+        W2RecordReader reader = reader("{\"taxReturnId\":1,\"year\":2023,\"employer\":\"Acme\",\"state\":\"NY\",\"wages\":100.50}\r\n"
+                + "\n"
+                + "{\"taxReturnId\":2,\"year\":2022,\"employer\":\"Initech\",\"state\":\"CA\"}", W2RecordReader.Format.NDJSON);
+
+        W2RecordReader.Record first = reader.next();
+        assertEquals(1, first.getLine());
+        assertNull(first.getError());
+        assertEquals(1, first.getW2().getTaxReturnId());
+        assertEquals(State.NY, first.getW2().getState());
+        assertEquals(new BigDecimal("100.50"), first.getW2().getWages());
+
+        W2RecordReader.Record second = reader.next();
+        assertEquals(3, second.getLine());
+        assertEquals("Initech", second.getW2().getEmployer());
+        assertEquals(BigDecimal.ZERO.setScale(2), second.getW2().getWages());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_NdjsonBadLine_ReturnsErrorAndContinues() throws IOException {
+        W2RecordReader reader = reader("{\"taxReturnId\":\n"
+                + "null\n"
+                + "{\"taxReturnId\":1}\n", W2RecordReader.Format.NDJSON);
+
+        assertNotNull(reader.next().getError());
+        assertEquals("Line must be a W2 object", reader.next().getError());
+        W2RecordReader.Record last = reader.next();
+        assertEquals(3, last.getLine());
+        assertEquals(1, last.getW2().getTaxReturnId());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_LineTooLong_ReturnsErrorAndReadsNextLine() throws IOException {
+        W2RecordReader reader = reader("x".repeat(W2RecordReader.MAX_LINE_LENGTH + 1) + "\n{\"year\":2023}\n",
+                W2RecordReader.Format.NDJSON);
+
+        W2RecordReader.Record tooLong = reader.next();
+        assertEquals(1, tooLong.getLine());
+        assertTrue(tooLong.getError().contains("longer than"));
+        assertEquals(2023, reader.next().getW2().getYear());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_Csv_ReadsColumnsNamedByHeader() throws IOException {
+        W2RecordReader reader = reader("\uFEFFtaxReturnId, employer ,state,wages\n"
+                + "1,\"Acme, \"\"Inc.\"\"\",NY,85000.00\n"
+                + "2,Initech,CA,\n", W2RecordReader.Format.CSV);
+
+        W2RecordReader.Record first = reader.next();
+        assertEquals(2, first.getLine());
+        assertEquals("Acme, \"Inc.\"", first.getW2().getEmployer());
+        assertEquals(new BigDecimal("85000.00"), first.getW2().getWages());
+
+        W2RecordReader.Record second = reader.next();
+        assertEquals(State.CA, second.getW2().getState());
+        assertEquals(BigDecimal.ZERO.setScale(2), second.getW2().getWages());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_CsvBadLines_ReturnsErrors() throws IOException {
+        W2RecordReader reader = reader("taxReturnId,wages\n"
+                + "1\n"
+                + "1,\"100\n"
+                + "one,100\n", W2RecordReader.Format.CSV);
+
+        assertTrue(reader.next().getError().contains("values"));
+        assertTrue(reader.next().getError().contains("unterminated"));
+        W2RecordReader.Record notANumber = reader.next();
+        assertEquals(4, notANumber.getLine());
+        assertNotNull(notANumber.getError());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void constructor_CsvUnknownColumn_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> reader("taxReturnId,userId\n1,2\n", W2RecordReader.Format.CSV));
+    }
+
+    @Test
+    void constructor_CsvWithoutHeader_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> reader("\n\n", W2RecordReader.Format.CSV));
+    }
+
+    @Test
+    void splitCsv_QuotedValues_AreUnquoted() {
+        assertEquals(List.of("a", "b,c", "", "d\"e"), W2RecordReader.splitCsv("a,\"b,c\",,\"d\"\"e\""));
+        assertNull(W2RecordReader.splitCsv("a,\"b"));
+    }
+}